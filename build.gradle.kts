@@ -35,6 +35,10 @@ dependencies {
     implementation("org.springframework.boot:spring-boot-starter-validation")
     implementation("org.springframework.boot:spring-boot-starter-mail")
     implementation("org.springframework.boot:spring-boot-starter-security")
+    implementation("org.springframework.boot:spring-boot-starter-actuator")
+
+    // Sesiones HTTP en Redis (opcional, mediadaw.session.redis)
+    implementation("org.springframework.session:spring-session-core")
 
     // Lombok
     compileOnly("org.projectlombok:lombok")
@@ -58,10 +62,26 @@ tasks.withType<Test> {
 }
 
 tasks.test {
-    useJUnitPlatform()
+    useJUnitPlatform {
+        excludeTags("load") // Las pruebas de carga se lanzan aparte con ./gradlew loadTest
+    }
     finalizedBy(tasks.jacocoTestReport) // Genera el reporte automáticamente después de los tests
 }
 
+tasks.register<Test>("loadTest") {
+    description = "Ejecuta las pruebas de carga (etiqueta 'load')"
+    group = "verification"
+    testClassesDirs = sourceSets["test"].output.classesDirs
+    classpath = sourceSets["test"].runtimeClasspath
+    useJUnitPlatform {
+        includeTags("load")
+    }
+    maxHeapSize = "256m" // La exportación de un millón de pedidos tiene que caber con memoria constante
+    testLogging {
+        showStandardStreams = true
+    }
+}
+
 tasks.jacocoTestReport {
     dependsOn(tasks.test) // Los tests deben ejecutarse antes del reporte
     reports {
@@ -0,0 +1,43 @@
+package srangeldev.mediadaw.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Avatares de usuario (prefijo mediadaw.avatars).
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "mediadaw.avatars")
+public class AvatarProperties {
+
+    /** Directorio donde se guardan las imágenes redimensionadas (un subdirectorio por tamaño) */
+    private Path storageDir = Path.of("data", "avatars");
+
+    /** Lados en píxeles de las versiones cuadradas que se generan; solo se sirven estas */
+    private List<Integer> sizes = List.of(64, 256);
+
+    /** Tamaño máximo del fichero subido */
+    private DataSize maxFileSize = DataSize.ofMegabytes(5);
+
+    /** Ancho y alto máximos de la imagen subida (se comprueban antes de decodificarla) */
+    private int maxDimension = 6000;
+
+    /** Calidad de los JPEG generados (0-1) */
+    private float jpegQuality = 0.85f;
+
+    /** Hilos dedicados a redimensionar (trabajo de CPU) */
+    private int threads = 2;
+
+    /** Imágenes esperando hilo como mucho; con la cola llena la subida se rechaza al momento */
+    private int queueCapacity = 16;
+
+    /** Tiempo máximo de espera de una imagen (cola + proceso) */
+    private Duration maxWait = Duration.ofSeconds(10);
+}
@@ -0,0 +1,22 @@
+package srangeldev.mediadaw.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuración del ranking de productos más vendidos (prefijo mediadaw.best-sellers).
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "mediadaw.best-sellers")
+public class BestSellerProperties {
+
+    /** Periodo de ventas que cuenta para el ranking (hasta ahora) */
+    private Duration window = Duration.ofDays(7);
+
+    /** Productos que se guardan por categoría y en el ranking general */
+    private int topK = 8;
+}
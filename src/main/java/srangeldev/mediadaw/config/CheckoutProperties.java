@@ -0,0 +1,62 @@
+package srangeldev.mediadaw.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuración del proceso de compra (prefijo mediadaw.checkout).
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "mediadaw.checkout")
+public class CheckoutProperties {
+
+    private Batching batching = new Batching();
+
+    private Admission admission = new Admission();
+
+    /**
+     * Agrupación de descuentos de stock por producto (group commit).
+     * Desactivada por defecto: cada compra descuenta su stock en su propia transacción.
+     */
+    @Data
+    public static class Batching {
+
+        /** Activa el coordinador de descuentos agrupados */
+        private boolean enabled = false;
+
+        /** Tiempo que espera un lote a que lleguen más peticiones del mismo producto */
+        private Duration window = Duration.ofMillis(5);
+
+        /** Máximo de peticiones aplicadas en un mismo UPDATE */
+        private int maxBatchSize = 64;
+
+        /** Máximo de peticiones pendientes entre todos los productos; por encima se rechaza */
+        private int queueCapacity = 2000;
+
+        /** Tiempo máximo que una compra espera el resultado de su reserva */
+        private Duration timeout = Duration.ofSeconds(5);
+    }
+
+    /**
+     * Control de admisión (sala de espera) delante de POST /carrito/checkout.
+     */
+    @Data
+    public static class Admission {
+
+        /** Compras que se procesan a la vez; el resto espera en la cola */
+        private int maxConcurrent = 8;
+
+        /** Tamaño máximo de la cola de espera; por encima se rechaza */
+        private int queueCapacity = 500;
+
+        /** Tiempo que la petición espera el resultado antes de mandar al usuario a la sala de espera */
+        private Duration fastPathWait = Duration.ofSeconds(2);
+
+        /** Tiempo que se conserva el resultado de una compra terminada para consultarlo */
+        private Duration ticketTtl = Duration.ofMinutes(5);
+    }
+}
@@ -0,0 +1,44 @@
+package srangeldev.mediadaw.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import srangeldev.mediadaw.security.InMemoryUserSessionRegistry;
+import srangeldev.mediadaw.security.UserDetailsCache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Coordinación entre instancias por Redis. Solo se activa con mediadaw.cluster.enabled=true;
+ * con una sola instancia la aplicación no abre ninguna conexión a Redis.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "mediadaw.cluster", name = "enabled", havingValue = "true")
+public class ClusterConfig {
+
+    /**
+     * Suscripciones pub/sub: los cambios de cuenta que confirma otra instancia borran el usuario de la caché local
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                       UserDetailsCache userDetailsCache,
+                                                                       ObjectProvider<InMemoryUserSessionRegistry> sessionRegistry) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+                (message, pattern) -> userDetailsCache.evictLocal(
+                        List.of(new String(message.getBody(), StandardCharsets.UTF_8).split("\n"))),
+                new ChannelTopic(UserDetailsCache.EVICTION_CHANNEL));
+        // Sesiones en memoria de cada instancia (sin mediadaw.session.redis): cada una cierra las suyas
+        sessionRegistry.ifAvailable(registry -> container.addMessageListener(
+                (message, pattern) -> registry.revokeLocal(
+                        List.of(new String(message.getBody(), StandardCharsets.UTF_8).split("\n"))),
+                new ChannelTopic(InMemoryUserSessionRegistry.REVOCATION_CHANNEL)));
+        return container;
+    }
+}
@@ -0,0 +1,18 @@
+package srangeldev.mediadaw.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Despliegue con varias instancias (prefijo mediadaw.cluster).
+ * Con enabled=true las instancias se coordinan a través de Redis (spring.data.redis.*).
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "mediadaw.cluster")
+public class ClusterProperties {
+
+    /** Si hay varias instancias de la aplicación detrás del balanceador */
+    private boolean enabled = false;
+}
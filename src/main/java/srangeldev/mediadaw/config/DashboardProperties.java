@@ -0,0 +1,22 @@
+package srangeldev.mediadaw.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuración del panel de administración (prefijo mediadaw.dashboard).
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "mediadaw.dashboard")
+public class DashboardProperties {
+
+    /** Tiempo máximo de cada métrica; si se supera, el panel se muestra sin ella */
+    private Duration metricTimeout = Duration.ofSeconds(2);
+
+    /** Tiempo durante el que se reutiliza el mismo panel para todos los administradores */
+    private Duration snapshotTtl = Duration.ofSeconds(5);
+}
@@ -0,0 +1,21 @@
+package srangeldev.mediadaw.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Filtro de Bloom de emails registrados para la comprobación de email disponible del registro
+ * (prefijo mediadaw.registration.email-filter).
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "mediadaw.registration.email-filter")
+public class EmailFilterProperties {
+
+    /** Probabilidad de que un email libre parezca registrado (y haya que preguntar a la BD) */
+    private double falsePositiveRate = 0.01;
+
+    /** Emails que caben como mínimo; se dimensiona para el doble de los usuarios que hay al reconstruirlo */
+    private int minCapacity = 10_000;
+}
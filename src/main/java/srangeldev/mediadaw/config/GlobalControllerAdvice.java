@@ -3,11 +3,15 @@ package srangeldev.mediadaw.config;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.csrf.CsrfToken;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ModelAttribute;
+import srangeldev.mediadaw.controllers.AvatarController;
+import srangeldev.mediadaw.controllers.CarritoController;
+import srangeldev.mediadaw.models.Role;
 import srangeldev.mediadaw.models.User;
 import srangeldev.mediadaw.services.CarritoService;
 import srangeldev.mediadaw.services.UserService;
@@ -38,7 +42,11 @@ public class GlobalControllerAdvice {
      * @return Usuario actual o null si no está autenticado
      */
     @ModelAttribute("currentUser")
-    public User getCurrentUser() {
+    public User getCurrentUser(HttpServletRequest request) {
+        if (isLightweightRequest(request)) {
+            return null;
+        }
+
         try {
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
@@ -65,9 +73,9 @@ public class GlobalControllerAdvice {
      * @return Número de items en el carrito (0 si no hay usuario autenticado)
      */
     @ModelAttribute("cartItemCount")
-    public long getCartItemCount() {
+    public long getCartItemCount(HttpServletRequest request) {
         try {
-            User currentUser = getCurrentUser();
+            User currentUser = getCurrentUser(request);
 
             if (currentUser != null) {
                 return carritoService.getCartItemCount(currentUser.getId());
@@ -103,17 +111,45 @@ public class GlobalControllerAdvice {
      * Verifica si el usuario actual tiene rol ADMIN.
      * Útil para mostrar/ocultar elementos en las vistas.
      *
+     * Sale de los permisos de la sesión, sin consultar la BD: al cambiar el rol de un usuario se cierran
+     * sus sesiones (UserSessionRegistry), así que nunca están desfasados.
+     *
      * @return true si el usuario es ADMIN
      */
     @ModelAttribute("isAdmin")
     public boolean isAdmin() {
-        try {
-            User currentUser = getCurrentUser();
-            return currentUser != null && userService.isAdmin(currentUser.getId());
-        } catch (Exception e) {
-            log.debug("No se pudo verificar si el usuario es admin: {}", e.getMessage());
+        return hasRole(Role.ADMIN);
+    }
+
+    /**
+     * Expone si hay un usuario autenticado, sin consultar la BD.
+     *
+     * @return true si hay sesión iniciada
+     */
+    @ModelAttribute("isAuthenticated")
+    public boolean isAuthenticated() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null
+                && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken);
+    }
+
+    private boolean hasRole(Role role) {
+        if (!isAuthenticated()) {
+            return false;
         }
+        String authority = "ROLE_" + role.name();
+        return SecurityContextHolder.getContext().getAuthentication().getAuthorities().stream()
+                .anyMatch(granted -> authority.equals(granted.getAuthority()));
+    }
 
-        return false;
+    /**
+     * Las páginas que se sondean con frecuencia (sala de espera del checkout) no muestran
+     * cabecera ni carrito, así que no merece la pena consultar la BD en cada recarga. Tampoco los avatares,
+     * que no son vistas.
+     */
+    private boolean isLightweightRequest(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return uri.startsWith(CarritoController.CHECKOUT_STATUS_PATH) || uri.startsWith(AvatarController.AVATARS_PATH);
     }
 }
@@ -182,6 +182,21 @@ public class GlobalExceptionHandler {
         return "redirect:/carrito";
     }
 
+    @ExceptionHandler(CheckoutBusyException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public String handleCheckoutBusy(
+            CheckoutBusyException ex,
+            RedirectAttributes redirectAttributes) {
+
+        log.warn("Compra rechazada por saturación: {}", ex.getMessage());
+
+        redirectAttributes.addFlashAttribute("errorType", "warning");
+        redirectAttributes.addFlashAttribute("errorMessage", ex.getUserMessage());
+        redirectAttributes.addFlashAttribute("errorCode", ex.getErrorCode());
+
+        return "redirect:/carrito";
+    }
+
     @ExceptionHandler(PurchaseNotFoundException.class)
     @ResponseStatus(HttpStatus.NOT_FOUND)
     public String handlePurchaseNotFound(
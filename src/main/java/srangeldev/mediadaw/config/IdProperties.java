@@ -0,0 +1,29 @@
+package srangeldev.mediadaw.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import srangeldev.mediadaw.models.SnowflakeIdGenerator;
+
+/**
+ * Configuración de los IDs generados por la aplicación (prefijo mediadaw.ids).
+ */
+@Slf4j
+@Data
+@Component
+@ConfigurationProperties(prefix = "mediadaw.ids")
+public class IdProperties {
+
+    /**
+     * Nodo de esta instancia (0-1023). Cada instancia que escriba en la misma BD necesita uno distinto.
+     */
+    private long nodeId = 0;
+
+    @PostConstruct
+    void configureGenerator() {
+        SnowflakeIdGenerator.configureShared(nodeId);
+        log.info("Generador de IDs configurado para el nodo {}", nodeId);
+    }
+}
@@ -0,0 +1,35 @@
+package srangeldev.mediadaw.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Cifrado de contraseñas con BCrypt (prefijo mediadaw.security.password).
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "mediadaw.security.password")
+public class PasswordHashingProperties {
+
+    /** Coste de BCrypt fijo (4-31). 0 = calibrarlo al arrancar según targetVerifyTime */
+    private int strength = 0;
+
+    /** Tiempo objetivo de una verificación; se usa el mayor coste que no lo supera */
+    private Duration targetVerifyTime = Duration.ofMillis(100);
+
+    /** Coste mínimo y máximo que puede salir de la calibración */
+    private int minStrength = 10;
+    private int maxStrength = 14;
+
+    /** Hilos dedicados a BCrypt. 0 = uno por CPU */
+    private int threads = 0;
+
+    /** Operaciones esperando hilo como mucho; con la cola llena se rechaza al momento */
+    private int queueCapacity = 64;
+
+    /** Tiempo máximo de espera de una operación (cola + cálculo) */
+    private Duration maxWait = Duration.ofSeconds(5);
+}
@@ -0,0 +1,32 @@
+package srangeldev.mediadaw.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Exportación de datos personales de un usuario (prefijo mediadaw.personal-data).
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "mediadaw.personal-data")
+public class PersonalDataExportProperties {
+
+    /** Con más pedidos que estos la exportación se prepara en segundo plano en lugar de descargarse al momento */
+    private long asyncThresholdOrders = 1000;
+
+    /** Directorio de los ficheros de las exportaciones en segundo plano */
+    private Path storageDir = Path.of("data", "exports");
+
+    /** Exportaciones en segundo plano a la vez (cada una ocupa una conexión a la BD mientras dura) */
+    private int threads = 1;
+
+    /** Exportaciones esperando hilo como mucho; con la cola llena se rechazan */
+    private int queueCapacity = 20;
+
+    /** Tiempo durante el que se puede descargar una exportación terminada */
+    private Duration ttl = Duration.ofHours(24);
+}
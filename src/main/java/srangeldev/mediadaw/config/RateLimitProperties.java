@@ -0,0 +1,58 @@
+package srangeldev.mediadaw.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Límite de intentos de login y de registro (prefijo mediadaw.security.rate-limit).
+ * Cada límite es un token bucket: admite ráfagas de capacity intentos y se rellena entero en refillPeriod.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "mediadaw.security.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /** Intentos de login desde una misma IP */
+    private Bucket loginPerIp = new Bucket(20, Duration.ofMinutes(1));
+
+    /** Intentos de login contra una misma cuenta */
+    private Bucket loginPerEmail = new Bucket(5, Duration.ofMinutes(1));
+
+    /** Registros desde una misma IP */
+    private Bucket registerPerIp = new Bucket(5, Duration.ofMinutes(10));
+
+    /** Registros con un mismo email */
+    private Bucket registerPerEmail = new Bucket(3, Duration.ofMinutes(10));
+
+    /** Comprobaciones de email disponible desde una misma IP (se lanzan mientras se escribe el email) */
+    private Bucket emailProbePerIp = new Bucket(30, Duration.ofMinutes(1));
+
+    /** Claves guardadas como mucho en memoria (sin Redis); al superarlo se purgan los buckets llenos antes de tiempo */
+    private int maxKeys = 100_000;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Bucket {
+
+        /** Intentos seguidos como mucho */
+        private int capacity;
+
+        /** Tiempo en el que un bucket vacío se vuelve a llenar */
+        private Duration refillPeriod;
+
+        /**
+         * Tokens que se recuperan por milisegundo
+         */
+        public double refillPerMilli() {
+            return (double) capacity / refillPeriod.toMillis();
+        }
+    }
+}
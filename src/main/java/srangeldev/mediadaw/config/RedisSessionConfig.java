@@ -0,0 +1,40 @@
+package srangeldev.mediadaw.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.session.config.annotation.web.http.EnableSpringHttpSession;
+import org.springframework.session.web.http.CookieSerializer;
+import org.springframework.session.web.http.DefaultCookieSerializer;
+import srangeldev.mediadaw.security.LazyRedisSessionRepository;
+import srangeldev.mediadaw.security.SessionAttributeCodec;
+
+/**
+ * Sesiones HTTP en Redis en lugar de en la memoria de Tomcat. Solo con mediadaw.session.redis=true:
+ * el balanceador ya no necesita sesiones pegajosas y reiniciar una instancia no cierra la sesión a nadie.
+ */
+@Configuration
+@EnableSpringHttpSession
+@ConditionalOnProperty(prefix = "mediadaw.session", name = "redis", havingValue = "true")
+public class RedisSessionConfig {
+
+    @Bean
+    public LazyRedisSessionRepository sessionRepository(RedisConnectionFactory connectionFactory,
+                                                        SessionProperties properties) {
+        return new LazyRedisSessionRepository(connectionFactory,
+                new SessionAttributeCodec(RedisSessionConfig.class.getClassLoader()),
+                properties.getKeyPrefix(), properties.getTimeout());
+    }
+
+    /**
+     * Misma cookie que con las sesiones de Tomcat (el logout borra JSESSIONID)
+     */
+    @Bean
+    public CookieSerializer cookieSerializer() {
+        DefaultCookieSerializer serializer = new DefaultCookieSerializer();
+        serializer.setCookieName("JSESSIONID");
+        serializer.setUseBase64Encoding(false);
+        return serializer;
+    }
+}
@@ -0,0 +1,27 @@
+package srangeldev.mediadaw.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Sesiones HTTP (prefijo mediadaw.session).
+ * Con redis=true las sesiones se guardan en Redis y cualquier instancia atiende cualquier petición;
+ * si no, quedan en la memoria de Tomcat.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "mediadaw.session")
+public class SessionProperties {
+
+    /** Guardar las sesiones en Redis (spring.data.redis.*) */
+    private boolean redis = false;
+
+    /** Inactividad tras la que caduca la sesión */
+    private Duration timeout = Duration.ofMinutes(30);
+
+    /** Prefijo de las claves de Redis: una clave hash por sesión */
+    private String keyPrefix = "mediadaw:session:";
+}
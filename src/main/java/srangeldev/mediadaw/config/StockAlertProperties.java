@@ -0,0 +1,47 @@
+package srangeldev.mediadaw.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import srangeldev.mediadaw.models.Categoria;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Configuración de los avisos de poco stock (prefijo mediadaw.stock-alerts).
+ * El umbral de un producto es el suyo propio si lo tiene, si no el de su categoría y si no el general.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "mediadaw.stock-alerts")
+public class StockAlertProperties {
+
+    /** Umbral general: hay aviso cuando el stock es menor que él */
+    private int defaultThreshold = 10;
+
+    /** Umbral por categoría (sustituye al general) */
+    private Map<Categoria, Integer> categoryThresholds = new EnumMap<>(Categoria.class);
+
+    /** Si se envía un email a los administradores cuando un producto baja de su umbral */
+    private boolean mailEnabled = true;
+
+    /** Remitente de los emails de aviso */
+    private String mailFrom = "no-reply@mediadaw.com";
+
+    /**
+     * Umbral de una categoría
+     */
+    public int thresholdFor(Categoria categoria) {
+        return categoryThresholds.getOrDefault(categoria, defaultThreshold);
+    }
+
+    /**
+     * Mayor umbral por categoría o general (cota para buscar candidatos en la BD)
+     */
+    public int maxCategoryThreshold() {
+        return categoryThresholds.values().stream()
+                .mapToInt(Integer::intValue)
+                .reduce(defaultThreshold, Math::max);
+    }
+}
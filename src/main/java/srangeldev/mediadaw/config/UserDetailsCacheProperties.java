@@ -0,0 +1,22 @@
+package srangeldev.mediadaw.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Caché de usuarios para el login (prefijo mediadaw.security.user-cache).
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "mediadaw.security.user-cache")
+public class UserDetailsCacheProperties {
+
+    /** Usuarios en caché como mucho; al llenarse sale el usado hace más tiempo */
+    private int maxSize = 10_000;
+
+    /** Tiempo máximo que un usuario sigue en caché desde que se leyó de la BD */
+    private Duration ttl = Duration.ofMinutes(10);
+}
@@ -1,16 +1,54 @@
 package srangeldev.mediadaw.controllers;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import srangeldev.mediadaw.dto.AdminOrderPage;
+import srangeldev.mediadaw.dto.AdminOrderQuery;
+import srangeldev.mediadaw.dto.AdminProductQuery;
+import srangeldev.mediadaw.dto.AdminProductRow;
+import srangeldev.mediadaw.dto.AdminUserQuery;
+import srangeldev.mediadaw.dto.AdminUserRow;
+import srangeldev.mediadaw.dto.BulkStatusRequest;
+import srangeldev.mediadaw.dto.BulkStatusResult;
+import srangeldev.mediadaw.dto.CatalogImportResult;
+import srangeldev.mediadaw.dto.ExportFormat;
+import srangeldev.mediadaw.dto.StockBand;
+import srangeldev.mediadaw.exceptions.DuplicateSkuException;
+import srangeldev.mediadaw.exceptions.UserNotFoundException;
 import srangeldev.mediadaw.models.Productos;
 import srangeldev.mediadaw.models.Categoria;
 import srangeldev.mediadaw.models.EstadoPedido;
+import srangeldev.mediadaw.models.Role;
+import srangeldev.mediadaw.models.User;
+import srangeldev.mediadaw.services.CatalogImportService;
 import srangeldev.mediadaw.services.ProductosService;
+import srangeldev.mediadaw.services.DashboardService;
+import srangeldev.mediadaw.services.ExportService;
+import srangeldev.mediadaw.services.PersonalDataExportService;
+import srangeldev.mediadaw.services.UserService;
 import srangeldev.mediadaw.services.VentaService;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.Principal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
 /**
  * Controlador del panel de administración (solo ADMIN).
  * Permite gestionar productos, stock y pedidos.
@@ -23,26 +61,34 @@ public class AdminController {
 
     private final ProductosService productosService;
     private final VentaService ventaService;
+    private final DashboardService dashboardService;
+    private final ExportService exportService;
+    private final CatalogImportService catalogImportService;
+    private final UserService userService;
+    private final PersonalDataExportService personalDataExportService;
 
     /**
-     * Dashboard principal del administrador
+     * Dashboard principal del administrador.
+     * La gráfica de ventas de los últimos días (7, 30 o 365) sale del agregado diario.
      */
     @GetMapping
-    public String dashboard(Model model) {
-        model.addAttribute("totalProducts", productosService.getAllProducts().size());
-        model.addAttribute("lowStockProducts", productosService.getLowStockProducts(10));
-        model.addAttribute("pendingOrders", ventaService.countByStatus(EstadoPedido.PENDIENTE));
-        model.addAttribute("totalRevenue", ventaService.calculateTotalRevenue());
+    public String dashboard(@RequestParam(defaultValue = "30") int dias, Model model) {
+        model.addAttribute("dashboard", dashboardService.getSnapshot(dias));
 
         return "admin/dashboard"; // Vista: admin/dashboard.peb.html
     }
 
     /**
-     * Lista de todos los productos (incluidos eliminados)
+     * Lista de productos paginada, ordenable por columna y filtrable por categoría, franja de stock y nombre.
+     * Filtros, orden y página van en la URL (categoria, stock, nombre, eliminados, sort, dir, page, size).
      */
     @GetMapping("/productos")
-    public String listAllProducts(Model model) {
-        model.addAttribute("products", productosService.getAllProducts());
+    public String listAllProducts(@ModelAttribute("query") AdminProductQuery query, Model model) {
+        Page<AdminProductRow> page = productosService.getAdminProductsPage(query);
+        model.addAttribute("page", page);
+        model.addAttribute("products", page.getContent());
+        model.addAttribute("categories", Categoria.values());
+        model.addAttribute("stockBands", StockBand.values());
         return "admin/productos/list";
     }
 
@@ -59,11 +105,44 @@ public class AdminController {
      * Guardar nuevo producto
      */
     @PostMapping("/productos")
-    public String createProduct(@ModelAttribute Productos productos) {
-        productosService.createProduct(productos);
+    public String createProduct(@ModelAttribute Productos productos, Model model) {
+        try {
+            productosService.createProduct(productos);
+        } catch (DuplicateSkuException e) {
+            return productFormWithSkuError(productos, e, model);
+        }
         return "redirect:/admin/productos";
     }
 
+    /**
+     * Formulario de importación de catálogo (CSV de proveedor)
+     */
+    @GetMapping("/productos/importar")
+    public String importProductsForm() {
+        return "admin/productos/import";
+    }
+
+    /**
+     * Importa un CSV de catálogo: crea o actualiza productos por SKU y muestra el resultado con los errores por fila
+     */
+    @PostMapping("/productos/importar")
+    public String importProducts(@RequestParam("file") MultipartFile file, Model model) {
+        if (file.isEmpty()) {
+            model.addAttribute("warningMessage", "Selecciona un fichero CSV.");
+            return "admin/productos/import";
+        }
+
+        try (InputStream in = file.getInputStream()) {
+            CatalogImportResult result = catalogImportService.importCsv(in);
+            model.addAttribute("result", result);
+        } catch (IllegalArgumentException e) {
+            model.addAttribute("warningMessage", e.getMessage());
+        } catch (IOException e) {
+            model.addAttribute("errorMessage", "No se pudo leer el fichero.");
+        }
+        return "admin/productos/import";
+    }
+
     /**
      * Formulario para editar producto existente
      */
@@ -82,11 +161,26 @@ public class AdminController {
      * Actualizar producto existente
      */
     @PostMapping("/productos/{id}")
-    public String updateProduct(@PathVariable Long id, @ModelAttribute Productos productos) {
-        productosService.updateProduct(id, productos);
+    public String updateProduct(@PathVariable Long id, @ModelAttribute Productos productos, Model model) {
+        try {
+            productosService.updateProduct(id, productos);
+        } catch (DuplicateSkuException e) {
+            productos.setId(id);
+            return productFormWithSkuError(productos, e, model);
+        }
         return "redirect:/admin/productos";
     }
 
+    /**
+     * Vuelve a mostrar el formulario con lo que había escrito el administrador y el error en el campo SKU
+     */
+    private static String productFormWithSkuError(Productos productos, DuplicateSkuException e, Model model) {
+        model.addAttribute("product", productos);
+        model.addAttribute("categories", Categoria.values());
+        model.addAttribute("skuError", e.getUserMessage());
+        return "admin/productos/form";
+    }
+
     /**
      * Eliminar producto (borrado lógico)
      */
@@ -97,11 +191,16 @@ public class AdminController {
     }
 
     /**
-     * Lista de todos los pedidos
+     * Lista de pedidos filtrable por estado y fechas, paginada por ID (los más recientes primero).
+     * Filtros y cursor van en la URL (estado, desde, hasta, antes, size). La página sale de dos consultas:
+     * los pedidos con los datos del cliente y el recuento.
      */
     @GetMapping("/pedidos")
-    public String listAllPurchases(Model model) {
-        model.addAttribute("purchases", ventaService.getAllPurchases());
+    public String listAllPurchases(@ModelAttribute("query") AdminOrderQuery query, Model model) {
+        AdminOrderPage result = ventaService.getAdminOrdersPage(query);
+        model.addAttribute("purchases", result.page().items());
+        model.addAttribute("nextCursor", result.page().nextCursor());
+        model.addAttribute("total", result.total());
         model.addAttribute("statuses", EstadoPedido.values());
         return "admin/pedidos/list";
     }
@@ -110,8 +209,264 @@ public class AdminController {
      * Actualizar estado de un pedido
      */
     @PostMapping("/pedidos/{id}/estado")
-    public String updatePurchaseStatus(@PathVariable Long id, @RequestParam EstadoPedido status) {
-        ventaService.updatePurchaseStatus(id, status);
+    public String updatePurchaseStatus(@PathVariable Long id, @RequestParam EstadoPedido status,
+                                       RedirectAttributes redirectAttributes) {
+        try {
+            ventaService.updatePurchaseStatus(id, status);
+        } catch (IllegalStateException e) {
+            redirectAttributes.addFlashAttribute("warningMessage", e.getMessage());
+        }
+        return "redirect:/admin/pedidos";
+    }
+
+    /**
+     * Actualizar el estado de varios pedidos seleccionados en la lista
+     */
+    @PostMapping("/pedidos/estado")
+    public String bulkUpdatePurchaseStatus(@RequestParam(name = "ids", required = false) List<Long> ids,
+                                           @RequestParam EstadoPedido status,
+                                           RedirectAttributes redirectAttributes) {
+        if (ids == null || ids.isEmpty()) {
+            redirectAttributes.addFlashAttribute("warningMessage", "No has seleccionado ningún pedido.");
+            return "redirect:/admin/pedidos";
+        }
+
+        List<BulkStatusResult> results;
+        try {
+            results = ventaService.bulkUpdatePurchaseStatus(ids, status);
+        } catch (IllegalArgumentException e) {
+            // Más pedidos de los que admite una sola operación
+            redirectAttributes.addFlashAttribute("warningMessage", e.getMessage() + ".");
+            return "redirect:/admin/pedidos";
+        }
+        long updated = results.stream().filter(BulkStatusResult::isUpdated).count();
+        List<Long> rejected = results.stream()
+                .filter(r -> r.outcome() != BulkStatusResult.Outcome.UPDATED
+                        && r.outcome() != BulkStatusResult.Outcome.UNCHANGED)
+                .map(BulkStatusResult::id)
+                .toList();
+
+        redirectAttributes.addFlashAttribute("successMessage", updated + " pedido(s) marcados como " + status + ".");
+        if (!rejected.isEmpty()) {
+            redirectAttributes.addFlashAttribute("warningMessage",
+                    "No se pudo cambiar el estado de los pedidos: " + rejected);
+        }
         return "redirect:/admin/pedidos";
     }
+
+    /**
+     * API JSON para el cambio de estado masivo. Devuelve el resultado de cada pedido,
+     * o 400 con el motivo si la petición supera el máximo de pedidos por operación.
+     */
+    @PostMapping(value = "/api/pedidos/estado",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> bulkUpdatePurchaseStatusApi(@RequestBody BulkStatusRequest request) {
+        try {
+            return ResponseEntity.ok(ventaService.bulkUpdatePurchaseStatus(request.ids(), request.status()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage()));
+        }
+    }
+
+    /**
+     * Lista de usuarios paginada, ordenable por columna y filtrable por email (prefijo), nombre, rol y bajas.
+     * Filtros, orden y página van en la URL (email, nombre, role, eliminados, sort, dir, page, size).
+     */
+    @GetMapping("/usuarios")
+    public String listUsers(@ModelAttribute("query") AdminUserQuery query, Model model) {
+        Page<AdminUserRow> page = userService.getAdminUsersPage(query);
+        model.addAttribute("page", page);
+        model.addAttribute("users", page.getContent());
+        model.addAttribute("roles", Role.values());
+        return "admin/usuarios/list";
+    }
+
+    /**
+     * Cambiar el rol de un usuario. Vuelve a la misma vista de la lista.
+     */
+    @PostMapping("/usuarios/{id}/rol")
+    public String changeUserRole(@PathVariable Long id, @RequestParam Role role,
+                                 @RequestParam(required = false) String volver,
+                                 Principal principal, RedirectAttributes redirectAttributes) {
+        if (isCurrentUser(id, principal)) {
+            redirectAttributes.addFlashAttribute("warningMessage", "No puedes cambiar tu propio rol.");
+        } else {
+            userService.changeRole(id, role);
+            redirectAttributes.addFlashAttribute("successMessage", "Rol actualizado.");
+        }
+        return redirectToUsers(volver);
+    }
+
+    /**
+     * Dar de baja a un usuario (borrado lógico)
+     */
+    @PostMapping("/usuarios/{id}/eliminar")
+    public String deleteUser(@PathVariable Long id, @RequestParam(required = false) String volver,
+                             Principal principal, RedirectAttributes redirectAttributes) {
+        if (isCurrentUser(id, principal)) {
+            redirectAttributes.addFlashAttribute("warningMessage", "No puedes darte de baja a ti mismo.");
+        } else {
+            userService.deleteUser(id);
+            redirectAttributes.addFlashAttribute("successMessage", "Usuario dado de baja.");
+        }
+        return redirectToUsers(volver);
+    }
+
+    /**
+     * Reactivar un usuario dado de baja
+     */
+    @PostMapping("/usuarios/{id}/restaurar")
+    public String restoreUser(@PathVariable Long id, @RequestParam(required = false) String volver,
+                              RedirectAttributes redirectAttributes) {
+        userService.restoreUser(id);
+        redirectAttributes.addFlashAttribute("successMessage", "Usuario reactivado.");
+        return redirectToUsers(volver);
+    }
+
+    /**
+     * Dar de baja a los usuarios seleccionados en la lista (nunca al propio administrador)
+     */
+    @PostMapping("/usuarios/eliminar")
+    public String deleteUsers(@RequestParam(name = "ids", required = false) List<Long> ids,
+                              @RequestParam(required = false) String volver,
+                              Principal principal, RedirectAttributes redirectAttributes) {
+        if (ids == null || ids.isEmpty()) {
+            redirectAttributes.addFlashAttribute("warningMessage", "No has seleccionado ningún usuario.");
+            return redirectToUsers(volver);
+        }
+
+        int deleted;
+        try {
+            deleted = userService.deleteUsers(ids, principal.getName());
+        } catch (IllegalArgumentException e) {
+            // Más usuarios de los que admite una sola operación
+            redirectAttributes.addFlashAttribute("warningMessage", e.getMessage() + ".");
+            return redirectToUsers(volver);
+        }
+        long skipped = ids.stream().distinct().count() - deleted;
+        redirectAttributes.addFlashAttribute("successMessage", deleted + " usuario(s) dados de baja.");
+        if (skipped > 0) {
+            redirectAttributes.addFlashAttribute("warningMessage",
+                    skipped + " usuario(s) no se han modificado (ya estaban de baja o eres tú).");
+        }
+        return redirectToUsers(volver);
+    }
+
+    /**
+     * Reactivar los usuarios seleccionados en la lista
+     */
+    @PostMapping("/usuarios/restaurar")
+    public String restoreUsers(@RequestParam(name = "ids", required = false) List<Long> ids,
+                               @RequestParam(required = false) String volver,
+                               RedirectAttributes redirectAttributes) {
+        if (ids == null || ids.isEmpty()) {
+            redirectAttributes.addFlashAttribute("warningMessage", "No has seleccionado ningún usuario.");
+            return redirectToUsers(volver);
+        }
+
+        int restored;
+        try {
+            restored = userService.restoreUsers(ids);
+        } catch (IllegalArgumentException e) {
+            redirectAttributes.addFlashAttribute("warningMessage", e.getMessage() + ".");
+            return redirectToUsers(volver);
+        }
+        redirectAttributes.addFlashAttribute("successMessage", restored + " usuario(s) reactivados.");
+        return redirectToUsers(volver);
+    }
+
+    /**
+     * Exportación de todos los datos de un usuario (peticiones de acceso a datos personales).
+     * Si tiene muchos pedidos se prepara en segundo plano y se descarga desde Mi Perfil.
+     */
+    @GetMapping("/usuarios/{id}/datos")
+    public ResponseEntity<StreamingResponseBody> exportUserData(@PathVariable Long id, Principal principal) {
+        User user = userService.findById(id)
+                .orElseThrow(() -> new UserNotFoundException(id));
+        return PerfilController.dataExportResponse(personalDataExportService, user, principal.getName());
+    }
+
+    private boolean isCurrentUser(Long id, Principal principal) {
+        return userService.findById(id)
+                .map(user -> user.getEmail().equals(principal.getName()))
+                .orElse(false);
+    }
+
+    /**
+     * Solo se vuelve a URLs de la propia lista de usuarios
+     */
+    private static String redirectToUsers(String volver) {
+        boolean sameList = volver != null
+                && (volver.equals(AdminUserQuery.BASE_URL) || volver.startsWith(AdminUserQuery.BASE_URL + "?"));
+        return "redirect:" + (sameList ? volver : AdminUserQuery.BASE_URL);
+    }
+
+    /**
+     * Exportación de pedidos comprados entre desde y hasta (ambos opcionales), en CSV o JSON y opcionalmente en gzip.
+     * La respuesta se escribe fila a fila mientras se lee la BD.
+     */
+    @GetMapping("/export/pedidos")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(defaultValue = "CSV") ExportFormat formato,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        return export("pedidos", desde, hasta, formato, gzip,
+                out -> exportService.exportOrders(desde, hasta, formato, out));
+    }
+
+    /**
+     * Exportación de las líneas de los pedidos comprados entre desde y hasta
+     */
+    @GetMapping("/export/lineas")
+    public ResponseEntity<StreamingResponseBody> exportOrderLines(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(defaultValue = "CSV") ExportFormat formato,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        return export("lineas-pedido", desde, hasta, formato, gzip,
+                out -> exportService.exportOrderLines(desde, hasta, formato, out));
+    }
+
+    /**
+     * Exportación de los productos dados de alta entre desde y hasta, eliminados incluidos
+     */
+    @GetMapping("/export/productos")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(defaultValue = "CSV") ExportFormat formato,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        return export("productos", desde, hasta, formato, gzip,
+                out -> exportService.exportProducts(desde, hasta, formato, out));
+    }
+
+    /**
+     * Respuesta de descarga: nombre de fichero con el periodo y, si se pide, el cuerpo comprimido al vuelo
+     */
+    private ResponseEntity<StreamingResponseBody> export(String name, LocalDate desde, LocalDate hasta,
+                                                         ExportFormat format, boolean gzip,
+                                                         StreamingResponseBody body) {
+        String filename = name
+                + (desde != null ? "-desde-" + desde : "")
+                + (hasta != null ? "-hasta-" + hasta : "")
+                + "." + format.getExtension()
+                + (gzip ? ".gz" : "");
+
+        StreamingResponseBody content = body;
+        if (gzip) {
+            content = out -> {
+                try (GZIPOutputStream zip = new GZIPOutputStream(out, 64 * 1024)) {
+                    body.writeTo(zip);
+                }
+            };
+        }
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : format.getContentType()))
+                .body(content);
+    }
 }
@@ -3,6 +3,7 @@ package srangeldev.mediadaw.controllers;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.security.web.csrf.CsrfToken;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.BindingResult;
@@ -10,8 +11,12 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import srangeldev.mediadaw.dto.EmailAvailability;
+import srangeldev.mediadaw.exceptions.DuplicateEmailException;
 import srangeldev.mediadaw.models.User;
+import srangeldev.mediadaw.services.EmailAvailabilityService;
 import srangeldev.mediadaw.services.UserService;
 import org.springframework.ui.Model;
 
@@ -20,6 +25,7 @@ import org.springframework.ui.Model;
 public class AuthController {
 
     private final UserService userService;
+    private final EmailAvailabilityService emailAvailabilityService;
 
     /**
      * GET /login - Muestra el formulario de acceso.
@@ -81,10 +87,26 @@ public class AuthController {
             redirectAttributes.addFlashAttribute("mensaje", "¡Registro exitoso! Por favor inicia sesión.");
             return "redirect:/login";
 
+        } catch (DuplicateEmailException e) {
+            model.addAttribute("error", e.getUserMessage());
+            return "auth/register";
         } catch (RuntimeException e) {
-            // Error de negocio (ej. email duplicado)
+            // Otros errores de negocio
             model.addAttribute("error", e.getMessage());
             return "auth/register";
         }
     }
+
+    /**
+     * GET /registro/email-disponible - Comprueba si un email está libre mientras se rellena el formulario.
+     * La mayoría de respuestas salen del filtro en memoria, sin consultar la BD.
+     */
+    @GetMapping(value = "/registro/email-disponible", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public EmailAvailability emailAvailable(@RequestParam("email") String email) {
+        if (email.isBlank()) {
+            return new EmailAvailability(email, false);
+        }
+        return new EmailAvailability(email, emailAvailabilityService.isAvailable(email));
+    }
 }
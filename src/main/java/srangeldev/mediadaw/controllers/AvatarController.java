@@ -0,0 +1,80 @@
+package srangeldev.mediadaw.controllers;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import srangeldev.mediadaw.services.AvatarService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Sirve los avatares guardados por AvatarService.
+ *
+ * El nombre del fichero es el hash de su contenido, así que una URL nunca cambia de imagen: se cachea un año
+ * como immutable y el navegador no vuelve a preguntar. Con Tomcat el fichero se envía con sendfile
+ * (del disco al socket sin pasar por la JVM); si no está disponible se copia.
+ */
+@Controller
+@RequestMapping(AvatarController.AVATARS_PATH)
+@RequiredArgsConstructor
+public class AvatarController {
+
+    /**
+     * Ruta de los avatares. GlobalControllerAdvice no consulta la BD en ella.
+     */
+    public static final String AVATARS_PATH = "/avatars/";
+
+    private static final String CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    // Atributos de petición de Tomcat para enviar un fichero con sendfile
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final AvatarService avatarService;
+
+    /**
+     * GET /avatars/{size}/{key} - Un avatar en uno de los tamaños configurados
+     */
+    @GetMapping("/{size}/{key:.+}")
+    public void serve(
+            @PathVariable int size,
+            @PathVariable String key,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+
+        Path file = avatarService.find(size, key).orElse(null);
+        if (file == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        String etag = "\"" + key + "\"";
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        response.setHeader(HttpHeaders.ETAG, etag);
+        if (etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long length = Files.size(file);
+        response.setContentType(AvatarService.contentType(key).toString());
+        response.setContentLengthLong(length);
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toRealPath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, length);
+            return;
+        }
+        Files.copy(file, response.getOutputStream());
+    }
+}
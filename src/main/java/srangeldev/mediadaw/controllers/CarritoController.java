@@ -8,12 +8,15 @@ import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import srangeldev.mediadaw.dto.CheckoutTicketStatus;
 import srangeldev.mediadaw.exceptions.InsufficientStockException;
+import srangeldev.mediadaw.exceptions.MediaDawException;
 import srangeldev.mediadaw.exceptions.ProductNotFoundException;
 import srangeldev.mediadaw.models.Carrito;
 import srangeldev.mediadaw.models.User;
 import srangeldev.mediadaw.repositories.UserRepository;
 import srangeldev.mediadaw.services.CarritoService;
+import srangeldev.mediadaw.services.CheckoutAdmissionService;
 
 import java.security.Principal;
 
@@ -22,9 +25,14 @@ import java.security.Principal;
 @RequiredArgsConstructor
 public class CarritoController {
 
+    /**
+     * Ruta de la sala de espera del checkout. GlobalControllerAdvice no consulta la BD en ella.
+     */
+    public static final String CHECKOUT_STATUS_PATH = "/carrito/checkout/estado/";
+
     private final CarritoService carritoService;
     private final UserRepository userRepository;
-    // private final PurchaseService purchaseService; // Descomentar cuando implementes la compra
+    private final CheckoutAdmissionService checkoutAdmissionService;
 
     /**
      * Helper para obtener el usuario real de la BBDD desde la sesión de seguridad
@@ -124,27 +132,62 @@ public class CarritoController {
 
     /**
      * POST /carrito/checkout - Finalizar compra
-     * Convierte el Carrito en un Pedido (Purchase)
+     * Convierte el Carrito en un Pedido (Purchase).
+     * La compra pasa por la sala de espera: si termina enseguida se redirige como siempre,
+     * si no, el usuario pasa a la página de espera hasta que le toque.
      */
     @PostMapping("/checkout")
     public String checkout(Principal principal, RedirectAttributes redirectAttributes) {
         User user = getAuthenticatedUser(principal);
 
         try {
-            // Aquí llamarías a tu servicio de compras:
-            // Purchase pedido = purchaseService.processCheckout(user);
+            String ticketId = checkoutAdmissionService.submit(user.getId(), principal.getName());
 
-            // Simulamos el vaciado del carrito por ahora:
-            carritoService.clearCart(user);
+            return checkoutAdmissionService.awaitFastPath(ticketId, principal.getName())
+                    .filter(CheckoutTicketStatus::isFinished)
+                    .map(status -> checkoutResult(status, redirectAttributes))
+                    .orElse("redirect:" + CHECKOUT_STATUS_PATH + ticketId);
+
+        } catch (MediaDawException e) {
+            redirectAttributes.addFlashAttribute("mensaje", e.getUserMessage());
+            redirectAttributes.addFlashAttribute("tipo", "danger");
+            return "redirect:/carrito";
+        }
+    }
 
+    /**
+     * GET /carrito/checkout/estado/{ticketId} - Sala de espera del checkout
+     * Página ligera que se recarga sola hasta que la compra termina. No consulta la base de datos.
+     */
+    @GetMapping("/checkout/estado/{ticketId}")
+    public String checkoutStatus(@PathVariable String ticketId, Principal principal, Model model,
+                                 RedirectAttributes redirectAttributes) {
+        CheckoutTicketStatus status = checkoutAdmissionService.status(ticketId, principal.getName())
+                .orElse(null);
+
+        if (status == null) {
+            redirectAttributes.addFlashAttribute("mensaje", "No encontramos tu compra en la sala de espera.");
+            redirectAttributes.addFlashAttribute("tipo", "warning");
+            return "redirect:/carrito";
+        }
+
+        if (status.isFinished()) {
+            return checkoutResult(status, redirectAttributes);
+        }
+
+        model.addAttribute("status", status);
+        return "carrito/espera";
+    }
+
+    private String checkoutResult(CheckoutTicketStatus status, RedirectAttributes redirectAttributes) {
+        if (status.state() == CheckoutTicketStatus.State.COMPLETED) {
             redirectAttributes.addFlashAttribute("mensaje", "¡Compra realizada con éxito! Revisa tu email.");
             redirectAttributes.addFlashAttribute("tipo", "success");
             return "redirect:/user/pedidos"; // Redirigir al historial de pedidos
-
-        } catch (Exception e) {
-            redirectAttributes.addFlashAttribute("mensaje", "Error al procesar la compra: " + e.getMessage());
-            redirectAttributes.addFlashAttribute("tipo", "danger");
-            return "redirect:/carrito";
         }
+
+        redirectAttributes.addFlashAttribute("mensaje", status.message());
+        redirectAttributes.addFlashAttribute("tipo", "danger");
+        return "redirect:/carrito";
     }
 }
@@ -5,6 +5,7 @@ import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import srangeldev.mediadaw.models.Categoria;
+import srangeldev.mediadaw.services.BestSellerService;
 import srangeldev.mediadaw.services.ProductosService;
 
 /**
@@ -15,7 +16,13 @@ import srangeldev.mediadaw.services.ProductosService;
 @RequiredArgsConstructor
 public class HomeController {
 
+    /**
+     * Productos de la sección "Más vendidos"
+     */
+    private static final int BEST_SELLERS_ON_HOME = 8;
+
     private final ProductosService productosService;
+    private final BestSellerService bestSellerService;
 
     /**
      * Página de inicio que muestra productos destacados.
@@ -30,6 +37,9 @@ public class HomeController {
                 .toList();
 
         model.addAttribute("products", products);
+        // Ranking ya calculado en memoria: no se agregan ventas en cada petición
+        model.addAttribute("bestSellers", bestSellerService.getTopSellerProducts(BEST_SELLERS_ON_HOME));
+        model.addAttribute("bestSellerIds", bestSellerService.getBestSellerIds());
         model.addAttribute("categories", Categoria.values());
 
         return "index";
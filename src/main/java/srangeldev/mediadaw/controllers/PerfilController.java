@@ -0,0 +1,141 @@
+package srangeldev.mediadaw.controllers;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import srangeldev.mediadaw.dto.PersonalDataExportJob;
+import srangeldev.mediadaw.exceptions.DataExportBusyException;
+import srangeldev.mediadaw.exceptions.ImageProcessingBusyException;
+import srangeldev.mediadaw.exceptions.UserNotFoundException;
+import srangeldev.mediadaw.models.User;
+import srangeldev.mediadaw.services.AvatarService;
+import srangeldev.mediadaw.services.PersonalDataExportService;
+import srangeldev.mediadaw.services.UserService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.security.Principal;
+
+@Slf4j
+@Controller
+@RequestMapping("/perfil")
+@RequiredArgsConstructor
+public class PerfilController {
+
+    private final UserService userService;
+    private final AvatarService avatarService;
+    private final PersonalDataExportService personalDataExportService;
+
+    /**
+     * GET /perfil - Datos de la cuenta, avatar y exportaciones de datos pedidas (currentUser ya está en el modelo)
+     */
+    @GetMapping
+    public String profile(Principal principal, Model model) {
+        model.addAttribute("exportJobs", personalDataExportService.findJobs(principal.getName()));
+        return "perfil/index";
+    }
+
+    /**
+     * POST /perfil/avatar - Sube un avatar nuevo (PNG o JPEG)
+     */
+    @PostMapping("/avatar")
+    public String uploadAvatar(
+            @RequestParam("avatar") MultipartFile file,
+            Principal principal,
+            RedirectAttributes redirectAttributes) {
+
+        if (file.isEmpty()) {
+            redirectAttributes.addFlashAttribute("warningMessage", "Selecciona una imagen.");
+            return "redirect:/perfil";
+        }
+
+        try {
+            String key = avatarService.store(file.getBytes());
+            userService.updateAvatar(principal.getName(), key);
+            redirectAttributes.addFlashAttribute("successMessage", "Avatar actualizado.");
+        } catch (IllegalArgumentException e) {
+            redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
+        } catch (ImageProcessingBusyException e) {
+            redirectAttributes.addFlashAttribute("warningMessage", e.getUserMessage());
+        } catch (IOException e) {
+            log.warn("No se pudo leer el avatar subido por {}: {}", principal.getName(), e.getMessage());
+            redirectAttributes.addFlashAttribute("errorMessage", "No se pudo leer la imagen. Inténtalo de nuevo.");
+        } catch (UncheckedIOException e) {
+            // Fallo al escribir en disco (disco lleno, permisos...): el avatar anterior sigue igual
+            log.error("No se pudo guardar el avatar subido por {}", principal.getName(), e);
+            redirectAttributes.addFlashAttribute("errorMessage", "No se pudo guardar la imagen. Inténtalo más tarde.");
+        }
+        return "redirect:/perfil";
+    }
+
+    /**
+     * GET /perfil/datos - Descarga de todos mis datos en JSON (o su preparación en segundo plano si son muchos)
+     */
+    @GetMapping("/datos")
+    public ResponseEntity<StreamingResponseBody> exportMyData(Principal principal) {
+        User user = userService.findByEmail(principal.getName())
+                .orElseThrow(() -> new UserNotFoundException(principal.getName()));
+        return dataExportResponse(personalDataExportService, user, principal.getName());
+    }
+
+    /**
+     * GET /perfil/datos/{jobId} - Descarga de una exportación preparada en segundo plano
+     */
+    @GetMapping("/datos/{jobId}")
+    public ResponseEntity<Resource> downloadExport(@PathVariable String jobId, Principal principal) {
+        Path file = personalDataExportService.findArtifact(jobId, principal.getName()).orElse(null);
+        if (file == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(file.getFileName().toString()).build().toString())
+                .contentType(MediaType.parseMediaType("application/gzip"))
+                .body(new FileSystemResource(file));
+    }
+
+    /**
+     * Exportación de datos de un usuario pedida por requestedBy (él mismo o un administrador).
+     * Si es pequeña se escribe en la respuesta mientras se lee la BD; si no, se encola y se redirige
+     * a /perfil, donde aparece el enlace de descarga cuando está lista.
+     */
+    static ResponseEntity<StreamingResponseBody> dataExportResponse(PersonalDataExportService service, User user,
+                                                                   String requestedBy) {
+        if (service.isLarge(user.getId())) {
+            String result;
+            try {
+                PersonalDataExportJob job = service.requestExport(user, requestedBy);
+                result = "exportacion=" + job.id();
+            } catch (DataExportBusyException e) {
+                result = "exportacionOcupada=true";
+            }
+            return ResponseEntity.status(HttpStatus.SEE_OTHER)
+                    .location(URI.create("/perfil?" + result))
+                    .build();
+        }
+
+        String filename = "datos-usuario-" + user.getId() + ".json";
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> service.export(user.getId(), out));
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import srangeldev.mediadaw.models.Productos;
 import srangeldev.mediadaw.models.Categoria;
+import srangeldev.mediadaw.services.BestSellerService;
 import srangeldev.mediadaw.services.ProductosService;
 
 import java.util.List;
@@ -20,6 +21,7 @@ import java.util.List;
 public class ProductoController {
 
     private final ProductosService productosService;
+    private final BestSellerService bestSellerService;
 
     /**
      * Muestra todos los productos disponibles
@@ -43,6 +45,7 @@ public class ProductoController {
         model.addAttribute("categories", Categoria.values());
         model.addAttribute("selectedCategory", category != null ? category.name() : null);
         model.addAttribute("searchQuery", search);
+        model.addAttribute("bestSellerIds", bestSellerService.getBestSellerIds());
 
         return "productos/listaProductos";
     }
@@ -0,0 +1,10 @@
+package srangeldev.mediadaw.dto;
+
+/**
+ * Página de la lista de pedidos del panel.
+ *
+ * @param page Pedidos de la página y cursor de la siguiente
+ * @param total Número de pedidos que cumplen los filtros (todas las páginas)
+ */
+public record AdminOrderPage(KeysetPage<AdminOrderRow> page, long total) {
+}
@@ -0,0 +1,81 @@
+package srangeldev.mediadaw.dto;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import srangeldev.mediadaw.models.EstadoPedido;
+
+import java.time.LocalDate;
+import java.util.StringJoiner;
+
+/**
+ * Estado de la lista de pedidos del panel: filtros, cursor y tamaño de página.
+ * Viaja entero en la URL, así que cualquier vista se puede guardar en marcadores.
+ *
+ * @param estado Filtro por estado (null = todos)
+ * @param desde Primer día de compra incluido (null = sin límite)
+ * @param hasta Último día de compra incluido (null = sin límite)
+ * @param antes Cursor: último ID de la página anterior (null = primera página)
+ * @param size Pedidos por página
+ */
+public record AdminOrderQuery(EstadoPedido estado,
+                              @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+                              @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+                              Long antes,
+                              Integer size) {
+
+    public static final String BASE_URL = "/admin/pedidos";
+
+    public AdminOrderQuery {
+        size = size == null ? 20 : size;
+    }
+
+    public boolean isFirstPage() {
+        return antes == null;
+    }
+
+    /**
+     * URL de la primera página con los mismos filtros
+     */
+    public String firstPageUrl() {
+        return url(null);
+    }
+
+    /**
+     * URL de la página que empieza después del cursor indicado, con los mismos filtros
+     */
+    public String nextPageUrl(Long cursor) {
+        return url(cursor);
+    }
+
+    /**
+     * URL de exportación (pedidos o lineas) del mismo periodo que la lista
+     */
+    public String exportUrl(String dataset, String formato) {
+        StringJoiner params = new StringJoiner("&", "/admin/export/" + dataset + "?", "");
+        params.add("formato=" + formato);
+        if (desde != null) {
+            params.add("desde=" + desde);
+        }
+        if (hasta != null) {
+            params.add("hasta=" + hasta);
+        }
+        return params.toString();
+    }
+
+    private String url(Long cursor) {
+        StringJoiner params = new StringJoiner("&", BASE_URL + "?", "");
+        if (estado != null) {
+            params.add("estado=" + estado.name());
+        }
+        if (desde != null) {
+            params.add("desde=" + desde);
+        }
+        if (hasta != null) {
+            params.add("hasta=" + hasta);
+        }
+        if (cursor != null) {
+            params.add("antes=" + cursor);
+        }
+        params.add("size=" + size);
+        return params.toString();
+    }
+}
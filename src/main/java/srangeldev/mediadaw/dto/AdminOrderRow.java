@@ -0,0 +1,33 @@
+package srangeldev.mediadaw.dto;
+
+import srangeldev.mediadaw.models.EstadoPedido;
+
+import java.time.LocalDateTime;
+
+/**
+ * Fila de la lista de pedidos del panel: el pedido y los datos del cliente que muestra la tabla,
+ * leídos en la misma consulta (sin cargar Venta ni User).
+ *
+ * @param id ID del pedido
+ * @param fechaCompra Fecha de compra
+ * @param total Total del pedido
+ * @param estado Estado del pedido
+ * @param customerEmail Email del cliente
+ * @param customerNombre Nombre del cliente
+ * @param customerApellidos Apellidos del cliente (puede ser null)
+ */
+public record AdminOrderRow(Long id,
+                            LocalDateTime fechaCompra,
+                            Double total,
+                            EstadoPedido estado,
+                            String customerEmail,
+                            String customerNombre,
+                            String customerApellidos) {
+
+    /**
+     * Nombre completo del cliente
+     */
+    public String customerName() {
+        return customerApellidos == null ? customerNombre : customerNombre + " " + customerApellidos;
+    }
+}
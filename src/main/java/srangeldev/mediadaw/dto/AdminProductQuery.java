@@ -0,0 +1,80 @@
+package srangeldev.mediadaw.dto;
+
+import srangeldev.mediadaw.models.Categoria;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.StringJoiner;
+
+/**
+ * Estado de la lista de productos del panel: filtros, orden y página.
+ * Viaja entero en la URL (parámetros de la petición), así que cualquier vista se puede guardar en marcadores.
+ *
+ * @param categoria Filtro por categoría (null = todas)
+ * @param stock Filtro por franja de stock (null = todas)
+ * @param nombre Filtro por nombre, búsqueda parcial (null o vacío = sin filtro)
+ * @param eliminados Si se incluyen los productos eliminados
+ * @param sort Columna por la que se ordena (id, nombre, categoria, precio o stock)
+ * @param dir Sentido del orden (asc o desc)
+ * @param page Página, empezando en 0
+ * @param size Productos por página
+ */
+public record AdminProductQuery(Categoria categoria,
+                                StockBand stock,
+                                String nombre,
+                                boolean eliminados,
+                                String sort,
+                                String dir,
+                                Integer page,
+                                Integer size) {
+
+    public static final String BASE_URL = "/admin/productos";
+
+    public AdminProductQuery {
+        nombre = nombre == null || nombre.isBlank() ? null : nombre.strip();
+        sort = sort == null || sort.isBlank() ? "id" : sort;
+        dir = "desc".equalsIgnoreCase(dir) ? "desc" : "asc";
+        page = page == null ? 0 : Math.max(page, 0);
+        size = size == null ? 20 : size;
+    }
+
+    public boolean isDescending() {
+        return "desc".equals(dir);
+    }
+
+    /**
+     * URL de la misma vista en otra página
+     */
+    public String pageUrl(long targetPage) {
+        return url(sort, dir, targetPage);
+    }
+
+    /**
+     * URL que ordena por una columna. Si ya se ordena por ella, invierte el sentido. Vuelve a la primera página.
+     */
+    public String sortUrl(String column) {
+        String targetDir = column.equals(sort) && !isDescending() ? "desc" : "asc";
+        return url(column, targetDir, 0);
+    }
+
+    private String url(String targetSort, String targetDir, long targetPage) {
+        StringJoiner params = new StringJoiner("&", BASE_URL + "?", "");
+        if (categoria != null) {
+            params.add("categoria=" + categoria.name());
+        }
+        if (stock != null) {
+            params.add("stock=" + stock.name());
+        }
+        if (nombre != null) {
+            params.add("nombre=" + URLEncoder.encode(nombre, StandardCharsets.UTF_8));
+        }
+        if (eliminados) {
+            params.add("eliminados=true");
+        }
+        params.add("sort=" + URLEncoder.encode(targetSort, StandardCharsets.UTF_8));
+        params.add("dir=" + targetDir);
+        params.add("page=" + targetPage);
+        params.add("size=" + size);
+        return params.toString();
+    }
+}
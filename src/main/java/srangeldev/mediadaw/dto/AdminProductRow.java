@@ -0,0 +1,17 @@
+package srangeldev.mediadaw.dto;
+
+import srangeldev.mediadaw.models.Categoria;
+
+/**
+ * Fila de la lista de productos del panel. Solo las columnas de la tabla (sin descripción ni imagen).
+ *
+ * @param id ID del producto
+ * @param nombre Nombre
+ * @param categoria Categoría
+ * @param precio Precio
+ * @param stock Stock actual
+ * @param deleted Si está eliminado (borrado lógico)
+ */
+public record AdminProductRow(Long id, String nombre, Categoria categoria, Double precio, Integer stock,
+                              Boolean deleted) {
+}
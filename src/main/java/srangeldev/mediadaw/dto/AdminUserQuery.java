@@ -0,0 +1,88 @@
+package srangeldev.mediadaw.dto;
+
+import srangeldev.mediadaw.models.Role;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.StringJoiner;
+
+/**
+ * Estado de la lista de usuarios del panel: filtros, orden y página.
+ * Viaja entero en la URL (parámetros de la petición), igual que la lista de productos.
+ *
+ * @param email Filtro por el principio del email, distinguiendo mayúsculas como se guardó (null o vacío = sin filtro)
+ * @param nombre Filtro por nombre y apellidos, búsqueda parcial (null o vacío = sin filtro)
+ * @param role Filtro por rol (null = todos)
+ * @param eliminados Si se incluyen los usuarios dados de baja
+ * @param sort Columna por la que se ordena (id, email, nombre, role o fechaAlta)
+ * @param dir Sentido del orden (asc o desc)
+ * @param page Página, empezando en 0
+ * @param size Usuarios por página
+ */
+public record AdminUserQuery(String email,
+                             String nombre,
+                             Role role,
+                             boolean eliminados,
+                             String sort,
+                             String dir,
+                             Integer page,
+                             Integer size) {
+
+    public static final String BASE_URL = "/admin/usuarios";
+
+    public AdminUserQuery {
+        email = email == null || email.isBlank() ? null : email.strip();
+        nombre = nombre == null || nombre.isBlank() ? null : nombre.strip();
+        sort = sort == null || sort.isBlank() ? "id" : sort;
+        dir = "desc".equalsIgnoreCase(dir) ? "desc" : "asc";
+        page = page == null ? 0 : Math.max(page, 0);
+        size = size == null ? 20 : size;
+    }
+
+    public boolean isDescending() {
+        return "desc".equals(dir);
+    }
+
+    /**
+     * URL de la misma vista en otra página
+     */
+    public String pageUrl(long targetPage) {
+        return url(sort, dir, targetPage);
+    }
+
+    /**
+     * URL que ordena por una columna. Si ya se ordena por ella, invierte el sentido. Vuelve a la primera página.
+     */
+    public String sortUrl(String column) {
+        String targetDir = column.equals(sort) && !isDescending() ? "desc" : "asc";
+        return url(column, targetDir, 0);
+    }
+
+    /**
+     * URL de la vista actual (para volver a ella después de una acción)
+     */
+    public String currentUrl() {
+        return url(sort, dir, page);
+    }
+
+    private String url(String targetSort, String targetDir, long targetPage) {
+        StringJoiner params = new StringJoiner("&", BASE_URL + "?", "");
+        if (email != null) {
+            params.add("email=" + URLEncoder.encode(email, StandardCharsets.UTF_8));
+        }
+        if (nombre != null) {
+            params.add("nombre=" + URLEncoder.encode(nombre, StandardCharsets.UTF_8));
+        }
+        if (role != null) {
+            params.add("role=" + role.name());
+        }
+        if (eliminados) {
+            params.add("eliminados=true");
+        }
+        params.add("sort=" + URLEncoder.encode(targetSort, StandardCharsets.UTF_8));
+        params.add("dir=" + targetDir);
+        params.add("page=" + targetPage);
+        params.add("size=" + size);
+        return params.toString();
+    }
+}
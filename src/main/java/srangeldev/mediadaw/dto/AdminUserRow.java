@@ -0,0 +1,20 @@
+package srangeldev.mediadaw.dto;
+
+import srangeldev.mediadaw.models.Role;
+
+import java.time.LocalDateTime;
+
+/**
+ * Fila de la lista de usuarios del panel. Solo las columnas de la tabla (sin contraseña, carrito ni pedidos).
+ *
+ * @param id ID del usuario
+ * @param nombre Nombre
+ * @param apellidos Apellidos
+ * @param email Email
+ * @param role Rol
+ * @param deleted Si está dado de baja (borrado lógico)
+ * @param fechaAlta Fecha de alta
+ */
+public record AdminUserRow(Long id, String nombre, String apellidos, String email, Role role, Boolean deleted,
+                           LocalDateTime fechaAlta) {
+}
@@ -0,0 +1,11 @@
+package srangeldev.mediadaw.dto;
+
+import srangeldev.mediadaw.models.EstadoPedido;
+
+import java.util.List;
+
+/**
+ * Petición de cambio de estado masivo de pedidos (solo ADMIN).
+ */
+public record BulkStatusRequest(List<Long> ids, EstadoPedido status) {
+}
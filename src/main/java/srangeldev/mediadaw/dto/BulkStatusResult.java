@@ -0,0 +1,30 @@
+package srangeldev.mediadaw.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import srangeldev.mediadaw.models.EstadoPedido;
+
+/**
+ * Resultado del cambio de estado masivo para un pedido concreto.
+ *
+ * @param id ID del pedido (se serializa como texto: los IDs de 64 bits no caben en un número de JavaScript)
+ * @param previousStatus Estado antes del cambio (null si el pedido no existe)
+ * @param outcome Qué ha ocurrido con el pedido
+ */
+public record BulkStatusResult(@JsonSerialize(using = ToStringSerializer.class) Long id, EstadoPedido previousStatus, Outcome outcome) {
+
+    public enum Outcome {
+        /** El pedido ha pasado al nuevo estado */
+        UPDATED,
+        /** El pedido ya estaba en el estado solicitado */
+        UNCHANGED,
+        /** No existe ningún pedido con ese ID */
+        NOT_FOUND,
+        /** El flujo de estados no permite el cambio */
+        INVALID_TRANSITION
+    }
+
+    public boolean isUpdated() {
+        return outcome == Outcome.UPDATED;
+    }
+}
@@ -0,0 +1,11 @@
+package srangeldev.mediadaw.dto;
+
+/**
+ * Fila del CSV de catálogo que no se ha importado.
+ *
+ * @param line Línea del fichero (la cabecera es la 1)
+ * @param sku SKU de la fila, si lo tiene
+ * @param message Motivo, para mostrarlo al administrador
+ */
+public record CatalogImportError(long line, String sku, String message) {
+}
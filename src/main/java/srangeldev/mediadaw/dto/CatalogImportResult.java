@@ -0,0 +1,22 @@
+package srangeldev.mediadaw.dto;
+
+import java.util.List;
+
+/**
+ * Resultado de una importación de catálogo.
+ *
+ * @param rows Filas leídas (sin la cabecera)
+ * @param created Productos nuevos
+ * @param updated Productos existentes actualizados por SKU
+ * @param failed Filas rechazadas
+ * @param errors Detalle de las filas rechazadas (como mucho las primeras CatalogImportService.MAX_REPORTED_ERRORS)
+ */
+public record CatalogImportResult(long rows, long created, long updated, long failed, List<CatalogImportError> errors) {
+
+    /**
+     * Si hay más filas rechazadas que errores detallados
+     */
+    public boolean isTruncated() {
+        return failed > errors.size();
+    }
+}
@@ -0,0 +1,14 @@
+package srangeldev.mediadaw.dto;
+
+import srangeldev.mediadaw.models.Categoria;
+
+/**
+ * Ventas de una categoría en un periodo (sin pedidos cancelados).
+ *
+ * @param categoria Categoría
+ * @param orders Pedidos con algún producto de la categoría
+ * @param units Unidades vendidas
+ * @param revenue Ingresos
+ */
+public record CategorySales(Categoria categoria, Long orders, Long units, Double revenue) {
+}
@@ -0,0 +1,16 @@
+package srangeldev.mediadaw.dto;
+
+import srangeldev.mediadaw.models.Categoria;
+import srangeldev.mediadaw.models.EstadoPedido;
+
+/**
+ * Ventas de una categoría en un estado, calculadas sobre los pedidos (recalcular el agregado diario).
+ *
+ * @param categoria Categoría de los productos
+ * @param estado Estado de los pedidos
+ * @param orders Pedidos con alguna línea de la categoría
+ * @param units Unidades
+ * @param revenue Importe de las líneas
+ */
+public record CategoryTotals(Categoria categoria, EstadoPedido estado, Long orders, Long units, Double revenue) {
+}
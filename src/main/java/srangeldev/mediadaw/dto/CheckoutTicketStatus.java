@@ -0,0 +1,26 @@
+package srangeldev.mediadaw.dto;
+
+/**
+ * Estado de una compra en la sala de espera del checkout.
+ *
+ * @param ticketId Identificador del turno
+ * @param state Fase en la que se encuentra la compra
+ * @param position Posición en la cola (1 = la siguiente); 0 si ya no está en cola
+ * @param queueSize Compras esperando en total
+ * @param ventaId ID del pedido creado (solo si la compra ha terminado bien)
+ * @param message Mensaje de error para el usuario (solo si la compra ha fallado)
+ */
+public record CheckoutTicketStatus(String ticketId, State state, int position, int queueSize,
+                                   Long ventaId, String message) {
+
+    public enum State {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    public boolean isFinished() {
+        return state == State.COMPLETED || state == State.FAILED;
+    }
+}
@@ -0,0 +1,13 @@
+package srangeldev.mediadaw.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Ventas de un día (todas las categorías, sin pedidos cancelados).
+ *
+ * @param day Día
+ * @param units Unidades vendidas
+ * @param revenue Ingresos
+ */
+public record DailySales(LocalDate day, Long units, Double revenue) {
+}
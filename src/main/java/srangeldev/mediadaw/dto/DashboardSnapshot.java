@@ -0,0 +1,43 @@
+package srangeldev.mediadaw.dto;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Datos del panel de administración en un momento dado.
+ * Las métricas que no se han podido calcular a tiempo son null y aparecen en unavailable.
+ *
+ * @param totalProducts Número de productos
+ * @param lowStockCount Número de productos con poco stock
+ * @param lowStockProducts Los productos con menos stock (lista acotada)
+ * @param pendingOrders Pedidos pendientes
+ * @param totalRevenue Ingresos totales
+ * @param salesDays Días de la gráfica de ventas
+ * @param dailySales Ventas por día
+ * @param categorySales Ventas por categoría
+ * @param unavailable Métricas no disponibles
+ * @param generatedAt Momento en que se calculó
+ */
+public record DashboardSnapshot(Long totalProducts,
+                                Long lowStockCount,
+                                List<LowStockProduct> lowStockProducts,
+                                Long pendingOrders,
+                                Double totalRevenue,
+                                int salesDays,
+                                List<DailySales> dailySales,
+                                List<CategorySales> categorySales,
+                                Set<String> unavailable,
+                                Instant generatedAt) {
+
+    public boolean isPartial() {
+        return !unavailable.isEmpty();
+    }
+
+    /**
+     * Ingresos del mejor día de la gráfica (escala de las barras)
+     */
+    public double maxDailyRevenue() {
+        return dailySales == null ? 0 : dailySales.stream().mapToDouble(DailySales::revenue).max().orElse(0);
+    }
+}
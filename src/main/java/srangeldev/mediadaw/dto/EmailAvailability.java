@@ -0,0 +1,10 @@
+package srangeldev.mediadaw.dto;
+
+/**
+ * Respuesta de la comprobación de email disponible del registro.
+ *
+ * @param email Email consultado
+ * @param disponible Si se puede usar para registrarse
+ */
+public record EmailAvailability(String email, boolean disponible) {
+}
@@ -0,0 +1,14 @@
+package srangeldev.mediadaw.dto;
+
+import java.util.List;
+
+/**
+ * Fila de una exportación. En JSON se escribe el record tal cual; en CSV, sus valores en el orden de la cabecera.
+ */
+public interface ExportRow {
+
+    /**
+     * Valores de la fila en el mismo orden que las columnas de la cabecera CSV
+     */
+    List<Object> values();
+}
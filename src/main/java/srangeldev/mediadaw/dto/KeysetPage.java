@@ -0,0 +1,30 @@
+package srangeldev.mediadaw.dto;
+
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Página de resultados paginada por clave (keyset): la siguiente página empieza después del último ID mostrado.
+ * A diferencia de OFFSET, el coste de pedir una página no crece con lo lejos que esté del principio.
+ *
+ * @param items Elementos de la página
+ * @param nextCursor ID a partir del cual pedir la siguiente página (null si no hay más)
+ */
+public record KeysetPage<T>(List<T> items, Long nextCursor) {
+
+    /**
+     * Construye la página a partir de una consulta que ha pedido size + 1 filas:
+     * si ha llegado la fila extra hay página siguiente, y se descarta.
+     */
+    public static <T> KeysetPage<T> of(List<T> rows, int size, ToLongFunction<T> idOf) {
+        if (rows.size() <= size) {
+            return new KeysetPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, size);
+        return new KeysetPage<>(items, idOf.applyAsLong(items.getLast()));
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,14 @@
+package srangeldev.mediadaw.dto;
+
+import srangeldev.mediadaw.models.Categoria;
+
+/**
+ * Producto con poco stock (solo lo que muestra el aviso del panel).
+ *
+ * @param id ID del producto
+ * @param nombre Nombre
+ * @param stock Stock actual
+ * @param categoria Categoría
+ */
+public record LowStockProduct(Long id, String nombre, Integer stock, Categoria categoria) {
+}
@@ -0,0 +1,14 @@
+package srangeldev.mediadaw.dto;
+
+import srangeldev.mediadaw.models.Categoria;
+
+/**
+ * Unidades e importe de las líneas de un pedido de una categoría.
+ *
+ * @param ventaId Pedido
+ * @param categoria Categoría de los productos
+ * @param units Unidades
+ * @param revenue Importe de las líneas
+ */
+public record OrderCategoryTotals(Long ventaId, Categoria categoria, Long units, Double revenue) {
+}
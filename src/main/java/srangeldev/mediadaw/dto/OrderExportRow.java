@@ -0,0 +1,32 @@
+package srangeldev.mediadaw.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import srangeldev.mediadaw.models.EstadoPedido;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Pedido exportado: una fila por pedido con el email del cliente.
+ *
+ * @param id ID del pedido (en JSON, como texto: los IDs de 64 bits no caben en un número de JavaScript)
+ * @param fechaCompra Fecha de compra
+ * @param estado Estado del pedido
+ * @param total Total del pedido
+ * @param customerEmail Email del cliente
+ */
+public record OrderExportRow(@JsonSerialize(using = ToStringSerializer.class) Long id,
+                             LocalDateTime fechaCompra,
+                             EstadoPedido estado,
+                             Double total,
+                             String customerEmail) implements ExportRow {
+
+    public static final List<String> HEADER = List.of("id", "fechaCompra", "estado", "total", "customerEmail");
+
+    @Override
+    public List<Object> values() {
+        return Arrays.asList(id, fechaCompra, estado, total, customerEmail);
+    }
+}
@@ -0,0 +1,42 @@
+package srangeldev.mediadaw.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import srangeldev.mediadaw.models.EstadoPedido;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Línea de pedido exportada, con los datos del pedido y del producto para no tener que cruzar exportaciones.
+ * En JSON, los IDs de línea y de pedido se escriben como texto: son de 64 bits y no caben en un número de JavaScript.
+ *
+ * @param id ID de la línea
+ * @param orderId ID del pedido
+ * @param fechaCompra Fecha de compra del pedido
+ * @param estado Estado del pedido
+ * @param productId ID del producto
+ * @param productNombre Nombre actual del producto
+ * @param cantidad Unidades compradas
+ * @param precioVenta Precio unitario en el momento de la compra
+ * @param subtotal cantidad * precioVenta
+ */
+public record OrderLineExportRow(@JsonSerialize(using = ToStringSerializer.class) Long id,
+                                 @JsonSerialize(using = ToStringSerializer.class) Long orderId,
+                                 LocalDateTime fechaCompra,
+                                 EstadoPedido estado,
+                                 Long productId,
+                                 String productNombre,
+                                 Integer cantidad,
+                                 Double precioVenta,
+                                 Double subtotal) implements ExportRow {
+
+    public static final List<String> HEADER = List.of("id", "orderId", "fechaCompra", "estado",
+            "productId", "productNombre", "cantidad", "precioVenta", "subtotal");
+
+    @Override
+    public List<Object> values() {
+        return Arrays.asList(id, orderId, fechaCompra, estado, productId, productNombre, cantidad, precioVenta, subtotal);
+    }
+}
@@ -0,0 +1,50 @@
+package srangeldev.mediadaw.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Exportación de datos personales en segundo plano (cuentas con muchos pedidos). Inmutable: cada cambio de estado
+ * es una copia nueva.
+ *
+ * @param id ID aleatorio del trabajo (forma parte de la URL de descarga)
+ * @param userId Usuario cuyos datos se exportan
+ * @param userEmail Email de ese usuario
+ * @param requestedBy Email de quien la pidió (el propio usuario o un administrador); solo él puede descargarla
+ * @param estado Estado del trabajo
+ * @param createdAt Fecha de la petición
+ * @param finishedAt Fecha en que terminó (null si no ha terminado)
+ * @param orders Pedidos exportados (null si no ha terminado)
+ * @param sizeBytes Tamaño del fichero comprimido (null si no está listo)
+ */
+public record PersonalDataExportJob(String id,
+                                    Long userId,
+                                    String userEmail,
+                                    String requestedBy,
+                                    Estado estado,
+                                    LocalDateTime createdAt,
+                                    LocalDateTime finishedAt,
+                                    Long orders,
+                                    Long sizeBytes) {
+
+    public enum Estado {
+        PENDIENTE, EN_CURSO, LISTA, FALLIDA
+    }
+
+    public boolean isActive() {
+        return estado == Estado.PENDIENTE || estado == Estado.EN_CURSO;
+    }
+
+    public PersonalDataExportJob running() {
+        return new PersonalDataExportJob(id, userId, userEmail, requestedBy, Estado.EN_CURSO, createdAt, null, null, null);
+    }
+
+    public PersonalDataExportJob ready(long orders, long sizeBytes) {
+        return new PersonalDataExportJob(id, userId, userEmail, requestedBy, Estado.LISTA, createdAt,
+                LocalDateTime.now(), orders, sizeBytes);
+    }
+
+    public PersonalDataExportJob failed() {
+        return new PersonalDataExportJob(id, userId, userEmail, requestedBy, Estado.FALLIDA, createdAt,
+                LocalDateTime.now(), null, null);
+    }
+}
@@ -0,0 +1,35 @@
+package srangeldev.mediadaw.dto;
+
+import srangeldev.mediadaw.models.Categoria;
+import srangeldev.mediadaw.models.EstadoPedido;
+
+import java.time.LocalDateTime;
+
+/**
+ * Línea del historial de pedidos de un usuario para su exportación de datos personales, con los datos del pedido.
+ * Un pedido sin líneas sale una vez con los campos de la línea a null.
+ *
+ * @param orderId ID del pedido
+ * @param fechaCompra Fecha de compra
+ * @param estado Estado del pedido
+ * @param total Total del pedido
+ * @param lineId ID de la línea
+ * @param productId ID del producto
+ * @param sku Referencia del producto
+ * @param productNombre Nombre actual del producto
+ * @param categoria Categoría del producto
+ * @param cantidad Unidades compradas
+ * @param precioVenta Precio unitario en el momento de la compra
+ */
+public record PersonalDataOrderLineRow(Long orderId,
+                                       LocalDateTime fechaCompra,
+                                       EstadoPedido estado,
+                                       Double total,
+                                       Long lineId,
+                                       Long productId,
+                                       String sku,
+                                       String productNombre,
+                                       Categoria categoria,
+                                       Integer cantidad,
+                                       Double precioVenta) {
+}
@@ -0,0 +1,34 @@
+package srangeldev.mediadaw.dto;
+
+import srangeldev.mediadaw.models.Categoria;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Producto exportado, eliminados incluidos.
+ *
+ * @param id ID del producto
+ * @param nombre Nombre
+ * @param categoria Categoría
+ * @param precio Precio actual
+ * @param stock Stock disponible
+ * @param deleted Si está eliminado (borrado lógico)
+ * @param fechaAlta Fecha de alta
+ */
+public record ProductExportRow(Long id,
+                               String nombre,
+                               Categoria categoria,
+                               Double precio,
+                               Integer stock,
+                               Boolean deleted,
+                               LocalDateTime fechaAlta) implements ExportRow {
+
+    public static final List<String> HEADER = List.of("id", "nombre", "categoria", "precio", "stock", "deleted", "fechaAlta");
+
+    @Override
+    public List<Object> values() {
+        return Arrays.asList(id, nombre, categoria, precio, stock, deleted, fechaAlta);
+    }
+}
@@ -0,0 +1,13 @@
+package srangeldev.mediadaw.dto;
+
+import srangeldev.mediadaw.models.Categoria;
+
+/**
+ * Unidades vendidas de un producto en un periodo.
+ *
+ * @param productId ID del producto
+ * @param categoria Categoría del producto
+ * @param units Unidades vendidas
+ */
+public record ProductSales(Long productId, Categoria categoria, Long units) {
+}
@@ -0,0 +1,17 @@
+package srangeldev.mediadaw.dto;
+
+import srangeldev.mediadaw.models.EstadoPedido;
+
+/**
+ * Número de pedidos e ingresos de un estado.
+ *
+ * @param estado Estado de los pedidos
+ * @param orders Número de pedidos
+ * @param revenue Suma de sus totales
+ */
+public record SalesTotals(EstadoPedido estado, Long orders, Double revenue) {
+
+    public static SalesTotals empty(EstadoPedido estado) {
+        return new SalesTotals(estado, 0L, 0.0);
+    }
+}
@@ -0,0 +1,40 @@
+package srangeldev.mediadaw.dto;
+
+/**
+ * Franjas de stock por las que se puede filtrar la lista de productos del panel.
+ * Cada franja es un rango [min, max) para que la consulta use el índice de stock.
+ */
+public enum StockBand {
+
+    AGOTADO("Agotado", 0, 1),
+    BAJO("Stock bajo", 1, 10),
+    DISPONIBLE("Disponible", 10, Integer.MAX_VALUE);
+
+    private final String label;
+    private final int min;
+    private final int max;
+
+    StockBand(String label, int min, int max) {
+        this.label = label;
+        this.min = min;
+        this.max = max;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Stock mínimo de la franja (incluido)
+     */
+    public int getMin() {
+        return min;
+    }
+
+    /**
+     * Stock máximo de la franja (excluido)
+     */
+    public int getMax() {
+        return max;
+    }
+}
@@ -0,0 +1,21 @@
+package srangeldev.mediadaw.dto;
+
+import srangeldev.mediadaw.models.Categoria;
+
+/**
+ * Stock de un producto y su umbral de aviso propio (para evaluar los avisos de poco stock).
+ *
+ * @param id ID del producto
+ * @param nombre Nombre
+ * @param stock Stock actual
+ * @param categoria Categoría
+ * @param reorderThreshold Umbral propio del producto (null = el de su categoría)
+ * @param deleted Si está eliminado
+ */
+public record StockLevel(Long id, String nombre, Integer stock, Categoria categoria, Integer reorderThreshold,
+                         Boolean deleted) {
+
+    public LowStockProduct toLowStockProduct() {
+        return new LowStockProduct(id, nombre, stock, categoria);
+    }
+}
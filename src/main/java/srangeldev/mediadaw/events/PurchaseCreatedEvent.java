@@ -0,0 +1,12 @@
+package srangeldev.mediadaw.events;
+
+import srangeldev.mediadaw.models.Venta;
+
+/**
+ * Se publica al crear un pedido, dentro de la misma transacción.
+ * Los listeners síncronos (contadores, agregados...) se confirman o se deshacen junto con el pedido.
+ *
+ * @param venta Pedido recién guardado, con sus líneas
+ */
+public record PurchaseCreatedEvent(Venta venta) {
+}
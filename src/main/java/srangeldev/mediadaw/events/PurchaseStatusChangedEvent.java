@@ -0,0 +1,25 @@
+package srangeldev.mediadaw.events;
+
+import srangeldev.mediadaw.models.EstadoPedido;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Se publica cuando uno o varios pedidos cambian de estado, dentro de la misma transacción.
+ * Un cambio masivo publica un único evento con todos los pedidos afectados.
+ *
+ * @param target Nuevo estado de todos los pedidos
+ * @param changes Pedidos que han cambiado y su estado anterior
+ */
+public record PurchaseStatusChangedEvent(EstadoPedido target, List<Change> changes) {
+
+    /**
+     * @param ventaId ID del pedido
+     * @param fechaCompra Fecha de compra del pedido
+     * @param total Total del pedido
+     * @param previous Estado anterior
+     */
+    public record Change(Long ventaId, LocalDateTime fechaCompra, double total, EstadoPedido previous) {
+    }
+}
@@ -0,0 +1,12 @@
+package srangeldev.mediadaw.events;
+
+import java.util.Set;
+
+/**
+ * Ha cambiado el stock (o el umbral de aviso) de unos productos: compra, cancelación o edición en el panel.
+ * Se publica dentro de la transacción del cambio; los avisos de poco stock se evalúan cuando se confirma.
+ *
+ * @param productIds IDs de los productos afectados
+ */
+public record StockChangedEvent(Set<Long> productIds) {
+}
@@ -0,0 +1,10 @@
+package srangeldev.mediadaw.events;
+
+/**
+ * Ha cambiado algo de la cuenta de un usuario que afecta a su autenticación (rol, baja, reactivación, perfil).
+ *
+ * @param userId ID del usuario
+ * @param email Email del usuario (su nombre de usuario en el login)
+ */
+public record UserAccountChangedEvent(Long userId, String email) {
+}
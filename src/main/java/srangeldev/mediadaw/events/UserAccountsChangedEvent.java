@@ -0,0 +1,12 @@
+package srangeldev.mediadaw.events;
+
+import java.util.Collection;
+
+/**
+ * Versión masiva de {@link UserAccountChangedEvent}: ha cambiado la cuenta de varios usuarios a la vez
+ * (bajas y reactivaciones desde la lista del panel).
+ *
+ * @param emails Emails de los usuarios (su nombre de usuario en el login)
+ */
+public record UserAccountsChangedEvent(Collection<String> emails) {
+}
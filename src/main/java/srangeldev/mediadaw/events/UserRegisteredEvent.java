@@ -0,0 +1,10 @@
+package srangeldev.mediadaw.events;
+
+/**
+ * Se ha registrado un usuario nuevo.
+ *
+ * @param userId ID del usuario
+ * @param email Email con el que se ha registrado
+ */
+public record UserRegisteredEvent(Long userId, String email) {
+}
@@ -0,0 +1,12 @@
+package srangeldev.mediadaw.events;
+
+import java.util.Collection;
+
+/**
+ * Hay que cerrar las sesiones abiertas de estos usuarios (su rol ha cambiado o se les ha dado de baja):
+ * los permisos de la sesión ya no coinciden con los de la BD.
+ *
+ * @param emails Emails de los usuarios (su nombre de usuario en el login)
+ */
+public record UserSessionsRevokedEvent(Collection<String> emails) {
+}
@@ -0,0 +1,17 @@
+package srangeldev.mediadaw.exceptions;
+
+/**
+ * Excepción lanzada cuando el proceso de compra está saturado y no admite más peticiones.
+ * Se rechaza de inmediato en lugar de dejar al usuario esperando indefinidamente.
+ */
+public class CheckoutBusyException extends MediaDawException {
+
+    public CheckoutBusyException(String message) {
+        super(message, "CHECKOUT_BUSY");
+    }
+
+    @Override
+    public String getUserMessage() {
+        return "Estamos recibiendo muchos pedidos en este momento. Inténtalo de nuevo en unos segundos.";
+    }
+}
@@ -0,0 +1,17 @@
+package srangeldev.mediadaw.exceptions;
+
+/**
+ * Excepción lanzada cuando hay demasiadas exportaciones de datos en cola y no se admiten más.
+ * Se rechaza de inmediato en lugar de dejar al usuario esperando indefinidamente.
+ */
+public class DataExportBusyException extends MediaDawException {
+
+    public DataExportBusyException(String message) {
+        super(message, "DATA_EXPORT_BUSY");
+    }
+
+    @Override
+    public String getUserMessage() {
+        return "Hay muchas exportaciones de datos en preparación. Inténtalo de nuevo en unos minutos.";
+    }
+}
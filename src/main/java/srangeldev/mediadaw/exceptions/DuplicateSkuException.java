@@ -0,0 +1,23 @@
+package srangeldev.mediadaw.exceptions;
+
+/**
+ * Excepción lanzada cuando ya existe otro producto con el mismo SKU.
+ */
+public class DuplicateSkuException extends MediaDawException {
+
+    private final String sku;
+
+    public DuplicateSkuException(String sku) {
+        super(String.format("Ya existe un producto con el SKU '%s'", sku), "DUPLICATE_SKU");
+        this.sku = sku;
+    }
+
+    public String getSku() {
+        return sku;
+    }
+
+    @Override
+    public String getUserMessage() {
+        return "Ya hay otro producto con el SKU '" + sku + "'.";
+    }
+}
@@ -0,0 +1,17 @@
+package srangeldev.mediadaw.exceptions;
+
+/**
+ * Excepción lanzada cuando el proceso de imágenes está saturado y no admite más subidas.
+ * Se rechaza de inmediato en lugar de dejar al usuario esperando indefinidamente.
+ */
+public class ImageProcessingBusyException extends MediaDawException {
+
+    public ImageProcessingBusyException(String message) {
+        super(message, "IMAGE_PROCESSING_BUSY");
+    }
+
+    @Override
+    public String getUserMessage() {
+        return "Estamos procesando muchas imágenes en este momento. Inténtalo de nuevo en unos segundos.";
+    }
+}
@@ -1,10 +1,42 @@
 package srangeldev.mediadaw.models;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 /**
  * Estados posibles de un pedido en MediaDaw.
+ * El flujo es lineal: PENDIENTE -> ENVIADO -> ENTREGADO.
+ * Un pedido PENDIENTE también puede pasar a CANCELADO; los pedidos cancelados
+ * se conservan para el histórico y los informes.
  */
 public enum EstadoPedido {
     PENDIENTE,
     ENVIADO,
-    ENTREGADO
+    ENTREGADO,
+    CANCELADO;
+
+    /**
+     * Indica si un pedido en este estado puede pasar al estado indicado
+     */
+    public boolean canTransitionTo(EstadoPedido target) {
+        return switch (this) {
+            case PENDIENTE -> target == ENVIADO || target == CANCELADO;
+            case ENVIADO -> target == ENTREGADO;
+            case ENTREGADO, CANCELADO -> false;
+        };
+    }
+
+    /**
+     * Devuelve los estados desde los que se puede llegar al estado indicado.
+     * Se usa como guarda en los UPDATE masivos.
+     */
+    public static Set<EstadoPedido> sourcesOf(EstadoPedido target) {
+        Set<EstadoPedido> sources = EnumSet.noneOf(EstadoPedido.class);
+        for (EstadoPedido estado : values()) {
+            if (estado.canTransitionTo(target)) {
+                sources.add(estado);
+            }
+        }
+        return sources;
+    }
 }
@@ -9,7 +9,10 @@ import lombok.*;
  * para mantener un histórico correcto aunque cambien los precios.
  */
 @Entity
-@Table(name = "order_lines")
+@Table(name = "order_lines", indexes = {
+        // Líneas de los pedidos de un periodo (más vendidos)
+        @Index(name = "idx_order_lines_purchase_id", columnList = "purchase_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -17,7 +20,7 @@ import lombok.*;
 public class LineaVenta {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     @Column(nullable = false)
@@ -14,7 +14,16 @@ import java.time.LocalDateTime;
  * El campo stock es vital para gestionar la disponibilidad.
  */
 @Entity
-@Table(name = "productos")
+@Table(name = "productos",
+        uniqueConstraints = @UniqueConstraint(name = Productos.SKU_CONSTRAINT, columnNames = "sku"),
+        indexes = {
+        // Recuentos y aviso de poco stock del panel
+        @Index(name = "idx_productos_deleted_stock", columnList = "deleted, stock"),
+        // Lista paginada del panel: filtro por categoría y orden por columna
+        @Index(name = "idx_productos_category_deleted", columnList = "category, deleted"),
+        @Index(name = "idx_productos_nombre", columnList = "nombre"),
+        @Index(name = "idx_productos_precio", columnList = "precio")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -22,10 +31,16 @@ import java.time.LocalDateTime;
 @EntityListeners(AuditingEntityListener.class)
 public class Productos {
 
+    /** Nombre de la restricción única del SKU (para reconocer el SKU repetido en el error de la BD) */
+    public static final String SKU_CONSTRAINT = "uk_productos_sku";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Column(length = 64)
+    private String sku; // Referencia del proveedor; clave de la importación de catálogo (null = sin referencia)
+
     @Column(nullable = false)
     private String nombre;
 
@@ -45,6 +60,9 @@ public class Productos {
     @Column(nullable = false)
     private Categoria category;
 
+    @Column
+    private Integer reorderThreshold; // Umbral de aviso de poco stock propio (null = el de su categoría)
+
     @CreatedDate
     @Column(nullable = false, updatable = false)
     private LocalDateTime fechaAlta;
@@ -0,0 +1,36 @@
+package srangeldev.mediadaw.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Contador de pedidos e ingresos por estado, mantenido al crear pedidos y al cambiarlos de estado.
+ * Cada estado se reparte en varias filas (slot) para que las compras simultáneas no se
+ * peleen por el bloqueo de una única fila; el total de un estado es la suma de sus slots.
+ */
+@Entity
+@Table(name = "sales_counters",
+        uniqueConstraints = @UniqueConstraint(name = "uk_sales_counters_estado_slot", columnNames = {"estado", "slot"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SalesCounter {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private EstadoPedido estado;
+
+    @Column(nullable = false)
+    private int slot;
+
+    @Column(nullable = false)
+    private long orders;
+
+    @Column(nullable = false)
+    private double revenue;
+}
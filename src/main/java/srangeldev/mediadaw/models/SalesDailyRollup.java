@@ -0,0 +1,49 @@
+package srangeldev.mediadaw.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Ventas agregadas por día, categoría y estado del pedido.
+ * Se mantiene al crear pedidos y al cambiarlos de estado, así que las gráficas de ventas
+ * leen como mucho una fila por día y combinación en lugar de recorrer los pedidos.
+ *
+ * orders cuenta los pedidos con alguna línea de la categoría: un pedido con productos de
+ * dos categorías cuenta en las dos, así que no se puede sumar entre categorías.
+ */
+@Entity
+@Table(name = "sales_daily_rollup",
+        uniqueConstraints = @UniqueConstraint(name = "uk_sales_daily_rollup",
+                columnNames = {"day", "categoria", "estado"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SalesDailyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate day;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Categoria categoria;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private EstadoPedido estado;
+
+    @Column(nullable = false)
+    private long orders;
+
+    @Column(nullable = false)
+    private long units;
+
+    @Column(nullable = false)
+    private double revenue;
+}
@@ -0,0 +1,29 @@
+package srangeldev.mediadaw.models;
+
+import org.hibernate.annotations.IdGeneratorType;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca un ID que genera la aplicación con {@link SnowflakeIdGenerator} en lugar de la base de datos.
+ * Hibernate ya conoce el ID antes del INSERT, así que no hace falta un viaje a la BD para obtenerlo
+ * y los inserts de pedidos y líneas se pueden agrupar en lotes.
+ */
+@IdGeneratorType(SnowflakeId.Generator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface SnowflakeId {
+
+    class Generator implements IdentifierGenerator {
+
+        @Override
+        public Object generate(SharedSessionContractImplementor session, Object object) {
+            return SnowflakeIdGenerator.shared().nextId();
+        }
+    }
+}
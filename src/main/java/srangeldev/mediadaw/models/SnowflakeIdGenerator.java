@@ -0,0 +1,90 @@
+package srangeldev.mediadaw.models;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Generador de IDs de 64 bits ordenados en el tiempo (estilo Snowflake).
+ *
+ * Formato: 1 bit de signo (siempre 0) | 41 bits de milisegundos desde EPOCH | 10 bits de nodo | 12 bits de secuencia.
+ * Cada nodo puede generar 4096 IDs por milisegundo sin ir a la base de datos, y los IDs de un mismo
+ * nodo son estrictamente crecientes, así que ordenar por ID equivale a ordenar por fecha de creación.
+ *
+ * No usa locks: el último instante y la secuencia viven juntos en un único AtomicLong que se avanza con CAS.
+ * Si el reloj retrocede o se agota la secuencia de un milisegundo, se sigue contando desde el último
+ * valor emitido (adelantándose al reloj) en lugar de esperar o repetir IDs.
+ */
+public final class SnowflakeIdGenerator {
+
+    /** 2024-01-01T00:00:00Z */
+    public static final long EPOCH = 1_704_067_200_000L;
+
+    public static final int NODE_BITS = 10;
+    public static final int SEQUENCE_BITS = 12;
+    public static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final long TIMESTAMP_SHIFT = NODE_BITS + SEQUENCE_BITS;
+
+    private static volatile SnowflakeIdGenerator shared = new SnowflakeIdGenerator(0);
+
+    private final long nodeBits;
+    private final LongSupplier clock;
+
+    /** (milisegundos desde EPOCH << SEQUENCE_BITS) | secuencia del último ID emitido */
+    private final AtomicLong last = new AtomicLong();
+
+    public SnowflakeIdGenerator(long nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    SnowflakeIdGenerator(long nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("El nodo debe estar entre 0 y " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeBits = nodeId << SEQUENCE_BITS;
+        this.clock = clock;
+    }
+
+    /**
+     * Generador compartido por las entidades (ver {@link SnowflakeId}).
+     */
+    public static SnowflakeIdGenerator shared() {
+        return shared;
+    }
+
+    /**
+     * Fija el nodo del generador compartido. Se llama una vez al arrancar, antes de guardar ningún pedido.
+     */
+    public static void configureShared(long nodeId) {
+        shared = new SnowflakeIdGenerator(nodeId);
+    }
+
+    public long nextId() {
+        long now = (clock.getAsLong() - EPOCH) << SEQUENCE_BITS;
+        long prev;
+        long next;
+        do {
+            prev = last.get();
+            next = Math.max(now, prev + 1);
+        } while (!last.compareAndSet(prev, next));
+
+        long timestamp = next >>> SEQUENCE_BITS;
+        return (timestamp << TIMESTAMP_SHIFT) | nodeBits | (next & SEQUENCE_MASK);
+    }
+
+    /**
+     * Instante en que se generó un ID
+     */
+    public static Instant timestampOf(long id) {
+        return Instant.ofEpochMilli((id >>> TIMESTAMP_SHIFT) + EPOCH);
+    }
+
+    /**
+     * Nodo que generó un ID
+     */
+    public static long nodeOf(long id) {
+        return (id >>> SEQUENCE_BITS) & MAX_NODE_ID;
+    }
+}
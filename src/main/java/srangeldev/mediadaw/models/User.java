@@ -16,7 +16,14 @@ import java.util.List;
  * Los administradores gestionan el inventario de la tienda.
  */
 @Entity
-@Table(name = "users")
+@Table(name = "users",
+        uniqueConstraints = @UniqueConstraint(name = User.EMAIL_CONSTRAINT, columnNames = "email"),
+        indexes = {
+                // Lista paginada del panel: filtro por baja y rol, orden por columna (el email ya tiene índice único)
+                @Index(name = "idx_users_deleted_role", columnList = "is_deleted, role"),
+                @Index(name = "idx_users_nombre", columnList = "nombre"),
+                @Index(name = "idx_users_fecha_alta", columnList = "fecha_alta")
+        })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -24,6 +31,9 @@ import java.util.List;
 @EntityListeners(AuditingEntityListener.class)
 public class User {
 
+    /** Restricción única del email: el registro la usa para detectar emails repetidos */
+    public static final String EMAIL_CONSTRAINT = "uk_users_email";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -34,7 +44,7 @@ public class User {
     @Column(nullable = false)
     private String apellidos;
 
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String email;
 
     @Column(nullable = false)
@@ -12,9 +12,16 @@ import java.util.List;
 /**
  * Entidad Venta (Pedido).
  * Registra una transacción finalizada con su estado, fecha y total.
+ * El ID se genera en la aplicación y crece con el tiempo: ordenar por ID es ordenar por fecha de compra.
  */
 @Entity
-@Table(name = "ventas")
+@Table(name = "ventas", indexes = {
+        // Historial de pedidos de un usuario paginado por ID
+        @Index(name = "idx_ventas_user_id", columnList = "user_id, id"),
+        // Lista de pedidos del panel filtrada por estado o por fecha
+        @Index(name = "idx_ventas_estado_id", columnList = "estado, id"),
+        @Index(name = "idx_ventas_fecha_compra", columnList = "fechaCompra")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -23,7 +30,7 @@ import java.util.List;
 public class Venta {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     @CreatedDate
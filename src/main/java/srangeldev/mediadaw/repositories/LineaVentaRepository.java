@@ -1,13 +1,50 @@
 package srangeldev.mediadaw.repositories;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import srangeldev.mediadaw.dto.OrderLineExportRow;
+import srangeldev.mediadaw.dto.ProductSales;
+import srangeldev.mediadaw.models.EstadoPedido;
 import srangeldev.mediadaw.models.LineaVenta;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
 /**
  * Repositorio para la entidad LineaVenta.
  * Gestiona las líneas de pedido.
  */
 @Repository
 public interface LineaVentaRepository extends JpaRepository<LineaVenta, Long> {
+
+    /**
+     * Unidades vendidas de cada producto (no eliminado) en los pedidos desde una fecha,
+     * sin contar los pedidos en el estado excluido
+     */
+    @Query("""
+            SELECT new srangeldev.mediadaw.dto.ProductSales(p.id, p.category, SUM(l.cantidad))
+            FROM LineaVenta l JOIN l.venta v JOIN l.productos p
+            WHERE v.fechaCompra >= :since AND v.estado <> :excluded AND p.deleted = false
+            GROUP BY p.id, p.category
+            """)
+    List<ProductSales> sumUnitsByProductSince(LocalDateTime since, EstadoPedido excluded);
+
+    /**
+     * Líneas de los pedidos de un periodo para exportar, agrupadas por pedido en orden de compra.
+     * Se leen por tandas y sin cargar entidades: hay que consumir el Stream dentro de una transacción y cerrarlo.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+            SELECT new srangeldev.mediadaw.dto.OrderLineExportRow(l.id, v.id, v.fechaCompra, v.estado,
+                   p.id, p.nombre, l.cantidad, l.precioVenta, l.cantidad * l.precioVenta)
+            FROM LineaVenta l JOIN l.venta v JOIN l.productos p
+            WHERE v.fechaCompra >= :from AND v.fechaCompra < :to
+            ORDER BY v.fechaCompra, v.id
+            """)
+    Stream<OrderLineExportRow> streamForExport(LocalDateTime from, LocalDateTime to);
 }
@@ -1,12 +1,27 @@
 package srangeldev.mediadaw.repositories;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import srangeldev.mediadaw.dto.AdminProductRow;
+import srangeldev.mediadaw.dto.ProductExportRow;
+import srangeldev.mediadaw.dto.StockLevel;
 import srangeldev.mediadaw.models.Productos;
 import srangeldev.mediadaw.models.Categoria;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repositorio para la entidad Productos.
@@ -42,4 +57,107 @@ public interface ProductosRepository extends JpaRepository<Productos, Long> {
      */
     @Query("SELECT p FROM Productos p WHERE p.deleted = false AND p.stock < :threshold")
     List<Productos> findLowStockProducts(int threshold);
+
+    /**
+     * Cuenta los productos no eliminados
+     */
+    long countByDeletedFalse();
+
+    /**
+     * Stock y umbral de aviso de los productos indicados, sin cargar las entidades
+     */
+    @Query("SELECT new srangeldev.mediadaw.dto.StockLevel(p.id, p.nombre, p.stock, p.category, p.reorderThreshold, p.deleted) " +
+            "FROM Productos p WHERE p.id IN :ids")
+    List<StockLevel> findStockLevels(Collection<Long> ids);
+
+    /**
+     * Productos no eliminados que pueden estar por debajo de su umbral de aviso:
+     * menos stock que el mayor umbral por categoría, o que su propio umbral
+     */
+    @Query("SELECT new srangeldev.mediadaw.dto.StockLevel(p.id, p.nombre, p.stock, p.category, p.reorderThreshold, p.deleted) " +
+            "FROM Productos p WHERE p.deleted = false AND (p.stock < :maxThreshold OR p.stock < p.reorderThreshold)")
+    List<StockLevel> findStockLevelsBelow(int maxThreshold);
+
+    /**
+     * IDs de los productos de las líneas de los pedidos indicados
+     */
+    @Query("SELECT DISTINCT l.productos.id FROM LineaVenta l WHERE l.venta.id IN :ventaIds")
+    List<Long> findProductIdsByVentaIds(Collection<Long> ventaIds);
+
+    /**
+     * Página de la lista de productos del panel, sin cargar las entidades.
+     * El orden lo pone el Pageable; los filtros que no se usan se pasan abiertos
+     * (todas las categorías, stock de 0 a Integer.MAX_VALUE, patrón '%'). El patrón del nombre llega con los
+     * comodines escapados con '\'. Buscar dentro del nombre sin distinguir mayúsculas no puede usar
+     * idx_productos_nombre (que sirve para ordenar por nombre): se recorren las filas que dejan los demás filtros.
+     */
+    @Query(value = """
+            SELECT new srangeldev.mediadaw.dto.AdminProductRow(p.id, p.nombre, p.category, p.precio, p.stock, p.deleted)
+            FROM Productos p
+            WHERE p.deleted IN :deleted
+              AND p.category IN :categorias
+              AND p.stock >= :minStock AND p.stock < :maxStock
+              AND LOWER(p.nombre) LIKE :nombre ESCAPE '\\'
+            """,
+            countQuery = """
+            SELECT COUNT(p) FROM Productos p
+            WHERE p.deleted IN :deleted
+              AND p.category IN :categorias
+              AND p.stock >= :minStock AND p.stock < :maxStock
+              AND LOWER(p.nombre) LIKE :nombre ESCAPE '\\'
+            """)
+    Page<AdminProductRow> findAdminPage(Collection<Boolean> deleted, Collection<Categoria> categorias,
+                                        int minStock, int maxStock, String nombre, Pageable pageable);
+
+    /**
+     * Devuelve al stock las unidades de las líneas de los pedidos indicados (cancelación).
+     * Un único UPDATE que suma, por producto, las cantidades de order_lines.
+     *
+     * @return número de productos actualizados
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            UPDATE Productos p
+            SET p.stock = p.stock + (SELECT SUM(l.cantidad) FROM LineaVenta l
+                                     WHERE l.productos.id = p.id AND l.venta.id IN :ventaIds)
+            WHERE p.id IN (SELECT l.productos.id FROM LineaVenta l WHERE l.venta.id IN :ventaIds)
+            """)
+    int restoreStockForOrders(Collection<Long> ventaIds);
+
+    /**
+     * Descuenta stock solo si hay unidades suficientes (UPDATE condicional).
+     *
+     * @return 1 si se ha descontado, 0 si no había stock suficiente o el producto no está disponible
+     */
+    @Modifying
+    @Query("UPDATE Productos p SET p.stock = p.stock - :quantity WHERE p.id = :id AND p.deleted = false AND p.stock >= :quantity")
+    int decrementStockIfAvailable(Long id, int quantity);
+
+    /**
+     * Devuelve unidades al stock (compensación de reservas no utilizadas)
+     */
+    @Modifying
+    @Query("UPDATE Productos p SET p.stock = p.stock + :quantity WHERE p.id = :id")
+    int incrementStock(Long id, int quantity);
+
+    /**
+     * Busca un producto bloqueando su fila hasta el fin de la transacción
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Productos p WHERE p.id = :id")
+    Optional<Productos> findByIdForUpdate(Long id);
+
+    /**
+     * Productos dados de alta en un periodo para exportar, eliminados incluidos.
+     * Se leen por tandas y sin cargar entidades: hay que consumir el Stream dentro de una transacción y cerrarlo.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+            SELECT new srangeldev.mediadaw.dto.ProductExportRow(p.id, p.nombre, p.category, p.precio, p.stock,
+                   p.deleted, p.fechaAlta)
+            FROM Productos p
+            WHERE p.fechaAlta >= :from AND p.fechaAlta < :to
+            ORDER BY p.id
+            """)
+    Stream<ProductExportRow> streamForExport(LocalDateTime from, LocalDateTime to);
 }
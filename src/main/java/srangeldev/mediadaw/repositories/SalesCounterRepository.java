@@ -0,0 +1,45 @@
+package srangeldev.mediadaw.repositories;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import srangeldev.mediadaw.dto.SalesTotals;
+import srangeldev.mediadaw.models.EstadoPedido;
+import srangeldev.mediadaw.models.SalesCounter;
+
+import java.util.List;
+
+/**
+ * Gestiona los contadores de pedidos e ingresos por estado.
+ */
+@Repository
+public interface SalesCounterRepository extends JpaRepository<SalesCounter, Long> {
+
+    /**
+     * Suma (o resta, con valores negativos) pedidos e ingresos a un slot de un estado.
+     * Es un UPDATE atómico: no lee la fila antes, así que no hay actualizaciones perdidas.
+     *
+     * @return filas actualizadas (0 si el slot aún no existe)
+     */
+    @Modifying
+    @Query("UPDATE SalesCounter c SET c.orders = c.orders + :orders, c.revenue = c.revenue + :revenue " +
+            "WHERE c.estado = :estado AND c.slot = :slot")
+    int add(EstadoPedido estado, int slot, long orders, double revenue);
+
+    /**
+     * Totales por estado sumando todos los slots (como mucho una fila por estado)
+     */
+    @Query("SELECT new srangeldev.mediadaw.dto.SalesTotals(c.estado, SUM(c.orders), SUM(c.revenue)) " +
+            "FROM SalesCounter c GROUP BY c.estado")
+    List<SalesTotals> sumByEstado();
+
+    /**
+     * Bloquea todos los contadores hasta el fin de la transacción (reconciliación)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM SalesCounter c")
+    List<SalesCounter> findAllForUpdate();
+}
@@ -0,0 +1,67 @@
+package srangeldev.mediadaw.repositories;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import srangeldev.mediadaw.dto.CategorySales;
+import srangeldev.mediadaw.dto.DailySales;
+import srangeldev.mediadaw.models.Categoria;
+import srangeldev.mediadaw.models.EstadoPedido;
+import srangeldev.mediadaw.models.SalesDailyRollup;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Gestiona el agregado diario de ventas.
+ */
+@Repository
+public interface SalesDailyRollupRepository extends JpaRepository<SalesDailyRollup, Long> {
+
+    /**
+     * Suma (o resta, con valores negativos) a una fila del agregado con un UPDATE atómico.
+     *
+     * @return filas actualizadas (0 si la fila del día aún no existe)
+     */
+    @Modifying
+    @Query("UPDATE SalesDailyRollup r SET r.orders = r.orders + :orders, r.units = r.units + :units, " +
+            "r.revenue = r.revenue + :revenue " +
+            "WHERE r.day = :day AND r.categoria = :categoria AND r.estado = :estado")
+    int add(LocalDate day, Categoria categoria, EstadoPedido estado, long orders, long units, double revenue);
+
+    /**
+     * Filas de un día
+     */
+    List<SalesDailyRollup> findByDay(LocalDate day);
+
+    /**
+     * Indica si un día ya tiene filas
+     */
+    boolean existsByDay(LocalDate day);
+
+    /**
+     * Filas de un día bloqueadas hasta el fin de la transacción (recalcular el día)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM SalesDailyRollup r WHERE r.day = :day")
+    List<SalesDailyRollup> findByDayForUpdate(LocalDate day);
+
+    /**
+     * Ventas por día entre dos fechas (incluidas), una fila por día con ventas
+     */
+    @Query("SELECT new srangeldev.mediadaw.dto.DailySales(r.day, SUM(r.units), SUM(r.revenue)) " +
+            "FROM SalesDailyRollup r WHERE r.day BETWEEN :from AND :to AND r.estado <> :excluded " +
+            "GROUP BY r.day ORDER BY r.day")
+    List<DailySales> sumByDay(LocalDate from, LocalDate to, EstadoPedido excluded);
+
+    /**
+     * Ventas por categoría entre dos fechas (incluidas)
+     */
+    @Query("SELECT new srangeldev.mediadaw.dto.CategorySales(r.categoria, SUM(r.orders), SUM(r.units), SUM(r.revenue)) " +
+            "FROM SalesDailyRollup r WHERE r.day BETWEEN :from AND :to AND r.estado <> :excluded " +
+            "GROUP BY r.categoria ORDER BY SUM(r.revenue) DESC")
+    List<CategorySales> sumByCategoria(LocalDate from, LocalDate to, EstadoPedido excluded);
+}
@@ -1,10 +1,22 @@
 package srangeldev.mediadaw.repositories;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import srangeldev.mediadaw.dto.AdminUserRow;
+import srangeldev.mediadaw.models.Role;
 import srangeldev.mediadaw.models.User;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repositorio para la entidad User.
@@ -22,4 +34,80 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * Verifica si existe un usuario con el email dado
      */
     boolean existsByEmail(String email);
+
+    /**
+     * Emails de todos los usuarios, también los dados de baja (filtro de emails del registro).
+     * Se leen por tandas: hay que consumir el Stream dentro de una transacción y cerrarlo.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT u.email FROM User u")
+    Stream<String> streamAllEmails();
+
+    /**
+     * Usuarios activos (no eliminados)
+     */
+    List<User> findByIsDeletedFalse();
+
+    /**
+     * Página de la lista de usuarios del panel, sin cargar carrito ni pedidos.
+     * Los filtros sin valor se pasan abiertos (los dos valores de baja, todos los roles, patrón '%').
+     * El email se busca por prefijo, que puede usar el índice único de la columna. Los patrones llegan con
+     * los comodines escapados con '\'.
+     */
+    @Query(value = """
+            SELECT new srangeldev.mediadaw.dto.AdminUserRow(u.id, u.nombre, u.apellidos, u.email, u.role,
+                   u.isDeleted, u.fechaAlta)
+            FROM User u
+            WHERE u.isDeleted IN :deleted
+              AND u.role IN :roles
+              AND u.email LIKE :email ESCAPE '\\'
+              AND LOWER(CONCAT(u.nombre, ' ', u.apellidos)) LIKE :nombre ESCAPE '\\'
+            """,
+            countQuery = """
+            SELECT COUNT(u) FROM User u
+            WHERE u.isDeleted IN :deleted
+              AND u.role IN :roles
+              AND u.email LIKE :email ESCAPE '\\'
+              AND LOWER(CONCAT(u.nombre, ' ', u.apellidos)) LIKE :nombre ESCAPE '\\'
+            """)
+    Page<AdminUserRow> findAdminPage(Collection<Boolean> deleted, Collection<Role> roles,
+                                     String email, String nombre, Pageable pageable);
+
+    /**
+     * Emails de los usuarios activos con un rol (avisos a administradores)
+     */
+    @Query("SELECT u.email FROM User u WHERE u.role = :role AND u.isDeleted = false")
+    List<String> findEmailsByRole(Role role);
+
+    /**
+     * Sustituye el hash de la contraseña de un usuario (re-cifrado tras el login)
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.email = :email")
+    int updatePasswordByEmail(String email, String password);
+
+    /**
+     * Emails de los usuarios de ids cuya baja no está ya en el estado pedido, sin contar excluded
+     * (null para no excluir a nadie). Son los afectados por {@link #updateDeletedBulk}.
+     */
+    @Query("""
+            SELECT u.email FROM User u
+            WHERE u.id IN :ids AND u.isDeleted <> :deleted
+              AND (:excluded IS NULL OR u.email <> :excluded)
+            """)
+    List<String> findEmailsToMarkDeleted(Collection<Long> ids, boolean deleted, String excluded);
+
+    /**
+     * Da de baja o reactiva varios usuarios en un único UPDATE, con los mismos filtros que
+     * {@link #findEmailsToMarkDeleted}
+     *
+     * @return número de usuarios actualizados
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            UPDATE User u SET u.isDeleted = :deleted
+            WHERE u.id IN :ids AND u.isDeleted <> :deleted
+              AND (:excluded IS NULL OR u.email <> :excluded)
+            """)
+    int updateDeletedBulk(Collection<Long> ids, boolean deleted, String excluded);
 }
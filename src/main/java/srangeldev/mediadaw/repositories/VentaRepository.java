@@ -1,14 +1,30 @@
 package srangeldev.mediadaw.repositories;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import srangeldev.mediadaw.dto.AdminOrderRow;
+import srangeldev.mediadaw.dto.CategoryTotals;
+import srangeldev.mediadaw.dto.OrderCategoryTotals;
+import srangeldev.mediadaw.dto.SalesTotals;
+import srangeldev.mediadaw.dto.OrderExportRow;
+import srangeldev.mediadaw.dto.PersonalDataOrderLineRow;
 import srangeldev.mediadaw.models.Venta;
 import srangeldev.mediadaw.models.EstadoPedido;
 import srangeldev.mediadaw.models.User;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Gestiona los pedidos realizados por los usuarios.
@@ -26,6 +42,44 @@ public interface VentaRepository extends JpaRepository<Venta, Long> {
      */
     List<Venta> findByUserIdOrderByFechaCompraDesc(Long userId);
 
+    /**
+     * Primera página del historial de un usuario (los más recientes primero).
+     * Los IDs crecen con el tiempo, así que ordenar por ID equivale a ordenar por fecha.
+     */
+    List<Venta> findByUserIdOrderByIdDesc(Long userId, Limit limit);
+
+    /**
+     * Siguiente página del historial de un usuario: pedidos anteriores al último ID mostrado
+     */
+    List<Venta> findByUserIdAndIdLessThanOrderByIdDesc(Long userId, Long id, Limit limit);
+
+    /**
+     * Página de la lista de pedidos del panel con los datos del cliente, en una sola consulta.
+     * Paginada por ID (los más recientes primero): beforeId es el último ID de la página anterior.
+     * Los filtros que no se usan se pasan abiertos (todos los estados, rango de fechas amplio, Long.MAX_VALUE).
+     */
+    @Query("""
+            SELECT new srangeldev.mediadaw.dto.AdminOrderRow(v.id, v.fechaCompra, v.total, v.estado,
+                                                             u.email, u.nombre, u.apellidos)
+            FROM Venta v JOIN v.user u
+            WHERE v.estado IN :estados
+              AND v.fechaCompra >= :from AND v.fechaCompra < :to
+              AND v.id < :beforeId
+            ORDER BY v.id DESC
+            """)
+    List<AdminOrderRow> findAdminPage(Collection<EstadoPedido> estados, LocalDateTime from, LocalDateTime to,
+                                      Long beforeId, Pageable pageable);
+
+    /**
+     * Número de pedidos que cumplen los filtros de la lista del panel
+     */
+    @Query("""
+            SELECT COUNT(v) FROM Venta v
+            WHERE v.estado IN :estados
+              AND v.fechaCompra >= :from AND v.fechaCompra < :to
+            """)
+    long countAdminOrders(Collection<EstadoPedido> estados, LocalDateTime from, LocalDateTime to);
+
     /**
      * Busca pedidos por estado
      */
@@ -42,8 +96,94 @@ public interface VentaRepository extends JpaRepository<Venta, Long> {
     @Query("SELECT SUM(p.total) FROM Venta p WHERE p.fechaCompra BETWEEN :start AND :end")
     Double calculateTotalSalesBetween(LocalDateTime start, LocalDateTime end);
 
+    /**
+     * Número de pedidos e ingresos de cada estado calculados sobre la tabla de pedidos.
+     * Recorre todos los pedidos: solo para reconciliar los contadores, no para pantallas.
+     */
+    @Query("SELECT new srangeldev.mediadaw.dto.SalesTotals(v.estado, COUNT(v), COALESCE(SUM(v.total), 0.0)) " +
+            "FROM Venta v GROUP BY v.estado")
+    List<SalesTotals> sumTotalsByEstado();
+
+    /**
+     * Unidades e importe de cada pedido por categoría (para mover pedidos en el agregado diario)
+     */
+    @Query("SELECT new srangeldev.mediadaw.dto.OrderCategoryTotals(l.venta.id, l.productos.category, " +
+            "SUM(l.cantidad), SUM(l.precioVenta * l.cantidad)) " +
+            "FROM LineaVenta l WHERE l.venta.id IN :ventaIds GROUP BY l.venta.id, l.productos.category")
+    List<OrderCategoryTotals> sumLinesByVentaAndCategoria(Collection<Long> ventaIds);
+
+    /**
+     * Agregado por categoría y estado de los pedidos realizados entre start (incluido) y end (excluido).
+     * Recalcula un día del agregado diario.
+     */
+    @Query("SELECT new srangeldev.mediadaw.dto.CategoryTotals(l.productos.category, v.estado, " +
+            "COUNT(DISTINCT v.id), SUM(l.cantidad), SUM(l.precioVenta * l.cantidad)) " +
+            "FROM LineaVenta l JOIN l.venta v " +
+            "WHERE v.fechaCompra >= :start AND v.fechaCompra < :end " +
+            "GROUP BY l.productos.category, v.estado")
+    List<CategoryTotals> sumLinesByCategoriaAndEstado(LocalDateTime start, LocalDateTime end);
+
+    /**
+     * Fecha del primer pedido (null si no hay pedidos)
+     */
+    @Query("SELECT MIN(v.fechaCompra) FROM Venta v")
+    LocalDateTime findFirstFechaCompra();
+
     /**
      * Cuenta pedidos por estado
      */
     long countByEstado(EstadoPedido estado);
+
+    /**
+     * Obtiene los pedidos indicados bloqueando sus filas (SELECT ... FOR UPDATE) hasta el fin de la transacción.
+     * Así el estado leído no puede cambiar entre la validación y el UPDATE posterior.
+     * No carga líneas ni usuario (ambas relaciones son LAZY).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT v FROM Venta v WHERE v.id IN :ids")
+    List<Venta> findAllByIdInForUpdate(Collection<Long> ids);
+
+    /**
+     * Cambia el estado de varios pedidos en un único UPDATE.
+     * Solo afecta a los pedidos cuyo estado actual está en sources, como guarda
+     * adicional del flujo de estados.
+     *
+     * @return número de pedidos actualizados
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Venta v SET v.estado = :target WHERE v.id IN :ids AND v.estado IN :sources")
+    int updateEstadoBulk(Collection<Long> ids, Collection<EstadoPedido> sources, EstadoPedido target);
+
+    /**
+     * Pedidos de un periodo para exportar, en orden de compra. Se leen por tandas (fetch size) y sin
+     * cargar entidades: hay que consumir el Stream dentro de una transacción y cerrarlo.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+            SELECT new srangeldev.mediadaw.dto.OrderExportRow(v.id, v.fechaCompra, v.estado, v.total, u.email)
+            FROM Venta v JOIN v.user u
+            WHERE v.fechaCompra >= :from AND v.fechaCompra < :to
+            ORDER BY v.fechaCompra
+            """)
+    Stream<OrderExportRow> streamForExport(LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Número de pedidos de un usuario (índice idx_ventas_user_id)
+     */
+    long countByUserId(Long userId);
+
+    /**
+     * Historial completo de un usuario para su exportación de datos: una fila por línea de pedido, agrupadas
+     * por pedido en orden de ID (= de compra). Mismas condiciones que streamForExport: dentro de una transacción
+     * y cerrando el Stream.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+            SELECT new srangeldev.mediadaw.dto.PersonalDataOrderLineRow(v.id, v.fechaCompra, v.estado, v.total,
+                   l.id, p.id, p.sku, p.nombre, p.category, l.cantidad, l.precioVenta)
+            FROM Venta v LEFT JOIN v.lines l LEFT JOIN l.productos p
+            WHERE v.user.id = :userId
+            ORDER BY v.id, l.id
+            """)
+    Stream<PersonalDataOrderLineRow> streamPersonalData(Long userId);
 }
@@ -1,31 +1,55 @@
 package srangeldev.mediadaw.security;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import srangeldev.mediadaw.models.User; // Tu modelo de dominio
+import org.springframework.transaction.annotation.Transactional;
+import srangeldev.mediadaw.events.UserAccountChangedEvent;
 import srangeldev.mediadaw.repositories.UserRepository;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
+    private final UserDetailsCache userDetailsCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        // Buscamos al usuario en la base de datos por email
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado con email: " + email));
+        // Buscamos al usuario en la caché y, si no está, en la base de datos por email
+        UserDetails details = userDetailsCache.get(email, key -> userRepository.findByEmail(key)
+                .map(user -> new UserDetailsCache.CachedUser(
+                        user.getEmail(),
+                        user.getPassword(),
+                        user.getRole(),
+                        user.getIsDeleted() != null && user.getIsDeleted()))
+                .orElse(null));
 
-        // Para evitar el conflicto de nombres, usamos la ruta completa de la clase User de Spring Security
-        return org.springframework.security.core.userdetails.User.builder()
-                .username(user.getEmail())
-                .password(user.getPassword())
-                .roles(user.getRole().name())
-                .disabled(user.getIsDeleted() != null && user.getIsDeleted())
+        if (details == null) {
+            throw new UsernameNotFoundException("Usuario no encontrado con email: " + email);
+        }
+        return details;
+    }
+
+    /**
+     * Spring Security lo llama tras un login correcto si el hash guardado tiene un formato o un coste antiguos
+     * (PasswordHashingService.upgradeEncoding): guarda el hash nuevo y saca al usuario de la caché
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.updatePasswordByEmail(user.getUsername(), newPassword);
+        eventPublisher.publishEvent(new UserAccountChangedEvent(null, user.getUsername()));
+        log.debug("Hash de la contraseña de {} actualizado", user.getUsername());
+        return org.springframework.security.core.userdetails.User.withUserDetails(user)
+                .password(newPassword)
                 .build();
     }
 }
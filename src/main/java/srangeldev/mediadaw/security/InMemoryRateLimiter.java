@@ -0,0 +1,127 @@
+package srangeldev.mediadaw.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import srangeldev.mediadaw.config.RateLimitProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Token buckets en memoria, para una sola instancia.
+ *
+ * Las claves se reparten en STRIPES mapas con su propio cerrojo, así los logins concurrentes casi nunca
+ * esperan unos por otros. Cada minuto se borran los buckets que ya estarían llenos; si aun así se supera
+ * maxKeys, el mapa que crece purga los suyos en el momento.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "mediadaw.cluster", name = "enabled", havingValue = "false", matchIfMissing = true)
+public class InMemoryRateLimiter implements RateLimiter {
+
+    static final int STRIPES = 64;
+
+    private final RateLimitProperties properties;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    public InMemoryRateLimiter(RateLimitProperties properties) {
+        this.properties = properties;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    @Override
+    public boolean tryConsume(String key, RateLimitProperties.Bucket bucket) {
+        return tryConsume(key, bucket, System.nanoTime() / 1_000_000);
+    }
+
+    boolean tryConsume(String key, RateLimitProperties.Bucket bucket, long nowMillis) {
+        Stripe stripe = stripes[Math.floorMod(key.hashCode(), STRIPES)];
+        synchronized (stripe) {
+            if (stripe.buckets.size() >= properties.getMaxKeys() / STRIPES) {
+                stripe.removeFull(nowMillis);
+            }
+            TokenBucket state = stripe.buckets.computeIfAbsent(key,
+                    k -> new TokenBucket(bucket.getCapacity(), bucket.refillPerMilli(), nowMillis));
+            return state.tryConsume(nowMillis);
+        }
+    }
+
+    /**
+     * Olvida los buckets que ya se habrían rellenado del todo
+     */
+    @Scheduled(cron = "${mediadaw.security.rate-limit.sweep-cron:0 * * * * *}")
+    public void sweep() {
+        sweep(System.nanoTime() / 1_000_000);
+    }
+
+    void sweep(long nowMillis) {
+        int removed = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                removed += stripe.removeFull(nowMillis);
+            }
+        }
+        if (removed > 0) {
+            log.debug("Rate limit: {} buckets llenos eliminados", removed);
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.buckets.size();
+            }
+        }
+        return size;
+    }
+
+    private static final class Stripe {
+        private final Map<String, TokenBucket> buckets = new HashMap<>();
+
+        private int removeFull(long nowMillis) {
+            int before = buckets.size();
+            buckets.values().removeIf(bucket -> bucket.isFull(nowMillis));
+            return before - buckets.size();
+        }
+    }
+
+    /**
+     * Estado de un bucket; solo se toca con el cerrojo de su stripe
+     */
+    private static final class TokenBucket {
+        private final int capacity;
+        private final double refillPerMilli;
+        private double tokens;
+        private long updatedAt;
+
+        private TokenBucket(int capacity, double refillPerMilli, long nowMillis) {
+            this.capacity = capacity;
+            this.refillPerMilli = refillPerMilli;
+            this.tokens = capacity;
+            this.updatedAt = nowMillis;
+        }
+
+        private boolean tryConsume(long nowMillis) {
+            refill(nowMillis);
+            if (tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+            return true;
+        }
+
+        private boolean isFull(long nowMillis) {
+            return tokens + (nowMillis - updatedAt) * refillPerMilli >= capacity;
+        }
+
+        private void refill(long nowMillis) {
+            tokens = Math.min(capacity, tokens + (nowMillis - updatedAt) * refillPerMilli);
+            updatedAt = nowMillis;
+        }
+    }
+}
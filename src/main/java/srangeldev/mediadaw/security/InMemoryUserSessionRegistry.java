@@ -0,0 +1,79 @@
+package srangeldev.mediadaw.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.security.core.session.SessionInformation;
+import org.springframework.security.core.session.SessionRegistry;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import srangeldev.mediadaw.config.ClusterProperties;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Sesiones de Tomcat (en memoria), registradas en el SessionRegistry de Spring Security al hacer login.
+ *
+ * Cerrar una sesión es marcarla como caducada: ConcurrentSessionFilter la cierra en su siguiente petición
+ * (una búsqueda en un mapa, sin BD). Con varias instancias cada una tiene sus sesiones, así que se avisa
+ * al resto por Redis pub/sub, igual que con la caché de usuarios.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "mediadaw.session", name = "redis", havingValue = "false", matchIfMissing = true)
+public class InMemoryUserSessionRegistry implements UserSessionRegistry {
+
+    public static final String REVOCATION_CHANNEL = "mediadaw:sessions:revoke";
+
+    private final SessionRegistry sessionRegistry;
+    private final ClusterProperties clusterProperties;
+    private final ObjectProvider<StringRedisTemplate> redisTemplate;
+
+    public InMemoryUserSessionRegistry(SessionRegistry sessionRegistry,
+                                       ClusterProperties clusterProperties,
+                                       ObjectProvider<StringRedisTemplate> redisTemplate) {
+        this.sessionRegistry = sessionRegistry;
+        this.clusterProperties = clusterProperties;
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public int revokeSessions(Collection<String> usernames) {
+        int revoked = revokeLocal(usernames);
+        if (clusterProperties.isEnabled()) {
+            try {
+                redisTemplate.getObject().convertAndSend(REVOCATION_CHANNEL, String.join("\n", usernames));
+            } catch (RuntimeException e) {
+                log.warn("No se pudo avisar al resto de instancias para cerrar {} sesiones de usuario: {}",
+                        usernames.size(), e.getMessage());
+            }
+        }
+        return revoked;
+    }
+
+    /**
+     * Marca como caducadas las sesiones de esta instancia (también lo llaman los avisos de otras instancias).
+     * Una sola pasada por los usuarios con sesión, sean cuantos sean los emails.
+     */
+    public int revokeLocal(Collection<String> usernames) {
+        Set<String> targets = usernames instanceof Set<String> set ? set : new HashSet<>(usernames);
+        int revoked = 0;
+        for (Object principal : sessionRegistry.getAllPrincipals()) {
+            if (!targets.contains(username(principal))) {
+                continue;
+            }
+            for (SessionInformation session : sessionRegistry.getAllSessions(principal, false)) {
+                session.expireNow();
+                revoked++;
+            }
+        }
+        return revoked;
+    }
+
+    private static String username(Object principal) {
+        return principal instanceof UserDetails user ? user.getUsername() : String.valueOf(principal);
+    }
+}
@@ -0,0 +1,511 @@
+package srangeldev.mediadaw.security;
+
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.Session;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Sesiones HTTP en Redis: un hash por sesión con tres campos de metadatos (creación, último acceso,
+ * inactividad máxima) y un campo "attr:nombre" por atributo.
+ *
+ * Al empezar la petición solo se leen los metadatos; cada atributo se lee de Redis la primera vez que
+ * se pide (la mayoría de peticiones solo miran el contexto de seguridad y el token CSRF). Al terminar
+ * solo se escriben los atributos que han cambiado y el último acceso, y se renueva la caducidad de la clave.
+ * Como en Spring Session, un atributo que se modifica sin volver a llamar a setAttribute no se guarda.
+ *
+ * Las sesiones con login se indexan por usuario (un hash "index:email" con los IDs de sus sesiones) para poder
+ * cerrarlas todas cuando cambia su rol o se le da de baja. El usuario se guarda también como metadato, así que
+ * mantener el índice no añade lecturas; los IDs de sesiones ya caducadas se limpian al consultarlo.
+ */
+public class LazyRedisSessionRepository implements FindByIndexNameSessionRepository<LazyRedisSessionRepository.RedisSession> {
+
+    static final String CREATION_TIME = "creationTime";
+    static final String LAST_ACCESSED_TIME = "lastAccessedTime";
+    static final String MAX_INACTIVE_INTERVAL = "maxInactiveInterval";
+    static final String PRINCIPAL = "principal";
+    static final String ATTRIBUTE_PREFIX = "attr:";
+    static final String INDEX_PREFIX = "index:";
+
+    private static final byte[][] METADATA_FIELDS = {
+            bytes(CREATION_TIME), bytes(LAST_ACCESSED_TIME), bytes(MAX_INACTIVE_INTERVAL), bytes(PRINCIPAL)
+    };
+    private static final byte[] INDEX_VALUE = bytes("1");
+    private static final String NO_SUCH_KEY = "ERR no such key";
+
+    private final RedisTemplate<byte[], byte[]> redis;
+    private final SessionAttributeCodec codec;
+    private final String keyPrefix;
+    private final Duration defaultMaxInactiveInterval;
+
+    public LazyRedisSessionRepository(RedisConnectionFactory connectionFactory, SessionAttributeCodec codec,
+                                      String keyPrefix, Duration defaultMaxInactiveInterval) {
+        // Sin serializadores: todas las operaciones van directas a la conexión con bytes
+        this.redis = new RedisTemplate<>();
+        this.redis.setConnectionFactory(connectionFactory);
+        this.redis.setEnableDefaultSerializer(false);
+        this.redis.afterPropertiesSet();
+        this.codec = codec;
+        this.keyPrefix = keyPrefix;
+        this.defaultMaxInactiveInterval = defaultMaxInactiveInterval;
+    }
+
+    @Override
+    public RedisSession createSession() {
+        Instant now = Instant.now();
+        return new RedisSession(UUID.randomUUID().toString(), now, now, defaultMaxInactiveInterval, true);
+    }
+
+    @Override
+    public void save(RedisSession session) {
+        if (!session.isNew && !session.id.equals(session.savedId)) {
+            // Cambio de ID tras el login (protección contra fijación de sesión)
+            byte[] oldKey = key(session.savedId);
+            byte[] newKey = key(session.id);
+            byte[] oldId = bytes(session.savedId);
+            byte[] newId = bytes(session.id);
+            String principal = session.principalName;
+            if (rename(oldKey, newKey)) {
+                if (principal != null) {
+                    redis.executePipelined((RedisCallback<Object>) connection -> {
+                        connection.hashCommands().hDel(indexKey(principal), oldId);
+                        connection.hashCommands().hSet(indexKey(principal), newId, INDEX_VALUE);
+                        return null;
+                    });
+                }
+            } else {
+                // La sesión caducó o se borró (logout, cierre de sesiones del usuario) después de leerla:
+                // se guarda entera como una sesión nueva con lo que tiene esta petición, como Spring Session
+                session.restartAsNew();
+            }
+            session.savedId = session.id;
+        }
+        if (!session.isDirty()) {
+            return;
+        }
+
+        byte[] key = key(session.id);
+        Map<byte[], byte[]> fields = new HashMap<>();
+        if (session.isNew) {
+            // Solo la primera vez: si otra petición borra la sesión (logout), escribir el último acceso
+            // no la resucita, porque sin creationTime findById no la encuentra
+            fields.put(METADATA_FIELDS[0], bytes(Long.toString(session.creationTime.toEpochMilli())));
+        }
+        if (session.metadataChanged) {
+            fields.put(METADATA_FIELDS[1], bytes(Long.toString(session.lastAccessedTime.toEpochMilli())));
+            fields.put(METADATA_FIELDS[2], bytes(Long.toString(session.maxInactiveInterval.toSeconds())));
+        }
+        session.changed.forEach((name, value) -> fields.put(attributeField(name), codec.encode(value)));
+        byte[][] removed = session.removed.stream()
+                .map(LazyRedisSessionRepository::attributeField)
+                .toArray(byte[][]::new);
+        long ttlMillis = session.maxInactiveInterval.toMillis();
+        byte[] id = bytes(session.id);
+        String oldPrincipal = session.principalName;
+        String newPrincipal = session.principalAfterChanges();
+        boolean principalChanged = !Objects.equals(oldPrincipal, newPrincipal);
+        if (principalChanged && newPrincipal != null) {
+            fields.put(bytes(PRINCIPAL), bytes(newPrincipal));
+        }
+
+        redis.executePipelined((RedisCallback<Object>) connection -> {
+            if (!fields.isEmpty()) {
+                connection.hashCommands().hMSet(key, fields);
+            }
+            if (removed.length > 0) {
+                connection.hashCommands().hDel(key, removed);
+            }
+            if (principalChanged && oldPrincipal != null) {
+                connection.hashCommands().hDel(indexKey(oldPrincipal), id);
+                if (newPrincipal == null) {
+                    connection.hashCommands().hDel(key, bytes(PRINCIPAL));
+                }
+            }
+            if (principalChanged && newPrincipal != null) {
+                connection.hashCommands().hSet(indexKey(newPrincipal), id, INDEX_VALUE);
+            }
+            if (ttlMillis > 0) {
+                connection.keyCommands().pExpire(key, ttlMillis);
+                // El índice vive lo mismo que la sesión más reciente del usuario
+                if (newPrincipal != null) {
+                    connection.keyCommands().pExpire(indexKey(newPrincipal), ttlMillis);
+                }
+            } else {
+                connection.keyCommands().persist(key);
+                if (newPrincipal != null) {
+                    connection.keyCommands().persist(indexKey(newPrincipal));
+                }
+            }
+            return null;
+        });
+        session.principalName = newPrincipal;
+        session.markSaved();
+    }
+
+    /**
+     * Mueve la sesión a su nuevo ID. Devuelve false si la clave de origen ya no existe.
+     */
+    private boolean rename(byte[] oldKey, byte[] newKey) {
+        Boolean renamed;
+        try {
+            renamed = redis.execute((RedisCallback<Boolean>) connection -> connection.keyCommands().renameNX(oldKey, newKey));
+        } catch (NonTransientDataAccessException e) {
+            if (NO_SUCH_KEY.equals(NestedExceptionUtils.getMostSpecificCause(e).getMessage())) {
+                return false;
+            }
+            throw e;
+        }
+        if (!Boolean.TRUE.equals(renamed)) {
+            // El nuevo ID es un UUID aleatorio: no puede estar ocupado salvo por un error de otro cliente
+            throw new IllegalStateException("Ya existe una sesión con el nuevo ID");
+        }
+        return true;
+    }
+
+    @Override
+    public RedisSession findById(String id) {
+        byte[] key = key(id);
+        List<byte[]> metadata = redis.execute(
+                (RedisCallback<List<byte[]>>) connection -> connection.hashCommands().hMGet(key, METADATA_FIELDS));
+        if (metadata == null || metadata.size() < METADATA_FIELDS.length
+                || metadata.get(0) == null || metadata.get(1) == null) {
+            return null;
+        }
+        Duration maxInactive = metadata.get(2) != null
+                ? Duration.ofSeconds(parseLong(metadata.get(2)))
+                : defaultMaxInactiveInterval;
+        RedisSession session = new RedisSession(id,
+                Instant.ofEpochMilli(parseLong(metadata.get(0))),
+                Instant.ofEpochMilli(parseLong(metadata.get(1))),
+                maxInactive, false);
+        session.principalName = metadata.get(3) != null ? new String(metadata.get(3), StandardCharsets.UTF_8) : null;
+        if (session.isExpired()) {
+            delete(id, session.principalName);
+            return null;
+        }
+        return session;
+    }
+
+    @Override
+    public void deleteById(String id) {
+        byte[] key = key(id);
+        byte[] principal = redis.execute(
+                (RedisCallback<byte[]>) connection -> connection.hashCommands().hGet(key, bytes(PRINCIPAL)));
+        delete(id, principal != null ? new String(principal, StandardCharsets.UTF_8) : null);
+    }
+
+    /**
+     * Sesiones abiertas de un usuario. Solo admite el índice por usuario (PRINCIPAL_NAME_INDEX_NAME).
+     */
+    @Override
+    public Map<String, RedisSession> findByIndexNameAndIndexValue(String indexName, String indexValue) {
+        if (!PRINCIPAL_NAME_INDEX_NAME.equals(indexName)) {
+            return Map.of();
+        }
+        byte[] indexKey = indexKey(indexValue);
+        Set<byte[]> ids = redis.execute((RedisCallback<Set<byte[]>>) connection -> connection.hashCommands().hKeys(indexKey));
+        Map<String, RedisSession> sessions = new HashMap<>();
+        List<byte[]> stale = new ArrayList<>();
+        if (ids != null) {
+            for (byte[] id : ids) {
+                RedisSession session = findById(new String(id, StandardCharsets.UTF_8));
+                if (session != null) {
+                    sessions.put(session.getId(), session);
+                } else {
+                    stale.add(id);
+                }
+            }
+        }
+        if (!stale.isEmpty()) {
+            byte[][] fields = stale.toArray(byte[][]::new);
+            redis.execute((RedisCallback<Object>) connection -> connection.hashCommands().hDel(indexKey, fields));
+        }
+        return sessions;
+    }
+
+    /**
+     * Borra todas las sesiones de estos usuarios, con dos viajes a Redis sea cual sea el número de usuarios:
+     * uno para leer sus índices y otro para borrar las sesiones y los índices
+     *
+     * @return Sesiones borradas (incluye IDs de sesiones que ya habían caducado)
+     */
+    @SuppressWarnings("unchecked")
+    public int deleteByPrincipalNames(Collection<String> principalNames) {
+        if (principalNames.isEmpty()) {
+            return 0;
+        }
+        List<byte[]> indexKeys = principalNames.stream().map(this::indexKey).toList();
+        List<Object> results = redis.execute((RedisCallback<List<Object>>) connection -> {
+            connection.openPipeline();
+            indexKeys.forEach(indexKey -> connection.hashCommands().hKeys(indexKey));
+            return connection.closePipeline();
+        });
+
+        List<byte[]> keys = new ArrayList<>(indexKeys);
+        int sessions = 0;
+        if (results != null) {
+            for (Object result : results) {
+                if (result instanceof Collection<?> ids) {
+                    for (byte[] id : (Collection<byte[]>) ids) {
+                        keys.add(bytes(keyPrefix + new String(id, StandardCharsets.UTF_8)));
+                        sessions++;
+                    }
+                }
+            }
+        }
+        byte[][] toDelete = keys.toArray(byte[][]::new);
+        redis.execute((RedisCallback<Object>) connection -> connection.keyCommands().del(toDelete));
+        return sessions;
+    }
+
+    private void delete(String id, String principal) {
+        byte[] key = key(id);
+        byte[] field = bytes(id);
+        redis.executePipelined((RedisCallback<Object>) connection -> {
+            connection.keyCommands().del(key);
+            if (principal != null) {
+                connection.hashCommands().hDel(indexKey(principal), field);
+            }
+            return null;
+        });
+    }
+
+    private byte[] key(String sessionId) {
+        return bytes(keyPrefix + sessionId);
+    }
+
+    private byte[] indexKey(String principal) {
+        return bytes(keyPrefix + INDEX_PREFIX + principal);
+    }
+
+    private static byte[] attributeField(String name) {
+        return bytes(ATTRIBUTE_PREFIX + name);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static long parseLong(byte[] value) {
+        return Long.parseLong(new String(value, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Sesión de una petición. Guarda los atributos ya leídos y los cambios pendientes de escribir.
+     * No es thread-safe, igual que las sesiones de Spring Session.
+     */
+    public final class RedisSession implements Session {
+
+        /** Marca de atributo leído que no existe en Redis, para no volver a preguntar */
+        private static final Object ABSENT = new Object();
+
+        private String id;
+        private String savedId;
+        private boolean isNew;
+        private final Instant creationTime;
+        private Instant lastAccessedTime;
+        private Duration maxInactiveInterval;
+        private boolean metadataChanged;
+        private String principalName;
+
+        private final Map<String, Object> loaded = new HashMap<>();
+        private final Map<String, Object> changed = new LinkedHashMap<>();
+        private final Set<String> removed = new HashSet<>();
+        private Set<String> storedNames;
+
+        private RedisSession(String id, Instant creationTime, Instant lastAccessedTime,
+                             Duration maxInactiveInterval, boolean isNew) {
+            this.id = id;
+            this.savedId = id;
+            this.creationTime = creationTime;
+            this.lastAccessedTime = lastAccessedTime;
+            this.maxInactiveInterval = maxInactiveInterval;
+            this.isNew = isNew;
+            this.metadataChanged = isNew;
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public String changeSessionId() {
+            id = UUID.randomUUID().toString();
+            if (isNew) {
+                savedId = id;
+            }
+            return id;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T getAttribute(String attributeName) {
+            if (changed.containsKey(attributeName)) {
+                return (T) changed.get(attributeName);
+            }
+            if (removed.contains(attributeName) || isNew) {
+                return null;
+            }
+            Object value = loaded.computeIfAbsent(attributeName, this::loadAttribute);
+            return value == ABSENT ? null : (T) value;
+        }
+
+        @Override
+        public Set<String> getAttributeNames() {
+            Set<String> names = new HashSet<>(storedNames());
+            names.removeAll(removed);
+            names.addAll(changed.keySet());
+            return names;
+        }
+
+        @Override
+        public void setAttribute(String attributeName, Object attributeValue) {
+            if (attributeValue == null) {
+                removeAttribute(attributeName);
+                return;
+            }
+            changed.put(attributeName, attributeValue);
+            removed.remove(attributeName);
+        }
+
+        @Override
+        public void removeAttribute(String attributeName) {
+            changed.remove(attributeName);
+            loaded.put(attributeName, ABSENT);
+            if (!isNew) {
+                removed.add(attributeName);
+            }
+        }
+
+        @Override
+        public Instant getCreationTime() {
+            return creationTime;
+        }
+
+        @Override
+        public void setLastAccessedTime(Instant lastAccessedTime) {
+            this.lastAccessedTime = lastAccessedTime;
+            this.metadataChanged = true;
+        }
+
+        @Override
+        public Instant getLastAccessedTime() {
+            return lastAccessedTime;
+        }
+
+        @Override
+        public void setMaxInactiveInterval(Duration interval) {
+            this.maxInactiveInterval = interval;
+            this.metadataChanged = true;
+        }
+
+        @Override
+        public Duration getMaxInactiveInterval() {
+            return maxInactiveInterval;
+        }
+
+        @Override
+        public boolean isExpired() {
+            return !maxInactiveInterval.isNegative() && !maxInactiveInterval.isZero()
+                    && Instant.now().isAfter(lastAccessedTime.plus(maxInactiveInterval));
+        }
+
+        /**
+         * Usuario de la sesión tras los cambios pendientes (el del contexto de seguridad, como en Spring Session)
+         */
+        private String principalAfterChanges() {
+            Object explicit = changed.get(PRINCIPAL_NAME_INDEX_NAME);
+            if (explicit instanceof String name) {
+                return name;
+            }
+            String contextAttribute = HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY;
+            if (changed.get(contextAttribute) instanceof SecurityContext context) {
+                return context.getAuthentication() != null ? context.getAuthentication().getName() : null;
+            }
+            if (removed.contains(contextAttribute)) {
+                return null;
+            }
+            return principalName;
+        }
+
+        private boolean isDirty() {
+            return metadataChanged || !changed.isEmpty() || !removed.isEmpty();
+        }
+
+        /**
+         * Vuelve a empezar como sesión nueva (su hash ya no existe): lo que se ha leído o cambiado en esta
+         * petición pasa a cambios pendientes para escribirse entero
+         */
+        private void restartAsNew() {
+            loaded.forEach((name, value) -> {
+                if (value != ABSENT && !removed.contains(name)) {
+                    changed.putIfAbsent(name, value);
+                }
+            });
+            loaded.clear();
+            removed.clear();
+            storedNames = new HashSet<>();
+            principalName = null;
+            isNew = true;
+            metadataChanged = true;
+        }
+
+        private void markSaved() {
+            changed.forEach(loaded::put);
+            if (storedNames != null) {
+                storedNames.addAll(changed.keySet());
+                storedNames.removeAll(removed);
+            }
+            changed.clear();
+            removed.clear();
+            metadataChanged = false;
+            isNew = false;
+        }
+
+        private Object loadAttribute(String attributeName) {
+            byte[] key = key(savedId);
+            byte[] field = attributeField(attributeName);
+            byte[] value = redis.execute((RedisCallback<byte[]>) connection -> connection.hashCommands().hGet(key, field));
+            return value != null ? codec.decode(value) : ABSENT;
+        }
+
+        private Set<String> storedNames() {
+            if (storedNames == null) {
+                storedNames = new HashSet<>();
+                if (!isNew) {
+                    byte[] key = key(savedId);
+                    Set<byte[]> fields = redis.execute((RedisCallback<Set<byte[]>>) connection -> connection.hashCommands().hKeys(key));
+                    if (fields != null) {
+                        for (byte[] field : fields) {
+                            String name = new String(field, StandardCharsets.UTF_8);
+                            if (name.startsWith(ATTRIBUTE_PREFIX)) {
+                                storedNames.add(name.substring(ATTRIBUTE_PREFIX.length()));
+                            }
+                        }
+                    }
+                }
+            }
+            return storedNames;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package srangeldev.mediadaw.security;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+/**
+ * Excepción lanzada cuando el cifrado de contraseñas está saturado (cola llena o espera agotada).
+ * En el login se trata como un fallo de autenticación, pero con su propio mensaje.
+ */
+public class PasswordHashingBusyException extends AuthenticationServiceException {
+
+    public PasswordHashingBusyException(String message) {
+        super(message);
+    }
+
+    public String getUserMessage() {
+        return "Hay muchos accesos en este momento. Inténtalo de nuevo en unos segundos.";
+    }
+}
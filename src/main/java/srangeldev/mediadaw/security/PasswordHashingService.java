@@ -0,0 +1,162 @@
+package srangeldev.mediadaw.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import srangeldev.mediadaw.config.PasswordHashingProperties;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * PasswordEncoder de la aplicación: BCrypt en un pool propio y acotado.
+ *
+ * Verificar una contraseña con BCrypt son decenas de milisegundos de CPU. Aquí se hace en tantos hilos
+ * como CPUs, con una cola pequeña: en una avalancha de logins las peticiones del catálogo siguen teniendo
+ * CPU, y cuando la cola se llena el login se rechaza al momento (PasswordHashingBusyException) en lugar
+ * de acumular esperas.
+ *
+ * Los hashes llevan prefijo ({bcrypt}...) a través de un DelegatingPasswordEncoder; los antiguos sin prefijo
+ * se siguen aceptando como BCrypt. upgradeEncoding indica si un hash tiene otro formato o un coste menor que el
+ * actual, y Spring Security lo vuelve a cifrar en el siguiente login correcto (CustomUserDetailsService.updatePassword).
+ * El coste se calibra al arrancar: el mayor que verifica dentro del tiempo objetivo en esta máquina.
+ */
+@Slf4j
+@Component
+public class PasswordHashingService implements PasswordEncoder {
+
+    private static final String ENCODING_ID = "bcrypt";
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Duration maxWait;
+    private final int strength;
+    private final Counter rejectedCounter;
+
+    public PasswordHashingService(PasswordHashingProperties properties, MeterRegistry meterRegistry) {
+        this.strength = properties.getStrength() > 0
+                ? properties.getStrength()
+                : calibrateStrength(properties.getTargetVerifyTime(), properties.getMinStrength(), properties.getMaxStrength());
+        this.delegate = createDelegate(strength);
+        this.maxWait = properties.getMaxWait();
+
+        int threads = properties.getThreads() > 0 ? properties.getThreads() : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                Thread.ofPlatform().name("password-hash-", 0).daemon().factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("mediadaw.security.password.queue", executor, pool -> pool.getQueue().size())
+                .description("Operaciones de BCrypt esperando hilo")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("mediadaw.security.password.rejected")
+                .description("Operaciones de BCrypt rechazadas por cola llena o espera agotada")
+                .register(meterRegistry);
+        log.info("BCrypt con coste {} en {} hilos (cola de {})", strength, threads, properties.getQueueCapacity());
+    }
+
+    /**
+     * DelegatingPasswordEncoder con BCrypt del coste indicado, también para los hashes antiguos sin prefijo
+     */
+    static PasswordEncoder createDelegate(int strength) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(strength);
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(ENCODING_ID, Map.of(ENCODING_ID, bcrypt));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
+    }
+
+    /**
+     * Mayor coste de BCrypt (entre min y max) cuya verificación tarda como mucho target en esta máquina.
+     * Mide el coste mínimo y extrapola: cada punto de coste duplica el tiempo.
+     */
+    static int calibrateStrength(Duration target, int min, int max) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(min);
+        String hash = encoder.encode("calibracion");
+        encoder.matches("calibracion", hash); // Calentamiento
+
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            encoder.matches("calibracion", hash);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        int strength = min;
+        long estimate = best;
+        while (strength < max && estimate * 2 <= target.toNanos()) {
+            strength++;
+            estimate *= 2;
+        }
+        log.info("Calibración de BCrypt: coste {} verifica en {} ms; se usa coste {} (~{} ms)",
+                min, best / 1_000_000, strength, estimate / 1_000_000);
+        return strength;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Solo compara prefijo y coste del hash: no hace falta pasar por el pool
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new PasswordHashingBusyException("Cola de BCrypt llena (" + executor.getQueue().size() + ")");
+        }
+
+        try {
+            return future.get(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejectedCounter.increment();
+            throw new PasswordHashingBusyException("BCrypt no respondió en " + maxWait);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new PasswordHashingBusyException("Interrumpido esperando a BCrypt");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
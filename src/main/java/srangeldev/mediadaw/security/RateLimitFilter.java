@@ -0,0 +1,97 @@
+package srangeldev.mediadaw.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+import srangeldev.mediadaw.config.RateLimitProperties;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Limita los intentos de login (POST /login) y de registro (POST /registro) por IP y por email,
+ * antes de llegar a BCrypt. Un intento rechazado vuelve al formulario con ?throttled.
+ * La comprobación de email disponible (GET /registro/email-disponible) se limita por IP para que no sirva
+ * para recorrer emails; por encima del límite responde 429.
+ *
+ * Rechazos en la métrica mediadaw.security.rate_limit.rejected
+ * (endpoint=login|registro|email-disponible, key=ip|email).
+ * La IP es la de la petición; detrás de un proxy hay que configurar server.forward-headers-strategy.
+ */
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    static final String EMAIL_PROBE_PATH = "/registro/email-disponible";
+
+    private final RateLimiter rateLimiter;
+    private final RateLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public RateLimitFilter(RateLimiter rateLimiter, RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!properties.isEnabled()) {
+            return true;
+        }
+        String path = request.getServletPath();
+        if ("GET".equals(request.getMethod())) {
+            return !EMAIL_PROBE_PATH.equals(path);
+        }
+        return !"POST".equals(request.getMethod()) || (!"/login".equals(path) && !"/registro".equals(path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (EMAIL_PROBE_PATH.equals(request.getServletPath())) {
+            if (!rateLimiter.tryConsume("email-disponible:ip:" + request.getRemoteAddr(), properties.getEmailProbePerIp())) {
+                rejected("email-disponible", "ip").increment();
+                response.sendError(HttpStatus.TOO_MANY_REQUESTS.value());
+                return;
+            }
+            chain.doFilter(request, response);
+            return;
+        }
+
+        boolean login = "/login".equals(request.getServletPath());
+        String endpoint = login ? "login" : "registro";
+        RateLimitProperties.Bucket perIp = login ? properties.getLoginPerIp() : properties.getRegisterPerIp();
+        RateLimitProperties.Bucket perEmail = login ? properties.getLoginPerEmail() : properties.getRegisterPerEmail();
+        String email = request.getParameter(login ? "username" : "email");
+
+        String rejectedBy = null;
+        if (!rateLimiter.tryConsume(endpoint + ":ip:" + request.getRemoteAddr(), perIp)) {
+            rejectedBy = "ip";
+        } else if (email != null && !email.isBlank()
+                && !rateLimiter.tryConsume(endpoint + ":email:" + email.trim().toLowerCase(Locale.ROOT), perEmail)) {
+            rejectedBy = "email";
+        }
+
+        if (rejectedBy != null) {
+            rejected(endpoint, rejectedBy).increment();
+            log.debug("Intento de {} rechazado por límite de {} ({})", endpoint, rejectedBy, request.getRemoteAddr());
+            response.sendRedirect(request.getContextPath() + (login ? "/login" : "/registro") + "?throttled=true");
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    private Counter rejected(String endpoint, String key) {
+        return Counter.builder("mediadaw.security.rate_limit.rejected")
+                .description("Intentos rechazados por el límite de login y registro")
+                .tag("endpoint", endpoint)
+                .tag("key", key)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,17 @@
+package srangeldev.mediadaw.security;
+
+import srangeldev.mediadaw.config.RateLimitProperties;
+
+/**
+ * Token buckets por clave (IP o email). Un bucket lleno es igual que uno que no existe, así que las
+ * implementaciones pueden olvidar los que llevan un refillPeriod sin usarse.
+ */
+public interface RateLimiter {
+
+    /**
+     * Consume un token del bucket de la clave
+     *
+     * @return false si el bucket está vacío (hay que rechazar el intento)
+     */
+    boolean tryConsume(String key, RateLimitProperties.Bucket bucket);
+}
@@ -0,0 +1,70 @@
+package srangeldev.mediadaw.security;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import srangeldev.mediadaw.config.RateLimitProperties;
+
+import java.util.List;
+
+/**
+ * Token buckets en Redis, compartidos por todas las instancias.
+ *
+ * Cada intento es un script Lua (atómico en Redis) que rellena el bucket según el tiempo transcurrido
+ * (reloj de Redis, igual para todas las instancias), consume un token si hay y deja caducar la clave
+ * cuando el bucket estaría lleno. Si Redis no responde se deja pasar el intento: el límite protege
+ * la CPU, no la autenticación.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "mediadaw.cluster", name = "enabled", havingValue = "true")
+public class RedisRateLimiter implements RateLimiter {
+
+    static final String KEY_PREFIX = "mediadaw:rate-limit:";
+
+    static final RedisScript<Long> TOKEN_BUCKET = RedisScript.of("""
+            local capacity = tonumber(ARGV[1])
+            local refill_per_ms = tonumber(ARGV[2])
+            local ttl_ms = tonumber(ARGV[3])
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+            local state = redis.call('HMGET', KEYS[1], 'tokens', 'ts')
+            local tokens = tonumber(state[1])
+            local ts = tonumber(state[2])
+            if tokens == nil then
+                tokens = capacity
+                ts = now
+            end
+            tokens = math.min(capacity, tokens + math.max(0, now - ts) * refill_per_ms)
+
+            local allowed = 0
+            if tokens >= 1 then
+                tokens = tokens - 1
+                allowed = 1
+            end
+            redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', tostring(now))
+            redis.call('PEXPIRE', KEYS[1], ttl_ms)
+            return allowed
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Override
+    public boolean tryConsume(String key, RateLimitProperties.Bucket bucket) {
+        try {
+            Long allowed = redisTemplate.execute(TOKEN_BUCKET, List.of(KEY_PREFIX + key),
+                    Integer.toString(bucket.getCapacity()),
+                    Double.toString(bucket.refillPerMilli()),
+                    Long.toString(bucket.getRefillPeriod().toMillis()));
+            return allowed == null || allowed == 1L;
+        } catch (RuntimeException e) {
+            log.warn("Rate limit sin Redis, se deja pasar el intento: {}", e.getMessage());
+            return true;
+        }
+    }
+}
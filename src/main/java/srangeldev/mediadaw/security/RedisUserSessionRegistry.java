@@ -0,0 +1,24 @@
+package srangeldev.mediadaw.security;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/**
+ * Sesiones en Redis (LazyRedisSessionRepository): cerrarlas es borrarlas, con lo que el cambio llega a todas
+ * las instancias a la vez y las peticiones no hacen ninguna comprobación extra.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "mediadaw.session", name = "redis", havingValue = "true")
+public class RedisUserSessionRegistry implements UserSessionRegistry {
+
+    private final LazyRedisSessionRepository sessionRepository;
+
+    @Override
+    public int revokeSessions(Collection<String> usernames) {
+        return sessionRepository.deleteByPrincipalNames(usernames);
+    }
+}
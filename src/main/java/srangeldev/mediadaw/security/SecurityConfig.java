@@ -1,14 +1,23 @@
 package srangeldev.mediadaw.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.core.session.SessionRegistry;
+import org.springframework.security.core.session.SessionRegistryImpl;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.ExceptionMappingAuthenticationFailureHandler;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.session.HttpSessionEventPublisher;
+import srangeldev.mediadaw.config.RateLimitProperties;
+
+import java.util.Map;
 
 @Configuration
 @EnableWebSecurity
@@ -16,20 +25,29 @@ import org.springframework.security.web.SecurityFilterChain;
 public class SecurityConfig {
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http,
+                                           RateLimiter rateLimiter,
+                                           RateLimitProperties rateLimitProperties,
+                                           MeterRegistry meterRegistry,
+                                           ObjectProvider<SessionRegistry> sessionRegistry) throws Exception {
         http
+                // Límite de intentos de login y registro antes de que lleguen a BCrypt
+                .addFilterBefore(new RateLimitFilter(rateLimiter, rateLimitProperties, meterRegistry),
+                        UsernamePasswordAuthenticationFilter.class)
                 .authorizeHttpRequests(auth -> auth
                         // Recursos estáticos primero
-                        .requestMatchers("/css/**", "/js/**", "/images/**", "/webjars/**").permitAll()
+                        .requestMatchers("/css/**", "/js/**", "/images/**", "/webjars/**", "/avatars/**").permitAll()
                         .requestMatchers("/favicon.ico", "/error").permitAll()
 
                         // Rutas públicas - acceso sin autenticación
                         .requestMatchers("/", "/home", "/index").permitAll()
-                        .requestMatchers("/login", "/registro", "/auth/**").permitAll()
+                        .requestMatchers("/login", "/registro", "/registro/email-disponible", "/auth/**").permitAll()
                         .requestMatchers("/productos", "/productos/**").permitAll()
 
                         // Rutas de administración - requieren rol ADMIN
                         .requestMatchers("/admin/**").hasRole("ADMIN")
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
 
                         // Rutas del carrito - requieren autenticación (consolidadas)
                         .requestMatchers("/carrito/**").authenticated()
@@ -41,7 +59,7 @@ public class SecurityConfig {
                         .loginPage("/login")
                         .loginProcessingUrl("/login")
                         .defaultSuccessUrl("/", true)
-                        .failureUrl("/login?error=true")
+                        .failureHandler(loginFailureHandler())
                         .permitAll()
                 )
                 .logout(logout -> logout
@@ -54,11 +72,42 @@ public class SecurityConfig {
                 )
                 .csrf(Customizer.withDefaults());
 
+        // Sesiones de Tomcat: se registran al hacer login para poder cerrarlas (UserSessionRegistry).
+        // Con sesiones en Redis se cierran borrándolas y no hace falta comprobar nada en cada petición.
+        SessionRegistry registry = sessionRegistry.getIfAvailable();
+        if (registry != null) {
+            http.sessionManagement(session -> session
+                    .maximumSessions(-1)
+                    .sessionRegistry(registry)
+                    .expiredUrl("/login?expired=true"));
+        }
+
         return http.build();
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    @ConditionalOnProperty(prefix = "mediadaw.session", name = "redis", havingValue = "false", matchIfMissing = true)
+    public SessionRegistry sessionRegistry() {
+        return new SessionRegistryImpl();
+    }
+
+    /**
+     * Avisa al SessionRegistry cuando Tomcat destruye una sesión (logout o caducidad) para que la olvide
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "mediadaw.session", name = "redis", havingValue = "false", matchIfMissing = true)
+    public HttpSessionEventPublisher httpSessionEventPublisher() {
+        return new HttpSessionEventPublisher();
+    }
+
+    /**
+     * Credenciales incorrectas: /login?error. Cifrado de contraseñas saturado: /login?busy
+     * (el PasswordEncoder es PasswordHashingService)
+     */
+    private ExceptionMappingAuthenticationFailureHandler loginFailureHandler() {
+        ExceptionMappingAuthenticationFailureHandler handler = new ExceptionMappingAuthenticationFailureHandler();
+        handler.setDefaultFailureUrl("/login?error=true");
+        handler.setExceptionMappings(Map.of(PasswordHashingBusyException.class.getName(), "/login?busy=true"));
+        return handler;
     }
 }
@@ -0,0 +1,169 @@
+package srangeldev.mediadaw.security;
+
+import org.springframework.core.ConfigurableObjectInputStream;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+import org.springframework.security.web.csrf.DefaultCsrfToken;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serialización de los atributos de sesión que se guardan en Redis.
+ *
+ * El contexto de seguridad (email, roles y flags de la cuenta), el token CSRF y los String se escriben
+ * en un formato binario propio de pocas decenas de bytes; la serialización Java del mismo contexto
+ * ocupa más de un kilobyte. El resto de atributos (flash attributes, petición guardada, ...) se
+ * serializa con Java. El primer byte indica el formato.
+ */
+public class SessionAttributeCodec {
+
+    static final byte JAVA = 0;
+    static final byte STRING = 1;
+    static final byte SECURITY_CONTEXT = 2;
+    static final byte CSRF_TOKEN = 3;
+
+    private static final int ENABLED = 1;
+    private static final int ACCOUNT_NON_EXPIRED = 1 << 1;
+    private static final int CREDENTIALS_NON_EXPIRED = 1 << 2;
+    private static final int ACCOUNT_NON_LOCKED = 1 << 3;
+
+    private final ClassLoader classLoader;
+
+    public SessionAttributeCodec(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    public byte[] encode(Object value) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            if (value instanceof String s) {
+                out.writeByte(STRING);
+                out.writeUTF(s);
+            } else if (isCompactSecurityContext(value)) {
+                out.writeByte(SECURITY_CONTEXT);
+                writeSecurityContext(out, (SecurityContextImpl) value);
+            } else if (value != null && value.getClass() == DefaultCsrfToken.class) {
+                DefaultCsrfToken token = (DefaultCsrfToken) value;
+                out.writeByte(CSRF_TOKEN);
+                out.writeUTF(token.getHeaderName());
+                out.writeUTF(token.getParameterName());
+                out.writeUTF(token.getToken());
+            } else {
+                out.writeByte(JAVA);
+                ObjectOutputStream objects = new ObjectOutputStream(out);
+                objects.writeObject(value);
+                objects.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se puede serializar el atributo de sesión " + value.getClass().getName(), e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public Object decode(byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            byte format = in.readByte();
+            if (format == STRING) {
+                return in.readUTF();
+            }
+            if (format == SECURITY_CONTEXT) {
+                return readSecurityContext(in);
+            }
+            if (format == CSRF_TOKEN) {
+                return new DefaultCsrfToken(in.readUTF(), in.readUTF(), in.readUTF());
+            }
+            try (ObjectInputStream objects = new ConfigurableObjectInputStream(in, classLoader)) {
+                return objects.readObject();
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalStateException("No se puede leer el atributo de sesión", e);
+        }
+    }
+
+    /**
+     * Solo el contexto que deja el login por formulario: cualquier otro se serializa con Java para no perder nada
+     */
+    private static boolean isCompactSecurityContext(Object value) {
+        if (value == null || value.getClass() != SecurityContextImpl.class) {
+            return false;
+        }
+        Object authentication = ((SecurityContextImpl) value).getAuthentication();
+        if (authentication == null || authentication.getClass() != UsernamePasswordAuthenticationToken.class) {
+            return false;
+        }
+        UsernamePasswordAuthenticationToken token = (UsernamePasswordAuthenticationToken) authentication;
+        Object details = token.getDetails();
+        return token.isAuthenticated()
+                && token.getPrincipal() != null && token.getPrincipal().getClass() == User.class
+                && token.getAuthorities().stream().allMatch(a -> a.getClass() == SimpleGrantedAuthority.class)
+                && (details == null || details.getClass() == WebAuthenticationDetails.class);
+    }
+
+    private static void writeSecurityContext(DataOutputStream out, SecurityContextImpl context) throws IOException {
+        UsernamePasswordAuthenticationToken token = (UsernamePasswordAuthenticationToken) context.getAuthentication();
+        User user = (User) token.getPrincipal();
+        out.writeUTF(user.getUsername());
+        int flags = (user.isEnabled() ? ENABLED : 0)
+                | (user.isAccountNonExpired() ? ACCOUNT_NON_EXPIRED : 0)
+                | (user.isCredentialsNonExpired() ? CREDENTIALS_NON_EXPIRED : 0)
+                | (user.isAccountNonLocked() ? ACCOUNT_NON_LOCKED : 0);
+        out.writeByte(flags);
+        // Las authorities del token son las mismas que las del usuario tras el login
+        out.writeByte(token.getAuthorities().size());
+        for (GrantedAuthority authority : token.getAuthorities()) {
+            out.writeUTF(authority.getAuthority());
+        }
+        WebAuthenticationDetails details = (WebAuthenticationDetails) token.getDetails();
+        out.writeBoolean(details != null);
+        if (details != null) {
+            writeNullable(out, details.getRemoteAddress());
+            writeNullable(out, details.getSessionId());
+        }
+    }
+
+    private static SecurityContextImpl readSecurityContext(DataInputStream in) throws IOException {
+        String username = in.readUTF();
+        int flags = in.readUnsignedByte();
+        int count = in.readUnsignedByte();
+        List<SimpleGrantedAuthority> authorities = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            authorities.add(new SimpleGrantedAuthority(in.readUTF()));
+        }
+        // La contraseña no viaja: Spring Security ya la borra del principal tras autenticar
+        User user = new User(username, "",
+                (flags & ENABLED) != 0,
+                (flags & ACCOUNT_NON_EXPIRED) != 0,
+                (flags & CREDENTIALS_NON_EXPIRED) != 0,
+                (flags & ACCOUNT_NON_LOCKED) != 0,
+                authorities);
+        UsernamePasswordAuthenticationToken token = UsernamePasswordAuthenticationToken.authenticated(user, null, authorities);
+        if (in.readBoolean()) {
+            token.setDetails(new WebAuthenticationDetails(readNullable(in), readNullable(in)));
+        }
+        return new SecurityContextImpl(token);
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,192 @@
+package srangeldev.mediadaw.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import srangeldev.mediadaw.config.ClusterProperties;
+import srangeldev.mediadaw.config.UserDetailsCacheProperties;
+import srangeldev.mediadaw.events.UserAccountChangedEvent;
+import srangeldev.mediadaw.events.UserAccountsChangedEvent;
+import srangeldev.mediadaw.models.Role;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Caché de los datos de login de los usuarios (email, hash de la contraseña, rol y si está dado de baja).
+ *
+ * Acotada por tamaño (sale el usado hace más tiempo) y por tiempo desde la lectura. Cuando cambia una cuenta
+ * (UserAccountChangedEvent, o UserAccountsChangedEvent en los cambios masivos) se borra su entrada al
+ * confirmarse el cambio y, con varias instancias, se avisa al resto por Redis pub/sub. Nunca devuelve el objeto
+ * cacheado: Spring Security borra la contraseña del UserDetails tras autenticar, así que cada llamada recibe
+ * uno nuevo.
+ *
+ * Métricas con las convenciones de Micrometer para cachés: cache.gets (result=hit|miss), cache.evictions
+ * y cache.size, con la etiqueta cache=userDetails.
+ */
+@Slf4j
+@Component
+public class UserDetailsCache {
+
+    public static final String EVICTION_CHANNEL = "mediadaw:user-details:evict";
+    private static final String CACHE_NAME = "userDetails";
+
+    private final UserDetailsCacheProperties properties;
+    private final ClusterProperties clusterProperties;
+    private final ObjectProvider<StringRedisTemplate> redisTemplate;
+
+    private final Map<String, Entry> entries;
+    // Se incrementa en cada borrado: una lectura de la BD que empezó antes no se guarda (podría estar obsoleta)
+    private final AtomicLong evictionGeneration = new AtomicLong();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public UserDetailsCache(UserDetailsCacheProperties properties,
+                            ClusterProperties clusterProperties,
+                            ObjectProvider<StringRedisTemplate> redisTemplate,
+                            MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.clusterProperties = clusterProperties;
+        this.redisTemplate = redisTemplate;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > properties.getMaxSize();
+            }
+        };
+
+        this.hits = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "hit")
+                .description("Logins resueltos sin consultar la BD")
+                .register(meterRegistry);
+        this.misses = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "miss")
+                .description("Logins que han tenido que leer el usuario de la BD")
+                .register(meterRegistry);
+        this.evictions = Counter.builder("cache.evictions").tag("cache", CACHE_NAME)
+                .description("Usuarios borrados de la caché por cambios en su cuenta")
+                .register(meterRegistry);
+        Gauge.builder("cache.size", this, UserDetailsCache::size).tag("cache", CACHE_NAME)
+                .description("Usuarios en caché")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Datos de login del usuario: de la caché si están y no han caducado; si no, del loader (que puede
+     * devolver null si el usuario no existe, y entonces no se guarda nada)
+     */
+    public UserDetails get(String email, Function<String, CachedUser> loader) {
+        long now = System.nanoTime();
+        synchronized (entries) {
+            Entry entry = entries.get(email);
+            if (entry != null && now - entry.loadedAt() < properties.getTtl().toNanos()) {
+                hits.increment();
+                return entry.user().toUserDetails();
+            }
+        }
+
+        misses.increment();
+        long generation = evictionGeneration.get();
+        CachedUser user = loader.apply(email);
+        if (user == null) {
+            return null;
+        }
+        synchronized (entries) {
+            if (evictionGeneration.get() == generation) {
+                entries.put(email, new Entry(user, now));
+            }
+        }
+        return user.toUserDetails();
+    }
+
+    /**
+     * Borra un usuario de la caché cuando se confirma el cambio de su cuenta, aquí y en el resto de instancias
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserAccountChanged(UserAccountChangedEvent event) {
+        if (event.email() == null) {
+            return;
+        }
+        evict(List.of(event.email()));
+    }
+
+    /**
+     * Borra de golpe los usuarios de un cambio masivo: un único aviso al resto de instancias
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserAccountsChanged(UserAccountsChangedEvent event) {
+        if (event.emails() == null || event.emails().isEmpty()) {
+            return;
+        }
+        evict(event.emails());
+    }
+
+    private void evict(Collection<String> emails) {
+        evictLocal(emails);
+        if (clusterProperties.isEnabled()) {
+            try {
+                // Un email por línea (un email no puede contener saltos de línea)
+                redisTemplate.getObject().convertAndSend(EVICTION_CHANNEL, String.join("\n", emails));
+            } catch (RuntimeException e) {
+                // Las otras instancias lo verán como mucho al caducar la entrada
+                log.warn("No se pudo avisar al resto de instancias del cambio de {} usuario(s): {}",
+                        emails.size(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Borra un usuario solo de la caché de esta instancia
+     */
+    public void evictLocal(String email) {
+        evictLocal(List.of(email));
+    }
+
+    /**
+     * Borra varios usuarios solo de la caché de esta instancia (también lo llaman los avisos de otras instancias)
+     */
+    public void evictLocal(Collection<String> emails) {
+        synchronized (entries) {
+            evictionGeneration.incrementAndGet();
+            for (String email : emails) {
+                if (entries.remove(email) != null) {
+                    evictions.increment();
+                }
+            }
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Lo que se guarda de cada usuario; inmutable
+     */
+    public record CachedUser(String email, String passwordHash, Role role, boolean disabled) {
+
+        UserDetails toUserDetails() {
+            return org.springframework.security.core.userdetails.User.builder()
+                    .username(email)
+                    .password(passwordHash)
+                    .roles(role.name())
+                    .disabled(disabled)
+                    .build();
+        }
+    }
+
+    private record Entry(CachedUser user, long loadedAt) {
+    }
+}
@@ -0,0 +1,17 @@
+package srangeldev.mediadaw.security;
+
+import java.util.Collection;
+
+/**
+ * Sesiones abiertas por usuario. Los permisos de una sesión se fijan al hacer login, así que cuando cambia
+ * el rol de un usuario o se le da de baja hay que cerrar sus sesiones para que no sigan con los antiguos.
+ */
+public interface UserSessionRegistry {
+
+    /**
+     * Cierra todas las sesiones de estos usuarios (emails); su siguiente petición llega sin login
+     *
+     * @return Sesiones cerradas
+     */
+    int revokeSessions(Collection<String> usernames);
+}
@@ -0,0 +1,32 @@
+package srangeldev.mediadaw.security;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import srangeldev.mediadaw.events.UserSessionsRevokedEvent;
+
+/**
+ * Cierra las sesiones de los usuarios afectados al confirmarse el cambio (si la transacción se deshace, siguen abiertas)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserSessionRevoker {
+
+    private final UserSessionRegistry userSessionRegistry;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserSessionsRevoked(UserSessionsRevokedEvent event) {
+        if (event.emails().isEmpty()) {
+            return;
+        }
+        try {
+            int revoked = userSessionRegistry.revokeSessions(event.emails());
+            log.info("{} sesiones cerradas de {} usuarios", revoked, event.emails().size());
+        } catch (RuntimeException e) {
+            // El cambio ya está confirmado: las sesiones acabarán al caducar o al volver a hacer login
+            log.error("No se pudieron cerrar las sesiones de {} usuarios", event.emails().size(), e);
+        }
+    }
+}
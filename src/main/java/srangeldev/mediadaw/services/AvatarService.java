@@ -0,0 +1,304 @@
+package srangeldev.mediadaw.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import srangeldev.mediadaw.config.AvatarProperties;
+import srangeldev.mediadaw.exceptions.ImageProcessingBusyException;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
+
+/**
+ * Avatares de usuario: validación, redimensionado y almacenamiento en disco.
+ *
+ * Una imagen subida (PNG o JPEG) se recorta al cuadrado central y se reduce una sola vez a los tamaños
+ * configurados; el original no se guarda. Cada versión se guarda en storageDir/{tamaño}/{clave}, donde la clave
+ * es el SHA-256 del fichero subido más la extensión: la misma imagen siempre da la misma clave (no se vuelve
+ * a procesar) y un fichero nunca cambia de contenido, así que se puede cachear para siempre.
+ *
+ * El redimensionado (ImageIO + Java2D, CPU) va en un pool propio y acotado como el de BCrypt; con la cola llena
+ * la subida se rechaza al momento (ImageProcessingBusyException). Métricas mediadaw.avatars.queue y .rejected.
+ */
+@Slf4j
+@Service
+public class AvatarService {
+
+    private static final Pattern KEY = Pattern.compile("[0-9a-f]{64}\\.(?:jpg|png)");
+
+    private final AvatarProperties properties;
+    private final ThreadPoolExecutor executor;
+    private final Counter rejectedCounter;
+
+    public AvatarService(AvatarProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        try {
+            for (int size : properties.getSizes()) {
+                Files.createDirectories(properties.getStorageDir().resolve(Integer.toString(size)));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se puede crear el directorio de avatares " + properties.getStorageDir(), e);
+        }
+
+        this.executor = new ThreadPoolExecutor(properties.getThreads(), properties.getThreads(), 0, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                Thread.ofPlatform().name("avatar-", 0).daemon().factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("mediadaw.avatars.queue", executor, pool -> pool.getQueue().size())
+                .description("Avatares esperando hilo para redimensionarse")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("mediadaw.avatars.rejected")
+                .description("Avatares rechazados por cola llena o espera agotada")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Valida una imagen subida y guarda sus versiones redimensionadas.
+     *
+     * @return clave del avatar (para User.avatar)
+     * @throws IllegalArgumentException si no es un PNG o JPEG válido o supera los límites
+     * @throws ImageProcessingBusyException si el pool de imágenes está saturado
+     */
+    public String store(byte[] upload) {
+        if (upload.length == 0) {
+            throw new IllegalArgumentException("El fichero está vacío.");
+        }
+        if (upload.length > properties.getMaxFileSize().toBytes()) {
+            throw new IllegalArgumentException("La imagen no puede ocupar más de "
+                    + properties.getMaxFileSize().toMegabytes() + " MB.");
+        }
+        String hash = sha256(upload);
+        return run(() -> process(upload, hash));
+    }
+
+    /**
+     * Fichero de un avatar en un tamaño, si la clave es válida, el tamaño es uno de los configurados y existe
+     */
+    public Optional<Path> find(int size, String key) {
+        if (!properties.getSizes().contains(size) || !KEY.matcher(key).matches()) {
+            return Optional.empty();
+        }
+        Path file = path(size, key);
+        return Files.isRegularFile(file) ? Optional.of(file) : Optional.empty();
+    }
+
+    /**
+     * Tipo de contenido según la extensión de la clave
+     */
+    public static MediaType contentType(String key) {
+        return key.endsWith(".png") ? MediaType.IMAGE_PNG : MediaType.IMAGE_JPEG;
+    }
+
+    String process(byte[] upload, String hash) throws IOException {
+        String extension;
+        BufferedImage image;
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(upload))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                throw new IllegalArgumentException("El fichero no es una imagen PNG o JPEG.");
+            }
+            ImageReader reader = readers.next();
+            try {
+                extension = extension(reader.getFormatName());
+                reader.setInput(in, true, true);
+                // Solo la cabecera: una imagen enorme se rechaza antes de reservar memoria para sus píxeles
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if (width > properties.getMaxDimension() || height > properties.getMaxDimension()) {
+                    throw new IllegalArgumentException("La imagen no puede medir más de "
+                            + properties.getMaxDimension() + " píxeles de ancho o alto.");
+                }
+                if (isStored(hash + "." + extension)) {
+                    return hash + "." + extension;
+                }
+                image = reader.read(0);
+            } catch (IOException e) {
+                throw new IllegalArgumentException("La imagen está dañada o no se puede leer.", e);
+            } finally {
+                reader.dispose();
+            }
+        }
+
+        String key = hash + "." + extension;
+        boolean alpha = extension.equals("png") && image.getColorModel().hasAlpha();
+        BufferedImage square = cropToSquare(image);
+        for (int size : properties.getSizes()) {
+            write(resize(square, size, alpha), extension, path(size, key));
+        }
+        log.debug("Avatar {} generado desde {}x{}", key, image.getWidth(), image.getHeight());
+        return key;
+    }
+
+    /**
+     * Ya se procesó esta misma imagen (mismo hash): todas sus versiones están en disco
+     */
+    private boolean isStored(String key) {
+        return properties.getSizes().stream().allMatch(size -> Files.isRegularFile(path(size, key)));
+    }
+
+    private static String extension(String formatName) {
+        String format = formatName.toLowerCase(Locale.ROOT);
+        if (format.equals("png")) {
+            return "png";
+        }
+        if (format.equals("jpeg") || format.equals("jpg")) {
+            return "jpg";
+        }
+        throw new IllegalArgumentException("Formato no admitido (" + formatName + "): sube un PNG o un JPEG.");
+    }
+
+    private static BufferedImage cropToSquare(BufferedImage image) {
+        int side = Math.min(image.getWidth(), image.getHeight());
+        return image.getSubimage((image.getWidth() - side) / 2, (image.getHeight() - side) / 2, side, side);
+    }
+
+    /**
+     * Reduce por mitades mientras sobre más del doble (una sola pasada bilineal pierde detalle)
+     * y termina con una pasada bicúbica al tamaño exacto
+     */
+    static BufferedImage resize(BufferedImage square, int size, boolean alpha) {
+        int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage current = square;
+        int side = square.getWidth();
+        while (side / 2 >= size) {
+            side /= 2;
+            current = draw(current, side, type, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        }
+        return draw(current, size, type, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+    }
+
+    private static BufferedImage draw(BufferedImage source, int side, int type, Object interpolation) {
+        BufferedImage target = new BufferedImage(side, side, type);
+        Graphics2D g = target.createGraphics();
+        try {
+            if (type == BufferedImage.TYPE_INT_RGB) {
+                // JPEG no tiene transparencia: fondo blanco
+                g.setColor(Color.WHITE);
+                g.fillRect(0, 0, side, side);
+            }
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, interpolation);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, side, side, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    /**
+     * Escribe en un temporal del mismo directorio y lo mueve: nunca se sirve un fichero a medias
+     */
+    private void write(BufferedImage image, String extension, Path target) throws IOException {
+        Path tmp = Files.createTempFile(target.getParent(), "avatar-", ".tmp");
+        try {
+            if (extension.equals("png")) {
+                ImageIO.write(image, "png", tmp.toFile());
+            } else {
+                writeJpeg(image, tmp);
+            }
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private void writeJpeg(BufferedImage image, Path file) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(file.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(properties.getJpegQuality());
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private Path path(int size, String key) {
+        return properties.getStorageDir().resolve(Integer.toString(size)).resolve(key);
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new ImageProcessingBusyException("Cola de avatares llena (" + executor.getQueue().size() + ")");
+        }
+
+        try {
+            return future.get(properties.getMaxWait().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejectedCounter.increment();
+            throw new ImageProcessingBusyException("El avatar no se procesó en " + properties.getMaxWait());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new ImageProcessingBusyException("Interrumpido esperando al proceso del avatar");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                // OutOfMemoryError al decodificar una imagen enorme, etc.: tal cual
+                throw error;
+            }
+            if (cause instanceof IOException io) {
+                throw new UncheckedIOException("No se pudo guardar el avatar", io);
+            }
+            throw new IllegalStateException("Error inesperado procesando el avatar", cause);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
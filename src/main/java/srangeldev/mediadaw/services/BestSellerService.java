@@ -0,0 +1,154 @@
+package srangeldev.mediadaw.services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import srangeldev.mediadaw.config.BestSellerProperties;
+import srangeldev.mediadaw.dto.ProductSales;
+import srangeldev.mediadaw.models.Categoria;
+import srangeldev.mediadaw.models.EstadoPedido;
+import srangeldev.mediadaw.models.Productos;
+import srangeldev.mediadaw.repositories.LineaVentaRepository;
+import srangeldev.mediadaw.repositories.ProductosRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Productos más vendidos (badge "TOP VENTAS" y sección "Más vendidos" de la home).
+ *
+ * Un job suma las unidades vendidas de cada producto en el periodo configurado (una consulta agregada
+ * sobre order_lines) y guarda en memoria solo los K primeros de cada categoría y del total.
+ * Las peticiones leen ese ranking ya calculado; no agregan nada.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BestSellerService {
+
+    /** Mejor primero: más unidades y, a igualdad, el producto más antiguo */
+    private static final Comparator<ProductSales> BY_UNITS_DESC = Comparator
+            .comparingLong(ProductSales::units).reversed()
+            .thenComparing(ProductSales::productId);
+
+    private final LineaVentaRepository lineaVentaRepository;
+    private final ProductosRepository productosRepository;
+    private final BestSellerProperties properties;
+
+    private volatile Ranking ranking = Ranking.EMPTY;
+
+    /**
+     * Recalcula el ranking. Al arrancar y periódicamente.
+     */
+    @Scheduled(cron = "${mediadaw.best-sellers.refresh-cron:0 */10 * * * *}")
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void refresh() {
+        LocalDateTime since = LocalDateTime.now().minus(properties.getWindow());
+        List<ProductSales> sales = lineaVentaRepository.sumUnitsByProductSince(since, EstadoPedido.CANCELADO);
+
+        int k = properties.getTopK();
+        Map<Categoria, List<ProductSales>> byCategoria = new EnumMap<>(Categoria.class);
+        sales.stream()
+                .collect(Collectors.groupingBy(ProductSales::categoria))
+                .forEach((categoria, rows) -> byCategoria.put(categoria, topK(rows, k)));
+
+        ranking = Ranking.of(topK(sales, k), byCategoria);
+        log.debug("Ranking de más vendidos recalculado: {} productos con ventas", sales.size());
+    }
+
+    /**
+     * Los K productos más vendidos de todas las categorías, de más a menos unidades
+     */
+    public List<ProductSales> getTopSellers() {
+        return ranking.overall();
+    }
+
+    /**
+     * Los K productos más vendidos de una categoría, de más a menos unidades
+     */
+    public List<ProductSales> getTopSellers(Categoria categoria) {
+        return ranking.byCategoria().getOrDefault(categoria, List.of());
+    }
+
+    /**
+     * IDs de los productos que llevan el badge "TOP VENTAS" (los K primeros de cada categoría)
+     */
+    public Set<Long> getBestSellerIds() {
+        return ranking.productIds();
+    }
+
+    public boolean isBestSeller(Long productId) {
+        return ranking.productIds().contains(productId);
+    }
+
+    /**
+     * Productos más vendidos en orden de ranking, como mucho limit. Una consulta por ID, sin agregados.
+     */
+    @Transactional(readOnly = true)
+    public List<Productos> getTopSellerProducts(int limit) {
+        List<Long> ids = ranking.overall().stream()
+                .limit(limit)
+                .map(ProductSales::productId)
+                .toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Productos> byId = productosRepository.findAllById(ids).stream()
+                .filter(p -> !p.getDeleted())
+                .collect(Collectors.toMap(Productos::getId, Function.identity()));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Los k mejores con un montículo de tamaño k: no ordena la lista entera
+     */
+    static List<ProductSales> topK(Collection<ProductSales> sales, int k) {
+        if (k <= 0) {
+            return List.of();
+        }
+        // El peor de los k mejores queda en la cima para poder descartarlo
+        PriorityQueue<ProductSales> heap = new PriorityQueue<>(k + 1, BY_UNITS_DESC.reversed());
+        for (ProductSales row : sales) {
+            heap.offer(row);
+            if (heap.size() > k) {
+                heap.poll();
+            }
+        }
+        List<ProductSales> result = new ArrayList<>(heap);
+        result.sort(BY_UNITS_DESC);
+        return List.copyOf(result);
+    }
+
+    private record Ranking(List<ProductSales> overall,
+                           Map<Categoria, List<ProductSales>> byCategoria,
+                           Set<Long> productIds) {
+
+        static final Ranking EMPTY = new Ranking(List.of(), Map.of(), Set.of());
+
+        static Ranking of(List<ProductSales> overall, Map<Categoria, List<ProductSales>> byCategoria) {
+            Set<Long> ids = new HashSet<>();
+            byCategoria.values().forEach(list -> list.forEach(row -> ids.add(row.productId())));
+            return new Ranking(overall, byCategoria, Set.copyOf(ids));
+        }
+    }
+}
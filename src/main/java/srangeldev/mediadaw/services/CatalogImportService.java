@@ -0,0 +1,384 @@
+package srangeldev.mediadaw.services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import srangeldev.mediadaw.dto.CatalogImportError;
+import srangeldev.mediadaw.dto.CatalogImportResult;
+import srangeldev.mediadaw.events.StockChangedEvent;
+import srangeldev.mediadaw.models.Categoria;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Savepoint;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Importación masiva del catálogo desde el CSV de un proveedor.
+ *
+ * El fichero se lee registro a registro y se procesa por tandas de BATCH_SIZE filas: las filas de la tanda
+ * se validan en paralelo, se busca qué SKU existen ya con una consulta y se insertan los nuevos y se actualizan
+ * los existentes en dos lotes JDBC. Las filas con errores se saltan y se informan con su número de línea;
+ * también las de un SKU que otra operación crea a la vez que la importación.
+ * Todo va en una transacción, y al final se publica un único aviso de cambio de stock con todos los productos
+ * tocados, en lugar de uno por fila.
+ *
+ * Columnas (cabecera obligatoria, en cualquier orden, separadas por coma o punto y coma):
+ * sku, nombre, precio, stock y categoria obligatorias; descripcion e imagen opcionales.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CatalogImportService {
+
+    static final int BATCH_SIZE = 500;
+    static final int MAX_REPORTED_ERRORS = 500;
+
+    static final List<String> REQUIRED_COLUMNS = List.of("sku", "nombre", "precio", "stock", "categoria");
+    static final List<String> OPTIONAL_COLUMNS = List.of("descripcion", "imagen");
+
+    private static final String INSERT_SQL = """
+            INSERT INTO productos (sku, nombre, descripcion, precio, stock, category, imagen, fecha_alta, deleted)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, FALSE)
+            """;
+
+    // Una imagen vacía en el CSV no borra la que ya tenga el producto. Si el proveedor vuelve a enviar
+    // un producto dado de baja, se vuelve a dar de alta: el fichero es el catálogo vigente
+    private static final String UPDATE_SQL = """
+            UPDATE productos SET nombre = ?, descripcion = ?, precio = ?, stock = ?, category = ?,
+                   imagen = COALESCE(?, imagen), deleted = FALSE
+            WHERE id = ?
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Importa un CSV de catálogo: crea los productos con SKU nuevo y actualiza los que ya existen
+     */
+    @Transactional
+    public CatalogImportResult importCsv(InputStream in) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        CsvRecordReader csv = new CsvRecordReader(reader, detectSeparator(reader));
+        Import state = new Import();
+
+        List<String> header = csv.next();
+        if (header == null) {
+            throw new IllegalArgumentException("El fichero está vacío.");
+        }
+        Map<String, Integer> columns = columnIndexes(header);
+
+        List<CsvLine> chunk = new ArrayList<>(BATCH_SIZE);
+        List<String> fields;
+        while ((fields = csv.next()) != null) {
+            chunk.add(new CsvLine(csv.recordLine(), fields));
+            if (chunk.size() == BATCH_SIZE) {
+                processChunk(chunk, columns, state);
+                chunk.clear();
+            }
+        }
+        processChunk(chunk, columns, state);
+
+        if (!state.touchedIds.isEmpty()) {
+            eventPublisher.publishEvent(new StockChangedEvent(Set.copyOf(state.touchedIds)));
+        }
+        log.info("Importación de catálogo: {} filas, {} creados, {} actualizados, {} rechazadas",
+                state.rows, state.created, state.updated, state.failed);
+        return new CatalogImportResult(state.rows, state.created, state.updated, state.failed, List.copyOf(state.errors));
+    }
+
+    private void processChunk(List<CsvLine> chunk, Map<String, Integer> columns, Import state) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        state.rows += chunk.size();
+
+        // Validación en paralelo; el resto de la tanda va en orden de fichero
+        List<Parsed> parsed = chunk.parallelStream()
+                .map(line -> parse(line, columns))
+                .toList();
+
+        List<CatalogRow> valid = new ArrayList<>(parsed.size());
+        for (Parsed p : parsed) {
+            if (p.error() != null) {
+                state.reject(p.line(), p.sku(), p.error());
+            } else {
+                Long firstLine = state.seenSkus.putIfAbsent(p.sku(), p.line());
+                if (firstLine != null) {
+                    state.reject(p.line(), p.sku(), "SKU repetido (ya aparece en la línea " + firstLine + ").");
+                } else {
+                    valid.add(p.row());
+                }
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        Map<String, Long> existing = findIdsBySku(valid.stream().map(CatalogRow::sku).toList());
+        List<CatalogRow> inserts = new ArrayList<>();
+        List<CatalogRow> updates = new ArrayList<>();
+        for (CatalogRow row : valid) {
+            (existing.containsKey(row.sku()) ? updates : inserts).add(row);
+        }
+
+        if (!inserts.isEmpty()) {
+            List<CatalogRow> inserted = insertNew(inserts, state);
+            state.created += inserted.size();
+            if (!inserted.isEmpty()) {
+                state.touchedIds.addAll(findIdsBySku(inserted.stream().map(CatalogRow::sku).toList()).values());
+            }
+        }
+
+        if (!updates.isEmpty()) {
+            jdbcTemplate.getJdbcOperations().batchUpdate(UPDATE_SQL, updates, BATCH_SIZE, (ps, row) -> {
+                ps.setString(1, row.nombre());
+                ps.setString(2, row.descripcion());
+                ps.setDouble(3, row.precio());
+                ps.setInt(4, row.stock());
+                ps.setString(5, row.categoria().name());
+                if (row.imagen() != null) {
+                    ps.setString(6, row.imagen());
+                } else {
+                    ps.setNull(6, Types.VARCHAR);
+                }
+                ps.setLong(7, existing.get(row.sku()));
+            });
+            state.updated += updates.size();
+            updates.forEach(row -> state.touchedIds.add(existing.get(row.sku())));
+        }
+    }
+
+    /**
+     * Inserta los productos nuevos en un lote. Si otra operación ha creado alguno de esos SKU mientras tanto,
+     * el lote se deshace hasta un savepoint, esas filas se informan como error y se inserta el resto.
+     *
+     * @return las filas insertadas
+     */
+    private List<CatalogRow> insertNew(List<CatalogRow> rows, Import state) {
+        // Savepoint JDBC en la conexión de la transacción (la misma que usa JdbcTemplate)
+        JdbcOperations jdbc = jdbcTemplate.getJdbcOperations();
+        Savepoint savepoint = jdbc.execute((ConnectionCallback<Savepoint>) Connection::setSavepoint);
+        try {
+            batchInsert(rows);
+            jdbc.execute((ConnectionCallback<Void>) connection -> {
+                connection.releaseSavepoint(savepoint);
+                return null;
+            });
+            return rows;
+        } catch (DataIntegrityViolationException e) {
+            jdbc.execute((ConnectionCallback<Void>) connection -> {
+                connection.rollback(savepoint);
+                return null;
+            });
+            Set<String> taken = findIdsBySku(rows.stream().map(CatalogRow::sku).toList()).keySet();
+            if (taken.isEmpty()) {
+                throw e;
+            }
+            List<CatalogRow> remaining = new ArrayList<>(rows.size());
+            for (CatalogRow row : rows) {
+                if (taken.contains(row.sku())) {
+                    state.reject(state.seenSkus.get(row.sku()), row.sku(),
+                            "Otra operación ha creado un producto con este SKU durante la importación.");
+                } else {
+                    remaining.add(row);
+                }
+            }
+            return remaining.isEmpty() ? List.of() : insertNew(remaining, state);
+        }
+    }
+
+    private void batchInsert(List<CatalogRow> rows) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.getJdbcOperations().batchUpdate(INSERT_SQL, rows, BATCH_SIZE, (ps, row) -> {
+            ps.setString(1, row.sku());
+            ps.setString(2, row.nombre());
+            ps.setString(3, row.descripcion());
+            ps.setDouble(4, row.precio());
+            ps.setInt(5, row.stock());
+            ps.setString(6, row.categoria().name());
+            ps.setString(7, row.imagen());
+            ps.setTimestamp(8, now);
+        });
+    }
+
+    private Map<String, Long> findIdsBySku(List<String> skus) {
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query("SELECT id, sku FROM productos WHERE sku IN (:skus)", Map.of("skus", skus),
+                rs -> {
+                    ids.put(rs.getString("sku"), rs.getLong("id"));
+                });
+        return ids;
+    }
+
+    /**
+     * Valida una fila y la convierte. No toca la BD, así que se puede llamar en paralelo.
+     */
+    static Parsed parse(CsvLine line, Map<String, Integer> columns) {
+        String sku = ProductosService.normalizeSku(field(line, columns, "sku"));
+        if (line.fields().size() != columns.size()) {
+            return Parsed.error(line.number(), sku, "Tiene " + line.fields().size() + " columnas y la cabecera "
+                    + columns.size() + ".");
+        }
+
+        List<String> problems = new ArrayList<>();
+        if (sku == null) {
+            problems.add("falta el SKU");
+        } else if (sku.length() > 64) {
+            problems.add("el SKU tiene más de 64 caracteres");
+        }
+
+        String nombre = blankToNull(field(line, columns, "nombre"));
+        if (nombre == null) {
+            problems.add("falta el nombre");
+        } else if (nombre.length() > 255) {
+            problems.add("el nombre tiene más de 255 caracteres");
+        }
+
+        String imagen = blankToNull(field(line, columns, "imagen"));
+        if (imagen != null && imagen.length() > 255) {
+            problems.add("la imagen tiene más de 255 caracteres");
+        }
+
+        Double precio = null;
+        String precioText = field(line, columns, "precio");
+        try {
+            precio = Double.valueOf(precioText.trim().replace(',', '.'));
+            if (precio.isNaN() || precio.isInfinite()) {
+                problems.add("precio no válido: '" + precioText + "'");
+            } else if (precio < 0) {
+                problems.add("el precio no puede ser negativo");
+            }
+        } catch (NumberFormatException e) {
+            problems.add("precio no válido: '" + precioText + "'");
+        }
+
+        Integer stock = null;
+        String stockText = field(line, columns, "stock");
+        try {
+            stock = Integer.valueOf(stockText.trim());
+            if (stock < 0) {
+                problems.add("el stock no puede ser negativo");
+            }
+        } catch (NumberFormatException e) {
+            problems.add("stock no válido: '" + stockText + "'");
+        }
+
+        Categoria categoria = null;
+        String categoriaText = field(line, columns, "categoria");
+        try {
+            categoria = Categoria.valueOf(categoriaText.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            problems.add("categoría desconocida: '" + categoriaText + "' (válidas: "
+                    + Arrays.toString(Categoria.values()) + ")");
+        }
+
+        if (!problems.isEmpty()) {
+            String message = String.join("; ", problems);
+            return Parsed.error(line.number(), sku, Character.toUpperCase(message.charAt(0)) + message.substring(1) + ".");
+        }
+        return new Parsed(line.number(), sku, new CatalogRow(sku, nombre,
+                blankToNull(field(line, columns, "descripcion")), precio, stock, categoria,
+                imagen), null);
+    }
+
+    /**
+     * Posición de cada columna conocida en la cabecera
+     */
+    static Map<String, Integer> columnIndexes(List<String> header) {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).trim().toLowerCase(Locale.ROOT);
+            if (i == 0 && name.startsWith("\uFEFF")) {
+                name = name.substring(1); // BOM de Excel
+            }
+            columns.put(name, i);
+        }
+
+        List<String> missing = REQUIRED_COLUMNS.stream().filter(c -> !columns.containsKey(c)).toList();
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("Faltan columnas en la cabecera: " + String.join(", ", missing) + ".");
+        }
+        Set<String> unknown = columns.keySet().stream()
+                .filter(c -> !REQUIRED_COLUMNS.contains(c) && !OPTIONAL_COLUMNS.contains(c))
+                .collect(Collectors.toSet());
+        if (!unknown.isEmpty()) {
+            throw new IllegalArgumentException("Columnas desconocidas en la cabecera: " + String.join(", ", unknown) + ".");
+        }
+        return columns;
+    }
+
+    /**
+     * Punto y coma si la primera línea lo usa y no tiene comas (CSV de Excel en español); si no, coma
+     */
+    private static char detectSeparator(BufferedReader reader) throws IOException {
+        reader.mark(64 * 1024);
+        String first = reader.readLine();
+        reader.reset();
+        return first != null && first.indexOf(';') >= 0 && first.indexOf(',') < 0 ? ';' : ',';
+    }
+
+    private static String field(CsvLine line, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        return index == null || index >= line.fields().size() ? "" : line.fields().get(index);
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    record CsvLine(long number, List<String> fields) {
+    }
+
+    record CatalogRow(String sku, String nombre, String descripcion, double precio, int stock,
+                      Categoria categoria, String imagen) {
+    }
+
+    record Parsed(long line, String sku, CatalogRow row, String error) {
+
+        static Parsed error(long line, String sku, String error) {
+            return new Parsed(line, sku, null, error);
+        }
+    }
+
+    /**
+     * Recuentos de la importación en curso
+     */
+    private static final class Import {
+        private long rows;
+        private long created;
+        private long updated;
+        private long failed;
+        private final List<CatalogImportError> errors = new ArrayList<>();
+        private final Map<String, Long> seenSkus = new HashMap<>();
+        private final Set<Long> touchedIds = new HashSet<>();
+
+        private void reject(long line, String sku, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new CatalogImportError(line, sku, message));
+            }
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package srangeldev.mediadaw.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import srangeldev.mediadaw.config.CheckoutProperties;
+import srangeldev.mediadaw.dto.CheckoutTicketStatus;
+import srangeldev.mediadaw.dto.CheckoutTicketStatus.State;
+import srangeldev.mediadaw.exceptions.CheckoutBusyException;
+import srangeldev.mediadaw.exceptions.MediaDawException;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Control de admisión del checkout (sala de espera).
+ *
+ * Solo se procesan a la vez {@code maxConcurrent} compras; el resto espera en una cola FIFO
+ * acotada y se procesa en orden de llegada. Así, en picos de demanda el checkout avanza al
+ * ritmo que aguanta la base de datos sin agotar el pool de conexiones del resto de la tienda.
+ * Las compras se ejecutan en hilos propios, no en los de Tomcat, de modo que un usuario en
+ * cola no ocupa un hilo de petición mientras espera.
+ */
+@Slf4j
+@Service
+public class CheckoutAdmissionService {
+
+    private final CheckoutService checkoutService;
+    private final CheckoutProperties.Admission config;
+
+    private final Object lock = new Object();
+    private final Deque<Ticket> queue = new ArrayDeque<>();
+    private final Map<Long, Ticket> activeByUser = new HashMap<>();
+    private final Map<String, Ticket> tickets = new ConcurrentHashMap<>();
+    private int running;
+
+    private final ExecutorService workers =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("checkout-", 0).factory());
+
+    private final Timer waitTimer;
+    private final Counter rejectedCounter;
+
+    public CheckoutAdmissionService(CheckoutService checkoutService,
+                                    CheckoutProperties properties,
+                                    MeterRegistry meterRegistry) {
+        this.checkoutService = checkoutService;
+        this.config = properties.getAdmission();
+
+        Gauge.builder("mediadaw.checkout.queue.depth", this, service -> service.queueDepth())
+                .description("Compras esperando turno en la sala de espera")
+                .register(meterRegistry);
+        Gauge.builder("mediadaw.checkout.active", this, service -> service.activeCount())
+                .description("Compras procesándose en este momento")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("mediadaw.checkout.queue.wait")
+                .description("Tiempo de espera en cola hasta empezar a procesar la compra")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("mediadaw.checkout.rejected")
+                .description("Compras rechazadas por cola llena")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Pide turno para comprar el carrito del usuario.
+     * Si el usuario ya tiene una compra en curso devuelve ese mismo turno (doble clic, recarga...).
+     *
+     * @return identificador del turno
+     * @throws CheckoutBusyException si la cola está llena
+     */
+    public String submit(Long userId, String ownerEmail) {
+        synchronized (lock) {
+            Ticket existing = activeByUser.get(userId);
+            if (existing != null) {
+                return existing.id;
+            }
+
+            if (queue.size() >= config.getQueueCapacity()) {
+                rejectedCounter.increment();
+                throw new CheckoutBusyException("Sala de espera del checkout llena (" + config.getQueueCapacity() + ")");
+            }
+
+            Ticket ticket = new Ticket(UUID.randomUUID().toString(), userId, ownerEmail);
+            tickets.put(ticket.id, ticket);
+            activeByUser.put(userId, ticket);
+            queue.addLast(ticket);
+            dispatch();
+            return ticket.id;
+        }
+    }
+
+    /**
+     * Espera como mucho fastPathWait a que termine la compra. Con poca carga la compra
+     * termina dentro de la propia petición y el usuario no llega a ver la sala de espera.
+     */
+    public Optional<CheckoutTicketStatus> awaitFastPath(String ticketId, String ownerEmail) {
+        Ticket ticket = tickets.get(ticketId);
+        if (ticket == null) {
+            return Optional.empty();
+        }
+        try {
+            ticket.done.await(config.getFastPathWait().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return status(ticketId, ownerEmail);
+    }
+
+    /**
+     * Consulta el estado de un turno. Solo su dueño puede verlo.
+     * No accede a la base de datos: la sala de espera se sondea con frecuencia.
+     */
+    public Optional<CheckoutTicketStatus> status(String ticketId, String ownerEmail) {
+        Ticket ticket = tickets.get(ticketId);
+        if (ticket == null || !ticket.ownerEmail.equals(ownerEmail)) {
+            return Optional.empty();
+        }
+
+        synchronized (lock) {
+            int position = 0;
+            if (ticket.state == State.QUEUED) {
+                for (Ticket queued : queue) {
+                    position++;
+                    if (queued == ticket) {
+                        break;
+                    }
+                }
+            }
+            return Optional.of(new CheckoutTicketStatus(ticket.id, ticket.state, position, queue.size(),
+                    ticket.ventaId, ticket.message));
+        }
+    }
+
+    public int queueDepth() {
+        synchronized (lock) {
+            return queue.size();
+        }
+    }
+
+    public int activeCount() {
+        synchronized (lock) {
+            return running;
+        }
+    }
+
+    /**
+     * Arranca compras de la cola mientras haya hueco. Se llama siempre con el lock tomado.
+     */
+    private void dispatch() {
+        while (running < config.getMaxConcurrent() && !queue.isEmpty()) {
+            Ticket ticket = queue.pollFirst();
+            ticket.state = State.RUNNING;
+            running++;
+            waitTimer.record(Duration.ofNanos(System.nanoTime() - ticket.enqueuedAt));
+            workers.execute(() -> process(ticket));
+        }
+    }
+
+    private void process(Ticket ticket) {
+        try {
+            ticket.ventaId = checkoutService.checkout(ticket.userId).getId();
+            ticket.state = State.COMPLETED;
+        } catch (MediaDawException e) {
+            ticket.message = e.getUserMessage();
+            ticket.state = State.FAILED;
+        } catch (RuntimeException e) {
+            log.warn("Error procesando la compra del usuario {}: {}", ticket.userId, e.getMessage());
+            ticket.message = "Error al procesar la compra: " + e.getMessage();
+            ticket.state = State.FAILED;
+        } finally {
+            ticket.finishedAt = System.nanoTime();
+            synchronized (lock) {
+                running--;
+                activeByUser.remove(ticket.userId, ticket);
+                dispatch();
+            }
+            ticket.done.countDown();
+        }
+    }
+
+    /**
+     * Olvida los turnos terminados hace más de ticketTtl
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void evictFinishedTickets() {
+        long cutoff = System.nanoTime() - config.getTicketTtl().toNanos();
+        tickets.values().removeIf(ticket -> ticket.finishedAt != 0 && ticket.finishedAt < cutoff);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdown();
+    }
+
+    private static final class Ticket {
+        private final String id;
+        private final Long userId;
+        private final String ownerEmail;
+        private final long enqueuedAt = System.nanoTime();
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        private volatile State state = State.QUEUED;
+        private volatile Long ventaId;
+        private volatile String message;
+        private volatile long finishedAt;
+
+        private Ticket(String id, Long userId, String ownerEmail) {
+            this.id = id;
+            this.userId = userId;
+            this.ownerEmail = ownerEmail;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package srangeldev.mediadaw.services;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import srangeldev.mediadaw.exceptions.EmptyCartException;
+import srangeldev.mediadaw.models.Venta;
+
+import java.util.Map;
+
+/**
+ * Servicio que orquesta la compra (checkout) de un carrito.
+ *
+ * Sin agrupación, delega en {@link VentaService#createPurchaseFromCart(Long)}, que descuenta
+ * el stock línea a línea dentro de la transacción del pedido.
+ * Con agrupación activada, primero reserva el stock a través de {@link StockBatchCoordinator}
+ * (fuera de cualquier transacción, para no retener conexiones mientras se espera al lote)
+ * y después crea el pedido; si la creación falla, devuelve lo reservado.
+ */
+@Service
+@RequiredArgsConstructor
+public class CheckoutService {
+
+    private final VentaService ventaService;
+    private final StockBatchCoordinator stockBatchCoordinator;
+
+    /**
+     * Convierte el carrito del usuario en un pedido
+     */
+    public Venta checkout(Long userId) {
+        if (!stockBatchCoordinator.isEnabled()) {
+            return ventaService.createPurchaseFromCart(userId);
+        }
+
+        Map<Long, Integer> quantities = ventaService.getCartQuantities(userId);
+        if (quantities.isEmpty()) {
+            throw new EmptyCartException(userId);
+        }
+
+        Map<Long, Integer> reserved = stockBatchCoordinator.reserveAll(quantities);
+        try {
+            return ventaService.createPurchaseFromReservedCart(userId, reserved);
+        } catch (RuntimeException e) {
+            stockBatchCoordinator.release(reserved);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package srangeldev.mediadaw.services;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lector de CSV registro a registro (RFC 4180): campos entre comillas con separadores, comillas dobles
+ * y saltos de línea dentro. No carga el fichero: lee del Reader según se piden registros.
+ */
+final class CsvRecordReader {
+
+    private final Reader reader;
+    private final char separator;
+    private long line = 1;
+    private long recordLine;
+    private int pushedBack = -2;
+
+    CsvRecordReader(Reader reader, char separator) {
+        this.reader = reader;
+        this.separator = separator;
+    }
+
+    /**
+     * Línea del fichero en la que empieza el último registro leído
+     */
+    long recordLine() {
+        return recordLine;
+    }
+
+    /**
+     * Siguiente registro, o null al final del fichero. Las líneas vacías se saltan.
+     */
+    List<String> next() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean any = false;
+        recordLine = line;
+
+        int c;
+        while ((c = read()) != -1) {
+            if (quoted) {
+                if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        unread(next);
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+                any = true;
+            } else if (c == separator) {
+                fields.add(field.toString());
+                field.setLength(0);
+                any = true;
+            } else if (c == '\r' || c == '\n') {
+                if (c == '\r') {
+                    int next = read();
+                    if (next != '\n') {
+                        unread(next);
+                    }
+                }
+                line++;
+                if (any || !field.isEmpty()) {
+                    fields.add(field.toString());
+                    return fields;
+                }
+                recordLine = line; // Línea vacía
+            } else {
+                field.append((char) c);
+                any = true;
+            }
+        }
+
+        if (any || !field.isEmpty()) {
+            fields.add(field.toString());
+            return fields;
+        }
+        return null;
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != -2) {
+            int c = pushedBack;
+            pushedBack = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private void unread(int c) {
+        pushedBack = c;
+    }
+}
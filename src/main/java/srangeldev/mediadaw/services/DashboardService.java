@@ -0,0 +1,164 @@
+package srangeldev.mediadaw.services;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import srangeldev.mediadaw.config.DashboardProperties;
+import srangeldev.mediadaw.dto.DashboardSnapshot;
+import srangeldev.mediadaw.dto.SalesTotals;
+import srangeldev.mediadaw.models.EstadoPedido;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Monta el panel de administración.
+ *
+ * Las métricas son independientes, así que se calculan a la vez en hilos virtuales, cada una en
+ * su propia transacción de solo lectura y con su propio tiempo máximo: el panel tarda lo que la
+ * métrica más lenta y, si alguna falla o no llega a tiempo, se muestra sin ella.
+ * El resultado se reutiliza unos segundos, y los administradores que piden el panel mientras se
+ * está calculando esperan a ese mismo cálculo en lugar de lanzar otro. Un panel al que le falta alguna
+ * métrica no se reutiliza: la siguiente petición lo vuelve a calcular.
+ */
+@Slf4j
+@Service
+public class DashboardService {
+
+    /**
+     * Productos con poco stock que se listan en el panel (los de menos stock)
+     */
+    static final int LOW_STOCK_TOP = 10;
+
+    private final ProductosService productosService;
+    private final VentaService ventaService;
+    private final SalesRollupService salesRollupService;
+    private final LowStockAlertService lowStockAlertService;
+    private final DashboardProperties properties;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final ExecutorService executor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("dashboard-", 0).factory());
+
+    /** Panel por número de días de la gráfica */
+    private final Map<Integer, CachedSnapshot> cache = new ConcurrentHashMap<>();
+
+    public DashboardService(ProductosService productosService,
+                            VentaService ventaService,
+                            SalesRollupService salesRollupService,
+                            LowStockAlertService lowStockAlertService,
+                            DashboardProperties properties,
+                            PlatformTransactionManager transactionManager) {
+        this.productosService = productosService;
+        this.ventaService = ventaService;
+        this.salesRollupService = salesRollupService;
+        this.lowStockAlertService = lowStockAlertService;
+        this.properties = properties;
+
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // Las consultas de la métrica se cortan en la BD poco después de dejar de esperarla
+        this.readOnlyTransaction.setTimeout((int) properties.getMetricTimeout().toSeconds() + 1);
+    }
+
+    /**
+     * Obtiene el panel con la gráfica de ventas de los últimos días indicados
+     */
+    public DashboardSnapshot getSnapshot(int days) {
+        int salesDays = Math.clamp(days, 1, SalesRollupService.MAX_DAYS);
+        long now = System.nanoTime();
+
+        CachedSnapshot cached = cache.compute(salesDays, (key, current) ->
+                current != null && current.isReusable(now, properties.getSnapshotTtl().toNanos())
+                        ? current
+                        : new CachedSnapshot(assemble(key), now));
+
+        return cached.snapshot().join();
+    }
+
+    private CompletableFuture<DashboardSnapshot> assemble(int salesDays) {
+        Set<String> unavailable = ConcurrentHashMap.newKeySet();
+
+        var totalProducts = metric("totalProducts", unavailable,
+                productosService::countProducts);
+        // Pedidos pendientes e ingresos salen de la misma lectura de los contadores de ventas
+        var salesTotals = metric(List.of("pendingOrders", "totalRevenue"), unavailable,
+                ventaService::getSalesTotalsByStatus);
+        var dailySales = metric("dailySales", unavailable,
+                () -> salesRollupService.getDailySales(salesDays));
+        var categorySales = metric("categorySales", unavailable,
+                () -> salesRollupService.getSalesByCategory(salesDays));
+
+        return CompletableFuture.allOf(totalProducts, salesTotals, dailySales, categorySales)
+                .thenApply(ignored -> new DashboardSnapshot(
+                        totalProducts.join(),
+                        // El conjunto de poco stock está en memoria y se mantiene al cambiar el stock
+                        lowStockAlertService.getLowStockCount(),
+                        lowStockAlertService.getLowStockTop(LOW_STOCK_TOP),
+                        pendingOrders(salesTotals.join()),
+                        totalRevenue(salesTotals.join()),
+                        salesDays,
+                        dailySales.join(),
+                        categorySales.join(),
+                        Set.copyOf(unavailable),
+                        Instant.now()));
+    }
+
+    private static Long pendingOrders(Map<EstadoPedido, SalesTotals> totals) {
+        return totals != null ? totals.get(EstadoPedido.PENDIENTE).orders() : null;
+    }
+
+    private static Double totalRevenue(Map<EstadoPedido, SalesTotals> totals) {
+        return totals != null ? SalesCounterService.totalRevenue(totals) : null;
+    }
+
+    private <T> CompletableFuture<T> metric(String name, Set<String> unavailable, Supplier<T> query) {
+        return metric(List.of(name), unavailable, query);
+    }
+
+    /**
+     * Calcula una consulta del panel en su propio hilo y transacción. Si falla o tarda más de metricTimeout
+     * se completa con null y las métricas que salen de ella se anotan como no disponibles.
+     */
+    private <T> CompletableFuture<T> metric(List<String> names, Set<String> unavailable, Supplier<T> query) {
+        return CompletableFuture.supplyAsync(() -> readOnlyTransaction.execute(status -> query.get()), executor)
+                .orTimeout(properties.getMetricTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                .exceptionally(e -> {
+                    log.warn("Métricas {} del panel no disponibles: {}", names, e.toString());
+                    unavailable.addAll(names);
+                    return null;
+                });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private record CachedSnapshot(CompletableFuture<DashboardSnapshot> snapshot, long createdAt) {
+
+        /**
+         * Mientras no caduque, salvo que haya terminado sin alguna métrica (un fallo puntual no debe
+         * ocultarla durante todo el TTL). Uno que aún se está calculando sí se reutiliza.
+         */
+        boolean isReusable(long now, long ttlNanos) {
+            if (now - createdAt > ttlNanos) {
+                return false;
+            }
+            if (!snapshot.isDone()) {
+                return true;
+            }
+            return !snapshot.isCompletedExceptionally() && !snapshot.join().isPartial();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package srangeldev.mediadaw.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import srangeldev.mediadaw.config.EmailFilterProperties;
+import srangeldev.mediadaw.events.UserRegisteredEvent;
+import srangeldev.mediadaw.repositories.UserRepository;
+
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Comprobación de email disponible del formulario de registro.
+ *
+ * Guarda en memoria un filtro de Bloom con los emails registrados (también los dados de baja: siguen ocupando
+ * el email). Si el filtro dice que un email no está, está libre sin preguntar a la BD; solo los que el filtro
+ * da por posibles se comprueban con una consulta. El filtro se reconstruye al arrancar y periódicamente
+ * (así se limpia de falsos positivos) y cada registro se añade al confirmarse. Con varias instancias, los
+ * registros de las demás llegan en la siguiente reconstrucción; mientras, su email puede salir libre aquí.
+ *
+ * No sustituye a la restricción única de la BD, que es la que decide en el registro.
+ * Métrica mediadaw.registration.email_probe con source=filter|database.
+ */
+@Slf4j
+@Service
+public class EmailAvailabilityService {
+
+    private final UserRepository userRepository;
+    private final EmailFilterProperties properties;
+
+    private final Counter answeredByFilter;
+    private final Counter answeredByDatabase;
+
+    // null hasta la primera reconstrucción: mientras tanto todas las consultas van a la BD
+    private volatile BloomFilter filter;
+    // Filtro que se está reconstruyendo; los registros de mientras se añaden también a él
+    private volatile BloomFilter building;
+
+    public EmailAvailabilityService(UserRepository userRepository, EmailFilterProperties properties,
+                                    MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.properties = properties;
+        this.answeredByFilter = Counter.builder("mediadaw.registration.email_probe").tag("source", "filter")
+                .description("Comprobaciones de email disponible resueltas con el filtro en memoria")
+                .register(meterRegistry);
+        this.answeredByDatabase = Counter.builder("mediadaw.registration.email_probe").tag("source", "database")
+                .description("Comprobaciones de email disponible que han consultado la BD")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reconstruye el filtro con todos los emails de la BD y lo sustituye de una vez
+     */
+    @Scheduled(cron = "${mediadaw.registration.email-filter.rebuild-cron:0 0 * * * *}")
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long users = userRepository.count();
+        BloomFilter next = BloomFilter.create(Math.max(users * 2, properties.getMinCapacity()),
+                properties.getFalsePositiveRate());
+        // Antes de leer: un registro confirmado después de empezar la consulta llega por onUserRegistered
+        building = next;
+        try (Stream<String> emails = userRepository.streamAllEmails()) {
+            emails.forEach(email -> next.put(key(email)));
+            // Antes de soltar building, para que ningún registro acabe solo en el filtro viejo
+            filter = next;
+        } finally {
+            building = null;
+        }
+        log.debug("Filtro de emails reconstruido: {} usuarios, {} bits, {} hashes", users, next.bitSize(), next.hashCount());
+    }
+
+    /**
+     * Si un email se puede usar para registrarse. Un true puede quedar desfasado (otro registro a la vez):
+     * el registro lo vuelve a comprobar con la restricción única.
+     */
+    @Transactional(readOnly = true)
+    public boolean isAvailable(String email) {
+        String normalized = email.strip();
+        BloomFilter current = filter;
+        if (current != null && !current.mightContain(key(normalized))) {
+            answeredByFilter.increment();
+            return true;
+        }
+        answeredByDatabase.increment();
+        return !userRepository.existsByEmail(normalized);
+    }
+
+    /**
+     * Añade un email recién registrado, tras el commit del registro
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserRegistered(UserRegisteredEvent event) {
+        String key = key(event.email());
+        // building antes que filter: si ya no hay reconstrucción en marcha, la que terminó publicó su filtro
+        // antes de soltar building, y una que empiece después leerá este registro de la BD
+        BloomFilter next = building;
+        if (next != null) {
+            next.put(key);
+        }
+        BloomFilter current = filter;
+        if (current != null) {
+            current.put(key);
+        }
+    }
+
+    /**
+     * Sin distinguir mayúsculas: más falsos positivos, que se resuelven en la BD, pero ningún falso negativo
+     */
+    private static String key(String email) {
+        return email.strip().toLowerCase(Locale.ROOT);
+    }
+}
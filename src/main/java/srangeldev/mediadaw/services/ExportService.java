@@ -0,0 +1,184 @@
+package srangeldev.mediadaw.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import srangeldev.mediadaw.dto.ExportFormat;
+import srangeldev.mediadaw.dto.ExportRow;
+import srangeldev.mediadaw.dto.OrderExportRow;
+import srangeldev.mediadaw.dto.OrderLineExportRow;
+import srangeldev.mediadaw.dto.ProductExportRow;
+import srangeldev.mediadaw.repositories.LineaVentaRepository;
+import srangeldev.mediadaw.repositories.ProductosRepository;
+import srangeldev.mediadaw.repositories.VentaRepository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Exportaciones del panel (pedidos, líneas de pedido y productos) en CSV o JSON.
+ *
+ * Las filas salen de la BD como proyecciones (no entran en el contexto de persistencia) y se escriben
+ * en la salida a medida que llegan, así que la memoria no crece con el número de filas.
+ * Cada método abre su propia transacción de solo lectura: el Stream de la consulta tiene que recorrerse
+ * dentro de ella, en el hilo que escribe la respuesta.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final VentaRepository ventaRepository;
+    private final LineaVentaRepository lineaVentaRepository;
+    private final ProductosRepository productosRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Pedidos comprados entre desde y hasta (ambos incluidos, null = sin límite)
+     *
+     * @return Número de filas exportadas
+     */
+    @Transactional(readOnly = true)
+    public long exportOrders(LocalDate desde, LocalDate hasta, ExportFormat format, OutputStream out) throws IOException {
+        try (Stream<OrderExportRow> rows = ventaRepository.streamForExport(from(desde), to(hasta))) {
+            return write(rows, OrderExportRow.HEADER, format, out);
+        }
+    }
+
+    /**
+     * Líneas de los pedidos comprados entre desde y hasta (ambos incluidos, null = sin límite)
+     *
+     * @return Número de filas exportadas
+     */
+    @Transactional(readOnly = true)
+    public long exportOrderLines(LocalDate desde, LocalDate hasta, ExportFormat format, OutputStream out) throws IOException {
+        try (Stream<OrderLineExportRow> rows = lineaVentaRepository.streamForExport(from(desde), to(hasta))) {
+            return write(rows, OrderLineExportRow.HEADER, format, out);
+        }
+    }
+
+    /**
+     * Productos dados de alta entre desde y hasta (ambos incluidos, null = sin límite)
+     *
+     * @return Número de filas exportadas
+     */
+    @Transactional(readOnly = true)
+    public long exportProducts(LocalDate desde, LocalDate hasta, ExportFormat format, OutputStream out) throws IOException {
+        try (Stream<ProductExportRow> rows = productosRepository.streamForExport(from(desde), to(hasta))) {
+            return write(rows, ProductExportRow.HEADER, format, out);
+        }
+    }
+
+    private static LocalDateTime from(LocalDate desde) {
+        return desde != null ? desde.atStartOfDay() : VentaService.OPEN_FROM;
+    }
+
+    private static LocalDateTime to(LocalDate hasta) {
+        return hasta != null ? hasta.plusDays(1).atStartOfDay() : VentaService.OPEN_TO;
+    }
+
+    private long write(Stream<? extends ExportRow> rows, List<String> header, ExportFormat format, OutputStream out)
+            throws IOException {
+        long count = switch (format) {
+            case CSV -> writeCsv(rows.iterator(), header, out);
+            case JSON -> writeJson(rows.iterator(), out);
+        };
+        log.debug("Exportación {}: {} filas", format, count);
+        return count;
+    }
+
+    private long writeCsv(Iterator<? extends ExportRow> rows, List<String> header, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        writeCsvLine(writer, header);
+        long count = 0;
+        while (rows.hasNext()) {
+            writeCsvLine(writer, rows.next().values());
+            count++;
+        }
+        writer.flush();
+        return count;
+    }
+
+    private static void writeCsvLine(Writer writer, List<?> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(csvValue(values.get(i)));
+        }
+        writer.write("\r\n");
+    }
+
+    /**
+     * Valor de una celda CSV (RFC 4180): entre comillas si contiene separadores, comillas o saltos de línea.
+     * Los decimales van siempre con punto y sin notación científica; las fechas, en ISO como en JSON.
+     * Los textos que una hoja de cálculo tomaría por fórmula (=, +, -, @, tabulador o retorno de carro al
+     * principio) llevan delante un apóstrofo: nombres de producto, clientes y emails vienen de fuera.
+     */
+    static String csvValue(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text;
+        if (value instanceof Double d) {
+            text = BigDecimal.valueOf(d).toPlainString();
+        } else if (value instanceof LocalDateTime t) {
+            text = DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(t);
+        } else if (value instanceof Enum<?> e) {
+            text = e.name();
+        } else if (value instanceof CharSequence) {
+            text = neutralizeFormula(value.toString());
+        } else {
+            text = value.toString();
+        }
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+
+    private static String neutralizeFormula(String text) {
+        if (text.isEmpty()) {
+            return text;
+        }
+        return switch (text.charAt(0)) {
+            case '=', '+', '-', '@', '\t', '\r' -> "'" + text;
+            default -> text;
+        };
+    }
+
+    private long writeJson(Iterator<? extends ExportRow> rows, OutputStream out) throws IOException {
+        // Sin flush por fila: el generador vacía su búfer cuando se llena
+        ObjectWriter rowWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        // La salida es de quien llama (respuesta HTTP o gzip): no se cierra aquí
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.writeStartArray();
+        long count = 0;
+        while (rows.hasNext()) {
+            rowWriter.writeValue(generator, rows.next());
+            count++;
+        }
+        generator.writeEndArray();
+        generator.close();
+        return count;
+    }
+}
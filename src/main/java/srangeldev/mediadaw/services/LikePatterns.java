@@ -0,0 +1,18 @@
+package srangeldev.mediadaw.services;
+
+/**
+ * Patrones LIKE de los filtros de texto de los listados del panel.
+ * Las consultas que los reciben declaran ESCAPE '\' para que el texto se busque tal cual.
+ */
+final class LikePatterns {
+
+    private LikePatterns() {
+    }
+
+    /**
+     * Escapa los comodines de LIKE para buscar el texto tal cual ('_' es habitual en los emails)
+     */
+    static String escape(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
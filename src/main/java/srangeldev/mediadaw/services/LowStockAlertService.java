@@ -0,0 +1,122 @@
+package srangeldev.mediadaw.services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import srangeldev.mediadaw.config.StockAlertProperties;
+import srangeldev.mediadaw.dto.LowStockProduct;
+import srangeldev.mediadaw.dto.StockLevel;
+import srangeldev.mediadaw.events.StockChangedEvent;
+import srangeldev.mediadaw.repositories.ProductosRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Productos con poco stock, mantenidos en memoria.
+ *
+ * Cada vez que cambia el stock de unos productos (compra, cancelación, edición en el panel) se vuelven
+ * a leer solo esos productos, una vez confirmada la transacción, y se actualiza el conjunto. Cuando un
+ * producto entra en el conjunto se avisa a los administradores; no se vuelve a avisar hasta que se reponga.
+ * El panel lee el conjunto directamente. Un job lo recalcula entero de vez en cuando por si algún cambio
+ * no ha pasado por aquí (cargas iniciales, otras instancias).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LowStockAlertService {
+
+    /** Menos stock primero; a igualdad, el producto más antiguo */
+    private static final Comparator<LowStockProduct> BY_STOCK = Comparator
+            .comparing(LowStockProduct::stock)
+            .thenComparing(LowStockProduct::id);
+
+    private final ProductosRepository productosRepository;
+    private final StockAlertProperties properties;
+    private final StockAlertNotifier notifier;
+
+    private final Map<Long, LowStockProduct> lowStock = new ConcurrentHashMap<>();
+
+    /**
+     * Umbral de aviso de un producto: el suyo propio o el de su categoría
+     */
+    public int thresholdFor(StockLevel level) {
+        return level.reorderThreshold() != null
+                ? level.reorderThreshold()
+                : properties.thresholdFor(level.categoria());
+    }
+
+    boolean isLow(StockLevel level) {
+        return !level.deleted() && level.stock() < thresholdFor(level);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onStockChanged(StockChangedEvent event) {
+        if (event.productIds().isEmpty()) {
+            return;
+        }
+
+        List<LowStockProduct> newlyLow = new ArrayList<>();
+        for (StockLevel level : productosRepository.findStockLevels(event.productIds())) {
+            if (isLow(level)) {
+                if (lowStock.put(level.id(), level.toLowStockProduct()) == null) {
+                    newlyLow.add(level.toLowStockProduct());
+                }
+            } else {
+                lowStock.remove(level.id());
+            }
+        }
+        notifier.notifyLowStock(newlyLow);
+    }
+
+    /**
+     * Recalcula el conjunto entero desde la BD. No avisa: solo corrige lo que no haya llegado por eventos.
+     */
+    @Scheduled(cron = "${mediadaw.stock-alerts.resync-cron:0 0 * * * *}")
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void resync() {
+        Map<Long, LowStockProduct> current = productosRepository
+                .findStockLevelsBelow(properties.maxCategoryThreshold()).stream()
+                .filter(this::isLow)
+                .map(StockLevel::toLowStockProduct)
+                .collect(Collectors.toMap(LowStockProduct::id, Function.identity()));
+
+        lowStock.keySet().retainAll(current.keySet());
+        lowStock.putAll(current);
+        log.debug("Conjunto de productos con poco stock recalculado: {} productos", current.size());
+    }
+
+    /**
+     * Número de productos por debajo de su umbral
+     */
+    public long getLowStockCount() {
+        return lowStock.size();
+    }
+
+    /**
+     * Como mucho limit productos por debajo de su umbral, los de menos stock primero
+     */
+    public List<LowStockProduct> getLowStockTop(int limit) {
+        return lowStock.values().stream()
+                .sorted(BY_STOCK)
+                .limit(limit)
+                .toList();
+    }
+
+    public boolean isLowStock(Long productId) {
+        return lowStock.containsKey(productId);
+    }
+}
@@ -0,0 +1,336 @@
+package srangeldev.mediadaw.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import srangeldev.mediadaw.config.PersonalDataExportProperties;
+import srangeldev.mediadaw.dto.PersonalDataExportJob;
+import srangeldev.mediadaw.dto.PersonalDataOrderLineRow;
+import srangeldev.mediadaw.exceptions.DataExportBusyException;
+import srangeldev.mediadaw.exceptions.UserNotFoundException;
+import srangeldev.mediadaw.models.Carrito;
+import srangeldev.mediadaw.models.LineaCarrito;
+import srangeldev.mediadaw.models.User;
+import srangeldev.mediadaw.repositories.CarritoRepository;
+import srangeldev.mediadaw.repositories.UserRepository;
+import srangeldev.mediadaw.repositories.VentaRepository;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exportación de los datos personales de un usuario ("envíame todos mis datos"): perfil, carrito e historial
+ * completo de pedidos con sus líneas, en un único documento JSON.
+ *
+ * Los pedidos salen de una sola consulta en streaming (proyecciones, fetch size 500) y se escriben a medida que
+ * llegan agrupando las líneas consecutivas del mismo pedido: la memoria no crece con el número de pedidos.
+ * Con pocos pedidos se descarga al momento; con más de async-threshold-orders se prepara en segundo plano
+ * en un pool acotado y se deja un .json.gz para descargar durante ttl.
+ *
+ * Los trabajos se guardan en memoria: con varias instancias, el fichero está en la que atendió la petición.
+ */
+@Slf4j
+@Service
+public class PersonalDataExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String ARTIFACT_SUFFIX = ".json.gz";
+
+    private final UserRepository userRepository;
+    private final CarritoRepository carritoRepository;
+    private final VentaRepository ventaRepository;
+    private final ObjectMapper objectMapper;
+    private final PersonalDataExportProperties properties;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ThreadPoolExecutor executor;
+
+    private final Map<String, PersonalDataExportJob> jobs = new ConcurrentHashMap<>();
+
+    public PersonalDataExportService(UserRepository userRepository,
+                                     CarritoRepository carritoRepository,
+                                     VentaRepository ventaRepository,
+                                     ObjectMapper objectMapper,
+                                     PersonalDataExportProperties properties,
+                                     PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.carritoRepository = carritoRepository;
+        this.ventaRepository = ventaRepository;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        this.executor = new ThreadPoolExecutor(properties.getThreads(), properties.getThreads(), 0, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                Thread.ofPlatform().name("personal-data-export-", 0).daemon().factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        try {
+            Files.createDirectories(properties.getStorageDir());
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se puede crear el directorio de exportaciones " + properties.getStorageDir(), e);
+        }
+    }
+
+    /**
+     * Si la exportación de este usuario es lo bastante grande como para prepararla en segundo plano
+     */
+    public boolean isLarge(Long userId) {
+        return ventaRepository.countByUserId(userId) > properties.getAsyncThresholdOrders();
+    }
+
+    /**
+     * Escribe los datos del usuario en out (sin cerrarlo), en el hilo que llama
+     *
+     * @return Número de pedidos exportados
+     */
+    public long export(Long userId, OutputStream out) throws IOException {
+        try {
+            Long orders = readOnlyTransaction.execute(status -> {
+                try {
+                    return write(userId, out);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            return Objects.requireNonNull(orders);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Pide una exportación en segundo plano. Si quien la pide ya tiene una de ese usuario en marcha, devuelve esa.
+     *
+     * @throws DataExportBusyException si la cola de exportaciones está llena
+     */
+    public PersonalDataExportJob requestExport(User user, String requestedBy) {
+        Optional<PersonalDataExportJob> active = jobs.values().stream()
+                .filter(job -> job.userId().equals(user.getId()) && job.requestedBy().equals(requestedBy))
+                .filter(PersonalDataExportJob::isActive)
+                .findFirst();
+        if (active.isPresent()) {
+            return active.get();
+        }
+
+        PersonalDataExportJob job = new PersonalDataExportJob(UUID.randomUUID().toString(), user.getId(),
+                user.getEmail(), requestedBy, PersonalDataExportJob.Estado.PENDIENTE, LocalDateTime.now(),
+                null, null, null);
+        jobs.put(job.id(), job);
+        try {
+            executor.execute(() -> run(job.id()));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id());
+            throw new DataExportBusyException("Cola de exportaciones de datos llena (" + executor.getQueue().size() + ")");
+        }
+        log.info("Exportación de datos {} del usuario {} pedida por {}", job.id(), user.getId(), requestedBy);
+        return job;
+    }
+
+    /**
+     * Exportaciones pedidas por requestedBy, la más reciente primero
+     */
+    public List<PersonalDataExportJob> findJobs(String requestedBy) {
+        return jobs.values().stream()
+                .filter(job -> job.requestedBy().equals(requestedBy))
+                .sorted(Comparator.comparing(PersonalDataExportJob::createdAt).reversed())
+                .toList();
+    }
+
+    /**
+     * Fichero de una exportación terminada, solo para quien la pidió
+     */
+    public Optional<Path> findArtifact(String jobId, String requestedBy) {
+        PersonalDataExportJob job = jobs.get(jobId);
+        if (job == null || !job.requestedBy().equals(requestedBy) || job.estado() != PersonalDataExportJob.Estado.LISTA) {
+            return Optional.empty();
+        }
+        Path file = artifact(jobId);
+        return Files.isRegularFile(file) ? Optional.of(file) : Optional.empty();
+    }
+
+    /**
+     * Borra las exportaciones terminadas hace más de ttl y los ficheros que hayan quedado de otros arranques
+     */
+    @Scheduled(cron = "${mediadaw.personal-data.cleanup-cron:0 0 * * * *}")
+    public void purgeExpired() {
+        LocalDateTime limit = LocalDateTime.now().minus(properties.getTtl());
+        jobs.values().removeIf(job -> job.finishedAt() != null && job.finishedAt().isBefore(limit));
+
+        FileTime fileLimit = FileTime.from(Instant.now().minus(properties.getTtl()));
+        try (Stream<Path> files = Files.list(properties.getStorageDir())) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                boolean known = name.endsWith(ARTIFACT_SUFFIX)
+                        && jobs.containsKey(name.substring(0, name.length() - ARTIFACT_SUFFIX.length()));
+                if (!known && Files.getLastModifiedTime(file).compareTo(fileLimit) < 0) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("No se pudieron borrar las exportaciones caducadas: {}", e.getMessage());
+        }
+    }
+
+    private void run(String jobId) {
+        PersonalDataExportJob job = jobs.computeIfPresent(jobId, (id, current) -> current.running());
+        if (job == null) {
+            return;
+        }
+
+        Path tmp = null;
+        try {
+            tmp = Files.createTempFile(properties.getStorageDir(), "export-", ".tmp");
+            long orders;
+            try (OutputStream out = new GZIPOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(tmp), BUFFER_SIZE), BUFFER_SIZE)) {
+                orders = export(job.userId(), out);
+            }
+            Path target = artifact(jobId);
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            long size = Files.size(target);
+            jobs.computeIfPresent(jobId, (id, current) -> current.ready(orders, size));
+            log.info("Exportación de datos {} lista: {} pedidos, {} bytes", jobId, orders, size);
+        } catch (Exception e) {
+            log.error("Exportación de datos {} fallida", jobId, e);
+            jobs.computeIfPresent(jobId, (id, current) -> current.failed());
+        } finally {
+            if (tmp != null) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException e) {
+                    log.warn("No se pudo borrar {}: {}", tmp, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private Path artifact(String jobId) {
+        return properties.getStorageDir().resolve(jobId + ARTIFACT_SUFFIX);
+    }
+
+    private long write(Long userId, OutputStream out) throws IOException {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new UserNotFoundException(userId));
+
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        // La salida es de quien llama (respuesta HTTP o gzip): no se cierra aquí
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.writeStartObject();
+        generator.writeObjectField("generadoEn", LocalDateTime.now());
+
+        generator.writeObjectFieldStart("perfil");
+        generator.writeObjectField("id", user.getId());
+        generator.writeObjectField("nombre", user.getNombre());
+        generator.writeObjectField("apellidos", user.getApellidos());
+        generator.writeObjectField("email", user.getEmail());
+        generator.writeObjectField("role", user.getRole());
+        generator.writeObjectField("avatar", user.getAvatar());
+        generator.writeObjectField("fechaAlta", user.getFechaAlta());
+        generator.writeObjectField("eliminado", user.getIsDeleted());
+        generator.writeEndObject();
+
+        generator.writeArrayFieldStart("carrito");
+        List<LineaCarrito> cartLines = carritoRepository.findByUserIdWithLineas(userId)
+                .map(Carrito::getLineasCarrito)
+                .orElse(List.of());
+        for (LineaCarrito line : cartLines) {
+            generator.writeStartObject();
+            generator.writeObjectField("productId", line.getProductos().getId());
+            generator.writeObjectField("sku", line.getProductos().getSku());
+            generator.writeObjectField("productNombre", line.getProductos().getNombre());
+            generator.writeObjectField("cantidad", line.getCantidad());
+            generator.writeObjectField("precioActual", line.getProductos().getPrecio());
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+
+        long orders;
+        generator.writeArrayFieldStart("pedidos");
+        try (Stream<PersonalDataOrderLineRow> rows = ventaRepository.streamPersonalData(userId)) {
+            orders = writeOrders(rows.iterator(), generator);
+        }
+        generator.writeEndArray();
+
+        generator.writeEndObject();
+        generator.close();
+        log.debug("Exportación de datos del usuario {}: {} pedidos", userId, orders);
+        return orders;
+    }
+
+    /**
+     * Un objeto por pedido con sus líneas; las filas llegan ordenadas por pedido.
+     * Los IDs de pedido y de línea van como texto, como en la API de cambio de estado masivo: son de 64 bits.
+     */
+    private static long writeOrders(Iterator<PersonalDataOrderLineRow> rows, JsonGenerator generator) throws IOException {
+        long orders = 0;
+        Long currentOrder = null;
+        while (rows.hasNext()) {
+            PersonalDataOrderLineRow row = rows.next();
+            if (!row.orderId().equals(currentOrder)) {
+                if (currentOrder != null) {
+                    generator.writeEndArray();
+                    generator.writeEndObject();
+                }
+                currentOrder = row.orderId();
+                orders++;
+                generator.writeStartObject();
+                generator.writeStringField("id", row.orderId().toString());
+                generator.writeObjectField("fechaCompra", row.fechaCompra());
+                generator.writeObjectField("estado", row.estado());
+                generator.writeObjectField("total", row.total());
+                generator.writeArrayFieldStart("lineas");
+            }
+            if (row.lineId() != null) {
+                generator.writeStartObject();
+                generator.writeStringField("id", row.lineId().toString());
+                generator.writeObjectField("productId", row.productId());
+                generator.writeObjectField("sku", row.sku());
+                generator.writeObjectField("productNombre", row.productNombre());
+                generator.writeObjectField("categoria", row.categoria());
+                generator.writeObjectField("cantidad", row.cantidad());
+                generator.writeObjectField("precioVenta", row.precioVenta());
+                generator.writeObjectField("subtotal", row.cantidad() * row.precioVenta());
+                generator.writeEndObject();
+            }
+        }
+        if (currentOrder != null) {
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+        return orders;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -1,15 +1,28 @@
 package srangeldev.mediadaw.services;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import srangeldev.mediadaw.dto.AdminProductQuery;
+import srangeldev.mediadaw.dto.AdminProductRow;
+import srangeldev.mediadaw.events.StockChangedEvent;
+import srangeldev.mediadaw.exceptions.DuplicateSkuException;
 import srangeldev.mediadaw.exceptions.ProductNotFoundException;
 import srangeldev.mediadaw.models.Productos;
 import srangeldev.mediadaw.models.Categoria;
 import srangeldev.mediadaw.repositories.ProductosRepository;
 
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Servicio para gestionar productos.
@@ -19,7 +32,23 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class ProductosService {
 
+    /**
+     * Máximo de productos por página en la lista del panel
+     */
+    static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * Columnas por las que se puede ordenar la lista del panel (parámetro → atributo de la entidad)
+     */
+    private static final Map<String, String> SORTABLE_COLUMNS = Map.of(
+            "id", "id",
+            "nombre", "nombre",
+            "categoria", "category",
+            "precio", "precio",
+            "stock", "stock");
+
     private final ProductosRepository productosRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Obtiene todos los productos no eliminados
@@ -45,6 +74,33 @@ public class ProductosService {
         return productosRepository.findByCategoryAndDeletedFalse(category);
     }
 
+    /**
+     * Página de la lista de productos del panel, filtrada y ordenada en la BD.
+     * Solo lee las columnas de la tabla; las columnas de orden desconocidas se ignoran (se ordena por ID).
+     */
+    @Transactional(readOnly = true)
+    public Page<AdminProductRow> getAdminProductsPage(AdminProductQuery query) {
+        String property = SORTABLE_COLUMNS.getOrDefault(query.sort(), "id");
+        Sort.Direction direction = query.isDescending() ? Sort.Direction.DESC : Sort.Direction.ASC;
+        // El ID desempata para que el orden entre páginas sea estable
+        Sort sort = property.equals("id")
+                ? Sort.by(direction, "id")
+                : Sort.by(direction, property).and(Sort.by(direction, "id"));
+        PageRequest pageable = PageRequest.of(query.page(), Math.clamp(query.size(), 1, MAX_PAGE_SIZE), sort);
+
+        List<Boolean> deleted = query.eliminados() ? List.of(false, true) : List.of(false);
+        EnumSet<Categoria> categorias = query.categoria() != null
+                ? EnumSet.of(query.categoria())
+                : EnumSet.allOf(Categoria.class);
+        int minStock = query.stock() != null ? query.stock().getMin() : 0;
+        int maxStock = query.stock() != null ? query.stock().getMax() : Integer.MAX_VALUE;
+        String nombre = query.nombre() != null
+                ? "%" + LikePatterns.escape(query.nombre().toLowerCase(Locale.ROOT)) + "%"
+                : "%";
+
+        return productosRepository.findAdminPage(deleted, categorias, minStock, maxStock, nombre, pageable);
+    }
+
     /**
      * Busca un producto por ID
      */
@@ -67,7 +123,10 @@ public class ProductosService {
      */
     @Transactional
     public Productos createProduct(Productos productos) {
-        return productosRepository.save(productos);
+        productos.setSku(normalizeSku(productos.getSku()));
+        Productos saved = saveCheckingSku(productos);
+        publishStockChanged(saved.getId());
+        return saved;
     }
 
     /**
@@ -78,17 +137,21 @@ public class ProductosService {
         Productos productos = productosRepository.findById(id)
                 .orElseThrow(() -> new ProductNotFoundException(id));
 
+        productos.setSku(normalizeSku(productosData.getSku()));
         productos.setNombre(productosData.getNombre());
         productos.setDescripcion(productosData.getDescripcion());
         productos.setPrecio(productosData.getPrecio());
         productos.setStock(productosData.getStock());
         productos.setCategory(productosData.getCategory());
+        productos.setReorderThreshold(productosData.getReorderThreshold());
 
         if (productosData.getImagen() != null) {
             productos.setImagen(productosData.getImagen());
         }
 
-        return productosRepository.save(productos);
+        Productos saved = saveCheckingSku(productos);
+        publishStockChanged(id);
+        return saved;
     }
 
     /**
@@ -101,6 +164,7 @@ public class ProductosService {
 
         productos.setDeleted(true);
         productosRepository.save(productos);
+        publishStockChanged(id);
     }
 
     /**
@@ -112,7 +176,44 @@ public class ProductosService {
                 .orElseThrow(() -> new ProductNotFoundException(id));
 
         productos.setStock(newStock);
-        return productosRepository.save(productos);
+        Productos saved = saveCheckingSku(productos);
+        publishStockChanged(id);
+        return saved;
+    }
+
+    /**
+     * SKU sin espacios; vacío equivale a sin SKU (la columna es única y admite varios null, pero no varios "")
+     */
+    static String normalizeSku(String sku) {
+        return sku == null || sku.isBlank() ? null : sku.trim();
+    }
+
+    /**
+     * Guarda y envía el cambio a la BD en el momento: la restricción única decide si el SKU está repetido,
+     * también entre dos altas simultáneas
+     *
+     * @throws DuplicateSkuException si otro producto tiene ya ese SKU
+     */
+    private Productos saveCheckingSku(Productos productos) {
+        try {
+            Productos saved = productosRepository.save(productos);
+            productosRepository.flush();
+            return saved;
+        } catch (DataIntegrityViolationException e) {
+            if (UniqueConstraints.isUniqueViolation(e, Productos.SKU_CONSTRAINT)) {
+                throw new DuplicateSkuException(productos.getSku());
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Avisa de que ha cambiado el stock o el umbral de un producto (avisos de poco stock, tras el commit)
+     */
+    private void publishStockChanged(Long productId) {
+        if (productId != null) {
+            eventPublisher.publishEvent(new StockChangedEvent(Set.of(productId)));
+        }
     }
 
     /**
@@ -123,6 +224,14 @@ public class ProductosService {
         return productosRepository.findLowStockProducts(threshold);
     }
 
+    /**
+     * Cuenta los productos no eliminados sin cargarlos
+     */
+    @Transactional(readOnly = true)
+    public long countProducts() {
+        return productosRepository.countByDeletedFalse();
+    }
+
     /**
      * Verifica si un producto tiene stock suficiente
      */
@@ -0,0 +1,158 @@
+package srangeldev.mediadaw.services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import srangeldev.mediadaw.dto.SalesTotals;
+import srangeldev.mediadaw.events.PurchaseCreatedEvent;
+import srangeldev.mediadaw.events.PurchaseStatusChangedEvent;
+import srangeldev.mediadaw.models.EstadoPedido;
+import srangeldev.mediadaw.models.SalesCounter;
+import srangeldev.mediadaw.models.Venta;
+import srangeldev.mediadaw.repositories.SalesCounterRepository;
+import srangeldev.mediadaw.repositories.VentaRepository;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Contadores de pedidos e ingresos por estado.
+ *
+ * Se actualizan en la misma transacción que crea o cambia el pedido (los eventos se escuchan
+ * de forma síncrona), así que el panel de administración los lee sin recorrer la tabla de pedidos.
+ * Un job periódico los compara con un agregado real de la BD y corrige cualquier desviación.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SalesCounterService {
+
+    /**
+     * Filas por estado. Cada actualización va a un slot al azar para repartir los bloqueos.
+     */
+    static final int SLOTS = 16;
+
+    private final SalesCounterRepository salesCounterRepository;
+    private final VentaRepository ventaRepository;
+
+    @EventListener
+    public void onPurchaseCreated(PurchaseCreatedEvent event) {
+        Venta venta = event.venta();
+        add(venta.getEstado(), 1, venta.getTotal());
+    }
+
+    @EventListener
+    public void onPurchaseStatusChanged(PurchaseStatusChangedEvent event) {
+        Map<EstadoPedido, List<PurchaseStatusChangedEvent.Change>> byPrevious = event.changes().stream()
+                .collect(Collectors.groupingBy(PurchaseStatusChangedEvent.Change::previous,
+                        () -> new EnumMap<>(EstadoPedido.class), Collectors.toList()));
+
+        // Un UPDATE por estado de origen y otro para el de destino, no uno por pedido
+        byPrevious.forEach((previous, changes) ->
+                add(previous, -changes.size(), -sumTotals(changes)));
+        add(event.target(), event.changes().size(), sumTotals(event.changes()));
+    }
+
+    private static double sumTotals(List<PurchaseStatusChangedEvent.Change> changes) {
+        return changes.stream().mapToDouble(PurchaseStatusChangedEvent.Change::total).sum();
+    }
+
+    private void add(EstadoPedido estado, long orders, double revenue) {
+        int slot = ThreadLocalRandom.current().nextInt(SLOTS);
+        if (salesCounterRepository.add(estado, slot, orders, revenue) == 0) {
+            log.warn("Contador de ventas {}/{} sin inicializar: se corregirá en la próxima reconciliación", estado, slot);
+        }
+    }
+
+    /**
+     * Pedidos e ingresos de cada estado (todos los estados, aunque no tengan pedidos)
+     */
+    @Transactional(readOnly = true)
+    public Map<EstadoPedido, SalesTotals> getTotalsByStatus() {
+        Map<EstadoPedido, SalesTotals> totals = new EnumMap<>(EstadoPedido.class);
+        for (EstadoPedido estado : EstadoPedido.values()) {
+            totals.put(estado, SalesTotals.empty(estado));
+        }
+        salesCounterRepository.sumByEstado().forEach(row -> totals.put(row.estado(), row));
+        return totals;
+    }
+
+    /**
+     * Ingresos totales. Los pedidos cancelados no cuentan.
+     */
+    @Transactional(readOnly = true)
+    public double getTotalRevenue() {
+        return totalRevenue(getTotalsByStatus());
+    }
+
+    /**
+     * Ingresos totales a partir de los totales por estado ya leídos. Los pedidos cancelados no cuentan.
+     */
+    public static double totalRevenue(Map<EstadoPedido, SalesTotals> totalsByStatus) {
+        return totalsByStatus.values().stream()
+                .filter(totals -> totals.estado() != EstadoPedido.CANCELADO)
+                .mapToDouble(SalesTotals::revenue)
+                .sum();
+    }
+
+    /**
+     * Número de pedidos en un estado
+     */
+    @Transactional(readOnly = true)
+    public long countByStatus(EstadoPedido estado) {
+        return getTotalsByStatus().get(estado).orders();
+    }
+
+    /**
+     * Recalcula los contadores a partir de la tabla de pedidos y corrige las desviaciones.
+     *
+     * Bloquea primero los contadores: las compras en curso que ya los han tocado terminan antes
+     * de calcular el agregado (y entran en él), y las que aún no, esperan y suman después.
+     * Mientras dura el agregado las compras esperan, por eso se ejecuta al arrancar y de madrugada.
+     */
+    @Scheduled(cron = "${mediadaw.sales.reconcile-cron:0 0 4 * * *}")
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void reconcile() {
+        Map<EstadoPedido, List<SalesCounter>> counters = salesCounterRepository.findAllForUpdate().stream()
+                .collect(Collectors.groupingBy(SalesCounter::getEstado,
+                        () -> new EnumMap<>(EstadoPedido.class), Collectors.toList()));
+
+        Map<EstadoPedido, SalesTotals> actual = ventaRepository.sumTotalsByEstado().stream()
+                .collect(Collectors.toMap(SalesTotals::estado, totals -> totals,
+                        (a, b) -> a, () -> new EnumMap<>(EstadoPedido.class)));
+
+        List<SalesCounter> toSave = new ArrayList<>();
+        for (EstadoPedido estado : EstadoPedido.values()) {
+            SalesTotals expected = actual.getOrDefault(estado, SalesTotals.empty(estado));
+            List<SalesCounter> rows = counters.getOrDefault(estado, List.of());
+
+            long orders = rows.stream().mapToLong(SalesCounter::getOrders).sum();
+            double revenue = rows.stream().mapToDouble(SalesCounter::getRevenue).sum();
+            if (orders != expected.orders() || Math.abs(revenue - expected.revenue()) > 0.005) {
+                log.warn("Contadores de ventas {} desviados: {} pedidos / {} € (real: {} / {} €)",
+                        estado, orders, revenue, expected.orders(), expected.revenue());
+            }
+
+            // Todo el total al slot 0 y el resto a cero; se crean los slots que falten
+            Map<Integer, SalesCounter> bySlot = rows.stream()
+                    .collect(Collectors.toMap(SalesCounter::getSlot, counter -> counter));
+            for (int slot = 0; slot < SLOTS; slot++) {
+                SalesCounter counter = bySlot.getOrDefault(slot,
+                        SalesCounter.builder().estado(estado).slot(slot).build());
+                counter.setOrders(slot == 0 ? expected.orders() : 0);
+                counter.setRevenue(slot == 0 ? expected.revenue() : 0);
+                toSave.add(counter);
+            }
+        }
+        salesCounterRepository.saveAll(toSave);
+    }
+}
@@ -0,0 +1,252 @@
+package srangeldev.mediadaw.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import srangeldev.mediadaw.dto.CategorySales;
+import srangeldev.mediadaw.dto.CategoryTotals;
+import srangeldev.mediadaw.dto.DailySales;
+import srangeldev.mediadaw.dto.OrderCategoryTotals;
+import srangeldev.mediadaw.events.PurchaseCreatedEvent;
+import srangeldev.mediadaw.events.PurchaseStatusChangedEvent;
+import srangeldev.mediadaw.models.Categoria;
+import srangeldev.mediadaw.models.EstadoPedido;
+import srangeldev.mediadaw.models.LineaVenta;
+import srangeldev.mediadaw.models.SalesDailyRollup;
+import srangeldev.mediadaw.models.Venta;
+import srangeldev.mediadaw.repositories.SalesDailyRollupRepository;
+import srangeldev.mediadaw.repositories.VentaRepository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Agregado diario de ventas por categoría y estado (tabla sales_daily_rollup).
+ *
+ * Las filas de cada día se crean por adelantado (todas las combinaciones de categoría y estado),
+ * de modo que al crear o cambiar pedidos solo hay que lanzar UPDATE atómicos, en la misma
+ * transacción que el pedido. El histórico se rellena con un job que recalcula día a día,
+ * cada día en su propia transacción.
+ */
+@Slf4j
+@Service
+public class SalesRollupService {
+
+    /**
+     * Máximo de días de las gráficas de ventas
+     */
+    static final int MAX_DAYS = 365;
+
+    private final SalesDailyRollupRepository rollupRepository;
+    private final VentaRepository ventaRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public SalesRollupService(SalesDailyRollupRepository rollupRepository,
+                              VentaRepository ventaRepository,
+                              PlatformTransactionManager transactionManager) {
+        this.rollupRepository = rollupRepository;
+        this.ventaRepository = ventaRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // ==================== MANTENIMIENTO INCREMENTAL ====================
+
+    @EventListener
+    public void onPurchaseCreated(PurchaseCreatedEvent event) {
+        Venta venta = event.venta();
+        LocalDate day = venta.getFechaCompra().toLocalDate();
+
+        Map<Categoria, List<LineaVenta>> byCategoria = venta.getLines().stream()
+                .collect(Collectors.groupingBy(line -> line.getProductos().getCategory()));
+
+        byCategoria.forEach((categoria, lines) -> add(day, categoria, venta.getEstado(), 1,
+                lines.stream().mapToLong(LineaVenta::getCantidad).sum(),
+                lines.stream().mapToDouble(LineaVenta::getSubtotal).sum()));
+    }
+
+    @EventListener
+    public void onPurchaseStatusChanged(PurchaseStatusChangedEvent event) {
+        Map<Long, PurchaseStatusChangedEvent.Change> changes = event.changes().stream()
+                .collect(Collectors.toMap(PurchaseStatusChangedEvent.Change::ventaId, Function.identity()));
+
+        // Se acumula por fila del agregado: un UPDATE por fila afectada, no por pedido
+        Map<Key, Delta> deltas = new HashMap<>();
+        for (OrderCategoryTotals totals : ventaRepository.sumLinesByVentaAndCategoria(changes.keySet())) {
+            PurchaseStatusChangedEvent.Change change = changes.get(totals.ventaId());
+            LocalDate day = change.fechaCompra().toLocalDate();
+
+            deltas.computeIfAbsent(new Key(day, totals.categoria(), change.previous()), key -> new Delta())
+                    .add(-1, -totals.units(), -totals.revenue());
+            deltas.computeIfAbsent(new Key(day, totals.categoria(), event.target()), key -> new Delta())
+                    .add(1, totals.units(), totals.revenue());
+        }
+
+        deltas.forEach((key, delta) -> add(key.day(), key.categoria(), key.estado(),
+                delta.orders, delta.units, delta.revenue));
+    }
+
+    private void add(LocalDate day, Categoria categoria, EstadoPedido estado, long orders, long units, double revenue) {
+        if (rollupRepository.add(day, categoria, estado, orders, units, revenue) == 0) {
+            log.warn("Agregado diario sin filas para {} {} {}: se corregirá al recalcular el día", day, categoria, estado);
+        }
+    }
+
+    private record Key(LocalDate day, Categoria categoria, EstadoPedido estado) {
+    }
+
+    private static final class Delta {
+        private long orders;
+        private long units;
+        private double revenue;
+
+        private void add(long orders, long units, double revenue) {
+            this.orders += orders;
+            this.units += units;
+            this.revenue += revenue;
+        }
+    }
+
+    // ==================== CONSULTAS ====================
+
+    /**
+     * Ventas de cada uno de los últimos días (hoy incluido), también los días sin ventas.
+     * Lee como mucho una fila agregada por día.
+     */
+    @Transactional(readOnly = true)
+    public List<DailySales> getDailySales(int days) {
+        LocalDate to = LocalDate.now();
+        LocalDate from = to.minusDays(clampDays(days) - 1L);
+
+        Map<LocalDate, DailySales> byDay = rollupRepository.sumByDay(from, to, EstadoPedido.CANCELADO).stream()
+                .collect(Collectors.toMap(DailySales::day, Function.identity()));
+
+        List<DailySales> result = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            result.add(byDay.getOrDefault(day, new DailySales(day, 0L, 0.0)));
+        }
+        return result;
+    }
+
+    /**
+     * Ventas por categoría de los últimos días (hoy incluido), de más a menos ingresos
+     */
+    @Transactional(readOnly = true)
+    public List<CategorySales> getSalesByCategory(int days) {
+        LocalDate to = LocalDate.now();
+        LocalDate from = to.minusDays(clampDays(days) - 1L);
+        return rollupRepository.sumByCategoria(from, to, EstadoPedido.CANCELADO);
+    }
+
+    private static int clampDays(int days) {
+        return Math.clamp(days, 1, MAX_DAYS);
+    }
+
+    // ==================== FILAS POR DÍA Y RECÁLCULO ====================
+
+    /**
+     * Crea las filas de hoy y mañana. Cada hora, para que existan antes del primer pedido del día.
+     */
+    @Scheduled(cron = "0 0 * * * *")
+    public void prepareUpcomingDays() {
+        LocalDate today = LocalDate.now();
+        ensureDay(today);
+        ensureDay(today.plusDays(1));
+    }
+
+    /**
+     * Al arrancar prepara los próximos días y, si el agregado está vacío pero hay pedidos,
+     * lo rellena en segundo plano desde el primer pedido.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        // Si el día del primer pedido no tiene filas, el histórico nunca se ha calculado
+        LocalDateTime first = ventaRepository.findFirstFechaCompra();
+        boolean backfillNeeded = first != null && !rollupRepository.existsByDay(first.toLocalDate());
+
+        prepareUpcomingDays();
+
+        if (backfillNeeded) {
+            Thread.ofVirtual().name("sales-rollup-backfill").start(() -> backfill(first.toLocalDate(), LocalDate.now()));
+        }
+    }
+
+    /**
+     * Recalcula el agregado de un rango de días (incluidos) a partir de los pedidos.
+     * Cada día se recalcula en su propia transacción para no mantener bloqueos largos.
+     */
+    public void backfill(LocalDate from, LocalDate to) {
+        log.info("Recalculando el agregado diario de ventas del {} al {}", from, to);
+        int days = 0;
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            rebuildDay(day);
+            days++;
+        }
+        log.info("Agregado diario de ventas recalculado: {} días", days);
+    }
+
+    /**
+     * Recalcula un día. Bloquea primero sus filas: los pedidos que ya las han actualizado
+     * terminan antes (y entran en el agregado), y los que aún no, esperan y suman después.
+     */
+    public void rebuildDay(LocalDate day) {
+        ensureDay(day);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<Key, SalesDailyRollup> rows = rollupRepository.findByDayForUpdate(day).stream()
+                    .collect(Collectors.toMap(row -> new Key(day, row.getCategoria(), row.getEstado()),
+                            Function.identity()));
+            rows.values().forEach(row -> {
+                row.setOrders(0);
+                row.setUnits(0);
+                row.setRevenue(0);
+            });
+
+            List<CategoryTotals> totals = ventaRepository.sumLinesByCategoriaAndEstado(
+                    day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+            for (CategoryTotals total : totals) {
+                SalesDailyRollup row = rows.get(new Key(day, total.categoria(), total.estado()));
+                row.setOrders(total.orders());
+                row.setUnits(total.units());
+                row.setRevenue(total.revenue());
+            }
+        });
+    }
+
+    /**
+     * Crea las filas que falten de un día (todas las combinaciones de categoría y estado)
+     */
+    public void ensureDay(LocalDate day) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Map<Key, SalesDailyRollup> existing = rollupRepository.findByDay(day).stream()
+                        .collect(Collectors.toMap(row -> new Key(day, row.getCategoria(), row.getEstado()),
+                                Function.identity()));
+
+                List<SalesDailyRollup> missing = new ArrayList<>();
+                for (Categoria categoria : Categoria.values()) {
+                    for (EstadoPedido estado : EstadoPedido.values()) {
+                        if (!existing.containsKey(new Key(day, categoria, estado))) {
+                            missing.add(SalesDailyRollup.builder().day(day).categoria(categoria).estado(estado).build());
+                        }
+                    }
+                }
+                rollupRepository.saveAll(missing);
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Otra instancia ha creado las filas a la vez
+            log.debug("Filas del agregado del {} creadas por otra instancia", day);
+        }
+    }
+}
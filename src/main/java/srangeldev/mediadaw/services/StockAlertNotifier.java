@@ -0,0 +1,90 @@
+package srangeldev.mediadaw.services;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mail.MailException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Service;
+import srangeldev.mediadaw.config.StockAlertProperties;
+import srangeldev.mediadaw.dto.LowStockProduct;
+import srangeldev.mediadaw.models.Role;
+import srangeldev.mediadaw.repositories.UserRepository;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Envía a los administradores el email de aviso de poco stock.
+ * El envío va en un hilo virtual aparte: ni la compra ni la edición que lo provoca esperan al servidor de correo.
+ * Si no hay servidor de correo configurado (spring.mail.host), el aviso solo queda en el log.
+ */
+@Slf4j
+@Service
+public class StockAlertNotifier {
+
+    private final ObjectProvider<JavaMailSender> mailSender;
+    private final UserRepository userRepository;
+    private final StockAlertProperties properties;
+
+    private final ExecutorService executor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("stock-alert-", 0).factory());
+
+    public StockAlertNotifier(ObjectProvider<JavaMailSender> mailSender,
+                              UserRepository userRepository,
+                              StockAlertProperties properties) {
+        this.mailSender = mailSender;
+        this.userRepository = userRepository;
+        this.properties = properties;
+    }
+
+    /**
+     * Avisa (en segundo plano) de los productos que acaban de bajar de su umbral
+     */
+    public void notifyLowStock(List<LowStockProduct> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+        log.warn("Productos por debajo de su umbral de stock: {}", products);
+        if (properties.isMailEnabled()) {
+            executor.execute(() -> send(products));
+        }
+    }
+
+    void send(List<LowStockProduct> products) {
+        JavaMailSender sender = mailSender.getIfAvailable();
+        if (sender == null) {
+            log.debug("Sin servidor de correo configurado: no se envía el aviso de poco stock");
+            return;
+        }
+
+        List<String> admins = userRepository.findEmailsByRole(Role.ADMIN);
+        if (admins.isEmpty()) {
+            return;
+        }
+
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom(properties.getMailFrom());
+        message.setTo(admins.toArray(String[]::new));
+        message.setSubject("[MediaDaw] " + products.size() + " producto(s) con poco stock");
+        message.setText(products.stream()
+                .map(p -> "- " + p.nombre() + " (" + p.categoria() + "): quedan " + p.stock() + " unidades")
+                .collect(Collectors.joining("\n",
+                        "Los siguientes productos han bajado de su umbral de aviso:\n\n",
+                        "\n\nRevisa el stock en /admin/productos?stock=BAJO")));
+
+        try {
+            sender.send(message);
+        } catch (MailException e) {
+            log.error("No se pudo enviar el aviso de poco stock: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
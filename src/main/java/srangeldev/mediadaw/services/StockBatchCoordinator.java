@@ -0,0 +1,267 @@
+package srangeldev.mediadaw.services;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import srangeldev.mediadaw.config.CheckoutProperties;
+import srangeldev.mediadaw.exceptions.CheckoutBusyException;
+import srangeldev.mediadaw.exceptions.InsufficientStockException;
+import srangeldev.mediadaw.models.Productos;
+import srangeldev.mediadaw.repositories.ProductosRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Coordinador de descuentos de stock agrupados (group commit) para productos muy demandados.
+ *
+ * Cuando muchas compras descuentan stock del mismo producto a la vez, todas se serializan
+ * sobre el bloqueo de su fila. El coordinador encola las peticiones de cada producto durante
+ * una ventana de pocos milisegundos y las aplica con un único UPDATE condicional en su propia
+ * transacción, devolviendo después el resultado a cada petición.
+ *
+ * Las reservas se confirman antes de crear el pedido, así que quien reserva debe devolver
+ * las unidades con {@link #release(Map)} si la compra no llega a completarse.
+ */
+@Slf4j
+@Service
+public class StockBatchCoordinator {
+
+    private final ProductosRepository productosRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CheckoutProperties.Batching config;
+
+    private final Semaphore capacity;
+    private final Map<Long, SkuQueue> queues = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService timer;
+    private final ExecutorService flusher;
+
+    public StockBatchCoordinator(ProductosRepository productosRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 CheckoutProperties properties) {
+        this.productosRepository = productosRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.config = properties.getBatching();
+        this.capacity = new Semaphore(config.getQueueCapacity());
+        this.timer = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("stock-batch-timer").daemon().factory());
+        this.flusher = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("stock-batch-", 0).factory());
+    }
+
+    /**
+     * Indica si la agrupación está activada por configuración
+     */
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * Encola un descuento de stock. El futuro se completa cuando su lote se ha confirmado,
+     * o de forma excepcional con {@link InsufficientStockException} si no quedaban unidades.
+     *
+     * @throws CheckoutBusyException si la cola está llena
+     */
+    public CompletableFuture<Void> reserve(Long productId, int quantity) {
+        if (!capacity.tryAcquire()) {
+            throw new CheckoutBusyException("Cola de reservas de stock llena (" + config.getQueueCapacity() + ")");
+        }
+
+        Reservation reservation = new Reservation(quantity, new CompletableFuture<>());
+        reservation.future().whenComplete((ignored, error) -> capacity.release());
+        queues.computeIfAbsent(productId, SkuQueue::new).add(reservation);
+        return reservation.future();
+    }
+
+    /**
+     * Reserva todas las cantidades indicadas (producto -> unidades) y espera a que se confirmen.
+     * Si alguna falla, devuelve al stock las que sí se concedieron y relanza el error.
+     *
+     * @return las cantidades reservadas
+     */
+    public Map<Long, Integer> reserveAll(Map<Long, Integer> quantities) {
+        Map<Long, CompletableFuture<Void>> futures = new LinkedHashMap<>();
+        RuntimeException failure = null;
+
+        try {
+            quantities.forEach((productId, quantity) -> futures.put(productId, reserve(productId, quantity)));
+        } catch (CheckoutBusyException e) {
+            failure = e;
+        }
+
+        long deadline = System.nanoTime() + config.getTimeout().toNanos();
+        Map<Long, Integer> granted = new LinkedHashMap<>();
+
+        for (Map.Entry<Long, CompletableFuture<Void>> entry : futures.entrySet()) {
+            Long productId = entry.getKey();
+            int quantity = quantities.get(productId);
+            try {
+                entry.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                granted.put(productId, quantity);
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException re ? re : new IllegalStateException(e.getCause());
+                }
+            } catch (TimeoutException e) {
+                // Si la reserva llega a concederse más tarde, se devuelve en cuanto se confirme
+                entry.getValue().thenRun(() -> release(Map.of(productId, quantity)));
+                if (failure == null) {
+                    failure = new CheckoutBusyException("Tiempo de espera agotado reservando stock del producto " + productId);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                entry.getValue().thenRun(() -> release(Map.of(productId, quantity)));
+                if (failure == null) {
+                    failure = new CheckoutBusyException("Reserva de stock interrumpida");
+                }
+            }
+        }
+
+        if (failure != null) {
+            release(granted);
+            throw failure;
+        }
+        return granted;
+    }
+
+    /**
+     * Devuelve al stock unidades reservadas que no se van a usar
+     */
+    public void release(Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status ->
+                quantities.forEach(productosRepository::incrementStock));
+    }
+
+    /**
+     * Aplica un lote de reservas de un mismo producto.
+     * Lo normal es que haya stock para todo el lote y baste un único UPDATE condicional.
+     * Si no, se bloquea la fila y se reparte lo que quede en orden de llegada.
+     */
+    private void apply(Long productId, List<Reservation> batch) {
+        int total = batch.stream().mapToInt(Reservation::quantity).sum();
+
+        try {
+            BatchOutcome outcome = transactionTemplate.execute(status -> {
+                boolean[] granted = new boolean[batch.size()];
+
+                if (productosRepository.decrementStockIfAvailable(productId, total) == 1) {
+                    Arrays.fill(granted, true);
+                    return new BatchOutcome(granted, null, 0);
+                }
+
+                Productos producto = productosRepository.findByIdForUpdate(productId).orElse(null);
+                int available = producto == null || producto.getDeleted() ? 0 : producto.getStock();
+                int remaining = available;
+
+                for (int i = 0; i < batch.size(); i++) {
+                    if (batch.get(i).quantity() <= remaining) {
+                        granted[i] = true;
+                        remaining -= batch.get(i).quantity();
+                    }
+                }
+
+                if (remaining < available) {
+                    productosRepository.decrementStockIfAvailable(productId, available - remaining);
+                }
+                return new BatchOutcome(granted, producto != null ? producto.getNombre() : null, remaining);
+            });
+
+            for (int i = 0; i < batch.size(); i++) {
+                Reservation reservation = batch.get(i);
+                if (outcome.granted()[i]) {
+                    reservation.future().complete(null);
+                } else {
+                    reservation.future().completeExceptionally(new InsufficientStockException(
+                            productId, outcome.productName(), reservation.quantity(), outcome.remaining()));
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Error aplicando lote de stock del producto {}: {}", productId, e.getMessage());
+            batch.forEach(reservation -> reservation.future().completeExceptionally(e));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        timer.shutdownNow();
+        flusher.shutdown();
+    }
+
+    private record Reservation(int quantity, CompletableFuture<Void> future) {
+    }
+
+    private record BatchOutcome(boolean[] granted, String productName, int remaining) {
+    }
+
+    private enum State { IDLE, SCHEDULED, RUNNING }
+
+    /**
+     * Cola de reservas pendientes de un producto.
+     * Como mucho hay un vaciado en curso por producto: lo que llega mientras tanto
+     * forma el siguiente lote.
+     */
+    private final class SkuQueue {
+
+        private final Long productId;
+        private final List<Reservation> pending = new ArrayList<>();
+        private State state = State.IDLE;
+        private ScheduledFuture<?> timerTask;
+
+        private SkuQueue(Long productId) {
+            this.productId = productId;
+        }
+
+        synchronized void add(Reservation reservation) {
+            pending.add(reservation);
+
+            if (state == State.IDLE) {
+                state = State.SCHEDULED;
+                timerTask = timer.schedule(this::startDrain, config.getWindow().toNanos(), TimeUnit.NANOSECONDS);
+            } else if (state == State.SCHEDULED && pending.size() >= config.getMaxBatchSize() && timerTask.cancel(false)) {
+                // Lote completo: no tiene sentido esperar al final de la ventana
+                startDrain();
+            }
+        }
+
+        private synchronized void startDrain() {
+            if (state != State.SCHEDULED) {
+                return;
+            }
+            state = State.RUNNING;
+            flusher.execute(this::drain);
+        }
+
+        private void drain() {
+            while (true) {
+                List<Reservation> batch;
+                synchronized (this) {
+                    if (pending.isEmpty()) {
+                        state = State.IDLE;
+                        return;
+                    }
+                    List<Reservation> head = pending.subList(0, Math.min(pending.size(), config.getMaxBatchSize()));
+                    batch = new ArrayList<>(head);
+                    head.clear();
+                }
+                apply(productId, batch);
+            }
+        }
+    }
+}
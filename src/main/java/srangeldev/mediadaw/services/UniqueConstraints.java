@@ -0,0 +1,31 @@
+package srangeldev.mediadaw.services;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Locale;
+
+/**
+ * Reconoce qué restricción única ha saltado al guardar, para convertirla en un error de formulario.
+ */
+final class UniqueConstraints {
+
+    private UniqueConstraints() {
+    }
+
+    /**
+     * Si la violación es la de la restricción única indicada (el nombre llega tal cual o dentro del mensaje
+     * según la BD)
+     */
+    static boolean isUniqueViolation(DataIntegrityViolationException e, String constraint) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null
+                    && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(constraint)) {
+                return true;
+            }
+        }
+        String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+        return message != null && message.toLowerCase(Locale.ROOT).contains(constraint);
+    }
+}
@@ -1,15 +1,34 @@
 package srangeldev.mediadaw.services;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import srangeldev.mediadaw.dto.AdminUserQuery;
+import srangeldev.mediadaw.dto.AdminUserRow;
+import srangeldev.mediadaw.events.UserAccountChangedEvent;
+import srangeldev.mediadaw.events.UserAccountsChangedEvent;
+import srangeldev.mediadaw.events.UserSessionsRevokedEvent;
+import srangeldev.mediadaw.events.UserRegisteredEvent;
+import srangeldev.mediadaw.exceptions.DuplicateEmailException;
 import srangeldev.mediadaw.exceptions.UserNotFoundException;
 import srangeldev.mediadaw.models.Role;
 import srangeldev.mediadaw.models.User;
 import srangeldev.mediadaw.repositories.UserRepository;
 
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Servicio para gestionar usuarios.
@@ -19,28 +38,57 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class UserService {
 
+    /**
+     * Máximo de usuarios por página en la lista del panel
+     */
+    static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * Máximo de usuarios por baja o reactivación masiva (acota el IN de la consulta)
+     */
+    static final int MAX_BULK_SIZE = 1000;
+
+    /**
+     * Columnas por las que se puede ordenar la lista del panel (parámetro → atributo de la entidad)
+     */
+    private static final Map<String, String> SORTABLE_COLUMNS = Map.of(
+            "id", "id",
+            "email", "email",
+            "nombre", "nombre",
+            "role", "role",
+            "fechaAlta", "fechaAlta");
+
     private final UserRepository userRepository;
-    // En producción, inyectar PasswordEncoder para encriptar contraseñas
+    private final ApplicationEventPublisher eventPublisher;
+    private final PasswordEncoder passwordEncoder;
 
     /**
-     * Registra un nuevo usuario (cliente por defecto)
+     * Registra un nuevo usuario (cliente por defecto).
+     * Un único INSERT: la restricción única del email decide si ya estaba registrado, también entre dos
+     * registros simultáneos con el mismo email.
+     *
+     * @throws DuplicateEmailException si el email ya está registrado
      */
     @Transactional
     public User registerUser(User user) {
-        // Verificar que el email no esté registrado
-        if (userRepository.existsByEmail(user.getEmail())) {
-            throw new RuntimeException("El email ya está registrado");
-        }
-
-        // TODO: Encriptar password con BCrypt en producción
-        // user.setPassword(passwordEncoder.encode(user.getPassword()));
+        user.setPassword(passwordEncoder.encode(user.getPassword()));
 
         // Por defecto es USER
         if (user.getRole() == null) {
             user.setRole(Role.USER);
         }
 
-        return userRepository.save(user);
+        User saved;
+        try {
+            saved = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            if (UniqueConstraints.isUniqueViolation(e, User.EMAIL_CONSTRAINT)) {
+                throw new DuplicateEmailException(user.getEmail());
+            }
+            throw e;
+        }
+        eventPublisher.publishEvent(new UserRegisteredEvent(saved.getId(), saved.getEmail()));
+        return saved;
     }
 
     /**
@@ -67,6 +115,30 @@ public class UserService {
         return userRepository.findAll();
     }
 
+    /**
+     * Página de la lista de usuarios del panel, filtrada y ordenada en la BD.
+     * Solo lee las columnas de la tabla; las columnas de orden desconocidas se ignoran (se ordena por ID).
+     */
+    @Transactional(readOnly = true)
+    public Page<AdminUserRow> getAdminUsersPage(AdminUserQuery query) {
+        String property = SORTABLE_COLUMNS.getOrDefault(query.sort(), "id");
+        Sort.Direction direction = query.isDescending() ? Sort.Direction.DESC : Sort.Direction.ASC;
+        // El ID desempata para que el orden entre páginas sea estable
+        Sort sort = property.equals("id")
+                ? Sort.by(direction, "id")
+                : Sort.by(direction, property).and(Sort.by(direction, "id"));
+        PageRequest pageable = PageRequest.of(query.page(), Math.clamp(query.size(), 1, MAX_PAGE_SIZE), sort);
+
+        List<Boolean> deleted = query.eliminados() ? List.of(false, true) : List.of(false);
+        EnumSet<Role> roles = query.role() != null ? EnumSet.of(query.role()) : EnumSet.allOf(Role.class);
+        String email = query.email() != null ? LikePatterns.escape(query.email()) + "%" : "%";
+        String nombre = query.nombre() != null
+                ? "%" + LikePatterns.escape(query.nombre().toLowerCase(Locale.ROOT)) + "%"
+                : "%";
+
+        return userRepository.findAdminPage(deleted, roles, email, nombre, pageable);
+    }
+
     /**
      * Actualiza el perfil de un usuario
      */
@@ -82,25 +154,49 @@ public class UserService {
             user.setAvatar(userData.getAvatar());
         }
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        publishAccountChanged(user);
+        return saved;
     }
 
     /**
-     * Cambia el rol de un usuario (solo ADMIN)
+     * Cambia el avatar de un usuario por uno ya guardado con AvatarService
+     */
+    @Transactional
+    public User updateAvatar(String email, String avatarKey) {
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new UserNotFoundException(email));
+
+        user.setAvatar(avatarKey);
+
+        User saved = userRepository.save(user);
+        publishAccountChanged(user);
+        return saved;
+    }
+
+    /**
+     * Cambia el rol de un usuario (solo ADMIN). Sus sesiones abiertas se cierran al confirmarse el cambio:
+     * los permisos de una sesión se fijan al hacer login.
      */
     @Transactional
     public User changeRole(Long userId, Role newRole) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException(userId));
 
+        boolean changed = user.getRole() != newRole;
         user.setRole(newRole);
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        publishAccountChanged(user);
+        if (changed) {
+            eventPublisher.publishEvent(new UserSessionsRevokedEvent(List.of(user.getEmail())));
+        }
+        return saved;
     }
 
     /**
      * Elimina un usuario (BORRADO LÓGICO - solo ADMIN)
      * No elimina físicamente de la BD para mantener auditoría y relaciones.
-     * El usuario no podrá hacer login debido a CustomUserDetailsService.
+     * El usuario no podrá hacer login debido a CustomUserDetailsService y se cierran sus sesiones abiertas.
      */
     @Transactional
     public void deleteUser(Long userId) {
@@ -109,6 +205,57 @@ public class UserService {
 
         user.setIsDeleted(true);
         userRepository.save(user);
+        publishAccountChanged(user);
+        eventPublisher.publishEvent(new UserSessionsRevokedEvent(List.of(user.getEmail())));
+    }
+
+    /**
+     * Da de baja a varios usuarios a la vez (solo ADMIN), p. ej. cuentas de spam.
+     * Un único UPDATE para todos; al confirmarse se cierran sus sesiones y se borran de la caché de login,
+     * también en una sola pasada. Los IDs que no existen o ya estaban de baja se ignoran.
+     *
+     * @param excludedEmail Usuario que nunca se da de baja (el administrador que hace la operación)
+     * @return número de usuarios dados de baja
+     */
+    @Transactional
+    public int deleteUsers(Collection<Long> userIds, String excludedEmail) {
+        List<String> emails = markDeleted(userIds, true, excludedEmail);
+        if (!emails.isEmpty()) {
+            eventPublisher.publishEvent(new UserSessionsRevokedEvent(emails));
+        }
+        return emails.size();
+    }
+
+    /**
+     * Reactiva varios usuarios dados de baja con un único UPDATE (solo ADMIN).
+     * Los IDs que no existen o ya estaban activos se ignoran.
+     *
+     * @return número de usuarios reactivados
+     */
+    @Transactional
+    public int restoreUsers(Collection<Long> userIds) {
+        return markDeleted(userIds, false, null).size();
+    }
+
+    /**
+     * Cambia la baja de los usuarios que no la tienen ya en ese estado y devuelve sus emails
+     */
+    private List<String> markDeleted(Collection<Long> userIds, boolean deleted, String excludedEmail) {
+        if (userIds == null || userIds.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> ids = new LinkedHashSet<>(userIds);
+        if (ids.size() > MAX_BULK_SIZE) {
+            throw new IllegalArgumentException("No se pueden modificar más de " + MAX_BULK_SIZE + " usuarios a la vez");
+        }
+
+        List<String> emails = userRepository.findEmailsToMarkDeleted(ids, deleted, excludedEmail);
+        if (emails.isEmpty()) {
+            return List.of();
+        }
+        userRepository.updateDeletedBulk(ids, deleted, excludedEmail);
+        eventPublisher.publishEvent(new UserAccountsChangedEvent(emails));
+        return emails;
     }
 
     /**
@@ -120,7 +267,9 @@ public class UserService {
                 .orElseThrow(() -> new UserNotFoundException(userId));
 
         user.setIsDeleted(false);
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        publishAccountChanged(user);
+        return saved;
     }
 
     /**
@@ -128,9 +277,7 @@ public class UserService {
      */
     @Transactional(readOnly = true)
     public List<User> getActiveUsers() {
-        return userRepository.findAll().stream()
-                .filter(user -> !user.getIsDeleted())
-                .toList();
+        return userRepository.findByIsDeletedFalse();
     }
 
     /**
@@ -144,12 +291,9 @@ public class UserService {
     }
 
     /**
-     * Verifica si un usuario es administrador
+     * Avisa de que ha cambiado la cuenta (caché de login, tras el commit)
      */
-    @Transactional(readOnly = true)
-    public boolean isAdmin(Long userId) {
-        return userRepository.findById(userId)
-                .map(user -> user.getRole() == Role.ADMIN)
-                .orElse(false);
+    private void publishAccountChanged(User user) {
+        eventPublisher.publishEvent(new UserAccountChangedEvent(user.getId(), user.getEmail()));
     }
 }
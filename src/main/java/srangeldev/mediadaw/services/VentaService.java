@@ -2,8 +2,20 @@ package srangeldev.mediadaw.services;
 
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import srangeldev.mediadaw.dto.AdminOrderPage;
+import srangeldev.mediadaw.dto.AdminOrderQuery;
+import srangeldev.mediadaw.dto.AdminOrderRow;
+import srangeldev.mediadaw.dto.BulkStatusResult;
+import srangeldev.mediadaw.dto.KeysetPage;
+import srangeldev.mediadaw.dto.SalesTotals;
+import srangeldev.mediadaw.events.PurchaseCreatedEvent;
+import srangeldev.mediadaw.events.PurchaseStatusChangedEvent;
+import srangeldev.mediadaw.events.StockChangedEvent;
 import srangeldev.mediadaw.exceptions.PurchaseNotFoundException;
 import srangeldev.mediadaw.models.*;
 import srangeldev.mediadaw.repositories.CarritoRepository;
@@ -11,8 +23,19 @@ import srangeldev.mediadaw.repositories.ProductosRepository;
 import srangeldev.mediadaw.repositories.VentaRepository;
 import srangeldev.mediadaw.repositories.UserRepository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Servicio para gestionar pedidos.
@@ -22,10 +45,28 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class VentaService {
 
+    /**
+     * Máximo de pedidos por cambio de estado masivo (acota el IN de la consulta)
+     */
+    static final int MAX_BULK_SIZE = 1000;
+
+    /**
+     * Tamaño máximo de página en los listados de pedidos
+     */
+    static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * Límites del filtro de fechas cuando no se indica (rango abierto)
+     */
+    static final LocalDateTime OPEN_FROM = LocalDate.of(2000, 1, 1).atStartOfDay();
+    static final LocalDateTime OPEN_TO = LocalDate.of(9999, 1, 1).atStartOfDay();
+
     private final VentaRepository ventaRepository;
     private final CarritoRepository carritoRepository;
     private final ProductosRepository productosRepository;
     private final UserRepository userRepository;
+    private final SalesCounterService salesCounterService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Crea un pedido a partir del carrito de un usuario
@@ -41,6 +82,49 @@ public class VentaService {
 
         List<LineaCarrito> lineaCarritos = getLineaCarritos(carrito);
 
+        return savePurchase(user, carrito, lineaCarritos, true);
+    }
+
+    /**
+     * Crea un pedido a partir del carrito cuyo stock ya se ha reservado con {@link StockBatchCoordinator}.
+     * No toca el stock: solo comprueba que el carrito sigue teniendo exactamente lo reservado.
+     */
+    @Transactional
+    public Venta createPurchaseFromReservedCart(Long userId, Map<Long, Integer> reserved) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+
+        Carrito carrito = carritoRepository.findByUserId(userId)
+                .orElseThrow(() -> new RuntimeException("El carrito no existe"));
+
+        if (carrito.getLineasCarrito().isEmpty()) {
+            throw new RuntimeException("El carrito está vacío");
+        }
+
+        if (!quantitiesOf(carrito).equals(reserved)) {
+            throw new IllegalStateException("El carrito ha cambiado durante la compra. Revísalo e inténtalo de nuevo");
+        }
+
+        return savePurchase(user, carrito, carrito.getLineasCarrito(), false);
+    }
+
+    /**
+     * Obtiene las unidades de cada producto del carrito de un usuario (producto -> cantidad)
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, Integer> getCartQuantities(Long userId) {
+        return carritoRepository.findByUserId(userId)
+                .map(VentaService::quantitiesOf)
+                .orElse(Map.of());
+    }
+
+    private static Map<Long, Integer> quantitiesOf(Carrito carrito) {
+        return carrito.getLineasCarrito().stream()
+                .collect(Collectors.toMap(item -> item.getProductos().getId(), LineaCarrito::getCantidad,
+                        Integer::sum, LinkedHashMap::new));
+    }
+
+    private Venta savePurchase(User user, Carrito carrito, List<LineaCarrito> lineaCarritos, boolean reduceStock) {
         // Paso 2: Crear el pedido
         Venta venta = Venta.builder()
                 .user(user)
@@ -60,9 +144,11 @@ public class VentaService {
 
             venta.addOrderLine(lineaVenta);
 
-            // REDUCIR STOCK
-            productos.reduceStock(item.getCantidad());
-            productosRepository.save(productos);
+            // REDUCIR STOCK (salvo que ya esté reservado)
+            if (reduceStock) {
+                productos.reduceStock(item.getCantidad());
+                productosRepository.save(productos);
+            }
         }
 
         // Calcular y establecer el total
@@ -70,6 +156,10 @@ public class VentaService {
 
         // Guardar el pedido
         Venta savedVenta = ventaRepository.save(venta);
+        eventPublisher.publishEvent(new PurchaseCreatedEvent(savedVenta));
+        eventPublisher.publishEvent(new StockChangedEvent(lineaCarritos.stream()
+                .map(item -> item.getProductos().getId())
+                .collect(Collectors.toSet())));
 
         // Paso 4: Limpiar el carrito (eliminarlo completamente por cascade)
         carritoRepository.delete(carrito);
@@ -108,6 +198,45 @@ public class VentaService {
         return ventaRepository.findByUserIdOrderByFechaCompraDesc(userId);
     }
 
+    /**
+     * Obtiene una página del historial de pedidos de un usuario, de más reciente a más antiguo.
+     *
+     * @param beforeId cursor de la página anterior (null para la primera página)
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<Venta> getUserPurchasesPage(Long userId, Long beforeId, int size) {
+        int pageSize = clampPageSize(size);
+        Limit limit = Limit.of(pageSize + 1);
+        List<Venta> rows = beforeId == null
+                ? ventaRepository.findByUserIdOrderByIdDesc(userId, limit)
+                : ventaRepository.findByUserIdAndIdLessThanOrderByIdDesc(userId, beforeId, limit);
+        return KeysetPage.of(rows, pageSize, Venta::getId);
+    }
+
+    /**
+     * Obtiene una página de la lista de pedidos del panel, filtrada por estado y fechas (solo ADMIN).
+     * Dos consultas en total: la página (con los datos del cliente) y el recuento de pedidos que cumplen los filtros.
+     */
+    @Transactional(readOnly = true)
+    public AdminOrderPage getAdminOrdersPage(AdminOrderQuery query) {
+        int pageSize = clampPageSize(query.size());
+        EnumSet<EstadoPedido> estados = query.estado() != null
+                ? EnumSet.of(query.estado())
+                : EnumSet.allOf(EstadoPedido.class);
+        LocalDateTime from = query.desde() != null ? query.desde().atStartOfDay() : OPEN_FROM;
+        LocalDateTime to = query.hasta() != null ? query.hasta().plusDays(1).atStartOfDay() : OPEN_TO;
+        Long beforeId = query.antes() != null ? query.antes() : Long.MAX_VALUE;
+
+        List<AdminOrderRow> rows = ventaRepository.findAdminPage(estados, from, to, beforeId,
+                PageRequest.of(0, pageSize + 1));
+        long total = ventaRepository.countAdminOrders(estados, from, to);
+        return new AdminOrderPage(KeysetPage.of(rows, pageSize, AdminOrderRow::id), total);
+    }
+
+    private static int clampPageSize(int size) {
+        return Math.clamp(size, 1, MAX_PAGE_SIZE);
+    }
+
     /**
      * Obtiene un pedido específico
      */
@@ -124,64 +253,138 @@ public class VentaService {
         Venta venta = ventaRepository.findById(purchaseId)
                 .orElseThrow(() -> new RuntimeException("Pedido no encontrado"));
 
+        if (venta.getEstado() == newStatus) {
+            return venta;
+        }
+
+        if (!venta.getEstado().canTransitionTo(newStatus)) {
+            throw new IllegalStateException("No se puede pasar un pedido de " + venta.getEstado() + " a " + newStatus);
+        }
+
+        // La cancelación tiene que devolver el stock: va por su propio camino
+        if (newStatus == EstadoPedido.CANCELADO) {
+            cancelPurchase(purchaseId);
+            return ventaRepository.findById(purchaseId).orElseThrow();
+        }
+
+        PurchaseStatusChangedEvent.Change change = changeOf(venta);
         venta.setEstado(newStatus);
-        return ventaRepository.save(venta);
+        Venta saved = ventaRepository.save(venta);
+        eventPublisher.publishEvent(new PurchaseStatusChangedEvent(newStatus, List.of(change)));
+        return saved;
     }
 
     /**
-     * Obtiene todos los pedidos por estado (solo ADMIN)
+     * Cambia el estado de varios pedidos a la vez (solo ADMIN).
+     * Bloquea las filas de los pedidos, valida el flujo de estados y aplica el cambio
+     * con un único UPDATE. Si el nuevo estado es CANCELADO, el stock de todos los pedidos
+     * cancelados se devuelve con otro único UPDATE.
+     * Devuelve el resultado de cada ID en el orden recibido.
      */
-    @Transactional(readOnly = true)
-    public List<Venta> getPurchasesByStatus(EstadoPedido status) {
-        return ventaRepository.findByEstadoOrderByFechaCompraDesc(status);
+    @Transactional
+    public List<BulkStatusResult> bulkUpdatePurchaseStatus(Collection<Long> purchaseIds, EstadoPedido newStatus) {
+        if (purchaseIds == null || purchaseIds.isEmpty()) {
+            return List.of();
+        }
+
+        Set<Long> ids = new LinkedHashSet<>(purchaseIds);
+        if (ids.size() > MAX_BULK_SIZE) {
+            throw new IllegalArgumentException("No se pueden actualizar más de " + MAX_BULK_SIZE + " pedidos a la vez");
+        }
+
+        Map<Long, Venta> current = ventaRepository.findAllByIdInForUpdate(ids).stream()
+                .collect(Collectors.toMap(Venta::getId, Function.identity()));
+
+        List<BulkStatusResult> results = new ArrayList<>(ids.size());
+        List<Long> toUpdate = new ArrayList<>();
+        List<PurchaseStatusChangedEvent.Change> changes = new ArrayList<>();
+
+        for (Long id : ids) {
+            Venta venta = current.get(id);
+            EstadoPedido estado = venta == null ? null : venta.getEstado();
+
+            if (estado == null) {
+                results.add(new BulkStatusResult(id, null, BulkStatusResult.Outcome.NOT_FOUND));
+            } else if (estado == newStatus) {
+                results.add(new BulkStatusResult(id, estado, BulkStatusResult.Outcome.UNCHANGED));
+            } else if (!estado.canTransitionTo(newStatus)) {
+                results.add(new BulkStatusResult(id, estado, BulkStatusResult.Outcome.INVALID_TRANSITION));
+            } else {
+                results.add(new BulkStatusResult(id, estado, BulkStatusResult.Outcome.UPDATED));
+                toUpdate.add(id);
+                changes.add(changeOf(venta));
+            }
+        }
+
+        if (toUpdate.isEmpty()) {
+            return results;
+        }
+
+        // Las filas están bloqueadas: el UPDATE tiene que afectar exactamente a los pedidos validados
+        int updated = ventaRepository.updateEstadoBulk(toUpdate, EstadoPedido.sourcesOf(newStatus), newStatus);
+        if (updated != toUpdate.size()) {
+            throw new IllegalStateException("El estado de algunos pedidos ha cambiado durante la operación");
+        }
+
+        if (newStatus == EstadoPedido.CANCELADO) {
+            productosRepository.restoreStockForOrders(toUpdate);
+            eventPublisher.publishEvent(new StockChangedEvent(
+                    Set.copyOf(productosRepository.findProductIdsByVentaIds(toUpdate))));
+        }
+
+        eventPublisher.publishEvent(new PurchaseStatusChangedEvent(newStatus, changes));
+        return results;
+    }
+
+    private static PurchaseStatusChangedEvent.Change changeOf(Venta venta) {
+        return new PurchaseStatusChangedEvent.Change(venta.getId(), venta.getFechaCompra(), venta.getTotal(),
+                venta.getEstado());
     }
 
     /**
-     * Obtiene todos los pedidos (solo ADMIN)
+     * Obtiene todos los pedidos por estado (solo ADMIN)
      */
     @Transactional(readOnly = true)
-    public List<Venta> getAllPurchases() {
-        return ventaRepository.findAll();
+    public List<Venta> getPurchasesByStatus(EstadoPedido status) {
+        return ventaRepository.findByEstadoOrderByFechaCompraDesc(status);
     }
 
     /**
-     * Cancela un pedido y restaura el stock (solo si está PENDIENTE)
+     * Cancela un pedido y restaura el stock (solo si está PENDIENTE).
+     * El pedido no se borra: pasa a CANCELADO y sigue disponible para el histórico.
      */
     @Transactional
     public void cancelPurchase(Long purchaseId) {
-        Venta venta = ventaRepository.findById(purchaseId)
-                .orElseThrow(() -> new PurchaseNotFoundException(purchaseId));
-
-        if (venta.getEstado() != EstadoPedido.PENDIENTE) {
-            throw new IllegalStateException("Solo se pueden cancelar pedidos pendientes");
-        }
+        BulkStatusResult result = bulkUpdatePurchaseStatus(List.of(purchaseId), EstadoPedido.CANCELADO).getFirst();
 
-        // Restaurar el stock de cada producto
-        for (LineaVenta line : venta.getLines()) {
-            Productos productos = line.getProductos();
-            productos.increaseStock(line.getCantidad());
-            productosRepository.save(productos);
+        switch (result.outcome()) {
+            case UPDATED -> { }
+            case NOT_FOUND -> throw new PurchaseNotFoundException(purchaseId);
+            default -> throw new IllegalStateException("Solo se pueden cancelar pedidos pendientes");
         }
-
-        // Eliminar el pedido
-        ventaRepository.delete(venta);
     }
 
     /**
-     * Calcula el total de ventas (solo ADMIN)
+     * Calcula el total de ventas (solo ADMIN).
+     * Los pedidos cancelados no cuentan como ingresos.
+     * Se lee de los contadores de ventas, sin recorrer los pedidos.
      */
-    @Transactional(readOnly = true)
     public Double calculateTotalRevenue() {
-        return ventaRepository.findAll().stream()
-                .mapToDouble(Venta::getTotal)
-                .sum();
+        return salesCounterService.getTotalRevenue();
     }
 
     /**
-     * Cuenta pedidos por estado (solo ADMIN)
+     * Cuenta pedidos por estado (solo ADMIN), a partir de los contadores de ventas
      */
-    @Transactional(readOnly = true)
     public long countByStatus(EstadoPedido status) {
-        return ventaRepository.countByEstado(status);
+        return salesCounterService.countByStatus(status);
+    }
+
+    /**
+     * Pedidos e ingresos de cada estado (solo ADMIN) con una sola lectura de los contadores de ventas,
+     * para sacar de ella varias cifras del panel
+     */
+    public Map<EstadoPedido, SalesTotals> getSalesTotalsByStatus() {
+        return salesCounterService.getTotalsByStatus();
     }
 }
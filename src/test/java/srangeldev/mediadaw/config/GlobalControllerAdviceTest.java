@@ -0,0 +1,102 @@
+package srangeldev.mediadaw.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import srangeldev.mediadaw.services.CarritoService;
+import srangeldev.mediadaw.services.UserService;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * Tests unitarios para GlobalControllerAdvice: isAdmin e isAuthenticated salen de la sesión, sin la BD.
+ */
+@ExtendWith(MockitoExtension.class)
+class GlobalControllerAdviceTest {
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private CarritoService carritoService;
+
+    private GlobalControllerAdvice advice;
+
+    @BeforeEach
+    void setUp() {
+        advice = new GlobalControllerAdvice(userService, carritoService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Sin autenticación no está autenticado ni es admin")
+    void noAuthentication() {
+        // ACT & ASSERT
+        assertAll(
+                () -> assertFalse(advice.isAuthenticated()),
+                () -> assertFalse(advice.isAdmin())
+        );
+    }
+
+    @Test
+    @DisplayName("Un usuario anónimo no está autenticado ni es admin")
+    void anonymousUser() {
+        // ARRANGE
+        authenticate(new AnonymousAuthenticationToken("clave", "anonymousUser",
+                AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS")));
+
+        // ACT & ASSERT
+        assertAll(
+                () -> assertFalse(advice.isAuthenticated()),
+                () -> assertFalse(advice.isAdmin())
+        );
+    }
+
+    @Test
+    @DisplayName("Un usuario con ROLE_USER está autenticado pero no es admin")
+    void roleUser() {
+        // ARRANGE
+        authenticate(UsernamePasswordAuthenticationToken.authenticated("cliente@mediadaw.com", null,
+                AuthorityUtils.createAuthorityList("ROLE_USER")));
+
+        // ACT & ASSERT
+        assertAll(
+                () -> assertTrue(advice.isAuthenticated()),
+                () -> assertFalse(advice.isAdmin())
+        );
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    @DisplayName("Un usuario con ROLE_ADMIN está autenticado y es admin, sin consultar la BD")
+    void roleAdmin() {
+        // ARRANGE
+        authenticate(UsernamePasswordAuthenticationToken.authenticated("admin@mediadaw.com", null,
+                AuthorityUtils.createAuthorityList("ROLE_ADMIN")));
+
+        // ACT & ASSERT
+        assertAll(
+                () -> assertTrue(advice.isAuthenticated()),
+                () -> assertTrue(advice.isAdmin())
+        );
+        verifyNoInteractions(userService);
+    }
+
+    private static void authenticate(Authentication authentication) {
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+    }
+}
@@ -0,0 +1,99 @@
+package srangeldev.mediadaw.controllers;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import srangeldev.mediadaw.config.AvatarProperties;
+import srangeldev.mediadaw.services.AvatarService;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Tests de AvatarController con MockMvc y un AvatarService real sobre un directorio temporal:
+ * cabeceras de caché, 304 y 404.
+ */
+class AvatarControllerTest {
+
+    @TempDir
+    Path storageDir;
+
+    private AvatarService avatarService;
+    private MockMvc mockMvc;
+    private String key;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        AvatarProperties properties = new AvatarProperties();
+        properties.setStorageDir(storageDir);
+        properties.setSizes(List.of(64));
+        avatarService = new AvatarService(properties, new SimpleMeterRegistry());
+        mockMvc = MockMvcBuilders.standaloneSetup(new AvatarController(avatarService)).build();
+
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        assertTrue(ImageIO.write(new BufferedImage(100, 100, BufferedImage.TYPE_INT_ARGB), "png", png));
+        key = avatarService.store(png.toByteArray());
+    }
+
+    @AfterEach
+    void tearDown() {
+        avatarService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Un avatar existente se sirve con caché immutable de un año y su ETag")
+    void serve_Ok() throws Exception {
+        // ARRANGE
+        byte[] stored = Files.readAllBytes(avatarService.find(64, key).orElseThrow());
+
+        // ACT & ASSERT
+        mockMvc.perform(get("/avatars/64/" + key))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + key + "\""))
+                .andExpect(content().contentType("image/png"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, stored.length))
+                .andExpect(content().bytes(stored));
+    }
+
+    @Test
+    @DisplayName("Con el mismo ETag en If-None-Match responde 304 sin cuerpo")
+    void serve_NotModified() throws Exception {
+        // ACT & ASSERT
+        mockMvc.perform(get("/avatars/64/" + key).header(HttpHeaders.IF_NONE_MATCH, "\"" + key + "\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + key + "\""))
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    @DisplayName("Una clave que no es un hash de avatar responde 404")
+    void serve_BadKey_NotFound() throws Exception {
+        // ACT & ASSERT
+        mockMvc.perform(get("/avatars/64/no-es-un-hash.png"))
+                .andExpect(status().isNotFound())
+                .andExpect(header().doesNotExist(HttpHeaders.CACHE_CONTROL));
+    }
+
+    @Test
+    @DisplayName("Un tamaño no configurado responde 404")
+    void serve_BadSize_NotFound() throws Exception {
+        // ACT & ASSERT
+        mockMvc.perform(get("/avatars/256/" + key))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,123 @@
+package srangeldev.mediadaw.models;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para SnowflakeIdGenerator.
+ */
+class SnowflakeIdGeneratorTest {
+
+    private static final long NOW = SnowflakeIdGenerator.EPOCH + 1_000_000L;
+
+    @Test
+    @DisplayName("nextId codifica el instante y el nodo")
+    void nextId_EncodesTimestampAndNode() {
+        // ARRANGE
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(7, () -> NOW);
+
+        // ACT
+        long id = generator.nextId();
+
+        // ASSERT
+        assertAll(
+                () -> assertTrue(id > 0),
+                () -> assertEquals(Instant.ofEpochMilli(NOW), SnowflakeIdGenerator.timestampOf(id)),
+                () -> assertEquals(7, SnowflakeIdGenerator.nodeOf(id))
+        );
+    }
+
+    @Test
+    @DisplayName("nextId sigue creciendo aunque el reloj retroceda")
+    void nextId_MonotonicWhenClockGoesBackwards() {
+        // ARRANGE
+        AtomicLong clock = new AtomicLong(NOW);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, clock::get);
+
+        // ACT
+        long first = generator.nextId();
+        clock.set(NOW - 5_000);
+        long second = generator.nextId();
+
+        // ASSERT
+        assertTrue(second > first);
+    }
+
+    @Test
+    @DisplayName("nextId pasa al siguiente milisegundo al agotar la secuencia sin repetir IDs")
+    void nextId_SequenceOverflow() {
+        // ARRANGE
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, () -> NOW);
+        int perMillisecond = 1 << SnowflakeIdGenerator.SEQUENCE_BITS;
+
+        // ACT
+        long previous = generator.nextId();
+        for (int i = 1; i < perMillisecond; i++) {
+            long id = generator.nextId();
+            assertTrue(id > previous);
+            previous = id;
+        }
+        long overflow = generator.nextId();
+
+        // ASSERT
+        assertTrue(overflow > previous);
+        assertEquals(Instant.ofEpochMilli(NOW + 1), SnowflakeIdGenerator.timestampOf(overflow));
+        assertEquals(1, SnowflakeIdGenerator.nodeOf(overflow));
+    }
+
+    @Test
+    @DisplayName("nextId no repite IDs con muchos hilos a la vez")
+    void nextId_UniqueUnderConcurrency() throws Exception {
+        // ARRANGE
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(3);
+        int threads = 16;
+        int perThread = 20_000;
+
+        // ACT
+        List<Future<long[]>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    long[] ids = new long[perThread];
+                    for (int i = 0; i < perThread; i++) {
+                        ids[i] = generator.nextId();
+                    }
+                    return ids;
+                }));
+            }
+        }
+
+        // ASSERT
+        Set<Long> unique = new HashSet<>();
+        for (Future<long[]> future : futures) {
+            long[] ids = future.get();
+            for (int i = 0; i < ids.length; i++) {
+                assertTrue(unique.add(ids[i]), "ID repetido: " + ids[i]);
+                if (i > 0) {
+                    assertTrue(ids[i] > ids[i - 1], "IDs no crecientes en un mismo hilo");
+                }
+            }
+        }
+        assertEquals(threads * perThread, unique.size());
+    }
+
+    @Test
+    @DisplayName("El constructor rechaza nodos fuera de rango")
+    void constructor_InvalidNode() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(-1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_NODE_ID + 1));
+    }
+}
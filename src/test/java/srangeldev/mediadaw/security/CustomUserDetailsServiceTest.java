@@ -0,0 +1,164 @@
+package srangeldev.mediadaw.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import srangeldev.mediadaw.config.ClusterProperties;
+import srangeldev.mediadaw.config.UserDetailsCacheProperties;
+import srangeldev.mediadaw.events.UserAccountChangedEvent;
+import srangeldev.mediadaw.models.Role;
+import srangeldev.mediadaw.models.User;
+import srangeldev.mediadaw.repositories.UserRepository;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para CustomUserDetailsService con la caché de usuarios.
+ */
+@ExtendWith(MockitoExtension.class)
+class CustomUserDetailsServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ObjectProvider<StringRedisTemplate> redisTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private SimpleMeterRegistry meterRegistry;
+    private UserDetailsCacheProperties cacheProperties;
+    private ClusterProperties clusterProperties;
+    private UserDetailsCache cache;
+    private CustomUserDetailsService userDetailsService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cacheProperties = new UserDetailsCacheProperties();
+        clusterProperties = new ClusterProperties();
+        cache = new UserDetailsCache(cacheProperties, clusterProperties, redisTemplate, meterRegistry);
+        userDetailsService = new CustomUserDetailsService(userRepository, cache, eventPublisher);
+    }
+
+    @Test
+    @DisplayName("loadUserByUsername lee el usuario una vez y devuelve una copia nueva en cada llamada")
+    void loadUserByUsername_CachedCopies() {
+        // ARRANGE
+        when(userRepository.findByEmail("ana@test.com")).thenReturn(Optional.of(user("ana@test.com", Role.USER)));
+
+        // ACT
+        UserDetails first = userDetailsService.loadUserByUsername("ana@test.com");
+        ((CredentialsContainer) first).eraseCredentials(); // Lo que hace Spring Security tras autenticar
+        UserDetails second = userDetailsService.loadUserByUsername("ana@test.com");
+
+        // ASSERT
+        assertAll(
+                () -> assertNotSame(first, second),
+                () -> assertEquals("{bcrypt}hash", second.getPassword()),
+                () -> assertTrue(second.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_USER"))),
+                () -> assertEquals(1.0, hitCount("hit")),
+                () -> assertEquals(1.0, hitCount("miss"))
+        );
+        verify(userRepository, times(1)).findByEmail("ana@test.com");
+    }
+
+    @Test
+    @DisplayName("Un cambio de cuenta borra el usuario de la caché y la siguiente llamada ve el rol nuevo")
+    void onUserAccountChanged_Evicts() {
+        // ARRANGE
+        when(userRepository.findByEmail("ana@test.com"))
+                .thenReturn(Optional.of(user("ana@test.com", Role.USER)))
+                .thenReturn(Optional.of(user("ana@test.com", Role.ADMIN)));
+        userDetailsService.loadUserByUsername("ana@test.com");
+
+        // ACT
+        cache.onUserAccountChanged(new UserAccountChangedEvent(1L, "ana@test.com"));
+        UserDetails reloaded = userDetailsService.loadUserByUsername("ana@test.com");
+
+        // ASSERT
+        assertTrue(reloaded.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN")));
+        assertEquals(1.0, meterRegistry.get("cache.evictions").counter().count());
+        verifyNoInteractions(redisTemplate); // Sin varias instancias no se usa Redis
+    }
+
+    @Test
+    @DisplayName("La caché no pasa del tamaño máximo y no guarda usuarios inexistentes")
+    void cache_BoundedAndNoNegativeEntries() {
+        // ARRANGE
+        cacheProperties.setMaxSize(2);
+        when(userRepository.findByEmail(anyString()))
+                .thenAnswer(invocation -> Optional.of(user(invocation.getArgument(0), Role.USER)));
+        when(userRepository.findByEmail("nadie@test.com")).thenReturn(Optional.empty());
+
+        // ACT
+        userDetailsService.loadUserByUsername("a@test.com");
+        userDetailsService.loadUserByUsername("b@test.com");
+        userDetailsService.loadUserByUsername("c@test.com");
+
+        // ASSERT
+        assertEquals(2, cache.size());
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("nadie@test.com"));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    @DisplayName("Un usuario dado de baja se carga deshabilitado")
+    void loadUserByUsername_Deleted() {
+        // ARRANGE
+        User deleted = user("baja@test.com", Role.USER);
+        deleted.setIsDeleted(true);
+        when(userRepository.findByEmail("baja@test.com")).thenReturn(Optional.of(deleted));
+
+        // ACT
+        UserDetails details = userDetailsService.loadUserByUsername("baja@test.com");
+
+        // ASSERT
+        assertFalse(details.isEnabled());
+    }
+
+    @Test
+    @DisplayName("updatePassword guarda el hash nuevo, avisa del cambio y devuelve el usuario con el hash nuevo")
+    void updatePassword() {
+        // ARRANGE
+        UserDetails current = org.springframework.security.core.userdetails.User.withUsername("ana@test.com")
+                .password("$2a$10$antiguo").roles("USER").build();
+
+        // ACT
+        UserDetails updated = userDetailsService.updatePassword(current, "{bcrypt}$2a$12$nuevo");
+
+        // ASSERT
+        assertEquals("{bcrypt}$2a$12$nuevo", updated.getPassword());
+        verify(userRepository, times(1)).updatePasswordByEmail("ana@test.com", "{bcrypt}$2a$12$nuevo");
+        verify(eventPublisher, times(1)).publishEvent(new UserAccountChangedEvent(null, "ana@test.com"));
+    }
+
+    private double hitCount(String result) {
+        return meterRegistry.get("cache.gets").tag("result", result).counter().count();
+    }
+
+    private static User user(String email, Role role) {
+        return User.builder()
+                .id(1L)
+                .email(email)
+                .nombre("Ana")
+                .password("{bcrypt}hash")
+                .role(role)
+                .isDeleted(false)
+                .build();
+    }
+}
@@ -0,0 +1,82 @@
+package srangeldev.mediadaw.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import srangeldev.mediadaw.config.RateLimitProperties;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para InMemoryRateLimiter (con el reloj controlado por el test).
+ */
+class InMemoryRateLimiterTest {
+
+    private static final RateLimitProperties.Bucket THREE_PER_MINUTE = new RateLimitProperties.Bucket(3, Duration.ofMinutes(1));
+
+    private RateLimitProperties properties;
+    private InMemoryRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RateLimitProperties();
+        rateLimiter = new InMemoryRateLimiter(properties);
+    }
+
+    @Test
+    @DisplayName("tryConsume admite una ráfaga de capacity intentos y rechaza el siguiente")
+    void tryConsume_Burst() {
+        assertAll(
+                () -> assertTrue(rateLimiter.tryConsume("login:ip:1.2.3.4", THREE_PER_MINUTE, 0)),
+                () -> assertTrue(rateLimiter.tryConsume("login:ip:1.2.3.4", THREE_PER_MINUTE, 0)),
+                () -> assertTrue(rateLimiter.tryConsume("login:ip:1.2.3.4", THREE_PER_MINUTE, 0)),
+                () -> assertFalse(rateLimiter.tryConsume("login:ip:1.2.3.4", THREE_PER_MINUTE, 0)),
+                () -> assertTrue(rateLimiter.tryConsume("login:ip:5.6.7.8", THREE_PER_MINUTE, 0))
+        );
+    }
+
+    @Test
+    @DisplayName("tryConsume recupera tokens según el tiempo transcurrido")
+    void tryConsume_Refill() {
+        // ARRANGE: bucket vacío
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryConsume("k", THREE_PER_MINUTE, 0);
+        }
+
+        // ACT & ASSERT: un token cada 20 s
+        assertFalse(rateLimiter.tryConsume("k", THREE_PER_MINUTE, 19_000));
+        assertTrue(rateLimiter.tryConsume("k", THREE_PER_MINUTE, 21_000));
+        assertFalse(rateLimiter.tryConsume("k", THREE_PER_MINUTE, 21_000));
+    }
+
+    @Test
+    @DisplayName("sweep olvida solo los buckets que ya se habrían rellenado")
+    void sweep_RemovesFullBuckets() {
+        // ARRANGE
+        rateLimiter.tryConsume("antiguo", THREE_PER_MINUTE, 0);
+        rateLimiter.tryConsume("reciente", THREE_PER_MINUTE, 50_000);
+
+        // ACT
+        rateLimiter.sweep(61_000);
+
+        // ASSERT
+        assertEquals(1, rateLimiter.size());
+    }
+
+    @Test
+    @DisplayName("Con maxKeys superado, el stripe que crece purga sus buckets llenos en el momento")
+    void tryConsume_BoundedKeys() {
+        // ARRANGE: un bucket por stripe como mucho
+        properties.setMaxKeys(InMemoryRateLimiter.STRIPES);
+
+        // ACT: muchas claves, cada una cuando las anteriores ya estarían llenas
+        for (int i = 0; i < 10_000; i++) {
+            rateLimiter.tryConsume("ip-" + i, THREE_PER_MINUTE, i * 60_000L);
+        }
+
+        // ASSERT
+        assertTrue(rateLimiter.size() <= InMemoryRateLimiter.STRIPES);
+    }
+}
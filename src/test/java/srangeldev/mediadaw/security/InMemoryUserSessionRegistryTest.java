@@ -0,0 +1,78 @@
+package srangeldev.mediadaw.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.session.SessionRegistryImpl;
+import org.springframework.security.core.userdetails.User;
+import srangeldev.mediadaw.config.ClusterProperties;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para InMemoryUserSessionRegistry con el SessionRegistryImpl de Spring Security.
+ */
+class InMemoryUserSessionRegistryTest {
+
+    private SessionRegistryImpl sessionRegistry;
+    private ClusterProperties clusterProperties;
+    private StringRedisTemplate redisTemplate;
+    private InMemoryUserSessionRegistry registry;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        sessionRegistry = new SessionRegistryImpl();
+        clusterProperties = new ClusterProperties();
+        redisTemplate = mock(StringRedisTemplate.class);
+        ObjectProvider<StringRedisTemplate> provider = mock(ObjectProvider.class);
+        lenient().when(provider.getObject()).thenReturn(redisTemplate);
+        registry = new InMemoryUserSessionRegistry(sessionRegistry, clusterProperties, provider);
+    }
+
+    @Test
+    @DisplayName("revokeSessions marca como caducadas todas las sesiones de los usuarios indicados y solo esas")
+    void revokeSessions_ExpiresMatchingSessions() {
+        // ARRANGE
+        sessionRegistry.registerNewSession("s1", principal("ana@test.com"));
+        sessionRegistry.registerNewSession("s2", principal("ana@test.com"));
+        sessionRegistry.registerNewSession("s3", principal("luis@test.com"));
+        sessionRegistry.registerNewSession("s4", principal("eva@test.com"));
+
+        // ACT
+        int revoked = registry.revokeSessions(List.of("ana@test.com", "luis@test.com", "nadie@test.com"));
+
+        // ASSERT
+        assertAll(
+                () -> assertEquals(3, revoked),
+                () -> assertTrue(sessionRegistry.getSessionInformation("s1").isExpired()),
+                () -> assertTrue(sessionRegistry.getSessionInformation("s2").isExpired()),
+                () -> assertTrue(sessionRegistry.getSessionInformation("s3").isExpired()),
+                () -> assertFalse(sessionRegistry.getSessionInformation("s4").isExpired())
+        );
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    @DisplayName("Con varias instancias revokeSessions avisa al resto por Redis")
+    void revokeSessions_Cluster_Publishes() {
+        // ARRANGE
+        clusterProperties.setEnabled(true);
+
+        // ACT
+        registry.revokeSessions(List.of("ana@test.com", "luis@test.com"));
+
+        // ASSERT
+        verify(redisTemplate).convertAndSend(InMemoryUserSessionRegistry.REVOCATION_CHANNEL, "ana@test.com\nluis@test.com");
+    }
+
+    private static User principal(String email) {
+        return new User(email, "", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+    }
+}
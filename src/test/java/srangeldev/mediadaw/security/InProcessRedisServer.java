@@ -0,0 +1,271 @@
+package srangeldev.mediadaw.security;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Redis de mentira para los tests: un servidor RESP2 en un puerto local con los comandos de hash y de claves
+ * que usan las sesiones. Los clientes de verdad (Lettuce) se conectan a él como a un Redis.
+ * Cuenta los comandos recibidos para comprobar cuánto se lee y se escribe.
+ */
+class InProcessRedisServer implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final Map<String, Map<String, byte[]>> hashes = new ConcurrentHashMap<>();
+    private final Map<String, Long> expirations = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> commandCounts = new ConcurrentHashMap<>();
+
+    InProcessRedisServer() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread.ofVirtual().start(this::acceptLoop);
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /** Veces que se ha recibido un comando (en mayúsculas) desde el último reset */
+    long count(String command) {
+        AtomicLong count = commandCounts.get(command);
+        return count == null ? 0 : count.get();
+    }
+
+    void resetCounts() {
+        commandCounts.clear();
+    }
+
+    /** Campos de un hash tal y como están guardados */
+    synchronized Map<String, byte[]> hash(String key) {
+        Map<String, byte[]> hash = hashes.get(key);
+        return hash == null ? Map.of() : Map.copyOf(hash);
+    }
+
+    synchronized Long expiration(String key) {
+        return expirations.get(key);
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                Thread.ofVirtual().start(() -> serve(socket));
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+             InputStream in = new BufferedInputStream(socket.getInputStream());
+             OutputStream out = new BufferedOutputStream(socket.getOutputStream())) {
+            while (true) {
+                List<byte[]> command = readCommand(in);
+                synchronized (this) {
+                    execute(command, out);
+                }
+                if (in.available() == 0) {
+                    out.flush();
+                }
+            }
+        } catch (IOException e) {
+            // Conexión cerrada por el cliente
+        }
+    }
+
+    private void execute(List<byte[]> command, OutputStream out) throws IOException {
+        String name = text(command.get(0)).toUpperCase();
+        commandCounts.computeIfAbsent(name, k -> new AtomicLong()).incrementAndGet();
+        switch (name) {
+            case "PING" -> simple(out, "PONG");
+            case "CLIENT", "SELECT" -> simple(out, "OK");
+            case "HGET" -> bulk(out, live(text(command.get(1))).get(text(command.get(2))));
+            case "HMGET" -> {
+                Map<String, byte[]> hash = live(text(command.get(1)));
+                List<byte[]> values = new ArrayList<>();
+                for (int i = 2; i < command.size(); i++) {
+                    values.add(hash.get(text(command.get(i))));
+                }
+                array(out, values);
+            }
+            case "HSET", "HMSET" -> {
+                String key = text(command.get(1));
+                live(key);
+                Map<String, byte[]> hash = hashes.computeIfAbsent(key, k -> new LinkedHashMap<>());
+                int added = 0;
+                for (int i = 2; i + 1 < command.size(); i += 2) {
+                    if (hash.put(text(command.get(i)), command.get(i + 1)) == null) {
+                        added++;
+                    }
+                }
+                if (name.equals("HMSET")) {
+                    simple(out, "OK");
+                } else {
+                    integer(out, added);
+                }
+            }
+            case "HDEL" -> {
+                Map<String, byte[]> hash = live(text(command.get(1)));
+                int deleted = 0;
+                for (int i = 2; i < command.size(); i++) {
+                    if (hash.remove(text(command.get(i))) != null) {
+                        deleted++;
+                    }
+                }
+                integer(out, deleted);
+            }
+            case "HKEYS" -> array(out, live(text(command.get(1))).keySet().stream()
+                    .map(k -> k.getBytes(StandardCharsets.ISO_8859_1))
+                    .toList());
+            case "EXISTS" -> integer(out, hashes.containsKey(text(command.get(1))) && !live(text(command.get(1))).isEmpty() ? 1 : 0);
+            case "DEL" -> {
+                int deleted = 0;
+                for (int i = 1; i < command.size(); i++) {
+                    String key = text(command.get(i));
+                    expirations.remove(key);
+                    if (hashes.remove(key) != null) {
+                        deleted++;
+                    }
+                }
+                integer(out, deleted);
+            }
+            case "PEXPIRE" -> {
+                String key = text(command.get(1));
+                if (live(key).isEmpty()) {
+                    integer(out, 0);
+                } else {
+                    expirations.put(key, System.currentTimeMillis() + Long.parseLong(text(command.get(2))));
+                    integer(out, 1);
+                }
+            }
+            case "PERSIST" -> integer(out, expirations.remove(text(command.get(1))) != null ? 1 : 0);
+            case "RENAME", "RENAMENX" -> {
+                String from = text(command.get(1));
+                String to = text(command.get(2));
+                boolean onlyIfAbsent = name.equals("RENAMENX");
+                if (live(from).isEmpty()) {
+                    error(out, "ERR no such key");
+                } else if (onlyIfAbsent && !live(to).isEmpty()) {
+                    integer(out, 0);
+                } else {
+                    hashes.put(to, hashes.remove(from));
+                    Long expiration = expirations.remove(from);
+                    if (expiration != null) {
+                        expirations.put(to, expiration);
+                    }
+                    if (onlyIfAbsent) {
+                        integer(out, 1);
+                    } else {
+                        simple(out, "OK");
+                    }
+                }
+            }
+            // HELLO incluido: sin él Lettuce vuelve a RESP2
+            default -> error(out, "ERR unknown command '" + name + "'");
+        }
+    }
+
+    /** El hash de una clave (vacío si no existe o ha caducado) */
+    private Map<String, byte[]> live(String key) {
+        Map<String, byte[]> hash = hashes.get(key);
+        if (hash == null || expireIfDue(key, hash)) {
+            return new LinkedHashMap<>();
+        }
+        return hash;
+    }
+
+    private boolean expireIfDue(String key, Map<String, byte[]> hash) {
+        Long expiration = expirations.get(key);
+        if (expiration != null && expiration <= System.currentTimeMillis()) {
+            hashes.remove(key, hash);
+            expirations.remove(key);
+            return true;
+        }
+        return false;
+    }
+
+    private static List<byte[]> readCommand(InputStream in) throws IOException {
+        String header = readLine(in);
+        if (!header.startsWith("*")) {
+            throw new IOException("Comando no soportado: " + header);
+        }
+        int count = Integer.parseInt(header.substring(1));
+        List<byte[]> parts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int length = Integer.parseInt(readLine(in).substring(1));
+            byte[] data = in.readNBytes(length);
+            if (data.length < length) {
+                throw new EOFException();
+            }
+            in.readNBytes(2);
+            parts.add(data);
+        }
+        return parts;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int c;
+        while ((c = in.read()) != '\r') {
+            if (c == -1) {
+                throw new EOFException();
+            }
+            line.append((char) c);
+        }
+        in.read();
+        return line.toString();
+    }
+
+    /** Los bytes como String sin perder nada (ISO-8859-1 es biyectivo con los bytes) */
+    private static String text(byte[] data) {
+        return new String(data, StandardCharsets.ISO_8859_1);
+    }
+
+    private static void simple(OutputStream out, String value) throws IOException {
+        out.write(("+" + value + "\r\n").getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private static void error(OutputStream out, String message) throws IOException {
+        out.write(("-" + message + "\r\n").getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private static void integer(OutputStream out, long value) throws IOException {
+        out.write((":" + value + "\r\n").getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private static void bulk(OutputStream out, byte[] value) throws IOException {
+        if (value == null) {
+            out.write("$-1\r\n".getBytes(StandardCharsets.ISO_8859_1));
+            return;
+        }
+        out.write(("$" + value.length + "\r\n").getBytes(StandardCharsets.ISO_8859_1));
+        out.write(value);
+        out.write("\r\n".getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private static void array(OutputStream out, List<byte[]> values) throws IOException {
+        out.write(("*" + values.size() + "\r\n").getBytes(StandardCharsets.ISO_8859_1));
+        for (byte[] value : values) {
+            bulk(out, value);
+        }
+    }
+}
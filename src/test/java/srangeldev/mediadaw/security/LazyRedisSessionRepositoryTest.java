@@ -0,0 +1,375 @@
+package srangeldev.mediadaw.security;
+
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.protocol.ProtocolVersion;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.core.userdetails.User;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de LazyRedisSessionRepository contra un Redis en proceso (InProcessRedisServer) con el cliente Lettuce real.
+ */
+class LazyRedisSessionRepositoryTest {
+
+    private static final String PREFIX = "test:session:";
+
+    private static InProcessRedisServer server;
+    private static LettuceConnectionFactory connectionFactory;
+
+    private LazyRedisSessionRepository repository;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        server = new InProcessRedisServer();
+        LettuceClientConfiguration clientConfiguration = LettuceClientConfiguration.builder()
+                .clientOptions(ClientOptions.builder().protocolVersion(ProtocolVersion.RESP2).build())
+                .build();
+        connectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration("127.0.0.1", server.getPort()), clientConfiguration);
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        connectionFactory.destroy();
+        server.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        repository = new LazyRedisSessionRepository(connectionFactory,
+                new SessionAttributeCodec(getClass().getClassLoader()), PREFIX, Duration.ofMinutes(30));
+    }
+
+    @Test
+    @DisplayName("save guarda metadatos y atributos en un hash con caducidad, y findById los recupera")
+    void saveAndFind_RoundTrip() {
+        // ARRANGE
+        LazyRedisSessionRepository.RedisSession session = repository.createSession();
+        session.setAttribute("SPRING_SECURITY_CONTEXT", securityContext("ana@mediadaw.com"));
+        session.setAttribute("redirect", "/carrito");
+
+        // ACT
+        repository.save(session);
+        LazyRedisSessionRepository.RedisSession found = repository.findById(session.getId());
+
+        // ASSERT
+        assertNotNull(found);
+        SecurityContextImpl context = found.getAttribute("SPRING_SECURITY_CONTEXT");
+        assertAll(
+                () -> assertEquals("ana@mediadaw.com", context.getAuthentication().getName()),
+                () -> assertEquals("/carrito", found.getAttribute("redirect")),
+                () -> assertNull(found.getAttribute("noExiste")),
+                () -> assertEquals(Set.of("SPRING_SECURITY_CONTEXT", "redirect"), found.getAttributeNames()),
+                () -> assertEquals(session.getCreationTime().toEpochMilli(), found.getCreationTime().toEpochMilli()),
+                () -> assertEquals(Duration.ofMinutes(30), found.getMaxInactiveInterval()),
+                () -> assertNotNull(server.expiration(PREFIX + session.getId()))
+        );
+    }
+
+    @Test
+    @DisplayName("findById solo lee los metadatos; cada atributo se lee una vez, al pedirlo")
+    void findById_LoadsAttributesLazily() {
+        // ARRANGE
+        LazyRedisSessionRepository.RedisSession session = repository.createSession();
+        session.setAttribute("a", "1");
+        session.setAttribute("b", "2");
+        session.setAttribute("c", "3");
+        repository.save(session);
+        server.resetCounts();
+
+        // ACT
+        LazyRedisSessionRepository.RedisSession found = repository.findById(session.getId());
+        long readsAfterFind = server.count("HGET") + server.count("HGETALL") + server.count("HKEYS");
+        found.getAttribute("a");
+        found.getAttribute("a");
+        found.getAttribute("noExiste");
+        found.getAttribute("noExiste");
+
+        // ASSERT
+        assertAll(
+                () -> assertEquals(1, server.count("HMGET")),
+                () -> assertEquals(0, readsAfterFind),
+                () -> assertEquals(2, server.count("HGET"))
+        );
+    }
+
+    @Test
+    @DisplayName("save solo escribe los atributos modificados: dos peticiones a la vez no se pisan")
+    void save_WritesOnlyChangedAttributes() {
+        // ARRANGE
+        LazyRedisSessionRepository.RedisSession session = repository.createSession();
+        session.setAttribute("carrito", "vacío");
+        session.setAttribute("csrf", "t1");
+        repository.save(session);
+        LazyRedisSessionRepository.RedisSession first = repository.findById(session.getId());
+        LazyRedisSessionRepository.RedisSession second = repository.findById(session.getId());
+
+        // ACT
+        first.setAttribute("carrito", "2 productos");
+        second.setAttribute("csrf", "t2");
+        repository.save(first);
+        repository.save(second);
+
+        // ASSERT
+        LazyRedisSessionRepository.RedisSession found = repository.findById(session.getId());
+        assertAll(
+                () -> assertEquals("2 productos", found.getAttribute("carrito")),
+                () -> assertEquals("t2", found.getAttribute("csrf"))
+        );
+    }
+
+    @Test
+    @DisplayName("save no escribe nada si la sesión no ha cambiado")
+    void save_UnchangedSession_NoWrites() {
+        // ARRANGE
+        LazyRedisSessionRepository.RedisSession session = repository.createSession();
+        session.setAttribute("a", "1");
+        repository.save(session);
+        LazyRedisSessionRepository.RedisSession found = repository.findById(session.getId());
+        found.getAttribute("a");
+        server.resetCounts();
+
+        // ACT
+        repository.save(found);
+
+        // ASSERT
+        assertAll(
+                () -> assertEquals(0, server.count("HSET") + server.count("HMSET")),
+                () -> assertEquals(0, server.count("PEXPIRE"))
+        );
+    }
+
+    @Test
+    @DisplayName("Un nuevo acceso solo escribe el último acceso y renueva la caducidad")
+    void save_LastAccessOnly() {
+        // ARRANGE
+        LazyRedisSessionRepository.RedisSession session = repository.createSession();
+        session.setAttribute("a", "1");
+        repository.save(session);
+        LazyRedisSessionRepository.RedisSession found = repository.findById(session.getId());
+        Instant now = Instant.now().plusSeconds(5);
+
+        // ACT
+        found.setLastAccessedTime(now);
+        repository.save(found);
+
+        // ASSERT
+        assertAll(
+                () -> assertEquals(now.toEpochMilli(),
+                        Long.parseLong(new String(server.hash(PREFIX + session.getId()).get("lastAccessedTime")))),
+                () -> assertEquals("1", repository.findById(session.getId()).getAttribute("a"))
+        );
+    }
+
+    @Test
+    @DisplayName("removeAttribute borra el campo del hash")
+    void removeAttribute_DeletesField() {
+        // ARRANGE
+        LazyRedisSessionRepository.RedisSession session = repository.createSession();
+        session.setAttribute("a", "1");
+        session.setAttribute("b", "2");
+        repository.save(session);
+        LazyRedisSessionRepository.RedisSession found = repository.findById(session.getId());
+
+        // ACT
+        found.removeAttribute("a");
+        repository.save(found);
+
+        // ASSERT
+        LazyRedisSessionRepository.RedisSession reloaded = repository.findById(session.getId());
+        assertAll(
+                () -> assertNull(reloaded.getAttribute("a")),
+                () -> assertEquals(Set.of("b"), reloaded.getAttributeNames()),
+                () -> assertFalse(server.hash(PREFIX + session.getId()).containsKey("attr:a"))
+        );
+    }
+
+    @Test
+    @DisplayName("changeSessionId mueve la sesión a la clave del nuevo ID")
+    void changeSessionId_RenamesKey() {
+        // ARRANGE
+        LazyRedisSessionRepository.RedisSession session = repository.createSession();
+        session.setAttribute("a", "1");
+        repository.save(session);
+        String oldId = session.getId();
+        LazyRedisSessionRepository.RedisSession found = repository.findById(oldId);
+
+        // ACT
+        String newId = found.changeSessionId();
+        found.setAttribute("SPRING_SECURITY_CONTEXT", securityContext("ana@mediadaw.com"));
+        repository.save(found);
+
+        // ASSERT
+        LazyRedisSessionRepository.RedisSession reloaded = repository.findById(newId);
+        assertAll(
+                () -> assertNull(repository.findById(oldId)),
+                () -> assertNotNull(reloaded),
+                () -> assertEquals("1", reloaded.getAttribute("a")),
+                () -> assertNotNull(reloaded.getAttribute("SPRING_SECURITY_CONTEXT"))
+        );
+    }
+
+    @Test
+    @DisplayName("Si la sesión se borra antes de guardar el cambio de ID, el login la guarda como nueva sin fallar")
+    void changeSessionId_SessionDeletedMeanwhile_SavedAsNew() {
+        // ARRANGE
+        LazyRedisSessionRepository.RedisSession session = repository.createSession();
+        session.setAttribute("a", "1");
+        repository.save(session);
+        String oldId = session.getId();
+        LazyRedisSessionRepository.RedisSession found = repository.findById(oldId);
+        found.getAttribute("a");
+        repository.deleteById(oldId);
+
+        // ACT
+        String newId = found.changeSessionId();
+        found.setAttribute("SPRING_SECURITY_CONTEXT", securityContext("ana@mediadaw.com"));
+        assertDoesNotThrow(() -> repository.save(found));
+
+        // ASSERT
+        LazyRedisSessionRepository.RedisSession reloaded = repository.findById(newId);
+        assertAll(
+                () -> assertNull(repository.findById(oldId)),
+                () -> assertNotNull(reloaded),
+                () -> assertEquals("1", reloaded.getAttribute("a")),
+                () -> assertNotNull(reloaded.getAttribute("SPRING_SECURITY_CONTEXT")),
+                () -> assertEquals(Set.of(newId), repository.findByPrincipalName("ana@mediadaw.com").keySet())
+        );
+    }
+
+    @Test
+    @DisplayName("deleteById y las sesiones caducadas dejan de encontrarse")
+    void deletedOrExpired_NotFound() {
+        // ARRANGE
+        LazyRedisSessionRepository.RedisSession deleted = repository.createSession();
+        repository.save(deleted);
+        LazyRedisSessionRepository.RedisSession expired = repository.createSession();
+        expired.setLastAccessedTime(Instant.now().minus(Duration.ofHours(1)));
+        repository.save(expired);
+
+        // ACT
+        repository.deleteById(deleted.getId());
+
+        // ASSERT
+        assertAll(
+                () -> assertNull(repository.findById(deleted.getId())),
+                () -> assertNull(repository.findById(expired.getId())),
+                () -> assertTrue(server.hash(PREFIX + expired.getId()).isEmpty())
+        );
+    }
+
+    @Test
+    @DisplayName("Escribir el último acceso de una sesión ya borrada (logout en otra petición) no la resucita")
+    void save_AfterDelete_DoesNotResurrect() {
+        // ARRANGE
+        LazyRedisSessionRepository.RedisSession session = repository.createSession();
+        repository.save(session);
+        LazyRedisSessionRepository.RedisSession inFlight = repository.findById(session.getId());
+        repository.deleteById(session.getId());
+
+        // ACT
+        inFlight.setLastAccessedTime(Instant.now());
+        repository.save(inFlight);
+
+        // ASSERT
+        assertNull(repository.findById(session.getId()));
+    }
+
+    @Test
+    @DisplayName("Las sesiones con login se encuentran por usuario, también tras cambiar de ID")
+    void findByPrincipalName_IndexedOnLogin() {
+        // ARRANGE
+        LazyRedisSessionRepository.RedisSession anonymous = repository.createSession();
+        repository.save(anonymous);
+        LazyRedisSessionRepository.RedisSession login = repository.findById(anonymous.getId());
+        String newId = login.changeSessionId();
+        login.setAttribute("SPRING_SECURITY_CONTEXT", securityContext("luis@mediadaw.com"));
+        LazyRedisSessionRepository.RedisSession other = repository.createSession();
+        other.setAttribute("SPRING_SECURITY_CONTEXT", securityContext("luis@mediadaw.com"));
+
+        // ACT
+        repository.save(login);
+        repository.save(other);
+
+        // ASSERT
+        assertAll(
+                () -> assertEquals(Set.of(newId, other.getId()),
+                        repository.findByPrincipalName("luis@mediadaw.com").keySet()),
+                () -> assertTrue(repository.findByPrincipalName("otro@mediadaw.com").isEmpty()),
+                () -> assertEquals("luis@mediadaw.com", new String(server.hash(PREFIX + newId).get("principal"))),
+                () -> assertNotNull(server.expiration(PREFIX + "index:luis@mediadaw.com"))
+        );
+    }
+
+    @Test
+    @DisplayName("deleteById saca la sesión del índice de su usuario")
+    void deleteById_RemovesFromIndex() {
+        // ARRANGE
+        LazyRedisSessionRepository.RedisSession session = repository.createSession();
+        session.setAttribute("SPRING_SECURITY_CONTEXT", securityContext("eva@mediadaw.com"));
+        repository.save(session);
+
+        // ACT
+        repository.deleteById(session.getId());
+
+        // ASSERT
+        assertAll(
+                () -> assertTrue(repository.findByPrincipalName("eva@mediadaw.com").isEmpty()),
+                () -> assertFalse(server.hash(PREFIX + "index:eva@mediadaw.com").containsKey(session.getId()))
+        );
+    }
+
+    @Test
+    @DisplayName("deleteByPrincipalNames borra las sesiones de varios usuarios con dos viajes a Redis")
+    void deleteByPrincipalNames_DeletesAllSessions() {
+        // ARRANGE
+        List<String> ids = new ArrayList<>();
+        for (String email : List.of("spam1@test.com", "spam1@test.com", "spam2@test.com", "legit@test.com")) {
+            LazyRedisSessionRepository.RedisSession session = repository.createSession();
+            session.setAttribute("SPRING_SECURITY_CONTEXT", securityContext(email));
+            repository.save(session);
+            ids.add(session.getId());
+        }
+        server.resetCounts();
+
+        // ACT
+        int deleted = repository.deleteByPrincipalNames(List.of("spam1@test.com", "spam2@test.com", "nadie@test.com"));
+
+        // ASSERT
+        assertAll(
+                () -> assertEquals(3, deleted),
+                () -> assertEquals(3, server.count("HKEYS")),
+                () -> assertEquals(1, server.count("DEL")),
+                () -> assertNull(repository.findById(ids.get(0))),
+                () -> assertNull(repository.findById(ids.get(1))),
+                () -> assertNull(repository.findById(ids.get(2))),
+                () -> assertNotNull(repository.findById(ids.get(3)))
+        );
+    }
+
+    private static SecurityContextImpl securityContext(String email) {
+        List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+        User user = new User(email, "", authorities);
+        return new SecurityContextImpl(UsernamePasswordAuthenticationToken.authenticated(user, null, authorities));
+    }
+}
@@ -0,0 +1,90 @@
+package srangeldev.mediadaw.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import srangeldev.mediadaw.config.PasswordHashingProperties;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para PasswordHashingService (con costes bajos para que sean rápidos).
+ */
+class PasswordHashingServiceTest {
+
+    private PasswordHashingService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("encode genera hashes con prefijo {bcrypt} que matches verifica")
+    void encodeAndMatches() {
+        // ARRANGE
+        service = service(5, Duration.ofSeconds(5));
+
+        // ACT
+        String hash = service.encode("secreto123");
+
+        // ASSERT
+        assertAll(
+                () -> assertTrue(hash.startsWith("{bcrypt}$2a$05$")),
+                () -> assertTrue(service.matches("secreto123", hash)),
+                () -> assertFalse(service.matches("otra", hash)),
+                () -> assertFalse(service.upgradeEncoding(hash))
+        );
+    }
+
+    @Test
+    @DisplayName("Los hashes antiguos sin prefijo o con menos coste se aceptan y se marcan para re-cifrar")
+    void legacyHashes_MatchAndUpgrade() {
+        // ARRANGE
+        service = service(5, Duration.ofSeconds(5));
+        String withoutPrefix = new BCryptPasswordEncoder(5).encode("secreto123");
+        String lowerCost = "{bcrypt}" + new BCryptPasswordEncoder(4).encode("secreto123");
+
+        // ACT & ASSERT
+        assertAll(
+                () -> assertTrue(service.matches("secreto123", withoutPrefix)),
+                () -> assertTrue(service.upgradeEncoding(withoutPrefix)),
+                () -> assertTrue(service.matches("secreto123", lowerCost)),
+                () -> assertTrue(service.upgradeEncoding(lowerCost))
+        );
+    }
+
+    @Test
+    @DisplayName("Si la operación no termina a tiempo se rechaza con PasswordHashingBusyException")
+    void encode_Busy() {
+        // ARRANGE: coste alto y espera mínima
+        service = service(14, Duration.ofMillis(1));
+
+        // ACT & ASSERT
+        assertThrows(PasswordHashingBusyException.class, () -> service.encode("secreto123"));
+    }
+
+    @Test
+    @DisplayName("calibrateStrength se queda entre el coste mínimo y el máximo")
+    void calibrateStrength_Bounds() {
+        assertAll(
+                () -> assertEquals(4, PasswordHashingService.calibrateStrength(Duration.ZERO, 4, 8)),
+                () -> assertEquals(6, PasswordHashingService.calibrateStrength(Duration.ofMinutes(1), 4, 6))
+        );
+    }
+
+    private static PasswordHashingService service(int strength, Duration maxWait) {
+        PasswordHashingProperties properties = new PasswordHashingProperties();
+        properties.setStrength(strength);
+        properties.setThreads(1);
+        properties.setQueueCapacity(1);
+        properties.setMaxWait(maxWait);
+        return new PasswordHashingService(properties, new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,105 @@
+package srangeldev.mediadaw.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import srangeldev.mediadaw.config.RateLimitProperties;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para RateLimitFilter con el limitador en memoria.
+ */
+class RateLimitFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setLoginPerIp(new RateLimitProperties.Bucket(10, Duration.ofMinutes(1)));
+        properties.setLoginPerEmail(new RateLimitProperties.Bucket(2, Duration.ofMinutes(1)));
+        properties.setEmailProbePerIp(new RateLimitProperties.Bucket(3, Duration.ofMinutes(1)));
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new RateLimitFilter(new InMemoryRateLimiter(properties), properties, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Los logins contra una misma cuenta por encima del límite vuelven al formulario con ?throttled")
+    void login_ThrottledByEmail() throws Exception {
+        // ACT
+        MockHttpServletResponse first = login("Ana@Test.com");
+        MockHttpServletResponse second = login("ana@test.com");
+        MockHttpServletResponse third = login("ana@test.com");
+        MockHttpServletResponse otherAccount = login("luis@test.com");
+
+        // ASSERT
+        assertAll(
+                () -> assertNull(first.getRedirectedUrl()),
+                () -> assertNull(second.getRedirectedUrl()),
+                () -> assertEquals("/login?throttled=true", third.getRedirectedUrl()),
+                () -> assertNull(otherAccount.getRedirectedUrl()),
+                () -> assertEquals(1.0, meterRegistry.get("mediadaw.security.rate_limit.rejected")
+                        .tag("endpoint", "login").tag("key", "email").counter().count())
+        );
+    }
+
+    @Test
+    @DisplayName("El filtro no toca las peticiones GET ni otras rutas")
+    void otherRequests_NotFiltered() throws Exception {
+        // ARRANGE
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/login");
+        request.setServletPath("/login");
+        MockFilterChain chain = new MockFilterChain();
+
+        // ACT
+        for (int i = 0; i < 50; i++) {
+            chain = new MockFilterChain();
+            filter.doFilter(request, new MockHttpServletResponse(), chain);
+        }
+
+        // ASSERT
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    @DisplayName("Las comprobaciones de email disponible por encima del límite de la IP responden 429")
+    void emailProbe_ThrottledByIp() throws Exception {
+        // ACT
+        int[] statuses = new int[4];
+        for (int i = 0; i < statuses.length; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/registro/email-disponible");
+            request.setServletPath("/registro/email-disponible");
+            request.setRemoteAddr("10.0.0.2");
+            request.addParameter("email", "usuario" + i + "@test.com");
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(request, response, new MockFilterChain());
+            statuses[i] = response.getStatus();
+        }
+
+        // ASSERT
+        assertAll(
+                () -> assertEquals(200, statuses[2]),
+                () -> assertEquals(429, statuses[3]),
+                () -> assertEquals(1.0, meterRegistry.get("mediadaw.security.rate_limit.rejected")
+                        .tag("endpoint", "email-disponible").tag("key", "ip").counter().count())
+        );
+    }
+
+    private MockHttpServletResponse login(String email) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/login");
+        request.setServletPath("/login");
+        request.setRemoteAddr("10.0.0.1");
+        request.addParameter("username", email);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
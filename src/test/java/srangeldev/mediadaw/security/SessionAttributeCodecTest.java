@@ -0,0 +1,125 @@
+package srangeldev.mediadaw.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+import org.springframework.security.web.csrf.DefaultCsrfToken;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para SessionAttributeCodec.
+ */
+class SessionAttributeCodecTest {
+
+    private final SessionAttributeCodec codec = new SessionAttributeCodec(getClass().getClassLoader());
+
+    @Test
+    @DisplayName("El contexto de seguridad del login se guarda en binario compacto y se recupera igual")
+    void securityContext_RoundTrip() throws IOException {
+        // ARRANGE
+        List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_ADMIN"));
+        User user = new User("admin@mediadaw.com", "", authorities);
+        UsernamePasswordAuthenticationToken token = UsernamePasswordAuthenticationToken.authenticated(user, null, authorities);
+        token.setDetails(new WebAuthenticationDetails("10.0.0.1", null));
+        SecurityContextImpl context = new SecurityContextImpl(token);
+
+        // ACT
+        byte[] encoded = codec.encode(context);
+        SecurityContextImpl decoded = (SecurityContextImpl) codec.decode(encoded);
+
+        // ASSERT
+        assertEquals(SessionAttributeCodec.SECURITY_CONTEXT, encoded[0]);
+        UsernamePasswordAuthenticationToken restored = (UsernamePasswordAuthenticationToken) decoded.getAuthentication();
+        User principal = (User) restored.getPrincipal();
+        assertAll(
+                () -> assertTrue(restored.isAuthenticated()),
+                () -> assertEquals("admin@mediadaw.com", principal.getUsername()),
+                () -> assertTrue(principal.isEnabled()),
+                () -> assertEquals(authorities, List.copyOf(restored.getAuthorities())),
+                () -> assertEquals(token.getDetails(), restored.getDetails()),
+                () -> assertTrue(encoded.length * 10 < javaSerializedSize(context),
+                        "binario: " + encoded.length + " bytes, Java: " + javaSerializedSize(context) + " bytes")
+        );
+    }
+
+    @Test
+    @DisplayName("Una cuenta deshabilitada conserva sus flags")
+    void securityContext_KeepsFlags() {
+        // ARRANGE
+        List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+        User user = new User("ana@mediadaw.com", "", false, true, true, false, authorities);
+        SecurityContextImpl context = new SecurityContextImpl(UsernamePasswordAuthenticationToken.authenticated(user, null, authorities));
+
+        // ACT
+        User restored = (User) ((SecurityContextImpl) codec.decode(codec.encode(context))).getAuthentication().getPrincipal();
+
+        // ASSERT
+        assertAll(
+                () -> assertFalse(restored.isEnabled()),
+                () -> assertTrue(restored.isAccountNonExpired()),
+                () -> assertTrue(restored.isCredentialsNonExpired()),
+                () -> assertFalse(restored.isAccountNonLocked())
+        );
+    }
+
+    @Test
+    @DisplayName("El token CSRF y los String se guardan en binario compacto")
+    void csrfTokenAndString_RoundTrip() {
+        // ARRANGE
+        DefaultCsrfToken csrf = new DefaultCsrfToken("X-CSRF-TOKEN", "_csrf", "abc-123");
+
+        // ACT
+        byte[] encodedCsrf = codec.encode(csrf);
+        DefaultCsrfToken decodedCsrf = (DefaultCsrfToken) codec.decode(encodedCsrf);
+
+        // ASSERT
+        assertAll(
+                () -> assertEquals(SessionAttributeCodec.CSRF_TOKEN, encodedCsrf[0]),
+                () -> assertEquals("X-CSRF-TOKEN", decodedCsrf.getHeaderName()),
+                () -> assertEquals("_csrf", decodedCsrf.getParameterName()),
+                () -> assertEquals("abc-123", decodedCsrf.getToken()),
+                () -> assertEquals("/carrito", codec.decode(codec.encode("/carrito"))),
+                () -> assertEquals(SessionAttributeCodec.STRING, codec.encode("/carrito")[0])
+        );
+    }
+
+    @Test
+    @DisplayName("Los demás atributos y los contextos no estándar se serializan con Java")
+    void otherValues_FallBackToJava() {
+        // ARRANGE
+        ArrayList<String> flashes = new ArrayList<>(List.of("Producto añadido"));
+        SecurityContextImpl testing = new SecurityContextImpl(new TestingAuthenticationToken("ana", "x", "ROLE_USER"));
+
+        // ACT
+        byte[] encodedList = codec.encode(flashes);
+        byte[] encodedContext = codec.encode(testing);
+
+        // ASSERT
+        assertAll(
+                () -> assertEquals(SessionAttributeCodec.JAVA, encodedList[0]),
+                () -> assertEquals(flashes, codec.decode(encodedList)),
+                () -> assertEquals(SessionAttributeCodec.JAVA, encodedContext[0]),
+                () -> assertEquals("ana", ((SecurityContextImpl) codec.decode(encodedContext)).getAuthentication().getName())
+        );
+    }
+
+    private static int javaSerializedSize(Object value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        }
+        return bytes.size();
+    }
+}
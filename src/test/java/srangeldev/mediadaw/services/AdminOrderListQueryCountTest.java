@@ -0,0 +1,133 @@
+package srangeldev.mediadaw.services;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import srangeldev.mediadaw.dto.AdminOrderPage;
+import srangeldev.mediadaw.dto.AdminOrderQuery;
+import srangeldev.mediadaw.dto.AdminOrderRow;
+import srangeldev.mediadaw.models.EstadoPedido;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test de regresión de la lista de pedidos del panel contra la BD en memoria (con los pedidos de DataLoader).
+ * La página entera, datos del cliente incluidos, sale de exactamente dos consultas.
+ * Se cuentan solo las sentencias del hilo del test y las entidades de su sesión: los jobs de arranque
+ * y programados pueden estar usando la BD a la vez.
+ */
+@SpringBootTest(properties = "mediadaw.dashboard.snapshot-ttl=0s")
+class AdminOrderListQueryCountTest {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Autowired
+    private VentaService ventaService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    @DisplayName("La lista de pedidos del panel usa dos consultas y no carga pedidos ni usuarios")
+    void getAdminOrdersPage_TwoQueries() {
+        // ARRANGE
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        record Measured(AdminOrderPage page, int loadedEntities) {
+        }
+
+        // ACT
+        ThreadStatementCounter.start();
+        Measured measured = transaction.execute(status -> new Measured(
+                ventaService.getAdminOrdersPage(new AdminOrderQuery(null, null, null, null, PAGE_SIZE)),
+                entityManager.unwrap(Session.class).getStatistics().getEntityCount()));
+        List<String> statements = ThreadStatementCounter.stop();
+        AdminOrderPage result = measured.page();
+
+        // ASSERT
+        assertAll(
+                () -> assertFalse(result.page().items().isEmpty()),
+                () -> assertPageMatchesTotal(result),
+                () -> assertTrue(result.page().items().stream().map(AdminOrderRow::customerEmail)
+                        .allMatch(email -> email != null && email.contains("@"))),
+                () -> assertEquals(2, statements.size(), () -> "Sentencias: " + statements),
+                () -> assertEquals(0, measured.loadedEntities())
+        );
+    }
+
+    @Test
+    @DisplayName("La lista de pedidos del panel filtra por estado en la BD")
+    void getAdminOrdersPage_FilterByEstado() {
+        // ACT
+        AdminOrderPage result = ventaService.getAdminOrdersPage(
+                new AdminOrderQuery(EstadoPedido.ENVIADO, null, null, null, PAGE_SIZE));
+
+        // ASSERT
+        assertTrue(result.page().items().stream().allMatch(row -> row.estado() == EstadoPedido.ENVIADO));
+        assertPageMatchesTotal(result);
+    }
+
+    /**
+     * La primera página tiene min(total, tamaño) pedidos y solo hay siguiente si no caben todos
+     */
+    private static void assertPageMatchesTotal(AdminOrderPage result) {
+        assertEquals(Math.min(result.total(), PAGE_SIZE), result.page().items().size());
+        assertEquals(result.total() > PAGE_SIZE, result.page().hasNext());
+    }
+
+    /**
+     * Registra en Hibernate el contador de sentencias
+     */
+    @TestConfiguration
+    static class StatementCounterConfig {
+
+        @Bean
+        HibernatePropertiesCustomizer threadStatementCounter() {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new ThreadStatementCounter());
+        }
+    }
+
+    /**
+     * Apunta las sentencias SQL que prepara Hibernate, solo en el hilo que ha llamado a start()
+     */
+    static final class ThreadStatementCounter implements StatementInspector {
+
+        private static final ThreadLocal<List<String>> STATEMENTS = new ThreadLocal<>();
+
+        static void start() {
+            STATEMENTS.set(new ArrayList<>());
+        }
+
+        static List<String> stop() {
+            List<String> statements = STATEMENTS.get();
+            STATEMENTS.remove();
+            return statements;
+        }
+
+        @Override
+        public String inspect(String sql) {
+            List<String> statements = STATEMENTS.get();
+            if (statements != null) {
+                statements.add(sql);
+            }
+            return sql;
+        }
+    }
+}
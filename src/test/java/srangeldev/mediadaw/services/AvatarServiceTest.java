@@ -0,0 +1,174 @@
+package srangeldev.mediadaw.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+import srangeldev.mediadaw.config.AvatarProperties;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de AvatarService con imágenes generadas y un directorio temporal.
+ */
+class AvatarServiceTest {
+
+    @TempDir
+    Path storageDir;
+
+    private AvatarProperties properties;
+    private AvatarService service;
+
+    @BeforeEach
+    void setUp() {
+        properties = new AvatarProperties();
+        properties.setStorageDir(storageDir);
+        properties.setSizes(List.of(64, 256));
+        properties.setMaxDimension(2000);
+        service = new AvatarService(properties, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    @DisplayName("Un JPEG rectangular se guarda recortado en cuadrado en cada tamaño")
+    void store_Jpeg_AllSizes() throws IOException {
+        // ARRANGE
+        byte[] upload = image(800, 600, BufferedImage.TYPE_INT_RGB, "jpeg");
+
+        // ACT
+        String key = service.store(upload);
+
+        // ASSERT
+        assertTrue(key.matches("[0-9a-f]{64}\\.jpg"));
+        for (int size : List.of(64, 256)) {
+            Path file = service.find(size, key).orElseThrow();
+            BufferedImage stored = ImageIO.read(file.toFile());
+            assertEquals(size, stored.getWidth());
+            assertEquals(size, stored.getHeight());
+        }
+    }
+
+    @Test
+    @DisplayName("Un PNG con transparencia se guarda como PNG y la conserva")
+    void store_PngWithAlpha_KeepsAlpha() throws IOException {
+        // ARRANGE
+        byte[] upload = image(300, 300, BufferedImage.TYPE_INT_ARGB, "png");
+
+        // ACT
+        String key = service.store(upload);
+
+        // ASSERT
+        assertTrue(key.endsWith(".png"));
+        BufferedImage stored = ImageIO.read(service.find(64, key).orElseThrow().toFile());
+        assertTrue(stored.getColorModel().hasAlpha());
+    }
+
+    @Test
+    @DisplayName("La misma imagen da la misma clave y no se vuelve a procesar")
+    void store_SameContent_NotReprocessed() throws IOException {
+        // ARRANGE
+        byte[] upload = image(400, 400, BufferedImage.TYPE_INT_RGB, "jpeg");
+        String key = service.store(upload);
+        Path file = service.find(256, key).orElseThrow();
+        FileTime old = FileTime.from(Instant.parse("2020-01-01T00:00:00Z"));
+        Files.setLastModifiedTime(file, old);
+
+        // ACT
+        String again = service.store(upload);
+
+        // ASSERT
+        assertEquals(key, again);
+        assertEquals(old, Files.getLastModifiedTime(file));
+    }
+
+    @Test
+    @DisplayName("Un fichero que no es imagen se rechaza")
+    void store_NotAnImage_Rejected() {
+        // ARRANGE
+        byte[] upload = "esto no es una imagen".getBytes();
+
+        // ACT & ASSERT
+        assertThrows(IllegalArgumentException.class, () -> service.store(upload));
+    }
+
+    @Test
+    @DisplayName("Un GIF se rechaza aunque sea una imagen válida")
+    void store_Gif_Rejected() throws IOException {
+        // ARRANGE
+        byte[] upload = image(100, 100, BufferedImage.TYPE_INT_RGB, "gif");
+
+        // ACT
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> service.store(upload));
+
+        // ASSERT
+        assertTrue(e.getMessage().contains("PNG"));
+    }
+
+    @Test
+    @DisplayName("Una imagen más grande que max-dimension se rechaza sin guardar nada")
+    void store_TooLarge_Rejected() throws IOException {
+        // ARRANGE
+        byte[] upload = image(2500, 100, BufferedImage.TYPE_INT_RGB, "png");
+
+        // ACT & ASSERT
+        assertThrows(IllegalArgumentException.class, () -> service.store(upload));
+        try (var files = Files.list(storageDir.resolve("64"))) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Un fichero por encima de max-file-size se rechaza antes de leerlo")
+    void store_FileTooBig_Rejected() {
+        // ARRANGE
+        properties.setMaxFileSize(DataSize.ofBytes(10));
+
+        // ACT & ASSERT
+        assertThrows(IllegalArgumentException.class, () -> service.store(new byte[11]));
+    }
+
+    @Test
+    @DisplayName("Solo se encuentran avatares con clave válida y en tamaños configurados")
+    void find_InvalidKeyOrSize_Empty() throws IOException {
+        // ARRANGE
+        String key = service.store(image(100, 100, BufferedImage.TYPE_INT_RGB, "jpeg"));
+
+        // ACT & ASSERT
+        assertTrue(service.find(64, key).isPresent());
+        assertTrue(service.find(128, key).isEmpty());
+        assertTrue(service.find(64, "../64/" + key).isEmpty());
+        assertTrue(service.find(64, key.toUpperCase()).isEmpty());
+    }
+
+    private static byte[] image(int width, int height, int type, String format) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, type);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.RED);
+        g.fillRect(0, 0, width / 2, height);
+        g.setColor(new Color(0, 0, 255, 128));
+        g.fillRect(width / 2, 0, width / 2, height);
+        g.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertTrue(ImageIO.write(image, format, out));
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,117 @@
+package srangeldev.mediadaw.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import srangeldev.mediadaw.config.BestSellerProperties;
+import srangeldev.mediadaw.dto.ProductSales;
+import srangeldev.mediadaw.models.Categoria;
+import srangeldev.mediadaw.models.EstadoPedido;
+import srangeldev.mediadaw.models.Productos;
+import srangeldev.mediadaw.repositories.LineaVentaRepository;
+import srangeldev.mediadaw.repositories.ProductosRepository;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para BestSellerService.
+ */
+@ExtendWith(MockitoExtension.class)
+class BestSellerServiceTest {
+
+    @Mock
+    private LineaVentaRepository lineaVentaRepository;
+
+    @Mock
+    private ProductosRepository productosRepository;
+
+    private BestSellerService bestSellerService;
+
+    @BeforeEach
+    void setUp() {
+        BestSellerProperties properties = new BestSellerProperties();
+        properties.setTopK(2);
+        bestSellerService = new BestSellerService(lineaVentaRepository, productosRepository, properties);
+    }
+
+    @Test
+    @DisplayName("refresh guarda los K más vendidos de cada categoría y del total")
+    void refresh() {
+        // ARRANGE
+        when(lineaVentaRepository.sumUnitsByProductSince(any(), eq(EstadoPedido.CANCELADO))).thenReturn(List.of(
+                new ProductSales(1L, Categoria.AUDIO, 5L),
+                new ProductSales(2L, Categoria.AUDIO, 9L),
+                new ProductSales(3L, Categoria.AUDIO, 1L),
+                new ProductSales(4L, Categoria.GAMING, 20L)));
+
+        // ACT
+        bestSellerService.refresh();
+
+        // ASSERT
+        assertAll(
+                () -> assertEquals(List.of(4L, 2L), bestSellerService.getTopSellers().stream()
+                        .map(ProductSales::productId).toList()),
+                () -> assertEquals(List.of(2L, 1L), bestSellerService.getTopSellers(Categoria.AUDIO).stream()
+                        .map(ProductSales::productId).toList()),
+                () -> assertEquals(Set.of(1L, 2L, 4L), bestSellerService.getBestSellerIds()),
+                () -> assertFalse(bestSellerService.isBestSeller(3L)),
+                () -> assertTrue(bestSellerService.getTopSellers(Categoria.LAPTOPS).isEmpty())
+        );
+    }
+
+    @Test
+    @DisplayName("topK desempata por ID y no devuelve más de k productos")
+    void topK_TieBreak() {
+        // ARRANGE
+        List<ProductSales> sales = List.of(
+                new ProductSales(7L, Categoria.AUDIO, 3L),
+                new ProductSales(5L, Categoria.AUDIO, 3L),
+                new ProductSales(6L, Categoria.AUDIO, 3L));
+
+        // ACT
+        List<ProductSales> result = BestSellerService.topK(sales, 2);
+
+        // ASSERT
+        assertEquals(List.of(5L, 6L), result.stream().map(ProductSales::productId).toList());
+    }
+
+    @Test
+    @DisplayName("getTopSellerProducts carga los productos del ranking en orden y sin los eliminados")
+    void getTopSellerProducts() {
+        // ARRANGE
+        when(lineaVentaRepository.sumUnitsByProductSince(any(), any())).thenReturn(List.of(
+                new ProductSales(1L, Categoria.AUDIO, 5L),
+                new ProductSales(2L, Categoria.GAMING, 9L)));
+        bestSellerService.refresh();
+        Productos audio = Productos.builder().id(1L).nombre("JBL").deleted(false).build();
+        Productos gaming = Productos.builder().id(2L).nombre("PS5").deleted(true).build();
+        when(productosRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(audio, gaming));
+
+        // ACT
+        List<Productos> result = bestSellerService.getTopSellerProducts(8);
+
+        // ASSERT
+        assertEquals(List.of(audio), result);
+    }
+
+    @Test
+    @DisplayName("Antes del primer cálculo no hay más vendidos ni se consulta la BD")
+    void getTopSellerProducts_BeforeRefresh() {
+        // ACT
+        List<Productos> result = bestSellerService.getTopSellerProducts(8);
+
+        // ASSERT
+        assertTrue(result.isEmpty());
+        assertTrue(bestSellerService.getBestSellerIds().isEmpty());
+        verifyNoInteractions(productosRepository, lineaVentaRepository);
+    }
+}
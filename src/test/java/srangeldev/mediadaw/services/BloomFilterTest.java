@@ -0,0 +1,63 @@
+package srangeldev.mediadaw.services;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para BloomFilter.
+ */
+class BloomFilterTest {
+
+    @Test
+    @DisplayName("Todo lo añadido se encuentra (sin falsos negativos)")
+    void mightContain_NoFalseNegatives() {
+        // ARRANGE
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+
+        // ACT
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("usuario" + i + "@mediadaw.com");
+        }
+
+        // ASSERT
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("usuario" + i + "@mediadaw.com"));
+        }
+    }
+
+    @Test
+    @DisplayName("La tasa de falsos positivos queda cerca de la configurada")
+    void mightContain_FalsePositiveRate() {
+        // ARRANGE
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("usuario" + i + "@mediadaw.com");
+        }
+
+        // ACT
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("otro" + i + "@ejemplo.es")) {
+                falsePositives++;
+            }
+        }
+
+        // ASSERT: 1 % esperado, margen para la variación
+        assertTrue(falsePositives < 2_000, "falsos positivos: " + falsePositives);
+    }
+
+    @Test
+    @DisplayName("create calcula bits y hashes a partir del tamaño y la tasa")
+    void create_Sizing() {
+        // ACT
+        BloomFilter filter = BloomFilter.create(1_000, 0.01);
+
+        // ASSERT: m = -n ln p / (ln 2)^2 ≈ 9.6 bits por elemento, k ≈ 7
+        assertAll(
+                () -> assertTrue(filter.bitSize() >= 9_585 && filter.bitSize() < 9_585 + 64),
+                () -> assertEquals(7, filter.hashCount())
+        );
+    }
+}
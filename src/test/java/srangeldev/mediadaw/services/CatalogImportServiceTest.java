@@ -0,0 +1,162 @@
+package srangeldev.mediadaw.services;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import srangeldev.mediadaw.dto.CatalogImportError;
+import srangeldev.mediadaw.dto.CatalogImportResult;
+import srangeldev.mediadaw.models.Categoria;
+import srangeldev.mediadaw.models.Productos;
+import srangeldev.mediadaw.repositories.ProductosRepository;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test de integración de la importación de catálogo contra la BD en memoria.
+ * Cada test se deshace al terminar.
+ */
+@SpringBootTest
+@Transactional
+class CatalogImportServiceTest {
+
+    @Autowired
+    private CatalogImportService catalogImportService;
+
+    @Autowired
+    private ProductosRepository productosRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("importCsv crea los SKU nuevos, actualiza los existentes e informa de las filas con errores")
+    void importCsv_CreatesUpdatesAndReportsErrors() throws Exception {
+        // ARRANGE
+        productosRepository.save(Productos.builder()
+                .sku("SUP-001").nombre("Altavoz viejo").precio(10.0).stock(1)
+                .category(Categoria.AUDIO).imagen("/images/altavoz.jpg").build());
+        String csv = """
+                sku,nombre,descripcion,precio,stock,categoria,imagen
+                SUP-001,Altavoz Bluetooth,"Resistente al agua, 20 W",49.90,15,audio,
+                SUP-002,"Monitor 27"" 4K","Línea 1
+                Línea 2",329.00,4,IMAGEN,/images/monitor.jpg
+                SUP-003,,,abc,-2,TOSTADORAS,
+                SUP-002,Monitor repetido,,1,1,IMAGEN,
+                ,Sin SKU,,1,1,AUDIO,
+                """;
+
+        // ACT
+        CatalogImportResult result = catalogImportService.importCsv(stream(csv));
+
+        // ASSERT
+        Map<String, Object> updated = product("SUP-001");
+        Map<String, Object> created = product("SUP-002");
+        assertAll(
+                () -> assertEquals(5, result.rows()),
+                () -> assertEquals(1, result.created()),
+                () -> assertEquals(1, result.updated()),
+                () -> assertEquals(3, result.failed()),
+                () -> assertFalse(result.isTruncated()),
+                () -> assertEquals("Altavoz Bluetooth", updated.get("nombre")),
+                () -> assertEquals(15, ((Number) updated.get("stock")).intValue()),
+                () -> assertEquals("/images/altavoz.jpg", updated.get("imagen")),
+                () -> assertEquals("Monitor 27\" 4K", created.get("nombre")),
+                () -> assertEquals("Línea 1\nLínea 2", created.get("descripcion")),
+                () -> assertEquals("IMAGEN", created.get("category")),
+                () -> assertNotNull(created.get("fecha_alta")),
+                () -> assertEquals(List.of(5L, 6L, 7L), result.errors().stream().map(CatalogImportError::line).toList()),
+                () -> assertTrue(result.errors().get(0).message().startsWith("Falta el nombre")),
+                () -> assertTrue(result.errors().get(0).message().contains("TOSTADORAS")),
+                () -> assertTrue(result.errors().get(1).message().contains("línea 3")),
+                () -> assertTrue(result.errors().get(2).message().startsWith("Falta el SKU"))
+        );
+    }
+
+    @Test
+    @DisplayName("importCsv acepta el CSV de Excel en español: punto y coma, decimales con coma y columnas en otro orden")
+    void importCsv_SemicolonSeparated() throws Exception {
+        // ARRANGE
+        String csv = "categoria;sku;stock;precio;nombre\r\nGAMING;SUP-100;3;59,95;Mando inalámbrico\r\n";
+
+        // ACT
+        CatalogImportResult result = catalogImportService.importCsv(stream(csv));
+
+        // ASSERT
+        assertEquals(1, result.created());
+        assertEquals(59.95, ((Number) product("SUP-100").get("precio")).doubleValue());
+    }
+
+    @Test
+    @DisplayName("importCsv vuelve a dar de alta un producto dado de baja que llega en el fichero")
+    void importCsv_RevivesDeletedProduct() throws Exception {
+        // ARRANGE
+        productosRepository.save(Productos.builder()
+                .sku("SUP-200").nombre("Cámara descatalogada").precio(99.0).stock(0)
+                .category(Categoria.IMAGEN).deleted(true).build());
+        String csv = "sku,nombre,precio,stock,categoria\nSUP-200,Cámara de acción,129.00,8,IMAGEN\n";
+
+        // ACT
+        CatalogImportResult result = catalogImportService.importCsv(stream(csv));
+
+        // ASSERT
+        Map<String, Object> revived = product("SUP-200");
+        assertAll(
+                () -> assertEquals(1, result.updated()),
+                () -> assertEquals(Boolean.FALSE, revived.get("deleted")),
+                () -> assertEquals(8, ((Number) revived.get("stock")).intValue())
+        );
+    }
+
+    @Test
+    @DisplayName("importCsv rechaza con su línea la fila con una imagen demasiado larga, tanto nueva como existente")
+    void importCsv_ImageTooLong() throws Exception {
+        // ARRANGE
+        productosRepository.save(Productos.builder()
+                .sku("SUP-300").nombre("Teclado").precio(20.0).stock(2)
+                .category(Categoria.GAMING).imagen("/images/teclado.jpg").build());
+        String imagen = "/images/" + "a".repeat(250) + ".jpg";
+        String csv = "sku,nombre,precio,stock,categoria,imagen\n"
+                + "SUP-300,Teclado mecánico,45.00,5,GAMING," + imagen + "\n"
+                + "SUP-301,Ratón,15.00,5,GAMING," + imagen + "\n"
+                + "SUP-302,Alfombrilla,5.00,5,GAMING,\n";
+
+        // ACT
+        CatalogImportResult result = catalogImportService.importCsv(stream(csv));
+
+        // ASSERT
+        assertAll(
+                () -> assertEquals(1, result.created()),
+                () -> assertEquals(0, result.updated()),
+                () -> assertEquals(2, result.failed()),
+                () -> assertEquals(List.of(2L, 3L), result.errors().stream().map(CatalogImportError::line).toList()),
+                () -> assertTrue(result.errors().get(0).message().contains("imagen")),
+                () -> assertEquals("/images/teclado.jpg", product("SUP-300").get("imagen"))
+        );
+    }
+
+    @Test
+    @DisplayName("importCsv rechaza el fichero entero si faltan columnas obligatorias")
+    void importCsv_MissingColumns() {
+        // ACT & ASSERT
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> catalogImportService.importCsv(stream("sku,nombre\nSUP-1,Algo\n")));
+        assertTrue(e.getMessage().contains("precio, stock, categoria"));
+    }
+
+    private Map<String, Object> product(String sku) {
+        return jdbcTemplate.queryForMap("SELECT * FROM productos WHERE sku = ?", sku);
+    }
+
+    private static InputStream stream(String csv) {
+        return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,176 @@
+package srangeldev.mediadaw.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import srangeldev.mediadaw.config.CheckoutProperties;
+import srangeldev.mediadaw.dto.CheckoutTicketStatus;
+import srangeldev.mediadaw.dto.CheckoutTicketStatus.State;
+import srangeldev.mediadaw.exceptions.CheckoutBusyException;
+import srangeldev.mediadaw.exceptions.EmptyCartException;
+import srangeldev.mediadaw.models.EstadoPedido;
+import srangeldev.mediadaw.models.Venta;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para CheckoutAdmissionService.
+ * Se permite una sola compra a la vez para poder comprobar la cola de forma determinista.
+ */
+@ExtendWith(MockitoExtension.class)
+class CheckoutAdmissionServiceTest {
+
+    @Mock
+    private CheckoutService checkoutService;
+
+    private CheckoutAdmissionService admissionService;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        CheckoutProperties properties = new CheckoutProperties();
+        properties.getAdmission().setMaxConcurrent(1);
+        properties.getAdmission().setQueueCapacity(2);
+        properties.getAdmission().setFastPathWait(Duration.ofSeconds(2));
+
+        admissionService = new CheckoutAdmissionService(checkoutService, properties, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        admissionService.shutdown();
+    }
+
+    @Test
+    @DisplayName("submit procesa la compra enseguida cuando hay hueco")
+    void submit_RunsImmediately() {
+        // ARRANGE
+        when(checkoutService.checkout(1L)).thenReturn(venta(10L));
+
+        // ACT
+        String ticketId = admissionService.submit(1L, "user@test.com");
+        CheckoutTicketStatus status = admissionService.awaitFastPath(ticketId, "user@test.com").orElseThrow();
+
+        // ASSERT
+        assertEquals(State.COMPLETED, status.state());
+        assertEquals(10L, status.ventaId());
+        assertEquals(0, admissionService.activeCount());
+    }
+
+    @Test
+    @DisplayName("submit deja en cola las compras que superan el límite y las procesa en orden de llegada")
+    void submit_QueuesBeyondLimit() throws Exception {
+        // ARRANGE
+        CountDownLatch started = new CountDownLatch(1);
+        when(checkoutService.checkout(1L)).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return venta(10L);
+        });
+        when(checkoutService.checkout(2L)).thenReturn(venta(20L));
+
+        // ACT
+        String first = admissionService.submit(1L, "uno@test.com");
+        assertTrue(started.await(2, TimeUnit.SECONDS));
+        String second = admissionService.submit(2L, "dos@test.com");
+
+        // ASSERT
+        CheckoutTicketStatus queued = admissionService.status(second, "dos@test.com").orElseThrow();
+        assertEquals(State.QUEUED, queued.state());
+        assertEquals(1, queued.position());
+        assertEquals(1, admissionService.queueDepth());
+        assertEquals(State.RUNNING, admissionService.status(first, "uno@test.com").orElseThrow().state());
+
+        release.countDown();
+        assertEquals(State.COMPLETED, admissionService.awaitFastPath(second, "dos@test.com").orElseThrow().state());
+        verify(checkoutService, times(1)).checkout(2L);
+    }
+
+    @Test
+    @DisplayName("submit devuelve el mismo turno si el usuario ya tiene una compra en curso")
+    void submit_SameUserReusesTicket() throws Exception {
+        // ARRANGE
+        CountDownLatch started = new CountDownLatch(1);
+        when(checkoutService.checkout(1L)).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return venta(10L);
+        });
+
+        // ACT
+        String first = admissionService.submit(1L, "user@test.com");
+        assertTrue(started.await(2, TimeUnit.SECONDS));
+        String second = admissionService.submit(1L, "user@test.com");
+
+        // ASSERT
+        assertEquals(first, second);
+        release.countDown();
+        admissionService.awaitFastPath(first, "user@test.com");
+        verify(checkoutService, times(1)).checkout(1L);
+    }
+
+    @Test
+    @DisplayName("submit lanza CheckoutBusyException cuando la sala de espera está llena")
+    void submit_QueueFull() throws Exception {
+        // ARRANGE
+        CountDownLatch started = new CountDownLatch(1);
+        when(checkoutService.checkout(anyLong())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return venta(10L);
+        });
+
+        admissionService.submit(1L, "uno@test.com");
+        assertTrue(started.await(2, TimeUnit.SECONDS));
+        admissionService.submit(2L, "dos@test.com");
+        admissionService.submit(3L, "tres@test.com");
+
+        // ACT & ASSERT
+        assertThrows(CheckoutBusyException.class, () -> admissionService.submit(4L, "cuatro@test.com"));
+    }
+
+    @Test
+    @DisplayName("status marca el turno como fallido con el mensaje de la excepción de negocio")
+    void status_Failed() {
+        // ARRANGE
+        when(checkoutService.checkout(1L)).thenThrow(new EmptyCartException(1L));
+
+        // ACT
+        String ticketId = admissionService.submit(1L, "user@test.com");
+        CheckoutTicketStatus status = admissionService.awaitFastPath(ticketId, "user@test.com").orElseThrow();
+
+        // ASSERT
+        assertEquals(State.FAILED, status.state());
+        assertNotNull(status.message());
+    }
+
+    @Test
+    @DisplayName("status no muestra el turno a otro usuario")
+    void status_OtherUser() {
+        // ARRANGE
+        when(checkoutService.checkout(1L)).thenReturn(venta(10L));
+        String ticketId = admissionService.submit(1L, "user@test.com");
+        admissionService.awaitFastPath(ticketId, "user@test.com");
+
+        // ACT & ASSERT
+        assertTrue(admissionService.status(ticketId, "otro@test.com").isEmpty());
+        assertTrue(admissionService.status("no-existe", "user@test.com").isEmpty());
+    }
+
+    private static Venta venta(Long id) {
+        return Venta.builder().id(id).estado(EstadoPedido.PENDIENTE).total(100.0).build();
+    }
+}
@@ -0,0 +1,100 @@
+package srangeldev.mediadaw.services;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import srangeldev.mediadaw.exceptions.EmptyCartException;
+import srangeldev.mediadaw.models.EstadoPedido;
+import srangeldev.mediadaw.models.Venta;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para CheckoutService.
+ */
+@ExtendWith(MockitoExtension.class)
+class CheckoutServiceTest {
+
+    @Mock
+    private VentaService ventaService;
+
+    @Mock
+    private StockBatchCoordinator stockBatchCoordinator;
+
+    @InjectMocks
+    private CheckoutService checkoutService;
+
+    @Test
+    @DisplayName("checkout sin agrupación delega en createPurchaseFromCart")
+    void checkout_BatchingDisabled() {
+        // ARRANGE
+        Venta venta = Venta.builder().id(1L).estado(EstadoPedido.PENDIENTE).total(100.0).build();
+        when(stockBatchCoordinator.isEnabled()).thenReturn(false);
+        when(ventaService.createPurchaseFromCart(1L)).thenReturn(venta);
+
+        // ACT
+        Venta result = checkoutService.checkout(1L);
+
+        // ASSERT
+        assertEquals(venta, result);
+        verify(stockBatchCoordinator, never()).reserveAll(anyMap());
+    }
+
+    @Test
+    @DisplayName("checkout con agrupación reserva el stock y crea el pedido sin volver a descontarlo")
+    void checkout_BatchingEnabled() {
+        // ARRANGE
+        Map<Long, Integer> quantities = Map.of(10L, 2);
+        Venta venta = Venta.builder().id(1L).estado(EstadoPedido.PENDIENTE).total(100.0).build();
+
+        when(stockBatchCoordinator.isEnabled()).thenReturn(true);
+        when(ventaService.getCartQuantities(1L)).thenReturn(quantities);
+        when(stockBatchCoordinator.reserveAll(quantities)).thenReturn(quantities);
+        when(ventaService.createPurchaseFromReservedCart(1L, quantities)).thenReturn(venta);
+
+        // ACT
+        Venta result = checkoutService.checkout(1L);
+
+        // ASSERT
+        assertEquals(venta, result);
+        verify(ventaService, never()).createPurchaseFromCart(any());
+        verify(stockBatchCoordinator, never()).release(anyMap());
+    }
+
+    @Test
+    @DisplayName("checkout devuelve el stock reservado si falla la creación del pedido")
+    void checkout_ReleasesReservationOnFailure() {
+        // ARRANGE
+        Map<Long, Integer> quantities = Map.of(10L, 2);
+
+        when(stockBatchCoordinator.isEnabled()).thenReturn(true);
+        when(ventaService.getCartQuantities(1L)).thenReturn(quantities);
+        when(stockBatchCoordinator.reserveAll(quantities)).thenReturn(quantities);
+        when(ventaService.createPurchaseFromReservedCart(1L, quantities))
+                .thenThrow(new IllegalStateException("El carrito ha cambiado"));
+
+        // ACT & ASSERT
+        assertThrows(IllegalStateException.class, () -> checkoutService.checkout(1L));
+        verify(stockBatchCoordinator, times(1)).release(quantities);
+    }
+
+    @Test
+    @DisplayName("checkout con agrupación lanza EmptyCartException si el carrito está vacío")
+    void checkout_EmptyCart() {
+        // ARRANGE
+        when(stockBatchCoordinator.isEnabled()).thenReturn(true);
+        when(ventaService.getCartQuantities(1L)).thenReturn(Map.of());
+
+        // ACT & ASSERT
+        assertThrows(EmptyCartException.class, () -> checkoutService.checkout(1L));
+        verify(stockBatchCoordinator, never()).reserveAll(anyMap());
+    }
+}
@@ -0,0 +1,98 @@
+package srangeldev.mediadaw.services;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import srangeldev.mediadaw.dto.DashboardSnapshot;
+import srangeldev.mediadaw.models.Categoria;
+import srangeldev.mediadaw.models.Productos;
+import srangeldev.mediadaw.repositories.ProductosRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test de regresión del panel de administración contra la BD en memoria.
+ * Fija cuántas filas lee el panel: no debe depender del tamaño del catálogo.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "mediadaw.dashboard.snapshot-ttl=0s"
+})
+class DashboardQueryVolumeTest {
+
+    private static final int SEEDED_PRODUCTS = 500;
+
+    /**
+     * Filas que puede leer el panel de 30 días: los recuentos, un día agregado por fila
+     * y una fila por categoría (el poco stock sale de memoria)
+     */
+    private static final long MAX_ROWS = 6 + 30 + Categoria.values().length;
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private ProductosRepository productosRepository;
+
+    @Autowired
+    private LowStockAlertService lowStockAlertService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<Productos> seeded = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < SEEDED_PRODUCTS; i++) {
+            seeded.add(Productos.builder()
+                    .nombre("Producto de carga " + i)
+                    .precio(10.0)
+                    .stock(i % 10)
+                    .category(Categoria.AUDIO)
+                    .build());
+        }
+        productosRepository.saveAll(seeded);
+        // Se guardan sin pasar por ProductosService: el conjunto de poco stock se recalcula a mano
+        lowStockAlertService.resync();
+    }
+
+    @AfterEach
+    void tearDown() {
+        productosRepository.deleteAll(seeded);
+        lowStockAlertService.resync();
+    }
+
+    @Test
+    @DisplayName("El panel usa recuentos y el conjunto de poco stock: no carga entidades ni lee el catálogo")
+    void getSnapshot_BoundedRowFetch() {
+        // ARRANGE
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // ACT
+        DashboardSnapshot snapshot = dashboardService.getSnapshot(30);
+
+        // ASSERT
+        long rowsRead = Arrays.stream(statistics.getQueries())
+                .mapToLong(query -> statistics.getQueryStatistics(query).getExecutionRowCount())
+                .sum();
+        assertAll(
+                () -> assertFalse(snapshot.isPartial()),
+                () -> assertTrue(snapshot.lowStockCount() >= SEEDED_PRODUCTS),
+                () -> assertEquals(DashboardService.LOW_STOCK_TOP, snapshot.lowStockProducts().size()),
+                () -> assertEquals(0, statistics.getEntityLoadCount(), "El panel ha cargado entidades"),
+                () -> assertTrue(rowsRead <= MAX_ROWS, "El panel ha leído " + rowsRead + " filas")
+        );
+    }
+}
@@ -0,0 +1,213 @@
+package srangeldev.mediadaw.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import srangeldev.mediadaw.config.DashboardProperties;
+import srangeldev.mediadaw.dto.DashboardSnapshot;
+import srangeldev.mediadaw.dto.LowStockProduct;
+import srangeldev.mediadaw.dto.SalesTotals;
+import srangeldev.mediadaw.models.Categoria;
+import srangeldev.mediadaw.models.EstadoPedido;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para DashboardService.
+ */
+@ExtendWith(MockitoExtension.class)
+class DashboardServiceTest {
+
+    @Mock
+    private ProductosService productosService;
+
+    @Mock
+    private VentaService ventaService;
+
+    @Mock
+    private SalesRollupService salesRollupService;
+
+    @Mock
+    private LowStockAlertService lowStockAlertService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private DashboardService dashboardService;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        DashboardProperties properties = new DashboardProperties();
+        properties.setMetricTimeout(Duration.ofMillis(300));
+        properties.setSnapshotTtl(Duration.ofMinutes(1));
+
+        dashboardService = new DashboardService(productosService, ventaService, salesRollupService,
+                lowStockAlertService, properties, transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        dashboardService.shutdown();
+    }
+
+    @Test
+    @DisplayName("getSnapshot reúne todas las métricas")
+    void getSnapshot() {
+        // ARRANGE
+        LowStockProduct producto = new LowStockProduct(1L, "PS5", 2, Categoria.GAMING);
+        when(productosService.countProducts()).thenReturn(3L);
+        when(lowStockAlertService.getLowStockCount()).thenReturn(25L);
+        when(lowStockAlertService.getLowStockTop(DashboardService.LOW_STOCK_TOP)).thenReturn(List.of(producto));
+        when(ventaService.getSalesTotalsByStatus()).thenReturn(salesTotals(4L, 1500.0));
+        when(salesRollupService.getDailySales(7)).thenReturn(List.of());
+        when(salesRollupService.getSalesByCategory(7)).thenReturn(List.of());
+
+        // ACT
+        DashboardSnapshot snapshot = dashboardService.getSnapshot(7);
+
+        // ASSERT
+        assertAll(
+                () -> assertEquals(3L, snapshot.totalProducts()),
+                () -> assertEquals(25L, snapshot.lowStockCount()),
+                () -> assertEquals(List.of(producto), snapshot.lowStockProducts()),
+                () -> assertEquals(4L, snapshot.pendingOrders()),
+                () -> assertEquals(1500.0, snapshot.totalRevenue()),
+                () -> assertEquals(7, snapshot.salesDays()),
+                () -> assertFalse(snapshot.isPartial())
+        );
+        // Pendientes e ingresos salen de una sola lectura de los contadores
+        verify(ventaService, times(1)).getSalesTotalsByStatus();
+        verify(ventaService, never()).countByStatus(any());
+        verify(ventaService, never()).calculateTotalRevenue();
+    }
+
+    @Test
+    @DisplayName("getSnapshot muestra el resto del panel si una métrica falla")
+    void getSnapshot_PartialOnFailure() {
+        // ARRANGE
+        stubAllMetrics();
+        when(ventaService.getSalesTotalsByStatus()).thenThrow(new RuntimeException("BD caída"));
+
+        // ACT
+        DashboardSnapshot snapshot = dashboardService.getSnapshot(30);
+
+        // ASSERT
+        assertAll(
+                () -> assertNull(snapshot.totalRevenue()),
+                () -> assertNull(snapshot.pendingOrders()),
+                () -> assertEquals(Set.of("pendingOrders", "totalRevenue"), snapshot.unavailable()),
+                () -> assertEquals(0L, snapshot.totalProducts())
+        );
+    }
+
+    @Test
+    @DisplayName("getSnapshot no espera más del tiempo máximo a una métrica lenta")
+    void getSnapshot_PartialOnTimeout() {
+        // ARRANGE
+        stubAllMetrics();
+        when(ventaService.getSalesTotalsByStatus()).thenAnswer(invocation -> {
+            release.await();
+            return salesTotals(0L, 1500.0);
+        });
+
+        // ACT
+        long start = System.nanoTime();
+        DashboardSnapshot snapshot = dashboardService.getSnapshot(30);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // ASSERT
+        assertTrue(elapsedMillis < 2_000, "El panel ha esperado a la métrica lenta: " + elapsedMillis + " ms");
+        assertEquals(Set.of("pendingOrders", "totalRevenue"), snapshot.unavailable());
+        assertEquals(0L, snapshot.totalProducts());
+    }
+
+    @Test
+    @DisplayName("getSnapshot reutiliza el panel calculado mientras no caduque")
+    void getSnapshot_Cached() {
+        // ARRANGE
+        stubAllMetrics();
+
+        // ACT
+        DashboardSnapshot first = dashboardService.getSnapshot(30);
+        DashboardSnapshot second = dashboardService.getSnapshot(30);
+
+        // ASSERT
+        assertSame(first, second);
+        verify(ventaService, times(1)).getSalesTotalsByStatus();
+        verify(productosService, times(1)).countProducts();
+    }
+
+    @Test
+    @DisplayName("getSnapshot no reutiliza un panel al que le falta una métrica")
+    void getSnapshot_PartialNotCached() {
+        // ARRANGE
+        stubAllMetrics();
+        when(ventaService.getSalesTotalsByStatus())
+                .thenThrow(new RuntimeException("Consulta cancelada"))
+                .thenReturn(salesTotals(0L, 1500.0));
+
+        // ACT
+        DashboardSnapshot first = dashboardService.getSnapshot(30);
+        DashboardSnapshot second = dashboardService.getSnapshot(30);
+
+        // ASSERT
+        assertAll(
+                () -> assertTrue(first.isPartial()),
+                () -> assertFalse(second.isPartial()),
+                () -> assertEquals(1500.0, second.totalRevenue())
+        );
+    }
+
+    @Test
+    @DisplayName("getSnapshot lee el poco stock del conjunto en memoria, sin consultar productos")
+    void getSnapshot_LowStockFromLiveSet() {
+        // ARRANGE
+        stubAllMetrics();
+
+        // ACT
+        dashboardService.getSnapshot(30);
+
+        // ASSERT
+        verify(productosService, never()).getAllProducts();
+        verify(productosService, never()).getLowStockProducts(anyInt());
+        verify(lowStockAlertService).getLowStockTop(DashboardService.LOW_STOCK_TOP);
+    }
+
+    private void stubAllMetrics() {
+        lenient().when(productosService.countProducts()).thenReturn(0L);
+        lenient().when(lowStockAlertService.getLowStockCount()).thenReturn(0L);
+        lenient().when(lowStockAlertService.getLowStockTop(anyInt())).thenReturn(List.of());
+        lenient().when(ventaService.getSalesTotalsByStatus()).thenReturn(salesTotals(0L, 1500.0));
+        lenient().when(salesRollupService.getDailySales(anyInt())).thenReturn(List.of());
+        lenient().when(salesRollupService.getSalesByCategory(anyInt())).thenReturn(List.of());
+    }
+
+    /**
+     * Totales por estado con los pedidos pendientes y los ingresos indicados (más un cancelado que no cuenta)
+     */
+    private static Map<EstadoPedido, SalesTotals> salesTotals(long pending, double revenue) {
+        Map<EstadoPedido, SalesTotals> totals = new EnumMap<>(EstadoPedido.class);
+        for (EstadoPedido estado : EstadoPedido.values()) {
+            totals.put(estado, SalesTotals.empty(estado));
+        }
+        totals.put(EstadoPedido.PENDIENTE, new SalesTotals(EstadoPedido.PENDIENTE, pending, revenue));
+        totals.put(EstadoPedido.CANCELADO, new SalesTotals(EstadoPedido.CANCELADO, 3L, 99.0));
+        return totals;
+    }
+}
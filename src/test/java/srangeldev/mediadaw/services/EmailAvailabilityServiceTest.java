@@ -0,0 +1,151 @@
+package srangeldev.mediadaw.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import srangeldev.mediadaw.config.EmailFilterProperties;
+import srangeldev.mediadaw.events.UserRegisteredEvent;
+import srangeldev.mediadaw.repositories.UserRepository;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para EmailAvailabilityService.
+ */
+@ExtendWith(MockitoExtension.class)
+class EmailAvailabilityServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private EmailAvailabilityService service;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        service = new EmailAvailabilityService(userRepository, new EmailFilterProperties(), meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Un email que no está en el filtro sale libre sin consultar la BD")
+    void isAvailable_NotInFilter_NoDatabase() {
+        // ARRANGE
+        when(userRepository.count()).thenReturn(2L);
+        when(userRepository.streamAllEmails()).thenReturn(Stream.of("admin@mediadaw.com", "cliente@mediadaw.com"));
+        service.rebuild();
+
+        // ACT
+        boolean available = service.isAvailable("nuevo@mediadaw.com");
+
+        // ASSERT
+        assertTrue(available);
+        verify(userRepository, never()).existsByEmail(any());
+        assertEquals(1.0, meterRegistry.get("mediadaw.registration.email_probe").tag("source", "filter").counter().count());
+    }
+
+    @Test
+    @DisplayName("Un email que está en el filtro se confirma en la BD, sin distinguir mayúsculas en el filtro")
+    void isAvailable_InFilter_ChecksDatabase() {
+        // ARRANGE
+        when(userRepository.count()).thenReturn(1L);
+        when(userRepository.streamAllEmails()).thenReturn(Stream.of("Admin@MediaDaw.com"));
+        when(userRepository.existsByEmail("admin@mediadaw.com")).thenReturn(false);
+        when(userRepository.existsByEmail("Admin@MediaDaw.com")).thenReturn(true);
+        service.rebuild();
+
+        // ACT & ASSERT
+        assertAll(
+                () -> assertTrue(service.isAvailable(" admin@mediadaw.com ")),
+                () -> assertFalse(service.isAvailable("Admin@MediaDaw.com"))
+        );
+        assertEquals(2.0, meterRegistry.get("mediadaw.registration.email_probe").tag("source", "database").counter().count());
+    }
+
+    @Test
+    @DisplayName("Antes de la primera reconstrucción todas las comprobaciones van a la BD")
+    void isAvailable_BeforeRebuild_UsesDatabase() {
+        // ARRANGE
+        when(userRepository.existsByEmail("nuevo@mediadaw.com")).thenReturn(false);
+
+        // ACT & ASSERT
+        assertTrue(service.isAvailable("nuevo@mediadaw.com"));
+        verify(userRepository).existsByEmail("nuevo@mediadaw.com");
+    }
+
+    @Test
+    @DisplayName("Un registro confirmado entra en el filtro sin esperar a la reconstrucción")
+    void onUserRegistered_AddsToFilter() {
+        // ARRANGE
+        when(userRepository.count()).thenReturn(0L);
+        when(userRepository.streamAllEmails()).thenReturn(Stream.empty());
+        when(userRepository.existsByEmail("nuevo@mediadaw.com")).thenReturn(true);
+        service.rebuild();
+
+        // ACT
+        service.onUserRegistered(new UserRegisteredEvent(5L, "nuevo@mediadaw.com"));
+
+        // ASSERT
+        assertFalse(service.isAvailable("nuevo@mediadaw.com"));
+        verify(userRepository).existsByEmail("nuevo@mediadaw.com");
+    }
+
+    @Test
+    @DisplayName("Un registro confirmado mientras se reconstruye el filtro no se pierde")
+    void onUserRegistered_DuringRebuild_KeptInNewFilter() {
+        // ARRANGE: el registro llega mientras se leen los emails
+        when(userRepository.count()).thenReturn(1L);
+        when(userRepository.streamAllEmails()).thenAnswer(invocation -> Stream.of("admin@mediadaw.com")
+                .peek(email -> service.onUserRegistered(new UserRegisteredEvent(9L, "durante@mediadaw.com"))));
+        when(userRepository.existsByEmail("durante@mediadaw.com")).thenReturn(true);
+
+        // ACT
+        service.rebuild();
+
+        // ASSERT
+        assertFalse(service.isAvailable("durante@mediadaw.com"));
+    }
+
+    @Test
+    @DisplayName("Un registro confirmado no sale libre aunque una reconstrucción termine a la vez")
+    void onUserRegistered_ConcurrentRebuilds_NeverAvailable() {
+        // ARRANGE: cada reconstrucción lee los emails confirmados al empezar, como una consulta real
+        Queue<String> committed = new ConcurrentLinkedQueue<>();
+        when(userRepository.count()).thenAnswer(invocation -> (long) committed.size());
+        when(userRepository.streamAllEmails()).thenAnswer(invocation -> List.copyOf(committed).stream());
+        when(userRepository.existsByEmail(any())).thenReturn(true);
+        service.rebuild();
+        AtomicBoolean registering = new AtomicBoolean(true);
+        CompletableFuture<Void> rebuilds = CompletableFuture.runAsync(() -> {
+            while (registering.get()) {
+                service.rebuild();
+            }
+        });
+
+        // ACT & ASSERT
+        try {
+            for (int i = 0; i < 20_000; i++) {
+                String email = "usuario" + i + "@mediadaw.com";
+                committed.add(email);
+                service.onUserRegistered(new UserRegisteredEvent((long) i, email));
+                assertFalse(service.isAvailable(email), email);
+            }
+        } finally {
+            registering.set(false);
+            rebuilds.join();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package srangeldev.mediadaw.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import srangeldev.mediadaw.dto.ExportFormat;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Prueba de carga: exportar un millón de pedidos con el heap limitado (loadTest arranca la JVM con 256 MB).
+ * La BD es H2 en fichero y con ejecución perezosa, para que ni los datos ni el resultado vivan en el heap
+ * y lo que se mida sea la exportación. Se ejecuta con ./gradlew loadTest.
+ */
+@Tag("load")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:file:./build/tmp/export-load-test/mediadaw;LAZY_QUERY_EXECUTION=TRUE",
+        "spring.jpa.show-sql=false",
+        "logging.level.srangeldev.mediadaw=INFO"
+})
+class ExportLoadTest {
+
+    private static final int ORDERS = 1_000_000;
+    private static final int INSERT_CHUNK = 100_000;
+    private static final long MAX_HEAP = 256L * 1024 * 1024;
+    /** Lo que puede crecer la generación vieja durante la exportación, como fracción del heap máximo */
+    private static final double MAX_RETAINED_FRACTION = 0.25;
+
+    private static final Logger log = LoggerFactory.getLogger(ExportLoadTest.class);
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM ventas WHERE id <= ?", ORDERS);
+    }
+
+    @Test
+    @DisplayName("Un millón de pedidos se exporta en CSV con memoria constante")
+    void exportMillionOrders() throws Exception {
+        assertTrue(Runtime.getRuntime().maxMemory() <= MAX_HEAP,
+                "La prueba tiene sentido con el heap limitado: ejecutarla con ./gradlew loadTest");
+
+        // ARRANGE: pedidos sintéticos de enero de 2020 (un segundo entre cada uno), fuera del periodo de DataLoader
+        Long userId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM users", Long.class);
+        for (int first = 1; first <= ORDERS; first += INSERT_CHUNK) {
+            jdbcTemplate.update("""
+                    INSERT INTO ventas (id, fecha_compra, total, estado, user_id)
+                    SELECT X, DATEADD(SECOND, X, TIMESTAMP '2020-01-01 00:00:00'), MOD(X, 1000) + 0.99, 'ENTREGADO', ?
+                    FROM SYSTEM_RANGE(?, ?)
+                    """, userId, first, first + INSERT_CHUNK - 1);
+        }
+        System.gc();
+        long retainedBefore = oldGenUsage();
+        resetPeakUsage();
+
+        // ACT
+        CountingOutputStream out = new CountingOutputStream();
+        long start = System.nanoTime();
+        long rows = exportService.exportOrders(LocalDate.of(2020, 1, 1), LocalDate.of(2020, 1, 31), ExportFormat.CSV, out);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        // ASSERT
+        long maxHeap = Runtime.getRuntime().maxMemory();
+        long retainedGrowth = oldGenPeakUsage() - retainedBefore;
+        log.info("Exportación: {} filas, {} MB en {} ms; la generación vieja creció {} MB (heap máximo {} MB)",
+                rows, out.bytes / (1024 * 1024), millis, retainedGrowth / (1024 * 1024), maxHeap / (1024 * 1024));
+        assertAll(
+                () -> assertEquals(ORDERS, rows),
+                () -> assertEquals(ORDERS + 1, out.lines),
+                // Lo que sobrevive a las recolecciones no depende del número de filas: nada se acumula
+                () -> assertTrue(retainedGrowth < maxHeap * MAX_RETAINED_FRACTION,
+                        "La exportación retiene memoria: la generación vieja creció "
+                                + retainedGrowth / (1024 * 1024) + " MB")
+        );
+    }
+
+    private static void resetPeakUsage() {
+        ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .forEach(MemoryPoolMXBean::resetPeakUsage);
+    }
+
+    /**
+     * Generación vieja (la que crece si se retienen filas); con G1, Parallel o Serial
+     */
+    private static Stream<MemoryPoolMXBean> oldGenPools() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .filter(pool -> pool.getName().contains("Old") || pool.getName().contains("Tenured"));
+    }
+
+    private static long oldGenUsage() {
+        return oldGenPools().mapToLong(pool -> pool.getUsage().getUsed()).sum();
+    }
+
+    private static long oldGenPeakUsage() {
+        return oldGenPools().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+    }
+
+    /**
+     * Salida que descarta los datos y solo cuenta bytes y líneas
+     */
+    private static final class CountingOutputStream extends OutputStream {
+        private long bytes;
+        private long lines;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') {
+                    lines++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package srangeldev.mediadaw.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import srangeldev.mediadaw.dto.ExportFormat;
+import srangeldev.mediadaw.dto.OrderExportRow;
+import srangeldev.mediadaw.dto.OrderLineExportRow;
+import srangeldev.mediadaw.dto.ProductExportRow;
+import srangeldev.mediadaw.models.Categoria;
+import srangeldev.mediadaw.models.EstadoPedido;
+import srangeldev.mediadaw.repositories.LineaVentaRepository;
+import srangeldev.mediadaw.repositories.ProductosRepository;
+import srangeldev.mediadaw.repositories.VentaRepository;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para ExportService.
+ */
+@ExtendWith(MockitoExtension.class)
+class ExportServiceTest {
+
+    @Mock
+    private VentaRepository ventaRepository;
+
+    @Mock
+    private LineaVentaRepository lineaVentaRepository;
+
+    @Mock
+    private ProductosRepository productosRepository;
+
+    private ExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        exportService = new ExportService(ventaRepository, lineaVentaRepository, productosRepository, objectMapper);
+    }
+
+    @Test
+    @DisplayName("exportOrders en CSV escribe la cabecera, una línea por pedido y cierra el Stream de la consulta")
+    void exportOrders_Csv() throws Exception {
+        // ARRANGE
+        AtomicBoolean closed = new AtomicBoolean();
+        LocalDateTime fecha = LocalDateTime.of(2024, 3, 1, 10, 30);
+        when(ventaRepository.streamForExport(LocalDate.of(2024, 3, 1).atStartOfDay(), LocalDate.of(2024, 4, 1).atStartOfDay()))
+                .thenReturn(Stream.of(
+                        new OrderExportRow(1L, fecha, EstadoPedido.ENVIADO, 12_500_000.5, "ana@test.com"),
+                        new OrderExportRow(2L, fecha, EstadoPedido.PENDIENTE, 9.99, null))
+                        .onClose(() -> closed.set(true)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // ACT
+        long count = exportService.exportOrders(LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 31), ExportFormat.CSV, out);
+
+        // ASSERT
+        assertEquals(2, count);
+        assertEquals("""
+                id,fechaCompra,estado,total,customerEmail\r
+                1,2024-03-01T10:30:00,ENVIADO,12500000.5,ana@test.com\r
+                2,2024-03-01T10:30:00,PENDIENTE,9.99,\r
+                """, out.toString(StandardCharsets.UTF_8));
+        assertTrue(closed.get());
+    }
+
+    @Test
+    @DisplayName("exportProducts sin fechas no limita el periodo y en JSON escribe un array de objetos")
+    void exportProducts_Json() throws Exception {
+        // ARRANGE
+        LocalDateTime alta = LocalDateTime.of(2024, 1, 15, 9, 0);
+        when(productosRepository.streamForExport(VentaService.OPEN_FROM, VentaService.OPEN_TO))
+                .thenReturn(Stream.of(new ProductExportRow(7L, "Auriculares", Categoria.AUDIO, 59.9, 3, false, alta)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // ACT
+        long count = exportService.exportProducts(null, null, ExportFormat.JSON, out);
+
+        // ASSERT
+        JsonNode json = new ObjectMapper().readTree(out.toByteArray());
+        assertAll(
+                () -> assertEquals(1, count),
+                () -> assertTrue(json.isArray()),
+                () -> assertEquals(7L, json.get(0).get("id").asLong()),
+                () -> assertEquals("AUDIO", json.get(0).get("categoria").asText()),
+                () -> assertEquals("2024-01-15T09:00:00", json.get(0).get("fechaAlta").asText()),
+                () -> assertFalse(json.get(0).has("values"))
+        );
+    }
+
+    @Test
+    @DisplayName("exportOrderLines en JSON escribe los IDs de 64 bits como texto para no perder precisión")
+    void exportOrderLines_Json_IdsAsText() throws Exception {
+        // ARRANGE
+        LocalDateTime fecha = LocalDateTime.of(2024, 3, 1, 10, 30);
+        when(lineaVentaRepository.streamForExport(VentaService.OPEN_FROM, VentaService.OPEN_TO))
+                .thenReturn(Stream.of(new OrderLineExportRow(9007199254740993L, 9007199254740995L, fecha,
+                        EstadoPedido.ENVIADO, 7L, "Auriculares", 2, 59.9, 119.8)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // ACT
+        exportService.exportOrderLines(null, null, ExportFormat.JSON, out);
+
+        // ASSERT
+        JsonNode line = new ObjectMapper().readTree(out.toByteArray()).get(0);
+        assertAll(
+                () -> assertTrue(line.get("id").isTextual()),
+                () -> assertEquals("9007199254740993", line.get("id").asText()),
+                () -> assertEquals("9007199254740995", line.get("orderId").asText()),
+                () -> assertTrue(line.get("productId").isNumber())
+        );
+    }
+
+    @Test
+    @DisplayName("csvValue entrecomilla los valores con comas, comillas o saltos de línea")
+    void csvValue_Escaping() {
+        assertAll(
+                () -> assertEquals("", ExportService.csvValue(null)),
+                () -> assertEquals("Auriculares", ExportService.csvValue("Auriculares")),
+                () -> assertEquals("\"TV 55\"\" 4K\"", ExportService.csvValue("TV 55\" 4K")),
+                () -> assertEquals("\"Negro, 128 GB\"", ExportService.csvValue("Negro, 128 GB")),
+                () -> assertEquals("\"línea 1\nlínea 2\"", ExportService.csvValue("línea 1\nlínea 2")),
+                () -> assertEquals("0.1", ExportService.csvValue(0.1))
+        );
+    }
+
+    @Test
+    @DisplayName("csvValue neutraliza los textos que una hoja de cálculo ejecutaría como fórmula")
+    void csvValue_FormulaInjection() {
+        assertAll(
+                () -> assertEquals("\"'=HYPERLINK(\"\"http://x\"\")\"",
+                        ExportService.csvValue("=HYPERLINK(\"http://x\")")),
+                () -> assertEquals("'+34 600", ExportService.csvValue("+34 600")),
+                () -> assertEquals("'-1+1", ExportService.csvValue("-1+1")),
+                () -> assertEquals("'@SUM(A1)", ExportService.csvValue("@SUM(A1)")),
+                () -> assertEquals("'\tcmd", ExportService.csvValue("\tcmd")),
+                () -> assertEquals("\"'\rcmd\"", ExportService.csvValue("\rcmd")),
+                () -> assertEquals("\"'=1,2\"", ExportService.csvValue("=1,2")),
+                () -> assertEquals("ana@test.com", ExportService.csvValue("ana@test.com")),
+                // Los números negativos no son texto: se escriben tal cual
+                () -> assertEquals("-5.5", ExportService.csvValue(-5.5))
+        );
+    }
+}
@@ -0,0 +1,112 @@
+package srangeldev.mediadaw.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import srangeldev.mediadaw.config.StockAlertProperties;
+import srangeldev.mediadaw.dto.LowStockProduct;
+import srangeldev.mediadaw.dto.StockLevel;
+import srangeldev.mediadaw.events.StockChangedEvent;
+import srangeldev.mediadaw.models.Categoria;
+import srangeldev.mediadaw.repositories.ProductosRepository;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para LowStockAlertService.
+ */
+@ExtendWith(MockitoExtension.class)
+class LowStockAlertServiceTest {
+
+    @Mock
+    private ProductosRepository productosRepository;
+
+    @Mock
+    private StockAlertNotifier notifier;
+
+    private LowStockAlertService lowStockAlertService;
+
+    @BeforeEach
+    void setUp() {
+        StockAlertProperties properties = new StockAlertProperties();
+        properties.setDefaultThreshold(10);
+        properties.getCategoryThresholds().put(Categoria.LAPTOPS, 3);
+        lowStockAlertService = new LowStockAlertService(productosRepository, properties, notifier);
+    }
+
+    @Test
+    @DisplayName("thresholdFor usa el umbral del producto, si no el de su categoría y si no el general")
+    void thresholdFor() {
+        assertAll(
+                () -> assertEquals(25, lowStockAlertService.thresholdFor(level(1L, 0, Categoria.AUDIO, 25))),
+                () -> assertEquals(3, lowStockAlertService.thresholdFor(level(2L, 0, Categoria.LAPTOPS, null))),
+                () -> assertEquals(10, lowStockAlertService.thresholdFor(level(3L, 0, Categoria.AUDIO, null)))
+        );
+    }
+
+    @Test
+    @DisplayName("onStockChanged añade al conjunto y avisa solo de los productos que acaban de bajar del umbral")
+    void onStockChanged_NotifiesOnlyOnEntry() {
+        // ARRANGE
+        when(productosRepository.findStockLevels(Set.of(1L, 2L))).thenReturn(List.of(
+                level(1L, 4, Categoria.AUDIO, null),
+                level(2L, 4, Categoria.LAPTOPS, null)));
+
+        // ACT
+        lowStockAlertService.onStockChanged(new StockChangedEvent(Set.of(1L, 2L)));
+        lowStockAlertService.onStockChanged(new StockChangedEvent(Set.of(1L, 2L)));
+
+        // ASSERT
+        assertTrue(lowStockAlertService.isLowStock(1L));
+        assertFalse(lowStockAlertService.isLowStock(2L));
+        verify(notifier, times(1)).notifyLowStock(List.of(new LowStockProduct(1L, "Producto 1", 4, Categoria.AUDIO)));
+        verify(notifier, times(1)).notifyLowStock(List.of());
+    }
+
+    @Test
+    @DisplayName("onStockChanged saca del conjunto los productos repuestos o eliminados")
+    void onStockChanged_RemovesRestocked() {
+        // ARRANGE
+        when(productosRepository.findStockLevels(Set.of(1L)))
+                .thenReturn(List.of(level(1L, 2, Categoria.AUDIO, null)))
+                .thenReturn(List.of(level(1L, 50, Categoria.AUDIO, null)));
+        lowStockAlertService.onStockChanged(new StockChangedEvent(Set.of(1L)));
+
+        // ACT
+        lowStockAlertService.onStockChanged(new StockChangedEvent(Set.of(1L)));
+
+        // ASSERT
+        assertEquals(0, lowStockAlertService.getLowStockCount());
+    }
+
+    @Test
+    @DisplayName("resync recalcula el conjunto entero sin avisar y getLowStockTop ordena de menos a más stock")
+    void resync() {
+        // ARRANGE
+        when(productosRepository.findStockLevelsBelow(10)).thenReturn(List.of(
+                level(1L, 7, Categoria.AUDIO, null),
+                level(2L, 5, Categoria.LAPTOPS, null),
+                level(3L, 1, Categoria.GAMING, null),
+                level(4L, 12, Categoria.GAMING, 20)));
+
+        // ACT
+        lowStockAlertService.resync();
+
+        // ASSERT
+        assertEquals(3, lowStockAlertService.getLowStockCount());
+        assertEquals(List.of(3L, 1L), lowStockAlertService.getLowStockTop(2).stream()
+                .map(LowStockProduct::id).toList());
+        verifyNoInteractions(notifier);
+    }
+
+    private static StockLevel level(Long id, int stock, Categoria categoria, Integer threshold) {
+        return new StockLevel(id, "Producto " + id, stock, categoria, threshold, false);
+    }
+}
@@ -0,0 +1,245 @@
+package srangeldev.mediadaw.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import srangeldev.mediadaw.config.PersonalDataExportProperties;
+import srangeldev.mediadaw.dto.PersonalDataExportJob;
+import srangeldev.mediadaw.dto.PersonalDataOrderLineRow;
+import srangeldev.mediadaw.models.Carrito;
+import srangeldev.mediadaw.models.Categoria;
+import srangeldev.mediadaw.models.EstadoPedido;
+import srangeldev.mediadaw.models.LineaCarrito;
+import srangeldev.mediadaw.models.Productos;
+import srangeldev.mediadaw.models.Role;
+import srangeldev.mediadaw.models.User;
+import srangeldev.mediadaw.repositories.CarritoRepository;
+import srangeldev.mediadaw.repositories.UserRepository;
+import srangeldev.mediadaw.repositories.VentaRepository;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para PersonalDataExportService.
+ */
+@ExtendWith(MockitoExtension.class)
+class PersonalDataExportServiceTest {
+
+    private static final LocalDateTime FECHA = LocalDateTime.of(2024, 3, 1, 10, 30);
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private CarritoRepository carritoRepository;
+
+    @Mock
+    private VentaRepository ventaRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path storageDir;
+
+    private ObjectMapper objectMapper;
+    private PersonalDataExportProperties properties;
+    private PersonalDataExportService service;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        properties = new PersonalDataExportProperties();
+        properties.setStorageDir(storageDir);
+        properties.setAsyncThresholdOrders(1000);
+        service = new PersonalDataExportService(userRepository, carritoRepository, ventaRepository, objectMapper,
+                properties, transactionManager);
+
+        user = User.builder()
+                .id(1L)
+                .nombre("Ana")
+                .apellidos("García")
+                .email("ana@test.com")
+                .password("$2a$10$hash")
+                .role(Role.USER)
+                .fechaAlta(FECHA)
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    @DisplayName("export escribe perfil sin contraseña, carrito y pedidos con sus líneas agrupadas, y cierra el Stream")
+    void export_WritesProfileCartAndOrders() throws Exception {
+        // ARRANGE
+        AtomicBoolean closed = new AtomicBoolean();
+        stubUserAndCart();
+        when(ventaRepository.streamPersonalData(1L)).thenReturn(Stream.of(
+                        new PersonalDataOrderLineRow(10L, FECHA, EstadoPedido.ENVIADO, 35.0,
+                                100L, 5L, "SKU-5", "Cable XLR", Categoria.AUDIO, 2, 10.0),
+                        new PersonalDataOrderLineRow(10L, FECHA, EstadoPedido.ENVIADO, 35.0,
+                                101L, 6L, null, "Pie de micro", Categoria.INSTRUMENTOS, 1, 15.0),
+                        new PersonalDataOrderLineRow(11L, FECHA, EstadoPedido.CANCELADO, 0.0,
+                                null, null, null, null, null, null, null))
+                .onClose(() -> closed.set(true)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // ACT
+        long orders = service.export(1L, out);
+
+        // ASSERT
+        assertEquals(2, orders);
+        assertTrue(closed.get());
+        JsonNode json = objectMapper.readTree(out.toByteArray());
+        assertEquals("ana@test.com", json.at("/perfil/email").asText());
+        assertTrue(json.at("/perfil/password").isMissingNode());
+        assertEquals("2024-03-01T10:30:00", json.at("/perfil/fechaAlta").asText());
+        assertEquals(1, json.get("carrito").size());
+        assertEquals(3, json.at("/carrito/0/cantidad").asInt());
+        assertEquals(2, json.get("pedidos").size());
+        assertEquals("10", json.at("/pedidos/0/id").textValue());
+        assertEquals(2, json.at("/pedidos/0/lineas").size());
+        assertEquals("100", json.at("/pedidos/0/lineas/0/id").textValue());
+        assertEquals(20.0, json.at("/pedidos/0/lineas/0/subtotal").asDouble());
+        assertEquals("INSTRUMENTOS", json.at("/pedidos/0/lineas/1/categoria").asText());
+        assertEquals("CANCELADO", json.at("/pedidos/1/estado").asText());
+        assertEquals(0, json.at("/pedidos/1/lineas").size());
+    }
+
+    @Test
+    @DisplayName("isLarge compara el número de pedidos con async-threshold-orders")
+    void isLarge_UsesThreshold() {
+        // ARRANGE
+        when(ventaRepository.countByUserId(1L)).thenReturn(1000L, 1001L);
+
+        // ACT & ASSERT
+        assertFalse(service.isLarge(1L));
+        assertTrue(service.isLarge(1L));
+    }
+
+    @Test
+    @DisplayName("requestExport prepara un .json.gz en segundo plano que solo puede descargar quien lo pidió")
+    void requestExport_WritesArtifactForRequester() throws Exception {
+        // ARRANGE
+        stubUserAndCart();
+        when(ventaRepository.streamPersonalData(1L)).thenReturn(Stream.of(
+                new PersonalDataOrderLineRow(10L, FECHA, EstadoPedido.ENVIADO, 20.0,
+                        100L, 5L, "SKU-5", "Cable XLR", Categoria.AUDIO, 2, 10.0)));
+
+        // ACT
+        PersonalDataExportJob job = service.requestExport(user, "admin@mediadaw.com");
+        PersonalDataExportJob done = awaitFinished(job.id(), "admin@mediadaw.com");
+
+        // ASSERT
+        assertEquals(PersonalDataExportJob.Estado.LISTA, done.estado());
+        assertEquals(1L, done.orders());
+        Path file = service.findArtifact(job.id(), "admin@mediadaw.com").orElseThrow();
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            JsonNode json = objectMapper.readTree(in);
+            assertEquals("ana@test.com", json.at("/perfil/email").asText());
+            assertEquals(1, json.get("pedidos").size());
+        }
+        assertTrue(service.findArtifact(job.id(), "ana@test.com").isEmpty());
+        assertTrue(service.findJobs("ana@test.com").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Pedir otra vez la misma exportación mientras se prepara devuelve el mismo trabajo")
+    void requestExport_Active_ReturnsSameJob() throws Exception {
+        // ARRANGE
+        CountDownLatch release = new CountDownLatch(1);
+        stubUserAndCart();
+        when(ventaRepository.streamPersonalData(1L)).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return Stream.empty();
+        });
+
+        // ACT
+        PersonalDataExportJob first = service.requestExport(user, "ana@test.com");
+        PersonalDataExportJob second = service.requestExport(user, "ana@test.com");
+        release.countDown();
+
+        // ASSERT
+        assertEquals(first.id(), second.id());
+        assertEquals(PersonalDataExportJob.Estado.LISTA, awaitFinished(first.id(), "ana@test.com").estado());
+        assertEquals(1, service.findJobs("ana@test.com").size());
+        verify(ventaRepository, times(1)).streamPersonalData(1L);
+    }
+
+    @Test
+    @DisplayName("Si la exportación falla el trabajo queda FALLIDA y no deja ficheros")
+    void requestExport_Failure_MarkedFailed() throws Exception {
+        // ARRANGE
+        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+
+        // ACT
+        PersonalDataExportJob job = service.requestExport(user, "ana@test.com");
+        PersonalDataExportJob done = awaitFinished(job.id(), "ana@test.com");
+
+        // ASSERT
+        assertEquals(PersonalDataExportJob.Estado.FALLIDA, done.estado());
+        try (Stream<Path> files = Files.list(storageDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    private void stubUserAndCart() {
+        Productos producto = Productos.builder()
+                .id(7L)
+                .nombre("Interfaz de audio")
+                .precio(199.0)
+                .stock(5)
+                .build();
+        Carrito carrito = Carrito.builder()
+                .id(1L)
+                .user(user)
+                .lineasCarrito(new ArrayList<>())
+                .build();
+        carrito.addLineaCarrito(LineaCarrito.builder().id(1L).productos(producto).cantidad(3).build());
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(carritoRepository.findByUserIdWithLineas(1L)).thenReturn(Optional.of(carrito));
+    }
+
+    private PersonalDataExportJob awaitFinished(String jobId, String requestedBy) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            Optional<PersonalDataExportJob> job = service.findJobs(requestedBy).stream()
+                    .filter(j -> j.id().equals(jobId))
+                    .findFirst();
+            if (job.isPresent() && !job.get().isActive()) {
+                return job.get();
+            }
+            Thread.sleep(10);
+        }
+        return fail("La exportación " + jobId + " no terminó a tiempo");
+    }
+}
@@ -6,16 +6,33 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import srangeldev.mediadaw.dto.AdminProductQuery;
+import srangeldev.mediadaw.dto.AdminProductRow;
+import srangeldev.mediadaw.dto.StockBand;
+import srangeldev.mediadaw.events.StockChangedEvent;
+import srangeldev.mediadaw.exceptions.DuplicateSkuException;
 import srangeldev.mediadaw.exceptions.ProductNotFoundException;
 import srangeldev.mediadaw.models.Categoria;
 import srangeldev.mediadaw.models.Productos;
 import srangeldev.mediadaw.repositories.ProductosRepository;
 
+import java.sql.SQLException;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -28,6 +45,9 @@ class ProductosServiceTest {
     @Mock
     private ProductosRepository productosRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private ProductosService productosService;
 
@@ -294,6 +314,32 @@ class ProductosServiceTest {
         verify(productosRepository, times(1)).save(newProduct);
     }
 
+    @Test
+    @DisplayName("createProduct traduce la violación de la restricción única del SKU a DuplicateSkuException")
+    void createProduct_DuplicateSku() {
+        // ARRANGE
+        Productos newProduct = Productos.builder()
+                .sku(" SUP-001 ")
+                .nombre("Nuevo Producto")
+                .precio(500.0)
+                .stock(20)
+                .category(Categoria.GAMING)
+                .build();
+        when(productosRepository.save(any(Productos.class))).thenReturn(newProduct);
+        doThrow(new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("Unique index or primary key violation", new SQLException(),
+                        "PUBLIC.UK_PRODUCTOS_SKU_INDEX_F")))
+                .when(productosRepository).flush();
+
+        // ACT
+        DuplicateSkuException e = assertThrows(DuplicateSkuException.class,
+                () -> productosService.createProduct(newProduct));
+
+        // ASSERT
+        assertEquals("SUP-001", e.getSku());
+        verifyNoInteractions(eventPublisher);
+    }
+
     @Test
     @DisplayName("updateProduct actualiza un producto existente correctamente")
     void updateProduct() {
@@ -451,6 +497,7 @@ class ProductosServiceTest {
 
         verify(productosRepository, times(1)).findById(productId);
         verify(productosRepository, times(1)).save(producto);
+        verify(eventPublisher, times(1)).publishEvent(new StockChangedEvent(Set.of(productId)));
     }
 
     @Test
@@ -467,6 +514,7 @@ class ProductosServiceTest {
                 () -> productosService.updateStock(productId, newStock));
         verify(productosRepository, times(1)).findById(productId);
         verify(productosRepository, never()).save(any());
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
@@ -509,6 +557,75 @@ class ProductosServiceTest {
         verify(productosRepository, times(1)).findLowStockProducts(threshold);
     }
 
+    @Test
+    @DisplayName("countProducts cuenta en la BD sin cargar los productos")
+    void countProducts() {
+        // ARRANGE
+        when(productosRepository.countByDeletedFalse()).thenReturn(42L);
+
+        // ACT
+        long result = productosService.countProducts();
+
+        // ASSERT
+        assertEquals(42L, result);
+        verify(productosRepository, never()).findByDeletedFalse();
+    }
+
+    @Test
+    @DisplayName("getAdminProductsPage traduce filtros, orden y página a la consulta paginada")
+    void getAdminProductsPage() {
+        // ARRANGE
+        AdminProductQuery query = new AdminProductQuery(Categoria.AUDIO, StockBand.BAJO, " AirPods ", false,
+                "categoria", "desc", 2, 25);
+        AdminProductRow row = new AdminProductRow(1L, "AirPods Pro", Categoria.AUDIO, 279.0, 4, false);
+        Pageable expected = PageRequest.of(2, 25,
+                Sort.by(Sort.Direction.DESC, "category").and(Sort.by(Sort.Direction.DESC, "id")));
+        when(productosRepository.findAdminPage(List.of(false), EnumSet.of(Categoria.AUDIO), 1, 10,
+                "%airpods%", expected)).thenReturn(new PageImpl<>(List.of(row), expected, 51));
+
+        // ACT
+        Page<AdminProductRow> result = productosService.getAdminProductsPage(query);
+
+        // ASSERT
+        assertAll(
+                () -> assertEquals(List.of(row), result.getContent()),
+                () -> assertEquals(3, result.getTotalPages())
+        );
+    }
+
+    @Test
+    @DisplayName("getAdminProductsPage busca el nombre tal cual, sin tratar % ni _ como comodines")
+    void getAdminProductsPage_EscapesWildcards() {
+        // ARRANGE
+        AdminProductQuery query = new AdminProductQuery(null, null, "Funda_100%", false, null, null, null, null);
+        when(productosRepository.findAdminPage(any(), any(), anyInt(), anyInt(), eq("%funda\\_100\\%%"), any()))
+                .thenReturn(Page.empty());
+
+        // ACT
+        Page<AdminProductRow> result = productosService.getAdminProductsPage(query);
+
+        // ASSERT
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    @DisplayName("getAdminProductsPage sin filtros abre todos los rangos y limita el tamaño de página")
+    void getAdminProductsPage_NoFilters() {
+        // ARRANGE
+        AdminProductQuery query = new AdminProductQuery(null, null, "", true, "descripcion", null, null, 10_000);
+        Pageable expected = PageRequest.of(0, ProductosService.MAX_PAGE_SIZE,
+                Sort.by(Sort.Direction.ASC, "id"));
+        when(productosRepository.findAdminPage(eq(List.of(false, true)), eq(EnumSet.allOf(Categoria.class)),
+                eq(0), eq(Integer.MAX_VALUE), eq("%"), eq(expected))).thenReturn(Page.empty(expected));
+
+        // ACT
+        Page<AdminProductRow> result = productosService.getAdminProductsPage(query);
+
+        // ASSERT
+        assertTrue(result.isEmpty());
+        verify(productosRepository, never()).findByDeletedFalse();
+    }
+
     @Test
     @DisplayName("checkStock devuelve true cuando hay stock suficiente")
     void checkStock() {
@@ -0,0 +1,135 @@
+package srangeldev.mediadaw.services;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import srangeldev.mediadaw.dto.SalesTotals;
+import srangeldev.mediadaw.events.PurchaseCreatedEvent;
+import srangeldev.mediadaw.events.PurchaseStatusChangedEvent;
+import srangeldev.mediadaw.models.EstadoPedido;
+import srangeldev.mediadaw.models.SalesCounter;
+import srangeldev.mediadaw.models.Venta;
+import srangeldev.mediadaw.repositories.SalesCounterRepository;
+import srangeldev.mediadaw.repositories.VentaRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para SalesCounterService.
+ */
+@ExtendWith(MockitoExtension.class)
+class SalesCounterServiceTest {
+
+    @Mock
+    private SalesCounterRepository salesCounterRepository;
+
+    @Mock
+    private VentaRepository ventaRepository;
+
+    @InjectMocks
+    private SalesCounterService salesCounterService;
+
+    @Test
+    @DisplayName("onPurchaseCreated suma el pedido al contador de su estado")
+    void onPurchaseCreated() {
+        // ARRANGE
+        Venta venta = Venta.builder().id(1L).estado(EstadoPedido.PENDIENTE).total(150.0).build();
+        when(salesCounterRepository.add(eq(EstadoPedido.PENDIENTE), anyInt(), eq(1L), eq(150.0))).thenReturn(1);
+
+        // ACT
+        salesCounterService.onPurchaseCreated(new PurchaseCreatedEvent(venta));
+
+        // ASSERT
+        verify(salesCounterRepository, times(1)).add(eq(EstadoPedido.PENDIENTE), anyInt(), eq(1L), eq(150.0));
+    }
+
+    @Test
+    @DisplayName("onPurchaseStatusChanged mueve pedidos e ingresos con un UPDATE por estado")
+    void onPurchaseStatusChanged() {
+        // ARRANGE
+        PurchaseStatusChangedEvent event = new PurchaseStatusChangedEvent(EstadoPedido.CANCELADO, List.of(
+                new PurchaseStatusChangedEvent.Change(1L, null, 100.0, EstadoPedido.PENDIENTE),
+                new PurchaseStatusChangedEvent.Change(2L, null, 50.0, EstadoPedido.PENDIENTE)));
+        when(salesCounterRepository.add(any(), anyInt(), anyLong(), anyDouble())).thenReturn(1);
+
+        // ACT
+        salesCounterService.onPurchaseStatusChanged(event);
+
+        // ASSERT
+        verify(salesCounterRepository, times(1)).add(eq(EstadoPedido.PENDIENTE), anyInt(), eq(-2L), eq(-150.0));
+        verify(salesCounterRepository, times(1)).add(eq(EstadoPedido.CANCELADO), anyInt(), eq(2L), eq(150.0));
+        verifyNoMoreInteractions(salesCounterRepository);
+    }
+
+    @Test
+    @DisplayName("getTotalRevenue suma todos los estados salvo CANCELADO")
+    void getTotalRevenue() {
+        // ARRANGE
+        when(salesCounterRepository.sumByEstado()).thenReturn(List.of(
+                new SalesTotals(EstadoPedido.PENDIENTE, 2L, 100.0),
+                new SalesTotals(EstadoPedido.ENTREGADO, 3L, 400.0),
+                new SalesTotals(EstadoPedido.CANCELADO, 1L, 999.0)));
+
+        // ACT
+        double result = salesCounterService.getTotalRevenue();
+
+        // ASSERT
+        assertEquals(500.0, result);
+        verifyNoInteractions(ventaRepository);
+    }
+
+    @Test
+    @DisplayName("countByStatus devuelve 0 para estados sin contadores")
+    void countByStatus_NoCounters() {
+        // ARRANGE
+        when(salesCounterRepository.sumByEstado()).thenReturn(List.of());
+
+        // ACT & ASSERT
+        assertEquals(0L, salesCounterService.countByStatus(EstadoPedido.ENVIADO));
+    }
+
+    @Test
+    @DisplayName("reconcile corrige los contadores con el agregado real y crea los slots que faltan")
+    @SuppressWarnings("unchecked")
+    void reconcile() {
+        // ARRANGE
+        SalesCounter drifted = SalesCounter.builder().id(1L).estado(EstadoPedido.PENDIENTE).slot(3)
+                .orders(7).revenue(70.0).build();
+        when(salesCounterRepository.findAllForUpdate()).thenReturn(List.of(drifted));
+        when(ventaRepository.sumTotalsByEstado()).thenReturn(List.of(
+                new SalesTotals(EstadoPedido.PENDIENTE, 5L, 50.0)));
+
+        // ACT
+        salesCounterService.reconcile();
+
+        // ASSERT
+        ArgumentCaptor<List<SalesCounter>> captor = ArgumentCaptor.forClass(List.class);
+        verify(salesCounterRepository).saveAll(captor.capture());
+        List<SalesCounter> saved = new ArrayList<>(captor.getValue());
+
+        assertEquals(EstadoPedido.values().length * SalesCounterService.SLOTS, saved.size());
+        SalesCounter pendienteSlot0 = saved.stream()
+                .filter(c -> c.getEstado() == EstadoPedido.PENDIENTE && c.getSlot() == 0)
+                .findFirst().orElseThrow();
+        assertAll(
+                () -> assertEquals(5L, pendienteSlot0.getOrders()),
+                () -> assertEquals(50.0, pendienteSlot0.getRevenue()),
+                () -> assertEquals(0L, drifted.getOrders()),
+                () -> assertEquals(0.0, drifted.getRevenue()),
+                () -> assertEquals(0L, saved.stream().filter(c -> c.getEstado() != EstadoPedido.PENDIENTE)
+                        .mapToLong(SalesCounter::getOrders).sum())
+        );
+    }
+}
@@ -0,0 +1,168 @@
+package srangeldev.mediadaw.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import srangeldev.mediadaw.dto.CategoryTotals;
+import srangeldev.mediadaw.dto.DailySales;
+import srangeldev.mediadaw.dto.OrderCategoryTotals;
+import srangeldev.mediadaw.events.PurchaseCreatedEvent;
+import srangeldev.mediadaw.events.PurchaseStatusChangedEvent;
+import srangeldev.mediadaw.models.*;
+import srangeldev.mediadaw.repositories.SalesDailyRollupRepository;
+import srangeldev.mediadaw.repositories.VentaRepository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para SalesRollupService.
+ * El gestor de transacciones es un mock: solo se comprueba qué filas del agregado se tocan.
+ */
+@ExtendWith(MockitoExtension.class)
+class SalesRollupServiceTest {
+
+    private static final LocalDateTime FECHA = LocalDateTime.of(2025, 3, 10, 18, 30);
+    private static final LocalDate DIA = FECHA.toLocalDate();
+
+    @Mock
+    private SalesDailyRollupRepository rollupRepository;
+
+    @Mock
+    private VentaRepository ventaRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SalesRollupService salesRollupService;
+
+    @BeforeEach
+    void setUp() {
+        salesRollupService = new SalesRollupService(rollupRepository, ventaRepository, transactionManager);
+    }
+
+    @Test
+    @DisplayName("onPurchaseCreated suma el pedido a una fila por categoría del día de la compra")
+    void onPurchaseCreated() {
+        // ARRANGE
+        Venta venta = Venta.builder().id(1L).fechaCompra(FECHA).estado(EstadoPedido.PENDIENTE).total(0.0).build();
+        venta.addOrderLine(linea(Categoria.AUDIO, 2, 50.0));
+        venta.addOrderLine(linea(Categoria.AUDIO, 1, 20.0));
+        venta.addOrderLine(linea(Categoria.GAMING, 1, 500.0));
+        when(rollupRepository.add(any(), any(), any(), anyLong(), anyLong(), anyDouble())).thenReturn(1);
+
+        // ACT
+        salesRollupService.onPurchaseCreated(new PurchaseCreatedEvent(venta));
+
+        // ASSERT
+        verify(rollupRepository).add(DIA, Categoria.AUDIO, EstadoPedido.PENDIENTE, 1, 3, 120.0);
+        verify(rollupRepository).add(DIA, Categoria.GAMING, EstadoPedido.PENDIENTE, 1, 1, 500.0);
+        verifyNoMoreInteractions(rollupRepository);
+    }
+
+    @Test
+    @DisplayName("onPurchaseStatusChanged mueve los pedidos de fila agrupando por día, categoría y estado")
+    void onPurchaseStatusChanged() {
+        // ARRANGE
+        PurchaseStatusChangedEvent event = new PurchaseStatusChangedEvent(EstadoPedido.ENVIADO, List.of(
+                new PurchaseStatusChangedEvent.Change(1L, FECHA, 100.0, EstadoPedido.PENDIENTE),
+                new PurchaseStatusChangedEvent.Change(2L, FECHA.plusHours(1), 60.0, EstadoPedido.PENDIENTE)));
+        when(ventaRepository.sumLinesByVentaAndCategoria(Set.of(1L, 2L))).thenReturn(List.of(
+                new OrderCategoryTotals(1L, Categoria.AUDIO, 2L, 100.0),
+                new OrderCategoryTotals(2L, Categoria.AUDIO, 1L, 60.0)));
+        when(rollupRepository.add(any(), any(), any(), anyLong(), anyLong(), anyDouble())).thenReturn(1);
+
+        // ACT
+        salesRollupService.onPurchaseStatusChanged(event);
+
+        // ASSERT
+        verify(rollupRepository).add(DIA, Categoria.AUDIO, EstadoPedido.PENDIENTE, -2, -3, -160.0);
+        verify(rollupRepository).add(DIA, Categoria.AUDIO, EstadoPedido.ENVIADO, 2, 3, 160.0);
+        verifyNoMoreInteractions(rollupRepository);
+    }
+
+    @Test
+    @DisplayName("getDailySales devuelve una entrada por día, también los días sin ventas")
+    void getDailySales_FillsGaps() {
+        // ARRANGE
+        LocalDate today = LocalDate.now();
+        when(rollupRepository.sumByDay(today.minusDays(6), today, EstadoPedido.CANCELADO))
+                .thenReturn(List.of(new DailySales(today.minusDays(2), 4L, 80.0)));
+
+        // ACT
+        List<DailySales> result = salesRollupService.getDailySales(7);
+
+        // ASSERT
+        assertAll(
+                () -> assertEquals(7, result.size()),
+                () -> assertEquals(today.minusDays(6), result.getFirst().day()),
+                () -> assertEquals(today, result.getLast().day()),
+                () -> assertEquals(80.0, result.get(4).revenue()),
+                () -> assertEquals(0.0, result.get(5).revenue())
+        );
+    }
+
+    @Test
+    @DisplayName("getDailySales no lee más de un año")
+    void getDailySales_ClampsDays() {
+        // ARRANGE
+        LocalDate today = LocalDate.now();
+        when(rollupRepository.sumByDay(today.minusDays(SalesRollupService.MAX_DAYS - 1L), today, EstadoPedido.CANCELADO))
+                .thenReturn(List.of());
+
+        // ACT
+        List<DailySales> result = salesRollupService.getDailySales(10_000);
+
+        // ASSERT
+        assertEquals(SalesRollupService.MAX_DAYS, result.size());
+    }
+
+    @Test
+    @DisplayName("rebuildDay pone a cero las filas del día y vuelca el agregado real")
+    void rebuildDay() {
+        // ARRANGE
+        List<SalesDailyRollup> rows = new ArrayList<>();
+        for (Categoria categoria : Categoria.values()) {
+            for (EstadoPedido estado : EstadoPedido.values()) {
+                rows.add(SalesDailyRollup.builder().day(DIA).categoria(categoria).estado(estado)
+                        .orders(9).units(9).revenue(9.0).build());
+            }
+        }
+        when(rollupRepository.findByDay(DIA)).thenReturn(rows);
+        when(rollupRepository.findByDayForUpdate(DIA)).thenReturn(rows);
+        when(ventaRepository.sumLinesByCategoriaAndEstado(DIA.atStartOfDay(), DIA.plusDays(1).atStartOfDay()))
+                .thenReturn(List.of(new CategoryTotals(Categoria.LAPTOPS, EstadoPedido.ENTREGADO, 2L, 3L, 3000.0)));
+
+        // ACT
+        salesRollupService.rebuildDay(DIA);
+
+        // ASSERT
+        SalesDailyRollup laptops = rows.stream()
+                .filter(r -> r.getCategoria() == Categoria.LAPTOPS && r.getEstado() == EstadoPedido.ENTREGADO)
+                .findFirst().orElseThrow();
+        assertAll(
+                () -> assertEquals(2, laptops.getOrders()),
+                () -> assertEquals(3, laptops.getUnits()),
+                () -> assertEquals(3000.0, laptops.getRevenue()),
+                () -> assertEquals(2, rows.stream().mapToLong(SalesDailyRollup::getOrders).sum())
+        );
+        verify(rollupRepository).saveAll(List.of());
+    }
+
+    private static LineaVenta linea(Categoria categoria, int cantidad, double precio) {
+        Productos producto = Productos.builder().nombre("Producto").category(categoria).precio(precio).build();
+        return LineaVenta.builder().productos(producto).cantidad(cantidad).precioVenta(precio).build();
+    }
+}
@@ -0,0 +1,140 @@
+package srangeldev.mediadaw.services;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import srangeldev.mediadaw.models.Categoria;
+import srangeldev.mediadaw.models.Productos;
+import srangeldev.mediadaw.repositories.ProductosRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Prueba de carga: muchas compras concurrentes del mismo producto.
+ * Compara el descuento fila a fila (un UPDATE condicional por compra) con el coordinador de lotes.
+ * Se ejecuta con ./gradlew loadTest.
+ */
+@Tag("load")
+@SpringBootTest(properties = {
+        "mediadaw.checkout.batching.enabled=true",
+        "mediadaw.checkout.batching.window=2ms",
+        "mediadaw.checkout.batching.max-batch-size=128",
+        "mediadaw.checkout.batching.queue-capacity=10000",
+        "spring.jpa.show-sql=false",
+        "logging.level.srangeldev.mediadaw=INFO"
+})
+class StockBatchCoordinatorLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(StockBatchCoordinatorLoadTest.class);
+
+    private static final int REQUESTS = 5_000;
+    private static final int INITIAL_STOCK = 4_000;
+    private static final int WARMUP_REQUESTS = 500;
+    // Por debajo de la mejora habitual, para no fallar por el ruido de la máquina
+    private static final double MIN_SPEEDUP = 1.2;
+
+    @Autowired
+    private ProductosRepository productosRepository;
+
+    @Autowired
+    private StockBatchCoordinator coordinator;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("El coordinador no sobrevende y supera al descuento fila a fila en un producto caliente")
+    void hotSkuThroughput() throws Exception {
+        // Calentamiento de los dos caminos, para que la primera medida no cargue con el JIT y los pools
+        rowPurchases(createProduct("Calentamiento fila a fila"), WARMUP_REQUESTS, new AtomicInteger());
+        batchPurchases(createProduct("Calentamiento por lotes"), WARMUP_REQUESTS, new AtomicInteger());
+
+        // Fila a fila: cada compra descuenta en su propia transacción
+        Long rowProduct = createProduct("Fila a fila");
+        AtomicInteger rowGranted = new AtomicInteger();
+        long rowNanos = rowPurchases(rowProduct, REQUESTS, rowGranted);
+
+        // Coordinador: las compras se agrupan en lotes por producto
+        Long batchProduct = createProduct("Por lotes");
+        AtomicInteger batchGranted = new AtomicInteger();
+        long batchNanos = batchPurchases(batchProduct, REQUESTS, batchGranted);
+
+        double speedup = (double) rowNanos / batchNanos;
+        log.info("Fila a fila: {} peticiones en {} ms ({}/s)",
+                REQUESTS, rowNanos / 1_000_000, Math.round(REQUESTS / (rowNanos / 1e9)));
+        log.info("Por lotes: {} peticiones en {} ms ({}/s), {}x",
+                REQUESTS, batchNanos / 1_000_000, Math.round(REQUESTS / (batchNanos / 1e9)),
+                String.format("%.2f", speedup));
+
+        // Ninguno de los dos caminos puede vender más de lo que hay, y los lotes tienen que compensar
+        assertAll(
+                () -> assertEquals(INITIAL_STOCK, rowGranted.get()),
+                () -> assertEquals(INITIAL_STOCK, batchGranted.get()),
+                () -> assertEquals(0, productosRepository.findById(rowProduct).orElseThrow().getStock()),
+                () -> assertEquals(0, productosRepository.findById(batchProduct).orElseThrow().getStock()),
+                () -> assertTrue(speedup >= MIN_SPEEDUP,
+                        String.format("Los lotes solo van %.2fx más rápido que fila a fila (mínimo %.1fx)",
+                                speedup, MIN_SPEEDUP))
+        );
+    }
+
+    private long rowPurchases(Long productId, int requests, AtomicInteger granted) throws Exception {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        return run(requests, () -> {
+            Integer updated = tx.execute(status -> productosRepository.decrementStockIfAvailable(productId, 1));
+            if (updated != null && updated == 1) {
+                granted.incrementAndGet();
+            }
+        });
+    }
+
+    private long batchPurchases(Long productId, int requests, AtomicInteger granted) throws Exception {
+        return run(requests, () -> {
+            CompletableFuture<Void> reservation = coordinator.reserve(productId, 1);
+            try {
+                reservation.join();
+                granted.incrementAndGet();
+            } catch (RuntimeException e) {
+                // Sin stock: esperado para las últimas peticiones
+            }
+        });
+    }
+
+    private Long createProduct(String nombre) {
+        return productosRepository.save(Productos.builder()
+                .nombre(nombre)
+                .descripcion("Producto de prueba de carga")
+                .precio(10.0)
+                .stock(INITIAL_STOCK)
+                .category(Categoria.GAMING)
+                .build()).getId();
+    }
+
+    private long run(int requests, Runnable purchase) throws Exception {
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>(requests);
+            for (int i = 0; i < requests; i++) {
+                futures.add(executor.submit(purchase));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        return System.nanoTime() - start;
+    }
+}
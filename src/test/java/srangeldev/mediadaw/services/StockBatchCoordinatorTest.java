@@ -0,0 +1,140 @@
+package srangeldev.mediadaw.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import srangeldev.mediadaw.config.CheckoutProperties;
+import srangeldev.mediadaw.exceptions.CheckoutBusyException;
+import srangeldev.mediadaw.exceptions.InsufficientStockException;
+import srangeldev.mediadaw.models.Productos;
+import srangeldev.mediadaw.repositories.ProductosRepository;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para StockBatchCoordinator.
+ * El gestor de transacciones es un mock: solo se comprueba cómo se agrupan los UPDATE.
+ */
+@ExtendWith(MockitoExtension.class)
+class StockBatchCoordinatorTest {
+
+    @Mock
+    private ProductosRepository productosRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private StockBatchCoordinator coordinator;
+
+    @BeforeEach
+    void setUp() {
+        CheckoutProperties properties = new CheckoutProperties();
+        properties.getBatching().setEnabled(true);
+        properties.getBatching().setWindow(Duration.ofMillis(50));
+        properties.getBatching().setMaxBatchSize(10);
+        properties.getBatching().setQueueCapacity(3);
+        properties.getBatching().setTimeout(Duration.ofSeconds(2));
+
+        coordinator = new StockBatchCoordinator(productosRepository, transactionManager, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        coordinator.shutdown();
+    }
+
+    @Test
+    @DisplayName("reserve agrupa las peticiones de un mismo producto en un único UPDATE")
+    void reserve_GroupsRequestsIntoOneUpdate() {
+        // ARRANGE
+        when(productosRepository.decrementStockIfAvailable(1L, 6)).thenReturn(1);
+
+        // ACT
+        CompletableFuture<Void> r1 = coordinator.reserve(1L, 1);
+        CompletableFuture<Void> r2 = coordinator.reserve(1L, 2);
+        CompletableFuture<Void> r3 = coordinator.reserve(1L, 3);
+        CompletableFuture.allOf(r1, r2, r3).join();
+
+        // ASSERT
+        verify(productosRepository, times(1)).decrementStockIfAvailable(1L, 6);
+        verify(productosRepository, never()).findByIdForUpdate(anyLong());
+    }
+
+    @Test
+    @DisplayName("reserve reparte el stock restante en orden de llegada cuando no alcanza para todo el lote")
+    void reserve_PartialGrantInArrivalOrder() {
+        // ARRANGE
+        Productos producto = Productos.builder()
+                .id(1L)
+                .nombre("PS5")
+                .stock(3)
+                .deleted(false)
+                .build();
+
+        when(productosRepository.decrementStockIfAvailable(1L, 5)).thenReturn(0);
+        when(productosRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(producto));
+        when(productosRepository.decrementStockIfAvailable(1L, 3)).thenReturn(1);
+
+        // ACT
+        CompletableFuture<Void> r1 = coordinator.reserve(1L, 2);
+        CompletableFuture<Void> r2 = coordinator.reserve(1L, 2);
+        CompletableFuture<Void> r3 = coordinator.reserve(1L, 1);
+
+        // ASSERT
+        assertDoesNotThrow(r1::join);
+        CompletionException error = assertThrows(CompletionException.class, r2::join);
+        assertInstanceOf(InsufficientStockException.class, error.getCause());
+        assertDoesNotThrow(r3::join);
+        verify(productosRepository, times(1)).decrementStockIfAvailable(1L, 3);
+    }
+
+    @Test
+    @DisplayName("reserve rechaza de inmediato cuando la cola está llena")
+    void reserve_QueueFull() {
+        // ARRANGE
+        when(productosRepository.decrementStockIfAvailable(anyLong(), anyInt())).thenReturn(1);
+
+        // ACT
+        CompletableFuture<Void> r1 = coordinator.reserve(1L, 1);
+        CompletableFuture<Void> r2 = coordinator.reserve(2L, 1);
+        CompletableFuture<Void> r3 = coordinator.reserve(3L, 1);
+
+        // ASSERT
+        assertThrows(CheckoutBusyException.class, () -> coordinator.reserve(4L, 1));
+
+        CompletableFuture.allOf(r1, r2, r3).join();
+    }
+
+    @Test
+    @DisplayName("reserveAll devuelve el stock concedido si falla la reserva de otro producto")
+    void reserveAll_ReleasesGrantedOnFailure() {
+        // ARRANGE
+        when(productosRepository.decrementStockIfAvailable(1L, 2)).thenReturn(1);
+        when(productosRepository.decrementStockIfAvailable(2L, 1)).thenReturn(0);
+        when(productosRepository.findByIdForUpdate(2L)).thenReturn(Optional.empty());
+
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        quantities.put(1L, 2);
+        quantities.put(2L, 1);
+
+        // ACT & ASSERT
+        assertThrows(InsufficientStockException.class, () -> coordinator.reserveAll(quantities));
+        verify(productosRepository, times(1)).incrementStock(1L, 2);
+        verify(productosRepository, never()).incrementStock(2L, 1);
+    }
+}
@@ -6,16 +6,40 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import srangeldev.mediadaw.dto.AdminUserQuery;
+import srangeldev.mediadaw.dto.AdminUserRow;
+import srangeldev.mediadaw.events.UserAccountChangedEvent;
+import srangeldev.mediadaw.events.UserAccountsChangedEvent;
+import srangeldev.mediadaw.events.UserRegisteredEvent;
+import srangeldev.mediadaw.events.UserSessionsRevokedEvent;
+import srangeldev.mediadaw.exceptions.DuplicateEmailException;
 import srangeldev.mediadaw.exceptions.UserNotFoundException;
 import srangeldev.mediadaw.models.Role;
 import srangeldev.mediadaw.models.User;
 import srangeldev.mediadaw.repositories.UserRepository;
 
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -28,6 +52,12 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
     @InjectMocks
     private UserService userService;
 
@@ -52,8 +82,8 @@ class UserServiceTest {
                 .isDeleted(false)
                 .build();
 
-        when(userRepository.existsByEmail("nuevo@test.com")).thenReturn(false);
-        when(userRepository.save(any(User.class))).thenReturn(savedUser);
+        when(passwordEncoder.encode("password123")).thenReturn("{bcrypt}hash");
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(savedUser);
 
         // ACT
         User result = userService.registerUser(newUser);
@@ -67,12 +97,14 @@ class UserServiceTest {
                 () -> assertFalse(result.getIsDeleted())
         );
 
-        verify(userRepository, times(1)).existsByEmail("nuevo@test.com");
-        verify(userRepository, times(1)).save(newUser);
+        verify(userRepository, never()).existsByEmail(any()); // Un único viaje a la BD: decide la restricción única
+        verify(userRepository, times(1)).saveAndFlush(newUser);
+        verify(eventPublisher).publishEvent(new UserRegisteredEvent(1L, "nuevo@test.com"));
+        assertEquals("{bcrypt}hash", newUser.getPassword()); // Nunca se guarda la contraseña en claro
     }
 
     @Test
-    @DisplayName("registerUser lanza excepción cuando el email ya está registrado")
+    @DisplayName("registerUser traduce la violación de la restricción única del email a DuplicateEmailException")
     void registerUser_DuplicateEmail() {
         // ARRANGE
         User newUser = User.builder()
@@ -82,12 +114,32 @@ class UserServiceTest {
                 .password("password123")
                 .build();
 
-        when(userRepository.existsByEmail("existente@test.com")).thenReturn(true);
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(emailConstraintViolation());
 
         // ACT & ASSERT
-        assertThrows(RuntimeException.class, () -> userService.registerUser(newUser));
-        verify(userRepository, times(1)).existsByEmail("existente@test.com");
-        verify(userRepository, never()).save(any());
+        DuplicateEmailException exception = assertThrows(DuplicateEmailException.class,
+                () -> userService.registerUser(newUser));
+        assertEquals("existente@test.com", exception.getEmail());
+        verify(eventPublisher, never()).publishEvent(any(UserRegisteredEvent.class));
+    }
+
+    @Test
+    @DisplayName("registerUser no confunde otras violaciones de integridad con un email duplicado")
+    void registerUser_OtherConstraint_Rethrown() {
+        // ARRANGE
+        User newUser = User.builder()
+                .email("nuevo@test.com")
+                .nombre("Test")
+                .apellidos("Usuario")
+                .password("password123")
+                .build();
+        DataIntegrityViolationException notNull = new DataIntegrityViolationException("not-null",
+                new ConstraintViolationException("NULL not allowed", new SQLException(), "PUBLIC.USERS.NOMBRE"));
+
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(notNull);
+
+        // ACT & ASSERT
+        assertSame(notNull, assertThrows(DataIntegrityViolationException.class, () -> userService.registerUser(newUser)));
     }
 
     @Test
@@ -102,8 +154,7 @@ class UserServiceTest {
                 .role(null) // Sin rol especificado
                 .build();
 
-        when(userRepository.existsByEmail("nuevo@test.com")).thenReturn(false);
-        when(userRepository.save(any(User.class))).thenAnswer(invocation -> {
+        when(userRepository.saveAndFlush(any(User.class))).thenAnswer(invocation -> {
             User user = invocation.getArgument(0);
             user.setId(1L);
             return user;
@@ -114,7 +165,7 @@ class UserServiceTest {
 
         // ASSERT
         assertEquals(Role.USER, result.getRole());
-        verify(userRepository, times(1)).save(newUser);
+        verify(userRepository, times(1)).saveAndFlush(newUser);
     }
 
     @Test
@@ -341,6 +392,28 @@ class UserServiceTest {
 
         verify(userRepository, times(1)).findById(userId);
         verify(userRepository, times(1)).save(user);
+        verify(eventPublisher, times(1)).publishEvent(new UserAccountChangedEvent(userId, "test@test.com"));
+        verify(eventPublisher, times(1)).publishEvent(new UserSessionsRevokedEvent(List.of("test@test.com")));
+    }
+
+    @Test
+    @DisplayName("changeRole al mismo rol no cierra las sesiones del usuario")
+    void changeRole_SameRole_KeepsSessions() {
+        // ARRANGE
+        Long userId = 1L;
+        User user = User.builder()
+                .id(userId)
+                .email("test@test.com")
+                .role(Role.ADMIN)
+                .build();
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.save(user)).thenReturn(user);
+
+        // ACT
+        userService.changeRole(userId, Role.ADMIN);
+
+        // ASSERT
+        verify(eventPublisher, never()).publishEvent(any(UserSessionsRevokedEvent.class));
     }
 
     @Test
@@ -355,6 +428,7 @@ class UserServiceTest {
                 () -> userService.changeRole(userId, Role.ADMIN));
         verify(userRepository, times(1)).findById(userId);
         verify(userRepository, never()).save(any());
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
@@ -380,6 +454,83 @@ class UserServiceTest {
         assertTrue(user.getIsDeleted());
         verify(userRepository, times(1)).findById(userId);
         verify(userRepository, times(1)).save(user);
+        verify(eventPublisher, times(1)).publishEvent(new UserSessionsRevokedEvent(List.of("test@test.com")));
+    }
+
+    @Test
+    @DisplayName("deleteUsers da de baja con un único UPDATE y cierra las sesiones de todos a la vez")
+    void deleteUsers() {
+        // ARRANGE
+        List<Long> ids = List.of(1L, 2L, 3L, 2L);
+        Set<Long> distinct = new LinkedHashSet<>(List.of(1L, 2L, 3L));
+        when(userRepository.findEmailsToMarkDeleted(distinct, true, "admin@test.com"))
+                .thenReturn(List.of("spam1@test.com", "spam2@test.com"));
+
+        // ACT
+        int deleted = userService.deleteUsers(ids, "admin@test.com");
+
+        // ASSERT
+        assertEquals(2, deleted);
+        verify(userRepository, times(1)).updateDeletedBulk(distinct, true, "admin@test.com");
+        verify(userRepository, never()).save(any(User.class));
+        verify(eventPublisher, times(1)).publishEvent(
+                new UserAccountsChangedEvent(List.of("spam1@test.com", "spam2@test.com")));
+        verify(eventPublisher, times(1)).publishEvent(
+                new UserSessionsRevokedEvent(List.of("spam1@test.com", "spam2@test.com")));
+    }
+
+    @Test
+    @DisplayName("deleteUsers no actualiza nada si ninguno cambia")
+    void deleteUsers_NothingToChange() {
+        // ARRANGE
+        when(userRepository.findEmailsToMarkDeleted(any(), eq(true), eq("admin@test.com"))).thenReturn(List.of());
+
+        // ACT
+        int deleted = userService.deleteUsers(List.of(1L), "admin@test.com");
+
+        // ASSERT
+        assertEquals(0, deleted);
+        verify(userRepository, never()).updateDeletedBulk(any(), anyBoolean(), any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("deleteUsers rechaza más usuarios del máximo por operación")
+    void deleteUsers_TooMany() {
+        // ARRANGE
+        List<Long> ids = LongStream.rangeClosed(1, UserService.MAX_BULK_SIZE + 1).boxed().toList();
+
+        // ACT & ASSERT
+        assertThrows(IllegalArgumentException.class, () -> userService.deleteUsers(ids, "admin@test.com"));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("restoreUsers reactiva con un único UPDATE sin cerrar sesiones")
+    void restoreUsers() {
+        // ARRANGE
+        Set<Long> ids = new LinkedHashSet<>(List.of(4L, 5L));
+        when(userRepository.findEmailsToMarkDeleted(ids, false, null)).thenReturn(List.of("vuelve@test.com"));
+
+        // ACT
+        int restored = userService.restoreUsers(List.of(4L, 5L));
+
+        // ASSERT
+        assertEquals(1, restored);
+        verify(userRepository, times(1)).updateDeletedBulk(ids, false, null);
+        verify(eventPublisher, times(1)).publishEvent(new UserAccountsChangedEvent(List.of("vuelve@test.com")));
+        verify(eventPublisher, never()).publishEvent(any(UserSessionsRevokedEvent.class));
+    }
+
+    @Test
+    @DisplayName("restoreUsers sin IDs no consulta la BD")
+    void restoreUsers_Empty() {
+        // ACT
+        int restored = userService.restoreUsers(List.of());
+
+        // ASSERT
+        assertEquals(0, restored);
+        verifyNoInteractions(userRepository, eventPublisher);
     }
 
     @Test
@@ -474,7 +625,7 @@ class UserServiceTest {
                 .isDeleted(false)
                 .build();
 
-        when(userRepository.findAll()).thenReturn(List.of(user1, user2, user3));
+        when(userRepository.findByIsDeletedFalse()).thenReturn(List.of(user1, user3));
 
         // ACT
         List<User> result = userService.getActiveUsers();
@@ -486,7 +637,7 @@ class UserServiceTest {
                 () -> assertTrue(result.stream().noneMatch(User::getIsDeleted))
         );
 
-        verify(userRepository, times(1)).findAll();
+        verify(userRepository, times(1)).findByIsDeletedFalse();
     }
 
     @Test
@@ -551,68 +702,7 @@ class UserServiceTest {
     }
 
     @Test
-    @DisplayName("isAdmin devuelve true cuando el usuario es administrador")
-    void isAdmin() {
-        // ARRANGE
-        Long userId = 1L;
-        User user = User.builder()
-                .id(userId)
-                .email("admin@test.com")
-                .nombre("Admin")
-                .apellidos("Test")
-                .role(Role.ADMIN)
-                .build();
-
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-
-        // ACT
-        boolean result = userService.isAdmin(userId);
-
-        // ASSERT
-        assertTrue(result);
-        verify(userRepository, times(1)).findById(userId);
-    }
-
-    @Test
-    @DisplayName("isAdmin devuelve false cuando el usuario no es administrador")
-    void isAdmin_NotAdmin() {
-        // ARRANGE
-        Long userId = 1L;
-        User user = User.builder()
-                .id(userId)
-                .email("user@test.com")
-                .nombre("User")
-                .apellidos("Test")
-                .role(Role.USER)
-                .build();
-
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-
-        // ACT
-        boolean result = userService.isAdmin(userId);
-
-        // ASSERT
-        assertFalse(result);
-        verify(userRepository, times(1)).findById(userId);
-    }
-
-    @Test
-    @DisplayName("isAdmin devuelve false cuando el usuario no existe")
-    void isAdmin_NotFound() {
-        // ARRANGE
-        Long userId = 999L;
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
-
-        // ACT
-        boolean result = userService.isAdmin(userId);
-
-        // ASSERT
-        assertFalse(result);
-        verify(userRepository, times(1)).findById(userId);
-    }
-
-    @Test
-    @DisplayName("registerUser lanza RuntimeException con mensaje verificable cuando email duplicado")
+    @DisplayName("registerUser lanza excepción con mensaje verificable cuando email duplicado")
     void registerUser_DuplicateEmail_CheckMessage() {
         // ARRANGE
         User newUser = User.builder()
@@ -622,7 +712,7 @@ class UserServiceTest {
                 .password("password123")
                 .build();
 
-        when(userRepository.existsByEmail("duplicado@test.com")).thenReturn(true);
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(emailConstraintViolation());
 
         // ACT & ASSERT
         RuntimeException exception = assertThrows(RuntimeException.class,
@@ -631,8 +721,7 @@ class UserServiceTest {
         // Verificar que el mensaje contiene información útil sobre email duplicado
         assertTrue(exception.getMessage().contains("email") ||
                    exception.getMessage().contains("registrado"));
-        verify(userRepository, times(1)).existsByEmail("duplicado@test.com");
-        verify(userRepository, never()).save(any());
+        verify(userRepository, never()).existsByEmail(any());
     }
 
     @Test
@@ -779,7 +868,7 @@ class UserServiceTest {
                 .isDeleted(true)
                 .build();
 
-        when(userRepository.findAll()).thenReturn(List.of(user1, user2));
+        when(userRepository.findByIsDeletedFalse()).thenReturn(List.of());
 
         // ACT
         List<User> result = userService.getActiveUsers();
@@ -790,7 +879,7 @@ class UserServiceTest {
                 () -> assertTrue(result.isEmpty())
         );
 
-        verify(userRepository, times(1)).findAll();
+        verify(userRepository, times(1)).findByIsDeletedFalse();
     }
 
     @Test
@@ -813,7 +902,7 @@ class UserServiceTest {
                 .isDeleted(false)
                 .build();
 
-        when(userRepository.findAll()).thenReturn(List.of(user1, user2));
+        when(userRepository.findByIsDeletedFalse()).thenReturn(List.of(user1, user2));
 
         // ACT
         List<User> result = userService.getActiveUsers();
@@ -825,7 +914,7 @@ class UserServiceTest {
                 () -> assertTrue(result.stream().noneMatch(User::getIsDeleted))
         );
 
-        verify(userRepository, times(1)).findAll();
+        verify(userRepository, times(1)).findByIsDeletedFalse();
     }
 
     @Test
@@ -941,5 +1030,67 @@ class UserServiceTest {
         verify(userRepository, times(1)).findById(userId);
         verify(userRepository, times(1)).save(user);
     }
-}
 
+    @Test
+    @DisplayName("getAdminUsersPage traduce filtros, orden y página a la consulta paginada")
+    void getAdminUsersPage() {
+        // ARRANGE
+        AdminUserQuery query = new AdminUserQuery(" Ana@", " García ", Role.ADMIN, false, "email", "desc", 1, 10);
+        AdminUserRow row = new AdminUserRow(3L, "Ana", "García", "ana@mediadaw.com", Role.ADMIN, false,
+                LocalDateTime.of(2025, 1, 10, 9, 0));
+        Pageable expected = PageRequest.of(1, 10,
+                Sort.by(Sort.Direction.DESC, "email").and(Sort.by(Sort.Direction.DESC, "id")));
+        when(userRepository.findAdminPage(List.of(false), EnumSet.of(Role.ADMIN), "Ana@%", "%garcía%", expected))
+                .thenReturn(new PageImpl<>(List.of(row), expected, 11));
+
+        // ACT
+        Page<AdminUserRow> result = userService.getAdminUsersPage(query);
+
+        // ASSERT
+        assertAll(
+                () -> assertEquals(List.of(row), result.getContent()),
+                () -> assertEquals(2, result.getTotalPages())
+        );
+        verify(userRepository, never()).findAll();
+    }
+
+    @Test
+    @DisplayName("getAdminUsersPage busca el email tal cual se escribió, con los comodines de LIKE escapados")
+    void getAdminUsersPage_EscapesWildcards() {
+        // ARRANGE
+        AdminUserQuery query = new AdminUserQuery("Ana_Ruiz%", "50%_", null, false, null, null, null, null);
+        when(userRepository.findAdminPage(any(), any(), eq("Ana\\_Ruiz\\%%"), eq("%50\\%\\_%"), any()))
+                .thenReturn(Page.empty());
+
+        // ACT
+        Page<AdminUserRow> result = userService.getAdminUsersPage(query);
+
+        // ASSERT
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    @DisplayName("getAdminUsersPage sin filtros abre todos los rangos y limita el tamaño de página")
+    void getAdminUsersPage_NoFilters() {
+        // ARRANGE
+        AdminUserQuery query = new AdminUserQuery("", null, null, true, "password", null, null, 10_000);
+        Pageable expected = PageRequest.of(0, UserService.MAX_PAGE_SIZE, Sort.by(Sort.Direction.ASC, "id"));
+        when(userRepository.findAdminPage(eq(List.of(false, true)), eq(EnumSet.allOf(Role.class)),
+                eq("%"), eq("%"), eq(expected))).thenReturn(Page.empty(expected));
+
+        // ACT
+        Page<AdminUserRow> result = userService.getAdminUsersPage(query);
+
+        // ASSERT
+        assertTrue(result.isEmpty());
+    }
+
+    /**
+     * Lo que lanza el repositorio con H2 al insertar un email repetido
+     */
+    private static DataIntegrityViolationException emailConstraintViolation() {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("Unique index or primary key violation", new SQLException(),
+                        "PUBLIC.UK_USERS_EMAIL_INDEX_4"));
+    }
+}
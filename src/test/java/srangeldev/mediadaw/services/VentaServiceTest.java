@@ -6,6 +6,18 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import srangeldev.mediadaw.dto.AdminOrderPage;
+import srangeldev.mediadaw.dto.AdminOrderQuery;
+import srangeldev.mediadaw.dto.AdminOrderRow;
+import srangeldev.mediadaw.dto.BulkStatusResult;
+import srangeldev.mediadaw.dto.KeysetPage;
+import srangeldev.mediadaw.dto.SalesTotals;
+import srangeldev.mediadaw.events.PurchaseCreatedEvent;
+import srangeldev.mediadaw.events.PurchaseStatusChangedEvent;
+import srangeldev.mediadaw.events.StockChangedEvent;
 import srangeldev.mediadaw.exceptions.PurchaseNotFoundException;
 import srangeldev.mediadaw.models.*;
 import srangeldev.mediadaw.repositories.CarritoRepository;
@@ -13,12 +25,18 @@ import srangeldev.mediadaw.repositories.ProductosRepository;
 import srangeldev.mediadaw.repositories.UserRepository;
 import srangeldev.mediadaw.repositories.VentaRepository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.Mockito.*;
 
 /**
@@ -40,6 +58,12 @@ class VentaServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private SalesCounterService salesCounterService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private VentaService ventaService;
 
@@ -100,6 +124,7 @@ class VentaServiceTest {
         verify(ventaRepository, times(1)).save(any(Venta.class));
         verify(productosRepository, times(1)).save(producto);
         verify(carritoRepository, times(1)).delete(carrito);
+        verify(eventPublisher, times(1)).publishEvent(any(PurchaseCreatedEvent.class));
     }
 
     @Test
@@ -283,6 +308,8 @@ class VentaServiceTest {
 
         verify(ventaRepository, times(1)).findById(purchaseId);
         verify(ventaRepository, times(1)).save(venta);
+        verify(eventPublisher, times(1)).publishEvent(new PurchaseStatusChangedEvent(EstadoPedido.ENVIADO,
+                List.of(new PurchaseStatusChangedEvent.Change(purchaseId, null, 100.0, EstadoPedido.PENDIENTE))));
     }
 
     @Test
@@ -334,80 +361,29 @@ class VentaServiceTest {
     }
 
     @Test
-    @DisplayName("getAllPurchases devuelve todos los pedidos")
-    void getAllPurchases() {
-        // ARRANGE
-        Venta venta1 = Venta.builder()
-                .id(1L)
-                .estado(EstadoPedido.PENDIENTE)
-                .total(100.0)
-                .build();
-
-        Venta venta2 = Venta.builder()
-                .id(2L)
-                .estado(EstadoPedido.ENVIADO)
-                .total(200.0)
-                .build();
-
-        Venta venta3 = Venta.builder()
-                .id(3L)
-                .estado(EstadoPedido.ENTREGADO)
-                .total(300.0)
-                .build();
-
-        when(ventaRepository.findAll()).thenReturn(List.of(venta1, venta2, venta3));
-
-        // ACT
-        List<Venta> result = ventaService.getAllPurchases();
-
-        // ASSERT
-        assertAll(
-                () -> assertNotNull(result),
-                () -> assertEquals(3, result.size())
-        );
-
-        verify(ventaRepository, times(1)).findAll();
-    }
-
-    @Test
-    @DisplayName("cancelPurchase cancela el pedido y restaura el stock")
+    @DisplayName("cancelPurchase pasa el pedido a CANCELADO y restaura el stock con un único UPDATE")
     void cancelPurchase() {
         // ARRANGE
         Long purchaseId = 1L;
 
-        Productos producto = Productos.builder()
-                .id(1L)
-                .nombre("iPhone 15")
-                .precio(1000.0)
-                .stock(10)
-                .build();
-
-        LineaVenta lineaVenta = LineaVenta.builder()
-                .id(1L)
-                .productos(producto)
-                .cantidad(2)
-                .precioVenta(1000.0)
-                .build();
-
         Venta venta = Venta.builder()
                 .id(purchaseId)
                 .estado(EstadoPedido.PENDIENTE)
                 .total(2000.0)
-                .lines(new ArrayList<>(List.of(lineaVenta)))
                 .build();
 
-        lineaVenta.setVenta(venta);
-
-        when(ventaRepository.findById(purchaseId)).thenReturn(Optional.of(venta));
-        when(productosRepository.save(any(Productos.class))).thenReturn(producto);
+        when(ventaRepository.findAllByIdInForUpdate(anyCollection())).thenReturn(List.of(venta));
+        when(ventaRepository.updateEstadoBulk(List.of(purchaseId), Set.of(EstadoPedido.PENDIENTE), EstadoPedido.CANCELADO))
+                .thenReturn(1);
 
         // ACT
         ventaService.cancelPurchase(purchaseId);
 
         // ASSERT
-        verify(ventaRepository, times(1)).findById(purchaseId);
-        verify(productosRepository, times(1)).save(producto);
-        verify(ventaRepository, times(1)).delete(venta);
+        verify(ventaRepository, times(1)).findAllByIdInForUpdate(anyCollection());
+        verify(productosRepository, times(1)).restoreStockForOrders(List.of(purchaseId));
+        verify(productosRepository, never()).save(any());
+        verify(ventaRepository, never()).delete(any());
     }
 
     @Test
@@ -415,12 +391,13 @@ class VentaServiceTest {
     void cancelPurchase_NotFound() {
         // ARRANGE
         Long purchaseId = 999L;
-        when(ventaRepository.findById(purchaseId)).thenReturn(Optional.empty());
+        when(ventaRepository.findAllByIdInForUpdate(anyCollection())).thenReturn(List.of());
 
         // ACT & ASSERT
         assertThrows(PurchaseNotFoundException.class,
                 () -> ventaService.cancelPurchase(purchaseId));
-        verify(ventaRepository, times(1)).findById(purchaseId);
+        verify(ventaRepository, times(1)).findAllByIdInForUpdate(anyCollection());
+        verify(ventaRepository, never()).updateEstadoBulk(anyCollection(), anyCollection(), any());
         verify(ventaRepository, never()).delete(any());
     }
 
@@ -435,38 +412,20 @@ class VentaServiceTest {
                 .total(100.0)
                 .build();
 
-        when(ventaRepository.findById(purchaseId)).thenReturn(Optional.of(venta));
+        when(ventaRepository.findAllByIdInForUpdate(anyCollection())).thenReturn(List.of(venta));
 
         // ACT & ASSERT
         assertThrows(IllegalStateException.class,
                 () -> ventaService.cancelPurchase(purchaseId));
-        verify(ventaRepository, times(1)).findById(purchaseId);
-        verify(ventaRepository, never()).delete(any());
+        verify(ventaRepository, never()).updateEstadoBulk(anyCollection(), anyCollection(), any());
+        verify(productosRepository, never()).restoreStockForOrders(anyCollection());
     }
 
     @Test
-    @DisplayName("calculateTotalRevenue calcula el total de ingresos correctamente")
+    @DisplayName("calculateTotalRevenue lee los ingresos de los contadores sin cargar los pedidos")
     void calculateTotalRevenue() {
         // ARRANGE
-        Venta venta1 = Venta.builder()
-                .id(1L)
-                .estado(EstadoPedido.ENTREGADO)
-                .total(100.0)
-                .build();
-
-        Venta venta2 = Venta.builder()
-                .id(2L)
-                .estado(EstadoPedido.ENTREGADO)
-                .total(250.0)
-                .build();
-
-        Venta venta3 = Venta.builder()
-                .id(3L)
-                .estado(EstadoPedido.ENVIADO)
-                .total(150.0)
-                .build();
-
-        when(ventaRepository.findAll()).thenReturn(List.of(venta1, venta2, venta3));
+        when(salesCounterService.getTotalRevenue()).thenReturn(500.0);
 
         // ACT
         Double result = ventaService.calculateTotalRevenue();
@@ -477,21 +436,21 @@ class VentaServiceTest {
                 () -> assertEquals(500.0, result)
         );
 
-        verify(ventaRepository, times(1)).findAll();
+        verify(ventaRepository, never()).findAll();
     }
 
     @Test
     @DisplayName("calculateTotalRevenue devuelve 0.0 cuando no hay ventas")
     void calculateTotalRevenue_NoSales() {
         // ARRANGE
-        when(ventaRepository.findAll()).thenReturn(List.of());
+        when(salesCounterService.getTotalRevenue()).thenReturn(0.0);
 
         // ACT
         Double result = ventaService.calculateTotalRevenue();
 
         // ASSERT
         assertEquals(0.0, result);
-        verify(ventaRepository, times(1)).findAll();
+        verify(salesCounterService, times(1)).getTotalRevenue();
     }
 
     @Test
@@ -499,14 +458,14 @@ class VentaServiceTest {
     void countByStatus() {
         // ARRANGE
         EstadoPedido estado = EstadoPedido.PENDIENTE;
-        when(ventaRepository.countByEstado(estado)).thenReturn(5L);
+        when(salesCounterService.countByStatus(estado)).thenReturn(5L);
 
         // ACT
         long result = ventaService.countByStatus(estado);
 
         // ASSERT
         assertEquals(5L, result);
-        verify(ventaRepository, times(1)).countByEstado(estado);
+        verify(salesCounterService, times(1)).countByStatus(estado);
     }
 
     @Test
@@ -514,14 +473,30 @@ class VentaServiceTest {
     void countByStatus_NoOrders() {
         // ARRANGE
         EstadoPedido estado = EstadoPedido.ENTREGADO;
-        when(ventaRepository.countByEstado(estado)).thenReturn(0L);
+        when(salesCounterService.countByStatus(estado)).thenReturn(0L);
 
         // ACT
         long result = ventaService.countByStatus(estado);
 
         // ASSERT
         assertEquals(0L, result);
-        verify(ventaRepository, times(1)).countByEstado(estado);
+        verify(salesCounterService, times(1)).countByStatus(estado);
+    }
+
+    @Test
+    @DisplayName("getSalesTotalsByStatus lee los totales de todos los estados de una vez")
+    void getSalesTotalsByStatus() {
+        // ARRANGE
+        Map<EstadoPedido, SalesTotals> totals = Map.of(EstadoPedido.PENDIENTE,
+                new SalesTotals(EstadoPedido.PENDIENTE, 2L, 80.0));
+        when(salesCounterService.getTotalsByStatus()).thenReturn(totals);
+
+        // ACT
+        Map<EstadoPedido, SalesTotals> result = ventaService.getSalesTotalsByStatus();
+
+        // ASSERT
+        assertEquals(totals, result);
+        verify(salesCounterService, times(1)).getTotalsByStatus();
     }
 
     // ============================================================
@@ -676,16 +651,15 @@ class VentaServiceTest {
     void cancelPurchase_NotFound_CheckId() {
         // ARRANGE
         Long purchaseIdInexistente = 66666L;
-        when(ventaRepository.findById(purchaseIdInexistente)).thenReturn(Optional.empty());
+        when(ventaRepository.findAllByIdInForUpdate(anyCollection())).thenReturn(List.of());
 
         // ACT & ASSERT
         PurchaseNotFoundException exception = assertThrows(PurchaseNotFoundException.class,
                 () -> ventaService.cancelPurchase(purchaseIdInexistente));
 
-        assertNotNull(exception);
-        verify(ventaRepository, times(1)).findById(purchaseIdInexistente);
+        assertEquals(purchaseIdInexistente, exception.getPurchaseId());
         verify(ventaRepository, never()).delete(any());
-        verify(productosRepository, never()).save(any());
+        verify(productosRepository, never()).restoreStockForOrders(anyCollection());
     }
 
     @Test
@@ -699,7 +673,7 @@ class VentaServiceTest {
                 .total(500.0)
                 .build();
 
-        when(ventaRepository.findById(purchaseId)).thenReturn(Optional.of(venta));
+        when(ventaRepository.findAllByIdInForUpdate(anyCollection())).thenReturn(List.of(venta));
 
         // ACT & ASSERT
         IllegalStateException exception = assertThrows(IllegalStateException.class,
@@ -709,28 +683,10 @@ class VentaServiceTest {
         assertTrue(exception.getMessage().contains("pendiente") ||
                    exception.getMessage().contains("PENDIENTE") ||
                    exception.getMessage().contains("cancelar"));
-        verify(ventaRepository, times(1)).findById(purchaseId);
+        verify(ventaRepository, never()).updateEstadoBulk(anyCollection(), anyCollection(), any());
         verify(ventaRepository, never()).delete(any());
     }
 
-    @Test
-    @DisplayName("getAllPurchases devuelve lista vacía cuando no hay pedidos")
-    void getAllPurchases_Empty() {
-        // ARRANGE
-        when(ventaRepository.findAll()).thenReturn(List.of());
-
-        // ACT
-        List<Venta> result = ventaService.getAllPurchases();
-
-        // ASSERT
-        assertAll(
-                () -> assertNotNull(result),
-                () -> assertTrue(result.isEmpty())
-        );
-
-        verify(ventaRepository, times(1)).findAll();
-    }
-
     @Test
     @DisplayName("getPurchasesByStatus devuelve lista vacía cuando no hay pedidos con ese estado")
     void getPurchasesByStatus_Empty() {
@@ -807,59 +763,239 @@ class VentaServiceTest {
     }
 
     @Test
-    @DisplayName("cancelPurchase restaura stock correctamente con múltiples productos")
+    @DisplayName("cancelPurchase restaura el stock de varios productos sin cargar las líneas")
     void cancelPurchase_MultipleProducts() {
         // ARRANGE
         Long purchaseId = 1L;
 
-        Productos producto1 = Productos.builder()
-                .id(1L)
-                .nombre("iPhone 15")
-                .precio(1000.0)
-                .stock(10)
+        Venta venta = Venta.builder()
+                .id(purchaseId)
+                .estado(EstadoPedido.PENDIENTE)
+                .total(5600.0)
                 .build();
 
-        Productos producto2 = Productos.builder()
-                .id(2L)
-                .nombre("iPad Pro")
-                .precio(1200.0)
-                .stock(5)
-                .build();
+        when(ventaRepository.findAllByIdInForUpdate(anyCollection())).thenReturn(List.of(venta));
+        when(ventaRepository.updateEstadoBulk(anyCollection(), anyCollection(), any())).thenReturn(1);
+        when(productosRepository.restoreStockForOrders(anyCollection())).thenReturn(2);
 
-        LineaVenta linea1 = LineaVenta.builder()
-                .id(1L)
-                .productos(producto1)
-                .cantidad(2)
-                .precioVenta(1000.0)
-                .build();
+        // ACT
+        ventaService.cancelPurchase(purchaseId);
 
-        LineaVenta linea2 = LineaVenta.builder()
-                .id(2L)
-                .productos(producto2)
-                .cantidad(3)
-                .precioVenta(1200.0)
-                .build();
+        // ASSERT - un único UPDATE de stock, independientemente del número de líneas
+        verify(productosRepository, times(1)).restoreStockForOrders(List.of(purchaseId));
+        verify(productosRepository, never()).save(any(Productos.class));
+        verify(ventaRepository, never()).delete(any());
+    }
+
+    // ============================================================
+    // TESTS DE CAMBIO DE ESTADO MASIVO
+    // ============================================================
 
+    @Test
+    @DisplayName("updatePurchaseStatus lanza IllegalStateException ante una transición no permitida")
+    void updatePurchaseStatus_InvalidTransition() {
+        // ARRANGE
+        Long purchaseId = 1L;
         Venta venta = Venta.builder()
                 .id(purchaseId)
-                .estado(EstadoPedido.PENDIENTE)
-                .total(5600.0)
-                .lines(new ArrayList<>(List.of(linea1, linea2)))
+                .estado(EstadoPedido.ENTREGADO)
+                .total(100.0)
                 .build();
 
-        linea1.setVenta(venta);
-        linea2.setVenta(venta);
-
         when(ventaRepository.findById(purchaseId)).thenReturn(Optional.of(venta));
-        when(productosRepository.save(any(Productos.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // ACT & ASSERT
+        assertThrows(IllegalStateException.class,
+                () -> ventaService.updatePurchaseStatus(purchaseId, EstadoPedido.PENDIENTE));
+        verify(ventaRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("bulkUpdatePurchaseStatus devuelve el resultado de cada pedido y usa un único UPDATE")
+    void bulkUpdatePurchaseStatus() {
+        // ARRANGE
+        List<Long> ids = List.of(1L, 2L, 3L, 4L, 5L);
+
+        when(ventaRepository.findAllByIdInForUpdate(anyCollection())).thenReturn(List.of(
+                Venta.builder().id(1L).estado(EstadoPedido.PENDIENTE).total(10.0).build(),
+                Venta.builder().id(2L).estado(EstadoPedido.PENDIENTE).total(20.0).build(),
+                Venta.builder().id(3L).estado(EstadoPedido.ENVIADO).total(30.0).build(),
+                Venta.builder().id(4L).estado(EstadoPedido.ENTREGADO).total(40.0).build()
+        ));
+        when(ventaRepository.updateEstadoBulk(List.of(1L, 2L), Set.of(EstadoPedido.PENDIENTE), EstadoPedido.ENVIADO))
+                .thenReturn(2);
 
         // ACT
-        ventaService.cancelPurchase(purchaseId);
+        List<BulkStatusResult> results = ventaService.bulkUpdatePurchaseStatus(ids, EstadoPedido.ENVIADO);
 
         // ASSERT
-        verify(ventaRepository, times(1)).findById(purchaseId);
-        verify(productosRepository, times(2)).save(any(Productos.class)); // Dos productos
-        verify(ventaRepository, times(1)).delete(venta);
+        assertAll(
+                () -> assertEquals(5, results.size()),
+                () -> assertEquals(BulkStatusResult.Outcome.UPDATED, results.get(0).outcome()),
+                () -> assertEquals(BulkStatusResult.Outcome.UPDATED, results.get(1).outcome()),
+                () -> assertEquals(BulkStatusResult.Outcome.UNCHANGED, results.get(2).outcome()),
+                () -> assertEquals(BulkStatusResult.Outcome.INVALID_TRANSITION, results.get(3).outcome()),
+                () -> assertEquals(BulkStatusResult.Outcome.NOT_FOUND, results.get(4).outcome()),
+                () -> assertEquals(EstadoPedido.PENDIENTE, results.get(0).previousStatus())
+        );
+
+        verify(ventaRepository, times(1)).updateEstadoBulk(anyCollection(), anyCollection(), any());
+        verify(ventaRepository, never()).save(any());
+        verify(ventaRepository, never()).findById(any());
+        verify(productosRepository, never()).restoreStockForOrders(anyCollection());
+        verify(eventPublisher, times(1)).publishEvent(new PurchaseStatusChangedEvent(EstadoPedido.ENVIADO, List.of(
+                new PurchaseStatusChangedEvent.Change(1L, null, 10.0, EstadoPedido.PENDIENTE),
+                new PurchaseStatusChangedEvent.Change(2L, null, 20.0, EstadoPedido.PENDIENTE))));
+    }
+
+    @Test
+    @DisplayName("bulkUpdatePurchaseStatus a CANCELADO restaura el stock de todos los pedidos en un único UPDATE")
+    void bulkUpdatePurchaseStatus_Cancel() {
+        // ARRANGE
+        Venta venta1 = Venta.builder().id(1L).estado(EstadoPedido.PENDIENTE).total(100.0).build();
+        Venta venta2 = Venta.builder().id(2L).estado(EstadoPedido.PENDIENTE).total(200.0).build();
+        Venta venta3 = Venta.builder().id(3L).estado(EstadoPedido.ENVIADO).total(300.0).build();
+
+        when(ventaRepository.findAllByIdInForUpdate(anyCollection())).thenReturn(List.of(venta1, venta2, venta3));
+        when(ventaRepository.updateEstadoBulk(anyCollection(), anyCollection(), any())).thenReturn(2);
+        when(productosRepository.findProductIdsByVentaIds(List.of(1L, 2L))).thenReturn(List.of(7L, 8L));
+
+        // ACT
+        List<BulkStatusResult> results = ventaService.bulkUpdatePurchaseStatus(List.of(1L, 2L, 3L), EstadoPedido.CANCELADO);
+
+        // ASSERT
+        assertAll(
+                () -> assertEquals(BulkStatusResult.Outcome.UPDATED, results.get(0).outcome()),
+                () -> assertEquals(BulkStatusResult.Outcome.UPDATED, results.get(1).outcome()),
+                () -> assertEquals(BulkStatusResult.Outcome.INVALID_TRANSITION, results.get(2).outcome())
+        );
+        verify(productosRepository, times(1)).restoreStockForOrders(List.of(1L, 2L));
+        verify(eventPublisher, times(1)).publishEvent(new StockChangedEvent(Set.of(7L, 8L)));
+    }
+
+    @Test
+    @DisplayName("bulkUpdatePurchaseStatus falla si el UPDATE no afecta a todos los pedidos validados")
+    void bulkUpdatePurchaseStatus_UnexpectedUpdateCount() {
+        // ARRANGE
+        Venta venta = Venta.builder().id(1L).estado(EstadoPedido.PENDIENTE).total(100.0).build();
+
+        when(ventaRepository.findAllByIdInForUpdate(anyCollection())).thenReturn(List.of(venta));
+        when(ventaRepository.updateEstadoBulk(anyCollection(), anyCollection(), any())).thenReturn(0);
+
+        // ACT & ASSERT
+        assertThrows(IllegalStateException.class,
+                () -> ventaService.bulkUpdatePurchaseStatus(List.of(1L), EstadoPedido.CANCELADO));
+        verify(productosRepository, never()).restoreStockForOrders(anyCollection());
+    }
+
+    @Test
+    @DisplayName("bulkUpdatePurchaseStatus no lanza ningún UPDATE si no hay pedidos válidos")
+    void bulkUpdatePurchaseStatus_NothingToUpdate() {
+        // ARRANGE
+        when(ventaRepository.findAllByIdInForUpdate(anyCollection()))
+                .thenReturn(List.of(Venta.builder().id(1L).estado(EstadoPedido.ENTREGADO).total(10.0).build()));
+
+        // ACT
+        List<BulkStatusResult> results = ventaService.bulkUpdatePurchaseStatus(List.of(1L), EstadoPedido.ENVIADO);
+
+        // ASSERT
+        assertEquals(BulkStatusResult.Outcome.INVALID_TRANSITION, results.get(0).outcome());
+        verify(ventaRepository, never()).updateEstadoBulk(anyCollection(), anyCollection(), any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("bulkUpdatePurchaseStatus devuelve lista vacía sin consultar si no hay IDs")
+    void bulkUpdatePurchaseStatus_Empty() {
+        // ACT
+        List<BulkStatusResult> results = ventaService.bulkUpdatePurchaseStatus(List.of(), EstadoPedido.ENVIADO);
+
+        // ASSERT
+        assertTrue(results.isEmpty());
+        verifyNoInteractions(ventaRepository);
+    }
+
+    @Test
+    @DisplayName("getUserPurchasesPage devuelve la primera página y el cursor de la siguiente")
+    void getUserPurchasesPage_FirstPage() {
+        // ARRANGE
+        List<Venta> rows = List.of(
+                Venta.builder().id(30L).total(10.0).build(),
+                Venta.builder().id(20L).total(10.0).build(),
+                Venta.builder().id(10L).total(10.0).build());
+        when(ventaRepository.findByUserIdOrderByIdDesc(1L, Limit.of(3))).thenReturn(rows);
+
+        // ACT
+        KeysetPage<Venta> page = ventaService.getUserPurchasesPage(1L, null, 2);
+
+        // ASSERT
+        assertAll(
+                () -> assertEquals(2, page.items().size()),
+                () -> assertTrue(page.hasNext()),
+                () -> assertEquals(20L, page.nextCursor())
+        );
     }
-}
 
+    @Test
+    @DisplayName("getUserPurchasesPage continúa desde el cursor y no devuelve cursor en la última página")
+    void getUserPurchasesPage_LastPage() {
+        // ARRANGE
+        when(ventaRepository.findByUserIdAndIdLessThanOrderByIdDesc(1L, 20L, Limit.of(3)))
+                .thenReturn(List.of(Venta.builder().id(10L).total(10.0).build()));
+
+        // ACT
+        KeysetPage<Venta> page = ventaService.getUserPurchasesPage(1L, 20L, 2);
+
+        // ASSERT
+        assertEquals(1, page.items().size());
+        assertFalse(page.hasNext());
+        verify(ventaRepository, never()).findByUserIdOrderByIdDesc(any(), any());
+    }
+
+    @Test
+    @DisplayName("getAdminOrdersPage traduce estado, fechas y cursor a la consulta y devuelve el recuento")
+    void getAdminOrdersPage() {
+        // ARRANGE
+        AdminOrderQuery query = new AdminOrderQuery(EstadoPedido.ENVIADO,
+                LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 31), 500L, 2);
+        LocalDateTime from = LocalDateTime.of(2025, 3, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 4, 1, 0, 0);
+        List<AdminOrderRow> rows = List.of(
+                new AdminOrderRow(400L, from, 10.0, EstadoPedido.ENVIADO, "ana@mediadaw.com", "Ana", null),
+                new AdminOrderRow(300L, from, 20.0, EstadoPedido.ENVIADO, "luis@mediadaw.com", "Luis", "Pérez"),
+                new AdminOrderRow(200L, from, 30.0, EstadoPedido.ENVIADO, "ana@mediadaw.com", "Ana", null));
+        when(ventaRepository.findAdminPage(EnumSet.of(EstadoPedido.ENVIADO), from, to, 500L, PageRequest.of(0, 3)))
+                .thenReturn(rows);
+        when(ventaRepository.countAdminOrders(EnumSet.of(EstadoPedido.ENVIADO), from, to)).thenReturn(7L);
+
+        // ACT
+        AdminOrderPage result = ventaService.getAdminOrdersPage(query);
+
+        // ASSERT
+        assertAll(
+                () -> assertEquals(2, result.page().items().size()),
+                () -> assertEquals(300L, result.page().nextCursor()),
+                () -> assertEquals(7L, result.total()),
+                () -> assertEquals("Luis Pérez", result.page().items().get(1).customerName())
+        );
+    }
+
+    @Test
+    @DisplayName("getAdminOrdersPage sin filtros consulta todos los estados y un rango de fechas abierto")
+    void getAdminOrdersPage_NoFilters() {
+        // ARRANGE
+        AdminOrderQuery query = new AdminOrderQuery(null, null, null, null, null);
+        when(ventaRepository.findAdminPage(EnumSet.allOf(EstadoPedido.class), VentaService.OPEN_FROM,
+                VentaService.OPEN_TO, Long.MAX_VALUE, PageRequest.of(0, 21))).thenReturn(List.of());
+        when(ventaRepository.countAdminOrders(EnumSet.allOf(EstadoPedido.class), VentaService.OPEN_FROM,
+                VentaService.OPEN_TO)).thenReturn(0L);
+
+        // ACT
+        AdminOrderPage result = ventaService.getAdminOrdersPage(query);
+
+        // ASSERT
+        assertTrue(result.page().items().isEmpty());
+        assertFalse(result.page().hasNext());
+        verify(ventaRepository, never()).findAll();
+    }
+}